@@ -16,6 +16,7 @@ else
   java -Djarmode=tools -jar app.jar extract --destination application
 
   cd application
-  java -XX:+UseCompactObjectHeaders -XX:AOTCacheOutput=app.aot -Dspring.context.exit=onRefresh -jar app.jar
+  # Training run drives the /api endpoints then exits (AotTrainingWorkload), instead of -Dspring.context.exit=onRefresh
+  java -XX:+UseCompactObjectHeaders -XX:AOTCacheOutput=app.aot -Dapp.aot.training.enabled=true -jar app.jar
   java -XshowSettings:system -XX:MaxRAMPercentage=75 -XX:+UseCompactObjectHeaders -XX:AOTCache=app.aot -jar app.jar
 fi
\ No newline at end of file
@@ -2,12 +2,15 @@ package com.web.opentelemetry;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class SpringBootVirtualThreadsDemoApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(SpringBootVirtualThreadsDemoApplication.class, args);
+        SpringApplication application = new SpringApplication(SpringBootVirtualThreadsDemoApplication.class);
+        // Records context refresh steps and bean creation times for /actuator/startup and /actuator/startupprofile
+        application.setApplicationStartup(new BufferingApplicationStartup(20_000));
+        application.run(args);
     }
 }
-
@@ -0,0 +1,139 @@
+package com.web.opentelemetry.aot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
+
+/**
+ * AOT cache training run (JEP 483/515): instead of exiting on context refresh, serve a scripted
+ * workload through every /api endpoint so the filters, TraceHeaderRequestWrapper, RestClient,
+ * JDK HttpClient and Jackson paths are loaded and profiled, then shut down cleanly so
+ * -XX:AOTCacheOutput records the classes and method profiles of the hot paths.
+ * <p>
+ * Responses with status 400 and above count as failures: an error page trains the error path, not the hot
+ * one. If no request succeeds the run exits non-zero, so the image build stops instead of shipping a cache
+ * of a workload that never ran.
+ * <p>
+ * Enable with {@code -Dapp.aot.training.enabled=true}, see Dockerfile and run.sh.
+ */
+@Slf4j
+@Component
+@ConditionalOnBooleanProperty("app.aot.training.enabled")
+public class AotTrainingWorkload implements ApplicationListener<ApplicationReadyEvent> {
+    static final List<String> API_PATHS = List.of(
+            "/api/internal",
+            "/api/info",
+            "/api/info/async",
+            "/api/info/async-spring");
+    static final List<String> MANAGEMENT_PATHS = List.of(
+            "/actuator/health",
+            "/actuator/metrics/http.server.requests",
+            "/actuator/prometheus");
+
+    private final int iterations;
+    private final int concurrency;
+    private final String serverPort;
+    private final String managementPort;
+
+    public AotTrainingWorkload(@Value("${app.aot.training.iterations:200}") int iterations,
+                               @Value("${app.aot.training.concurrency:16}") int concurrency,
+                               @Value("${server.port:8080}") String serverPort,
+                               @Value("${management.server.port:${server.port:8080}}") String managementPort) {
+        this.iterations = iterations;
+        this.concurrency = concurrency;
+        this.serverPort = serverPort;
+        this.managementPort = managementPort;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        // Leave the main thread so startup completes normally; the training thread owns the exit.
+        Thread.ofPlatform().name("aot-training").start(() -> {
+            int exitCode = 0;
+            try {
+                train();
+            } catch (Exception e) {
+                log.error("AOT training workload failed", e);
+                exitCode = 1;
+            }
+            int code = exitCode;
+            System.exit(SpringApplication.exit(context, () -> code));
+        });
+    }
+
+    void train() {
+        long start = System.nanoTime();
+        AtomicInteger successes = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        try (HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                final int workerId = worker;
+                executor.execute(() -> {
+                    for (int i = workerId; i < iterations; i += concurrency) {
+                        for (String path : API_PATHS) {
+                            // Alternate caller-supplied and generated request ids so both filter branches are trained.
+                            count(send(client, "http://localhost:" + serverPort + path, i % 2 == 0 ? "aot-training-" + i : null),
+                                    successes, failures);
+                        }
+                        for (String path : MANAGEMENT_PATHS) {
+                            count(send(client, "http://localhost:" + managementPort + path, null), successes, failures);
+                        }
+                    }
+                });
+            }
+        }
+        log.info("AOT training workload finished: {} iterations over {} endpoints in {} ms ({} failures)",
+                iterations, API_PATHS.size() + MANAGEMENT_PATHS.size(),
+                Duration.ofNanos(System.nanoTime() - start).toMillis(), failures.get());
+        if (successes.get() == 0) {
+            throw new IllegalStateException("No AOT training request succeeded (" + failures.get() + " failures)");
+        }
+    }
+
+    private static void count(boolean success, AtomicInteger successes, AtomicInteger failures) {
+        (success ? successes : failures).incrementAndGet();
+    }
+
+    /**
+     * @return true for a response below 400
+     */
+    private static boolean send(HttpClient client, String url, String requestId) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json");
+        if (requestId != null) {
+            request.header(X_SSTECHMINDS_REQUEST_ID, requestId);
+        }
+        try {
+            HttpResponse<String> response = client.send(request.GET().build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() < 400;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.web.opentelemetry.component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects individual calls for up to {@code window} or {@code maxBatchSize} items, whichever comes first,
+ * and hands them to a {@link BatchHandler} as one batch. Each caller gets its own future, completed from
+ * its own {@link Outcome}, so one failed item does not fail the rest of the batch.
+ * <p>
+ * Batches are dispatched on virtual threads; a single timer thread only closes windows. A ReentrantLock
+ * (not synchronized) guards the open batch so virtual threads never pin while enqueueing.
+ * <p>
+ * Metrics, tagged with the executor name: {@code batch.size} (items per dispatched batch),
+ * {@code batch.queue.delay} (time an item waited for its batch to be dispatched) and
+ * {@code batch.items} by outcome.
+ */
+@Slf4j
+public class MicroBatchExecutor<T, R> implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface BatchHandler<T, R> {
+        /**
+         * @return one outcome per item, in the same order as {@code items}
+         */
+        List<Outcome<R>> handle(List<T> items) throws Exception;
+    }
+
+    public record Outcome<R>(R value, Throwable error) {
+        public static <R> Outcome<R> success(R value) {
+            return new Outcome<>(value, null);
+        }
+
+        public static <R> Outcome<R> failure(Throwable error) {
+            return new Outcome<>(null, error);
+        }
+    }
+
+    private record Pending<T, R>(T item, CompletableFuture<R> future, long enqueuedNanos) {
+    }
+
+    private static final class Batch<T, R> {
+        final List<Pending<T, R>> items;
+        ScheduledFuture<?> windowTimer;
+
+        Batch(int capacity) {
+            this.items = new ArrayList<>(capacity);
+        }
+    }
+
+    private final String name;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final BatchHandler<T, R> handler;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService timer;
+    private final ExecutorService dispatcher = Executors.newVirtualThreadPerTaskExecutor();
+    private final DistributionSummary batchSize;
+    private final Timer queueDelay;
+    private final Counter succeeded;
+    private final Counter failed;
+
+    private Batch<T, R> open;
+
+    public MicroBatchExecutor(String name, Duration window, int maxBatchSize,
+                              BatchHandler<T, R> handler, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.handler = handler;
+        this.open = new Batch<>(maxBatchSize);
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("micro-batch-" + name).factory());
+        this.batchSize = DistributionSummary.builder("batch.size")
+                .tag("name", name)
+                .description("Items per dispatched batch")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueDelay = Timer.builder("batch.queue.delay")
+                .tag("name", name)
+                .description("Time an item waited before its batch was dispatched")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.succeeded = Counter.builder("batch.items").tag("name", name).tag("outcome", "success").register(meterRegistry);
+        this.failed = Counter.builder("batch.items").tag("name", name).tag("outcome", "failure").register(meterRegistry);
+    }
+
+    public CompletableFuture<R> submit(T item) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        Batch<T, R> full = null;
+        lock.lock();
+        try {
+            Batch<T, R> batch = open;
+            batch.items.add(new Pending<>(item, future, System.nanoTime()));
+            if (batch.items.size() >= maxBatchSize) {
+                full = batch;
+                open = new Batch<>(maxBatchSize);
+                if (batch.windowTimer != null) {
+                    batch.windowTimer.cancel(false);
+                }
+            } else if (batch.items.size() == 1) {
+                batch.windowTimer = timer.schedule(() -> closeWindow(batch), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+        return future;
+    }
+
+    private void closeWindow(Batch<T, R> batch) {
+        lock.lock();
+        try {
+            if (open != batch) {
+                return; // already dispatched because it filled up
+            }
+            open = new Batch<>(maxBatchSize);
+        } finally {
+            lock.unlock();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Batch<T, R> batch) {
+        dispatcher.execute(() -> {
+            List<Pending<T, R>> pending = batch.items;
+            long now = System.nanoTime();
+            batchSize.record(pending.size());
+            List<T> items = new ArrayList<>(pending.size());
+            for (Pending<T, R> p : pending) {
+                queueDelay.record(now - p.enqueuedNanos(), TimeUnit.NANOSECONDS);
+                items.add(p.item());
+            }
+
+            List<Outcome<R>> outcomes;
+            try {
+                outcomes = handler.handle(items);
+            } catch (Throwable e) {
+                log.warn("Batch '{}' of {} items failed", name, items.size(), e);
+                pending.forEach(p -> p.future().completeExceptionally(e));
+                failed.increment(pending.size());
+                return;
+            }
+
+            for (int i = 0; i < pending.size(); i++) {
+                CompletableFuture<R> future = pending.get(i).future();
+                Outcome<R> outcome = outcomes != null && i < outcomes.size() ? outcomes.get(i) : null;
+                if (outcome == null) {
+                    future.completeExceptionally(new IllegalStateException("Batch '" + name + "' returned no result for item " + i));
+                    failed.increment();
+                } else if (outcome.error() != null) {
+                    future.completeExceptionally(outcome.error());
+                    failed.increment();
+                } else {
+                    future.complete(outcome.value());
+                    succeeded.increment();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        Batch<T, R> remaining;
+        lock.lock();
+        try {
+            remaining = open;
+            open = new Batch<>(maxBatchSize);
+        } finally {
+            lock.unlock();
+        }
+        if (!remaining.items.isEmpty()) {
+            dispatch(remaining);
+        }
+        timer.shutdownNow();
+        dispatcher.close();
+    }
+}
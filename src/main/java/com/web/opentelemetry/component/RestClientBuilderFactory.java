@@ -1,5 +1,15 @@
 package com.web.opentelemetry.component;
 
+import com.web.opentelemetry.component.buffer.BufferPool;
+import com.web.opentelemetry.component.buffer.PooledJdkClientHttpRequestFactory;
+import com.web.opentelemetry.component.buffer.PooledStringHttpMessageConverter;
+import com.web.opentelemetry.component.loadbalancer.LoadBalancer;
+import com.web.opentelemetry.component.loadbalancer.LoadBalancerRegistry;
+import com.web.opentelemetry.interceptor.cache.HttpCacheInterceptor;
+import com.web.opentelemetry.interceptor.ratelimit.OutboundRateLimiter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Component;
@@ -18,9 +28,21 @@ import java.util.function.Consumer;
 @Component
 public class RestClientBuilderFactory {
     private final ClientHttpRequestInterceptor traceHttpInterceptor;
+    private final HttpCacheInterceptor httpCacheInterceptor;
+    private final BufferPool bufferPool;
+    private final OutboundRateLimiter rateLimiter;
+    private final LoadBalancerRegistry loadBalancers;
 
-    public RestClientBuilderFactory(ClientHttpRequestInterceptor traceHttpInterceptor) {
+    public RestClientBuilderFactory(@Qualifier("traceHttpInterceptor") ClientHttpRequestInterceptor traceHttpInterceptor,
+                                    ObjectProvider<HttpCacheInterceptor> httpCacheInterceptor,
+                                    ObjectProvider<BufferPool> bufferPool,
+                                    ObjectProvider<OutboundRateLimiter> rateLimiter,
+                                    ObjectProvider<LoadBalancerRegistry> loadBalancers) {
         this.traceHttpInterceptor = traceHttpInterceptor;
+        this.httpCacheInterceptor = httpCacheInterceptor.getIfAvailable();
+        this.bufferPool = bufferPool.getIfAvailable();
+        this.rateLimiter = rateLimiter.getIfAvailable();
+        this.loadBalancers = loadBalancers.getIfAvailable();
     }
 
     /**
@@ -41,10 +63,24 @@ public class RestClientBuilderFactory {
     }
 
     /**
-     * Get a builder with default configuration applied
+     * Get a builder with default configuration applied.
+     * The HTTP cache (when enabled) runs first, so cache hits skip the remaining interceptors
+     * and do not take rate limit permits.
+     * With the buffer pool, String bodies are decoded from pooled buffers.
      */
     public RestClient.Builder builder() {
-        return RestClient.builder()
+        RestClient.Builder builder = RestClient.builder();
+        if (httpCacheInterceptor != null) {
+            builder.requestInterceptor(httpCacheInterceptor);
+        }
+        if (rateLimiter != null) {
+            builder.requestInterceptor(rateLimiter.forHosts());
+        }
+        if (bufferPool != null) {
+            builder.configureMessageConverters(converters ->
+                    converters.withStringConverter(new PooledStringHttpMessageConverter(bufferPool)));
+        }
+        return builder
                 .requestInterceptor(traceHttpInterceptor)
                 .defaultHeader("Content-Type", "application/json");
     }
@@ -83,19 +119,54 @@ public class RestClientBuilderFactory {
         return builder;
     }
 
+    /**
+     * Create a RestClient limited by the rate configured for {@code clientName}
+     * under app.http-client.rate-limit.clients, in addition to any per-host limit
+     */
+    public RestClient.Builder createWithRateLimit(String clientName) {
+        if (rateLimiter == null) {
+            throw new IllegalStateException("Rate limiting is disabled (app.http-client.rate-limit.enabled)");
+        }
+        return builder()
+                .requestInterceptor(rateLimiter.forClient(clientName));
+    }
+
+    /**
+     * Whether {@code serviceName} is configured under app.http-client.load-balancer.services
+     */
+    public boolean hasLoadBalancer(String serviceName) {
+        return loadBalancers != null && loadBalancers.get(serviceName).isPresent();
+    }
+
+    /**
+     * Create a RestClient whose requests are spread over the instances of {@code serviceName}
+     * (app.http-client.load-balancer.services). The base URL is {@code http://<serviceName><basePath>};
+     * interceptors see that logical URL, the instance is chosen when the request is sent.
+     */
+    public RestClient.Builder createWithLoadBalancer(String serviceName, String basePath) {
+        if (!hasLoadBalancer(serviceName)) {
+            throw new IllegalStateException("No load balancer for service '" + serviceName
+                    + "' (app.http-client.load-balancer.services)");
+        }
+        LoadBalancer loadBalancer = loadBalancers.get(serviceName).orElseThrow();
+        return builder()
+                .baseUrl("http://" + serviceName + basePath)
+                .requestFactory(loadBalancer.requestFactory());
+    }
+
     public RestClient.Builder createWithTimeout(Duration connectTimeout, Duration readTimeout, boolean virtualThreadsEnabled) {
-        JdkClientHttpRequestFactory customFactory = clientHttpRequestFactory(connectTimeout, readTimeout, virtualThreadsEnabled);
+        ClientHttpRequestFactory customFactory = clientHttpRequestFactory(connectTimeout, readTimeout, virtualThreadsEnabled);
         return builder().requestFactory(customFactory);
     }
 
     public RestClient.Builder createWithVirtualThreads() {
-        JdkClientHttpRequestFactory customFactory = clientHttpRequestFactory(null, null, true);
+        ClientHttpRequestFactory customFactory = clientHttpRequestFactory(null, null, true);
         return builder().requestFactory(customFactory);
     }
 
-    private JdkClientHttpRequestFactory clientHttpRequestFactory(Duration connectTimeout,
-                                                                 Duration readTimeout,
-                                                                 boolean virtualThreadsEnabled) {
+    private ClientHttpRequestFactory clientHttpRequestFactory(Duration connectTimeout,
+                                                              Duration readTimeout,
+                                                              boolean virtualThreadsEnabled) {
         // Create HttpClient with virtual thread executor
         HttpClient.Builder httpClientBuilder = HttpClient.newBuilder();
         if(virtualThreadsEnabled) {
@@ -105,6 +176,13 @@ public class RestClientBuilderFactory {
             httpClientBuilder.connectTimeout(connectTimeout);
         }
         HttpClient httpClient = httpClientBuilder.connectTimeout(Duration.ofMillis(10000)).build();
+        if (bufferPool != null) {
+            PooledJdkClientHttpRequestFactory pooledFactory = new PooledJdkClientHttpRequestFactory(httpClient, bufferPool);
+            if (readTimeout != null) {
+                pooledFactory.setReadTimeout(readTimeout);
+            }
+            return pooledFactory;
+        }
         JdkClientHttpRequestFactory customFactory = new JdkClientHttpRequestFactory(httpClient);
         if(readTimeout != null) {
             customFactory.setReadTimeout(readTimeout);
@@ -0,0 +1,206 @@
+package com.web.opentelemetry.component.buffer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Size-classed pool of {@code byte[]} buffers for outbound request and response bodies.
+ * <p>
+ * Size classes grow by a factor of four from {@code minBufferSize} up to {@code maxBufferSize}; larger
+ * requests get an unpooled array. Each class is split into stripes of CAS-managed slots and a caller picks
+ * its stripe from its thread id, so there is no lock and no ThreadLocal: with virtual threads a per-thread
+ * cache would hold one set of buffers per (short-lived) request thread instead of per core.
+ * When the home stripe is empty (or full on release) one neighbouring stripe is tried before the pool
+ * allocates (or drops the buffer for the GC).
+ * <p>
+ * With {@code leakDetection} every outstanding buffer remembers where it was acquired, and
+ * {@link #leaks()} lists those that were never released; tests enable it and assert that nothing leaked.
+ * Double release is always an error.
+ * <p>
+ * Metrics, tagged with the pool name: {@code buffer.pool.acquires} by result (hit, miss, unpooled),
+ * {@code buffer.pool.releases} by result (returned, dropped), and gauges {@code buffer.pool.outstanding}
+ * and {@code buffer.pool.retained} (bytes idle in the pool).
+ */
+public final class BufferPool {
+
+    private static final int PROBED_STRIPES = 2;
+
+    private final String name;
+    private final int[] classSizes;
+    private final AtomicReferenceArray<byte[]>[][] stripes;
+    private final int stripeMask;
+    private final int buffersPerStripe;
+    private final boolean leakDetection;
+    private final Set<PooledBuffer> outstandingBuffers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong outstanding = new AtomicLong();
+    private final AtomicLong retainedBytes = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter unpooled;
+    private final Counter returned;
+    private final Counter dropped;
+
+    @SuppressWarnings("unchecked")
+    public BufferPool(String name, int minBufferSize, int maxBufferSize, int stripeCount, int buffersPerStripe,
+                      boolean leakDetection, MeterRegistry meterRegistry) {
+        if (minBufferSize <= 0 || maxBufferSize < minBufferSize) {
+            throw new IllegalArgumentException("Invalid buffer sizes: min " + minBufferSize + ", max " + maxBufferSize);
+        }
+        this.name = name;
+        List<Integer> sizes = new ArrayList<>();
+        for (long size = minBufferSize; size <= maxBufferSize; size *= 4) {
+            sizes.add((int) size);
+        }
+        if (sizes.getLast() < maxBufferSize) {
+            sizes.add(maxBufferSize);
+        }
+        this.classSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+
+        int stripesPowerOfTwo = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new AtomicReferenceArray[classSizes.length][stripesPowerOfTwo];
+        for (AtomicReferenceArray<byte[]>[] sizeClass : stripes) {
+            for (int i = 0; i < sizeClass.length; i++) {
+                sizeClass[i] = new AtomicReferenceArray<>(buffersPerStripe);
+            }
+        }
+        this.stripeMask = stripesPowerOfTwo - 1;
+        this.buffersPerStripe = buffersPerStripe;
+        this.leakDetection = leakDetection;
+
+        this.hits = Counter.builder("buffer.pool.acquires").tag("pool", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("buffer.pool.acquires").tag("pool", name).tag("result", "miss").register(meterRegistry);
+        this.unpooled = Counter.builder("buffer.pool.acquires").tag("pool", name).tag("result", "unpooled").register(meterRegistry);
+        this.returned = Counter.builder("buffer.pool.releases").tag("pool", name).tag("result", "returned").register(meterRegistry);
+        this.dropped = Counter.builder("buffer.pool.releases").tag("pool", name).tag("result", "dropped").register(meterRegistry);
+        Gauge.builder("buffer.pool.outstanding", outstanding, AtomicLong::get)
+                .tag("pool", name).description("Buffers acquired and not yet released").register(meterRegistry);
+        Gauge.builder("buffer.pool.retained", retainedBytes, AtomicLong::get)
+                .tag("pool", name).baseUnit("bytes").description("Bytes held idle in the pool").register(meterRegistry);
+    }
+
+    /**
+     * A buffer of at least {@code minCapacity} bytes; its contents are undefined.
+     */
+    public PooledBuffer acquire(int minCapacity) {
+        int sizeClass = sizeClassFor(minCapacity);
+        PooledBuffer buffer;
+        if (sizeClass < 0) {
+            unpooled.increment();
+            buffer = new PooledBuffer(this, new byte[minCapacity], -1, leakDetection);
+        } else {
+            byte[] array = poll(sizeClass);
+            if (array != null) {
+                hits.increment();
+                retainedBytes.addAndGet(-array.length);
+            } else {
+                misses.increment();
+                array = new byte[classSizes[sizeClass]];
+            }
+            buffer = new PooledBuffer(this, array, sizeClass, leakDetection);
+        }
+        outstanding.incrementAndGet();
+        if (leakDetection) {
+            outstandingBuffers.add(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Called once per buffer by {@link PooledBuffer#release()} and {@link PooledBuffer#discard()}.
+     */
+    void recycle(PooledBuffer buffer, boolean reuse) {
+        outstanding.decrementAndGet();
+        if (leakDetection) {
+            outstandingBuffers.remove(buffer);
+        }
+        int sizeClass = buffer.sizeClass();
+        if (reuse && sizeClass >= 0 && offer(sizeClass, buffer.array())) {
+            returned.increment();
+            retainedBytes.addAndGet(buffer.array().length);
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private byte[] poll(int sizeClass) {
+        AtomicReferenceArray<byte[]>[] sizeClassStripes = stripes[sizeClass];
+        int home = homeStripe();
+        for (int probe = 0; probe < PROBED_STRIPES; probe++) {
+            AtomicReferenceArray<byte[]> stripe = sizeClassStripes[(home + probe) & stripeMask];
+            for (int slot = 0; slot < buffersPerStripe; slot++) {
+                byte[] array = stripe.getPlain(slot);
+                if (array != null && stripe.compareAndSet(slot, array, null)) {
+                    return array;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean offer(int sizeClass, byte[] array) {
+        AtomicReferenceArray<byte[]>[] sizeClassStripes = stripes[sizeClass];
+        int home = homeStripe();
+        for (int probe = 0; probe < PROBED_STRIPES; probe++) {
+            AtomicReferenceArray<byte[]> stripe = sizeClassStripes[(home + probe) & stripeMask];
+            for (int slot = 0; slot < buffersPerStripe; slot++) {
+                if (stripe.getPlain(slot) == null && stripe.compareAndSet(slot, null, array)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int homeStripe() {
+        long id = Thread.currentThread().threadId();
+        return Long.hashCode(id * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Index of the smallest size class that fits {@code capacity}, or -1 when it is larger than the largest class.
+     */
+    int sizeClassFor(int capacity) {
+        for (int i = 0; i < classSizes.length; i++) {
+            if (capacity <= classSizes[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int minBufferSize() {
+        return classSizes[0];
+    }
+
+    public int maxBufferSize() {
+        return classSizes[classSizes.length - 1];
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long outstanding() {
+        return outstanding.get();
+    }
+
+    public long retainedBytes() {
+        return retainedBytes.get();
+    }
+
+    /**
+     * Acquisition sites of buffers that were not released yet; always empty unless leak detection is on.
+     */
+    public List<Throwable> leaks() {
+        return outstandingBuffers.stream().map(PooledBuffer::acquiredAt).toList();
+    }
+}
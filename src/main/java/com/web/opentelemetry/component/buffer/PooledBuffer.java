@@ -0,0 +1,80 @@
+package com.web.opentelemetry.component.buffer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A {@code byte[]} on loan from a {@link BufferPool}. Release it exactly once; the array must not be used
+ * afterwards. {@link #discard()} gives up the loan without handing the array back, for buffers that may still
+ * be read by someone else (e.g. an aborted exchange).
+ */
+public final class PooledBuffer {
+
+    private static final VarHandle RELEASED;
+
+    static {
+        try {
+            RELEASED = MethodHandles.lookup().findVarHandle(PooledBuffer.class, "released", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final BufferPool pool;
+    private final byte[] array;
+    private final int sizeClass;
+    private final Throwable acquiredAt;
+    @SuppressWarnings("unused") // accessed through RELEASED
+    private volatile boolean released;
+
+    PooledBuffer(BufferPool pool, byte[] array, int sizeClass, boolean trackAcquisition) {
+        this.pool = pool;
+        this.array = array;
+        this.sizeClass = sizeClass;
+        this.acquiredAt = trackAcquisition
+                ? new Throwable("Buffer of " + array.length + " bytes acquired from pool '" + pool.name() + "' here")
+                : null;
+    }
+
+    public byte[] array() {
+        return array;
+    }
+
+    public int capacity() {
+        return array.length;
+    }
+
+    int sizeClass() {
+        return sizeClass;
+    }
+
+    Throwable acquiredAt() {
+        return acquiredAt;
+    }
+
+    /**
+     * Returns the array to the pool.
+     *
+     * @throws IllegalStateException if the buffer was already released or discarded
+     */
+    public void release() {
+        markReleased();
+        pool.recycle(this, true);
+    }
+
+    /**
+     * Ends the loan but leaves the array to the GC.
+     *
+     * @throws IllegalStateException if the buffer was already released or discarded
+     */
+    public void discard() {
+        markReleased();
+        pool.recycle(this, false);
+    }
+
+    private void markReleased() {
+        if (!RELEASED.compareAndSet(this, false, true)) {
+            throw new IllegalStateException("Buffer of " + array.length + " bytes released twice (pool '" + pool.name() + "')");
+        }
+    }
+}
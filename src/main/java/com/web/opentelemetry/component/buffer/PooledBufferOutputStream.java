@@ -0,0 +1,215 @@
+package com.web.opentelemetry.component.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Growable body buffer made of pooled segments. Segments start at the pool's smallest size class and double
+ * up to its largest, so a body is never copied to grow it. Closing the stream releases the segments; the
+ * content must not be used after that.
+ */
+public final class PooledBufferOutputStream extends OutputStream {
+
+    private final BufferPool pool;
+    private final int firstSegmentSize;
+    private final List<PooledBuffer> segments = new ArrayList<>(4);
+    private PooledBuffer current;
+    private int position;
+    private long size;
+    private boolean closed;
+
+    public PooledBufferOutputStream(BufferPool pool) {
+        this(pool, pool.minBufferSize());
+    }
+
+    /**
+     * @param expectedSize size of the first segment (within the pool's size classes), e.g. a known Content-Length
+     */
+    public PooledBufferOutputStream(BufferPool pool, long expectedSize) {
+        this.pool = pool;
+        this.firstSegmentSize = Math.clamp(expectedSize, pool.minBufferSize(), pool.maxBufferSize());
+    }
+
+    /**
+     * Reads {@code in} to its end straight into pooled segments.
+     *
+     * @param expectedSize expected content length, or -1 if unknown
+     */
+    public static PooledBufferOutputStream readFully(InputStream in, long expectedSize, BufferPool pool) throws IOException {
+        PooledBufferOutputStream out = new PooledBufferOutputStream(pool, expectedSize);
+        try {
+            out.writeFrom(in);
+            return out;
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(int b) {
+        ensureWritable();
+        current.array()[position++] = (byte) b;
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        Objects.checkFromIndexSize(off, len, b.length);
+        while (len > 0) {
+            ensureWritable();
+            int chunk = Math.min(len, current.capacity() - position);
+            System.arraycopy(b, off, current.array(), position, chunk);
+            position += chunk;
+            size += chunk;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+
+    /**
+     * Copies the rest of {@code in} into this buffer without an intermediate array.
+     */
+    public void writeFrom(InputStream in) throws IOException {
+        while (true) {
+            ensureWritable();
+            int read = in.read(current.array(), position, current.capacity() - position);
+            if (read < 0) {
+                dropEmptyTail();
+                return;
+            }
+            position += read;
+            size += read;
+        }
+    }
+
+    /**
+     * A segment acquired only to detect the end of the input holds nothing; hand it back so an exactly full
+     * first segment still counts as a single segment.
+     */
+    private void dropEmptyTail() {
+        if (position == 0 && segments.size() > 1) {
+            segments.removeLast().release();
+            current = segments.getLast();
+            position = current.capacity();
+        }
+    }
+
+    private void ensureWritable() {
+        if (closed) {
+            throw new IllegalStateException("Buffer already closed");
+        }
+        if (current == null || position == current.capacity()) {
+            int next = current == null ? firstSegmentSize : Math.min(current.capacity() * 2, pool.maxBufferSize());
+            current = pool.acquire(next);
+            segments.add(current);
+            position = 0;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * True when the whole content is in {@link #firstSegment()}, e.g. for parsers that take an array.
+     */
+    public boolean isSingleSegment() {
+        return segments.size() <= 1;
+    }
+
+    public byte[] firstSegment() {
+        return segments.isEmpty() ? new byte[0] : segments.getFirst().array();
+    }
+
+    /**
+     * Read-only views of the content, one per segment, without copying.
+     */
+    public List<ByteBuffer> byteBuffers() {
+        List<ByteBuffer> views = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            PooledBuffer segment = segments.get(i);
+            int length = i == segments.size() - 1 ? position : segment.capacity();
+            if (length > 0) {
+                views.add(ByteBuffer.wrap(segment.array(), 0, length).asReadOnlyBuffer());
+            }
+        }
+        return views;
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < segments.size(); i++) {
+            PooledBuffer segment = segments.get(i);
+            out.write(segment.array(), 0, i == segments.size() - 1 ? position : segment.capacity());
+        }
+    }
+
+    /**
+     * Stream over the content; valid until this buffer is closed.
+     */
+    public InputStream toInputStream() {
+        return new InputStream() {
+            private int segment;
+            private int offset;
+
+            private int remainingInSegment() {
+                while (segment < segments.size()) {
+                    int length = segment == segments.size() - 1 ? position : segments.get(segment).capacity();
+                    if (offset < length) {
+                        return length - offset;
+                    }
+                    segment++;
+                    offset = 0;
+                }
+                return -1;
+            }
+
+            @Override
+            public int read() {
+                return remainingInSegment() < 0 ? -1 : segments.get(segment).array()[offset++] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                Objects.checkFromIndexSize(off, len, b.length);
+                if (len == 0) {
+                    return 0;
+                }
+                int remaining = remainingInSegment();
+                if (remaining < 0) {
+                    return -1;
+                }
+                int chunk = Math.min(len, remaining);
+                System.arraycopy(segments.get(segment).array(), offset, b, off, chunk);
+                offset += chunk;
+                return chunk;
+            }
+        };
+    }
+
+    /**
+     * Gives up the segments without returning them to the pool, for content that may still be referenced
+     * elsewhere.
+     */
+    public void discard() {
+        if (!closed) {
+            closed = true;
+            segments.forEach(PooledBuffer::discard);
+            segments.clear();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            segments.forEach(PooledBuffer::release);
+            segments.clear();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.web.opentelemetry.component.buffer;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConversionException;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JavaType;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.exc.InvalidDefinitionException;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Map;
+
+/**
+ * JSON converter that reads a response body into pooled buffers and lets the {@link JsonMapper} parse the
+ * array directly: a body that fits one segment is parsed in place, without the parser's own input buffer
+ * and without an intermediate {@code byte[]} or {@code String}.
+ * <p>
+ * Bodies in a non-Unicode charset, or reads with hints (e.g. JSON views), go through the regular converter.
+ */
+public class PooledJacksonJsonHttpMessageConverter extends JacksonJsonHttpMessageConverter {
+
+    private final JsonMapper jsonMapper;
+    private final BufferPool bufferPool;
+
+    public PooledJacksonJsonHttpMessageConverter(JsonMapper jsonMapper, BufferPool bufferPool) {
+        super(jsonMapper);
+        this.jsonMapper = jsonMapper;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public Object read(ResolvableType type, HttpInputMessage inputMessage, Map<String, Object> hints) throws IOException {
+        MediaType contentType = inputMessage.getHeaders().getContentType();
+        Charset charset = contentType != null ? contentType.getCharset() : null;
+        if ((hints != null && !hints.isEmpty()) || (charset != null && !isUnicode(charset))) {
+            return super.read(type, inputMessage, hints);
+        }
+
+        JavaType javaType = jsonMapper.constructType(type.getType());
+        ObjectReader reader = jsonMapper.readerFor(javaType);
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        try (PooledBufferOutputStream body = PooledBufferOutputStream.readFully(inputMessage.getBody(), contentLength, bufferPool)) {
+            if (body.isSingleSegment()) {
+                return reader.readValue(body.firstSegment(), 0, (int) body.size());
+            }
+            return reader.readValue(body.toInputStream());
+        } catch (InvalidDefinitionException e) {
+            throw new HttpMessageConversionException("Type definition error: " + e.getType(), e);
+        } catch (JacksonException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        }
+    }
+
+    /**
+     * Jackson detects UTF-8, UTF-16 and UTF-32 from the bytes themselves.
+     */
+    private static boolean isUnicode(Charset charset) {
+        return charset.name().startsWith("UTF-");
+    }
+}
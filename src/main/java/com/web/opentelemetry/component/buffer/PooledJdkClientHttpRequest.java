@@ -0,0 +1,217 @@
+package com.web.opentelemetry.component.buffer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Request created by {@link PooledJdkClientHttpRequestFactory}.
+ */
+final class PooledJdkClientHttpRequest extends AbstractClientHttpRequest {
+
+    // Set by the HttpClient itself; it rejects them as request headers
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient httpClient;
+    private final URI uri;
+    private final HttpMethod method;
+    private final Duration readTimeout;
+    private final BufferPool bufferPool;
+    private PooledBufferOutputStream body;
+
+    PooledJdkClientHttpRequest(HttpClient httpClient, URI uri, HttpMethod method, Duration readTimeout,
+                               BufferPool bufferPool) {
+        this.httpClient = httpClient;
+        this.uri = uri;
+        this.method = method;
+        this.readTimeout = readTimeout;
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+        if (body == null) {
+            long contentLength = headers.getContentLength();
+            body = new PooledBufferOutputStream(bufferPool, contentLength);
+        }
+        return body;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+        if (readTimeout != null) {
+            builder.timeout(readTimeout);
+        }
+        headers.forEach((name, values) -> {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        SegmentPublisher publisher = segmentPublisher();
+        builder.method(method.name(), publisher != null
+                ? HttpRequest.BodyPublishers.fromPublisher(publisher, body.size())
+                : HttpRequest.BodyPublishers.noBody());
+
+        try {
+            HttpResponse<InputStream> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+            if (publisher != null) {
+                publisher.exchangeCompleted();
+            }
+            return new PooledJdkClientHttpResponse(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (publisher != null) {
+                publisher.exchangeFailed();
+            }
+            throw new InterruptedIOException("Request to " + uri + " interrupted");
+        } catch (IOException | RuntimeException e) {
+            if (publisher != null) {
+                publisher.exchangeFailed();
+            }
+            throw e;
+        }
+    }
+
+    private SegmentPublisher segmentPublisher() {
+        if (body == null) {
+            return null;
+        }
+        if (body.size() == 0) {
+            body.close();
+            return null;
+        }
+        return new SegmentPublisher(body);
+    }
+
+    /**
+     * Emits the body segments in order; every subscription (the client re-subscribes on redirects) gets its
+     * own views of the same buffers. The segments go back to the pool once send() has returned and every
+     * subscription has completed, failed or been cancelled, so the client never reads a recycled array; a
+     * failed exchange discards them instead, since the client may still hold views it has not written yet.
+     */
+    private static final class SegmentPublisher implements Flow.Publisher<ByteBuffer> {
+        private final PooledBufferOutputStream body;
+        private final List<ByteBuffer> segments;
+        // One for the exchange, plus one per subscription that has not ended yet
+        private final AtomicInteger holders = new AtomicInteger(1);
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        SegmentPublisher(PooledBufferOutputStream body) {
+            this.body = body;
+            this.segments = body.byteBuffers();
+        }
+
+        @Override
+        public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            holders.incrementAndGet();
+            subscriber.onSubscribe(new SegmentSubscription(subscriber, segments, this::unhold));
+        }
+
+        void exchangeCompleted() {
+            unhold();
+        }
+
+        void exchangeFailed() {
+            if (ended.compareAndSet(false, true)) {
+                body.discard();
+            }
+        }
+
+        private void unhold() {
+            if (holders.decrementAndGet() == 0 && ended.compareAndSet(false, true)) {
+                body.close();
+            }
+        }
+    }
+
+    private static final class SegmentSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final List<ByteBuffer> segments;
+        private final Runnable onEnd;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private volatile boolean done;
+        private int next;
+
+        SegmentSubscription(Flow.Subscriber<? super ByteBuffer> subscriber, List<ByteBuffer> segments, Runnable onEnd) {
+            this.subscriber = subscriber;
+            this.segments = segments;
+            this.onEnd = onEnd;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                done = true;
+                subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                end();
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+
+        /**
+         * Serialized emission: request() may be called from onNext, or concurrently from another thread.
+         */
+        private void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                while (!done && next < segments.size() && demand.get() > 0) {
+                    demand.decrementAndGet();
+                    subscriber.onNext(segments.get(next++).duplicate());
+                }
+                if (!done && next == segments.size()) {
+                    done = true;
+                    subscriber.onComplete();
+                    end();
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+            end();
+        }
+
+        private void end() {
+            if (ended.compareAndSet(false, true)) {
+                onEnd.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.web.opentelemetry.component.buffer;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Counterpart of {@link JdkClientHttpRequestFactory} on the same {@link HttpClient} whose request bodies are
+ * written into pooled buffers and handed to the client as {@code ByteBuffer} views, without copying them
+ * into a fresh array. The buffers go back to the pool once the exchange is done and the client has finished
+ * or cancelled every subscription to the body; after a failed exchange they are discarded instead, since the
+ * client may still hold them.
+ * <p>
+ * Interceptors still see the body as a {@code byte[]} (that is the ClientHttpRequestInterceptor contract);
+ * the pooled path saves the copies made after the last interceptor.
+ */
+public class PooledJdkClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final HttpClient httpClient;
+    private final BufferPool bufferPool;
+    private Duration readTimeout;
+
+    public PooledJdkClientHttpRequestFactory(HttpClient httpClient, BufferPool bufferPool) {
+        this.httpClient = httpClient;
+        this.bufferPool = bufferPool;
+    }
+
+    /**
+     * Time to wait for the response headers, see {@link java.net.http.HttpRequest.Builder#timeout(Duration)}.
+     */
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new PooledJdkClientHttpRequest(httpClient, uri, httpMethod, readTimeout, bufferPool);
+    }
+}
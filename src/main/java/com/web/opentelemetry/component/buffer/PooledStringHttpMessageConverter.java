@@ -0,0 +1,46 @@
+package com.web.opentelemetry.component.buffer;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * String converter that reads the body into pooled buffers, so decoding allocates only the String itself
+ * rather than the growing arrays of {@code InputStream.readAllBytes()}.
+ */
+public class PooledStringHttpMessageConverter extends StringHttpMessageConverter {
+
+    private final BufferPool bufferPool;
+
+    public PooledStringHttpMessageConverter(BufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
+    @Override
+    protected String readInternal(Class<? extends String> clazz, HttpInputMessage inputMessage) throws IOException {
+        Charset charset = charsetOf(inputMessage.getHeaders().getContentType());
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        try (PooledBufferOutputStream body = PooledBufferOutputStream.readFully(inputMessage.getBody(), contentLength, bufferPool)) {
+            if (body.isSingleSegment()) {
+                return new String(body.firstSegment(), 0, (int) body.size(), charset);
+            }
+            return StreamUtils.copyToString(body.toInputStream(), charset);
+        }
+    }
+
+    private Charset charsetOf(MediaType contentType) {
+        if (contentType != null && contentType.getCharset() != null) {
+            return contentType.getCharset();
+        }
+        if (contentType != null && (contentType.isCompatibleWith(MediaType.APPLICATION_JSON)
+                || contentType.getSubtype().endsWith("+json"))) {
+            return StandardCharsets.UTF_8;
+        }
+        return getDefaultCharset();
+    }
+}
@@ -0,0 +1,72 @@
+package com.web.opentelemetry.component.loadbalancer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.FastByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+
+/**
+ * Buffers the request, then on execute picks an instance and replays it through that instance's own request
+ * factory. The instance counts the request as in flight until the response is closed.
+ */
+class LoadBalancedClientHttpRequest extends AbstractClientHttpRequest {
+
+    private final LoadBalancer loadBalancer;
+    private final URI uri;
+    private final HttpMethod method;
+    private final FastByteArrayOutputStream body = new FastByteArrayOutputStream(1024);
+
+    LoadBalancedClientHttpRequest(LoadBalancer loadBalancer, URI uri, HttpMethod method) {
+        this.loadBalancer = loadBalancer;
+        this.uri = uri;
+        this.method = method;
+    }
+
+    @Override
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    @Override
+    public URI getURI() {
+        return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+        return body;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+        LoadBalancedInstance instance = loadBalancer.choose();
+        instance.started();
+        long start = System.nanoTime();
+        ClientHttpResponse response = null;
+        boolean success;
+        try {
+            ClientHttpRequest request = instance.requestFactory().createRequest(instance.resolve(uri), method);
+            request.getHeaders().putAll(headers);
+            if (body.size() > 0) {
+                body.writeTo(request.getBody());
+            }
+            response = request.execute();
+            success = !response.getStatusCode().is5xxServerError();
+        } catch (IOException | RuntimeException e) {
+            if (response != null) {
+                response.close();
+            }
+            instance.completed();
+            loadBalancer.record(instance, System.nanoTime() - start, false);
+            throw e;
+        }
+        loadBalancer.record(instance, System.nanoTime() - start, success);
+        return new LoadBalancedClientHttpResponse(response, instance);
+    }
+}
@@ -0,0 +1,55 @@
+package com.web.opentelemetry.component.loadbalancer;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ends the request's in-flight count on its instance when the response is closed, once.
+ */
+class LoadBalancedClientHttpResponse implements ClientHttpResponse {
+
+    private final ClientHttpResponse delegate;
+    private final LoadBalancedInstance instance;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    LoadBalancedClientHttpResponse(ClientHttpResponse delegate, LoadBalancedInstance instance) {
+        this.delegate = delegate;
+        this.instance = instance;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+        return delegate.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        return delegate.getBody();
+    }
+
+    @Override
+    public void close() {
+        try {
+            delegate.close();
+        } finally {
+            if (closed.compareAndSet(false, true)) {
+                instance.completed();
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.web.opentelemetry.component.loadbalancer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One backend of a {@link LoadBalancer}: its own HttpClient (so its own connection pool), the live in-flight
+ * count, a peak-sensitive EWMA of its response latency and its passive health state.
+ * <p>
+ * The latency average decays with time ({@code decay} is the time constant), and a sample above the average
+ * replaces it outright, so an instance that slows down loses traffic at once and wins it back gradually.
+ */
+public final class LoadBalancedInstance {
+
+    /**
+     * Cost of an instance without a latency sample, per request in flight: it gets one probe request, not a flood.
+     */
+    private static final double UNMEASURED_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private record Ewma(double nanos, long updatedNanos) {
+    }
+
+    private final String service;
+    private final URI uri;
+    private final String id;
+    private final HttpClient httpClient;
+    private final ClientHttpRequestFactory requestFactory;
+    private final double decayNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicReference<Ewma> latency = new AtomicReference<>(new Ewma(0, 0));
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder ejections = new LongAdder();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private final Timer succeeded;
+    private final Timer failed;
+    private final List<Meter> meters;
+
+    // Guarded by LoadBalancer's ejection lock for writes
+    private volatile boolean ejected;
+    private volatile long ejectedUntilNanos;
+    private int ejectionStreak;
+
+    LoadBalancedInstance(String service, URI uri, HttpClient httpClient, ClientHttpRequestFactory requestFactory,
+                         long decayNanos, MeterRegistry meterRegistry) {
+        this.service = service;
+        this.uri = uri;
+        this.id = uri.getHost() + ":" + port(uri);
+        this.httpClient = httpClient;
+        this.requestFactory = requestFactory;
+        this.decayNanos = Math.max(1, decayNanos);
+        this.succeeded = requests(meterRegistry, "success");
+        this.failed = requests(meterRegistry, "failure");
+        this.meters = List.of(succeeded, failed,
+                Gauge.builder("http.client.lb.in.flight", inFlight, AtomicInteger::get)
+                        .tags("service", service, "instance", id)
+                        .description("Requests sent to the instance and not yet completed")
+                        .register(meterRegistry),
+                TimeGauge.builder("http.client.lb.latency.ewma", this, TimeUnit.NANOSECONDS, LoadBalancedInstance::latencyNanos)
+                        .tags("service", service, "instance", id)
+                        .description("Peak-sensitive moving average of the instance's response latency")
+                        .register(meterRegistry),
+                Gauge.builder("http.client.lb.ejected", this, i -> i.ejected ? 1 : 0)
+                        .tags("service", service, "instance", id)
+                        .description("1 while the instance is ejected or on trial after an ejection")
+                        .register(meterRegistry),
+                FunctionCounter.builder("http.client.lb.ejections", ejections, LongAdder::sum)
+                        .tags("service", service, "instance", id)
+                        .description("Times the instance was ejected for consecutive failures")
+                        .register(meterRegistry));
+    }
+
+    private Timer requests(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("http.client.lb.requests")
+                .tags("service", service, "instance", id, "outcome", outcome)
+                .description("Requests per instance, timed to the response headers")
+                .register(meterRegistry);
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() >= 0) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    /**
+     * {@code http://service/api/x?y} on this instance: scheme, host and port replaced, the instance's own path
+     * (if any) prepended.
+     */
+    URI resolve(URI logical) {
+        StringBuilder target = new StringBuilder(uri.getScheme()).append("://").append(uri.getRawAuthority());
+        String basePath = uri.getRawPath();
+        if (basePath != null && !basePath.equals("/")) {
+            target.append(basePath.endsWith("/") ? basePath.substring(0, basePath.length() - 1) : basePath);
+        }
+        String path = logical.getRawPath();
+        target.append(path == null || path.isEmpty() ? "/" : path);
+        if (logical.getRawQuery() != null) {
+            target.append('?').append(logical.getRawQuery());
+        }
+        return URI.create(target.toString());
+    }
+
+    /**
+     * Expected cost of one more request: latency times the queue it would join.
+     */
+    double cost() {
+        double ewma = latency.get().nanos();
+        int queued = inFlight.get();
+        if (ewma <= 0) {
+            return queued * UNMEASURED_PENALTY_NANOS;
+        }
+        return ewma * (queued + 1);
+    }
+
+    void started() {
+        inFlight.incrementAndGet();
+    }
+
+    void completed() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * @return consecutive failures including this one, 0 after a success
+     */
+    int record(long latencyNanos, boolean success, long nowNanos) {
+        (success ? succeeded : failed).record(latencyNanos, TimeUnit.NANOSECONDS);
+        latency.updateAndGet(current -> {
+            if (current.nanos() <= 0 || latencyNanos > current.nanos()) {
+                return new Ewma(latencyNanos, nowNanos);
+            }
+            double weight = Math.exp(-(nowNanos - current.updatedNanos()) / decayNanos);
+            return new Ewma(current.nanos() * weight + latencyNanos * (1 - weight), nowNanos);
+        });
+        if (success) {
+            consecutiveFailures.set(0);
+            return 0;
+        }
+        return consecutiveFailures.incrementAndGet();
+    }
+
+    boolean isAvailable(long nowNanos) {
+        return !ejected || nowNanos - ejectedUntilNanos >= 0 && !trialInFlight.get();
+    }
+
+    /**
+     * Claims the single probe request of a trial; false if another request has it already.
+     */
+    boolean startTrial() {
+        return trialInFlight.compareAndSet(false, true);
+    }
+
+    /**
+     * Ejected, and the ejection has run out: the next result decides between re-admission and a longer ejection.
+     */
+    boolean onTrial(long nowNanos) {
+        return ejected && nowNanos - ejectedUntilNanos >= 0;
+    }
+
+    boolean isEjected(long nowNanos) {
+        return ejected && nowNanos - ejectedUntilNanos < 0;
+    }
+
+    void eject(long nowNanos, long baseNanos, long maxNanos) {
+        ejectionStreak++;
+        ejectedUntilNanos = nowNanos + Math.min(maxNanos, baseNanos * ejectionStreak);
+        ejected = true;
+        trialInFlight.set(false);
+        consecutiveFailures.set(0);
+        ejections.increment();
+    }
+
+    void readmit() {
+        ejected = false;
+        trialInFlight.set(false);
+        ejectionStreak = 0;
+    }
+
+    void close(MeterRegistry meterRegistry) {
+        meters.forEach(meterRegistry::remove);
+        // Requests in flight complete, the pooled connections are closed afterwards
+        httpClient.shutdown();
+    }
+
+    public URI uri() {
+        return uri;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public double latencyNanos() {
+        return latency.get().nanos();
+    }
+
+    public long requests() {
+        return succeeded.count() + failed.count();
+    }
+
+    public long failures() {
+        return failed.count();
+    }
+
+    public long ejections() {
+        return ejections.sum();
+    }
+
+    public boolean ejected() {
+        return ejected;
+    }
+
+    @Override
+    public String toString() {
+        return service + "@" + id;
+    }
+}
@@ -0,0 +1,290 @@
+package com.web.opentelemetry.component.loadbalancer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Client-side load balancer for one logical service. RestClients built on {@link #requestFactory()} call
+ * {@code http://<service>/...}; each request is sent to one instance, chosen when it executes (so a retry
+ * chooses again):
+ * <ul>
+ *     <li><b>Power of two choices</b>: two random available instances are compared and the one with the lower
+ *     expected cost, latency EWMA times (in-flight + 1), gets the request. Cheap, and it avoids both the herd
+ *     effect of always picking the best instance and the blindness of round robin.</li>
+ *     <li><b>Passive outlier ejection</b>: {@code consecutiveFailures} failures in a row (I/O errors and 5xx
+ *     responses) eject an instance for {@code ejectionTime}, longer each time it is ejected again, up to
+ *     {@code maxEjectionTime}. When that runs out the instance is on trial: it gets a single probe request,
+ *     and the probe's success re-admits it while a failure ejects it again. At most
+ *     {@code maxEjectionPercent} of the instances are ejected at once (a failed trial that would exceed it
+ *     re-admits the instance), and if none is available the ejected ones are used anyway.</li>
+ *     <li><b>Per-instance pools</b>: every instance has its own HttpClient, so a slow or dead backend cannot
+ *     exhaust the connections of the others, and removing an instance closes exactly its connections.</li>
+ * </ul>
+ * The instance list is static or read from a file (one URL per line, {@code #} comments) by
+ * {@link #reloadIfModified()}. Instances that stay in the list keep their statistics and connections.
+ * <p>
+ * Metrics per instance, tagged with service and instance: {@code http.client.lb.requests} by outcome,
+ * {@code http.client.lb.in.flight}, {@code http.client.lb.latency.ewma}, {@code http.client.lb.ejected}
+ * and {@code http.client.lb.ejections}.
+ */
+@Slf4j
+public class LoadBalancer implements AutoCloseable {
+
+    /**
+     * @param latencyDecay time constant of the latency EWMA
+     */
+    public record Settings(int consecutiveFailures, Duration ejectionTime, Duration maxEjectionTime,
+                           int maxEjectionPercent, Duration latencyDecay) {
+    }
+
+    private final String service;
+    private final Settings settings;
+    private final Supplier<HttpClient> httpClients;
+    private final Function<HttpClient, ClientHttpRequestFactory> requestFactories;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Path instancesFile;
+    private final ReentrantLock updateLock = new ReentrantLock();
+    private final ReentrantLock ejectionLock = new ReentrantLock();
+    private final ClientHttpRequestFactory requestFactory = this::createRequest;
+
+    private volatile List<LoadBalancedInstance> instances = List.of();
+    private FileTime loadedModified;
+
+    public LoadBalancer(String service, Settings settings, List<URI> staticInstances, Path instancesFile,
+                        Supplier<HttpClient> httpClients, Function<HttpClient, ClientHttpRequestFactory> requestFactories,
+                        MeterRegistry meterRegistry) {
+        this(service, settings, staticInstances, instancesFile, httpClients, requestFactories, meterRegistry, System::nanoTime);
+    }
+
+    LoadBalancer(String service, Settings settings, List<URI> staticInstances, Path instancesFile,
+                 Supplier<HttpClient> httpClients, Function<HttpClient, ClientHttpRequestFactory> requestFactories,
+                 MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.service = service;
+        this.settings = settings;
+        this.httpClients = httpClients;
+        this.requestFactories = requestFactories;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+        this.instancesFile = instancesFile;
+        update(staticInstances);
+        if (instancesFile != null) {
+            reloadIfModified();
+        }
+    }
+
+    /**
+     * For RestClient.Builder#requestFactory; the RestClient's base URL is {@code http://<service>}.
+     */
+    public ClientHttpRequestFactory requestFactory() {
+        return requestFactory;
+    }
+
+    private LoadBalancedClientHttpRequest createRequest(URI uri, HttpMethod method) {
+        return new LoadBalancedClientHttpRequest(this, uri, method);
+    }
+
+    /**
+     * Power of two choices over the available instances. An instance on trial is only chosen by the caller
+     * that wins its probe.
+     */
+    LoadBalancedInstance choose() throws IOException {
+        List<LoadBalancedInstance> current = instances;
+        if (current.isEmpty()) {
+            throw new IOException("No instances of service '" + service + "'");
+        }
+        if (current.size() == 1) {
+            return current.getFirst();
+        }
+        long now = nanoClock.getAsLong();
+        while (true) {
+            List<LoadBalancedInstance> available = current;
+            for (LoadBalancedInstance instance : current) {
+                if (!instance.isAvailable(now)) {
+                    available = current.stream().filter(i -> i.isAvailable(now)).toList();
+                    break;
+                }
+            }
+            if (available.isEmpty()) {
+                // Every instance is ejected or being probed: better a suspect instance than no answer
+                return powerOfTwoChoices(current);
+            }
+            LoadBalancedInstance chosen = powerOfTwoChoices(available);
+            if (!chosen.onTrial(now) || chosen.startTrial()) {
+                return chosen;
+            }
+            // Another request took the probe in the meantime; the instance is no longer available
+        }
+    }
+
+    private static LoadBalancedInstance powerOfTwoChoices(List<LoadBalancedInstance> available) {
+        int size = available.size();
+        if (size == 1) {
+            return available.getFirst();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        LoadBalancedInstance a = available.get(first);
+        LoadBalancedInstance b = available.get(second);
+        return a.cost() <= b.cost() ? a : b;
+    }
+
+    /**
+     * Records the outcome of a request and applies the ejection rules.
+     */
+    void record(LoadBalancedInstance instance, long latencyNanos, boolean success) {
+        long now = nanoClock.getAsLong();
+        boolean onTrial = instance.onTrial(now);
+        int failures = instance.record(latencyNanos, success, now);
+        if (success) {
+            if (onTrial) {
+                ejectionLock.lock();
+                try {
+                    instance.readmit();
+                } finally {
+                    ejectionLock.unlock();
+                }
+                log.info("Re-admitted {} after a successful trial request", instance);
+            }
+        } else if (onTrial || failures >= settings.consecutiveFailures()) {
+            eject(instance, now);
+        }
+    }
+
+    private void eject(LoadBalancedInstance instance, long now) {
+        ejectionLock.lock();
+        try {
+            if (instance.isEjected(now)) {
+                return;
+            }
+            List<LoadBalancedInstance> current = instances;
+            long ejected = current.stream().filter(i -> i != instance && i.isEjected(now)).count();
+            if ((ejected + 1) * 100 > (long) current.size() * settings.maxEjectionPercent()) {
+                log.debug("Not ejecting {}: {} of {} instances are ejected already", instance, ejected, current.size());
+                if (instance.onTrial(now)) {
+                    // Otherwise it keeps its claimed probe and stays out of rotation for good
+                    instance.readmit();
+                }
+                return;
+            }
+            instance.eject(now, settings.ejectionTime().toNanos(), settings.maxEjectionTime().toNanos());
+            log.warn("Ejected {} after consecutive failures ({} ejections so far)", instance, instance.ejections());
+        } finally {
+            ejectionLock.unlock();
+        }
+    }
+
+    /**
+     * Replaces the instance list. Instances with an unchanged URI are kept as they are; removed ones are
+     * closed once their requests in flight complete.
+     */
+    public void update(Collection<URI> uris) {
+        updateLock.lock();
+        try {
+            Map<URI, LoadBalancedInstance> existing = new LinkedHashMap<>();
+            instances.forEach(i -> existing.put(i.uri(), i));
+            List<LoadBalancedInstance> updated = new ArrayList<>();
+            int added = 0;
+            for (URI uri : new LinkedHashSet<>(uris)) {
+                LoadBalancedInstance instance = existing.remove(uri);
+                if (instance == null) {
+                    added++;
+                    HttpClient httpClient = httpClients.get();
+                    instance = new LoadBalancedInstance(service, uri, httpClient, requestFactories.apply(httpClient),
+                            settings.latencyDecay().toNanos(), meterRegistry);
+                }
+                updated.add(instance);
+            }
+            instances = List.copyOf(updated);
+            existing.values().forEach(removed -> removed.close(meterRegistry));
+            if (added > 0 || !existing.isEmpty()) {
+                log.info("Service '{}' instances: {}", service, updated.stream().map(LoadBalancedInstance::id).toList());
+            }
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    /**
+     * Re-reads the instances file if it changed since the last read. A missing, unreadable or empty file keeps
+     * the current list.
+     */
+    public void reloadIfModified() {
+        if (instancesFile == null) {
+            return;
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(instancesFile);
+            if (modified.equals(loadedModified)) {
+                return;
+            }
+            List<URI> uris = parse(Files.readAllLines(instancesFile));
+            loadedModified = modified;
+            if (uris.isEmpty()) {
+                log.warn("Instances file {} of service '{}' lists no instances, keeping {}", instancesFile, service, instances);
+                return;
+            }
+            Set<URI> current = new LinkedHashSet<>(instances.stream().map(LoadBalancedInstance::uri).toList());
+            if (!current.equals(new LinkedHashSet<>(uris))) {
+                update(uris);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Cannot read instances file {} of service '{}': {}", instancesFile, service, e.toString());
+        }
+    }
+
+    static List<URI> parse(List<String> lines) {
+        List<URI> uris = new ArrayList<>();
+        for (String line : lines) {
+            int comment = line.indexOf('#');
+            String url = (comment >= 0 ? line.substring(0, comment) : line).strip();
+            if (!url.isEmpty()) {
+                uris.add(URI.create(url));
+            }
+        }
+        return uris;
+    }
+
+    public String service() {
+        return service;
+    }
+
+    public List<LoadBalancedInstance> instances() {
+        return instances;
+    }
+
+    long nanoTime() {
+        return nanoClock.getAsLong();
+    }
+
+    @Override
+    public void close() {
+        update(List.of());
+    }
+}
@@ -0,0 +1,45 @@
+package com.web.opentelemetry.component.loadbalancer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The configured {@link LoadBalancer}s by service name. Services with an instances file are re-read on
+ * {@code reloadInterval} by one daemon thread.
+ */
+public class LoadBalancerRegistry implements AutoCloseable {
+
+    private final Map<String, LoadBalancer> loadBalancers;
+    private final ScheduledExecutorService reloader;
+
+    public LoadBalancerRegistry(Map<String, LoadBalancer> loadBalancers, Map<String, Duration> reloadIntervals) {
+        this.loadBalancers = Map.copyOf(loadBalancers);
+        this.reloader = reloadIntervals.isEmpty() ? null : Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("lb-instances-reload").factory());
+        reloadIntervals.forEach((service, interval) -> {
+            LoadBalancer loadBalancer = this.loadBalancers.get(service);
+            reloader.scheduleWithFixedDelay(loadBalancer::reloadIfModified,
+                    interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        });
+    }
+
+    public Optional<LoadBalancer> get(String service) {
+        return Optional.ofNullable(loadBalancers.get(service));
+    }
+
+    public Map<String, LoadBalancer> loadBalancers() {
+        return loadBalancers;
+    }
+
+    @Override
+    public void close() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+        loadBalancers.values().forEach(LoadBalancer::close);
+    }
+}
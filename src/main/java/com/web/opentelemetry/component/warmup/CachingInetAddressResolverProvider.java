@@ -0,0 +1,40 @@
+package com.web.opentelemetry.component.warmup;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.net.spi.InetAddressResolver;
+import java.net.spi.InetAddressResolverProvider;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Routes the JVM's host name lookups through {@link DnsCache#shared()}; reverse lookups go straight to the
+ * built-in resolver. Registered in {@code META-INF/services/java.net.spi.InetAddressResolverProvider}.
+ */
+public class CachingInetAddressResolverProvider extends InetAddressResolverProvider {
+
+    @Override
+    public InetAddressResolver get(Configuration configuration) {
+        InetAddressResolver builtin = configuration.builtinResolver();
+        DnsCache cache = DnsCache.shared();
+        return new InetAddressResolver() {
+            @Override
+            public Stream<InetAddress> lookupByName(String host, LookupPolicy lookupPolicy) throws UnknownHostException {
+                // The policy (IPv4/IPv6 preference) changes the answer, so it is part of the key
+                String key = host + '/' + lookupPolicy.characteristics();
+                return Arrays.stream(cache.lookup(key, host,
+                        h -> builtin.lookupByName(h, lookupPolicy).toArray(InetAddress[]::new)));
+            }
+
+            @Override
+            public String lookupByAddress(byte[] addr) throws UnknownHostException {
+                return builtin.lookupByAddress(addr);
+            }
+        };
+    }
+
+    @Override
+    public String name() {
+        return "dns-cache";
+    }
+}
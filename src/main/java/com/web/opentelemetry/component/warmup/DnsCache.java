@@ -0,0 +1,226 @@
+package com.web.opentelemetry.component.warmup;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Host name cache behind {@link CachingInetAddressResolverProvider}, so every InetAddress lookup in the JVM,
+ * including the JDK HttpClient's, goes through it once {@link #configure enabled}.
+ * <ul>
+ *     <li>younger than {@code ttl}: served from the cache;</li>
+ *     <li>younger than {@code ttl + staleTtl}: served from the cache while one background lookup refreshes it,
+ *     and kept if that lookup fails;</li>
+ *     <li>older, or never resolved: resolved on the calling thread;</li>
+ *     <li>failed lookups are remembered for {@code negativeTtl}.</li>
+ * </ul>
+ * The JVM's own InetAddress cache ({@code networkaddress.cache.ttl}) still sits in front of this one; what this
+ * adds is that a pre-resolved host stays resolved and its refresh is off the request path.
+ * <p>
+ * One instance per JVM ({@link #shared()}) because the resolver provider is loaded by ServiceLoader.
+ * Until configured, lookups pass straight through. Every application context in the JVM that configures it
+ * holds a {@link Registration}; the cache is disabled and cleared when the last one is closed, so closing one
+ * context does not turn the cache off under another. There is deliberately no logger here: the first lookup can
+ * come from the logging system's own start-up.
+ * <p>
+ * Metrics (after {@link #bindTo}): {@code dns.cache.lookups} by result (hit, stale, miss, negative),
+ * {@code dns.cache.refresh.failures}, {@code dns.cache.entries}.
+ */
+public final class DnsCache {
+
+    @FunctionalInterface
+    public interface Resolver {
+        InetAddress[] resolve(String host) throws UnknownHostException;
+    }
+
+    private record Settings(boolean enabled, long ttlNanos, long staleNanos, long negativeTtlNanos, int maxEntries) {
+        static final Settings DISABLED = new Settings(false, 0, 0, 0, 0);
+    }
+
+    /**
+     * @param addresses null for a failed lookup
+     */
+    private record Entry(InetAddress[] addresses, long resolvedNanos) {
+    }
+
+    private static final DnsCache SHARED = new DnsCache(System::nanoTime,
+            task -> Thread.ofVirtual().name("dns-refresh").start(task));
+
+    private final LongSupplier nanoClock;
+    private final Executor refresher;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private int registrations;
+    private volatile Settings settings = Settings.DISABLED;
+
+    DnsCache(LongSupplier nanoClock, Executor refresher) {
+        this.nanoClock = nanoClock;
+        this.refresher = refresher;
+    }
+
+    public static DnsCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Enables the cache; the latest settings apply to every registration.
+     */
+    public Registration configure(Duration ttl, Duration staleTtl, Duration negativeTtl, int maxEntries) {
+        lock.lock();
+        try {
+            registrations++;
+            this.settings = new Settings(true, ttl.toNanos(), staleTtl.toNanos(), negativeTtl.toNanos(), maxEntries);
+        } finally {
+            lock.unlock();
+        }
+        return new Registration(this);
+    }
+
+    private void unregister() {
+        lock.lock();
+        try {
+            if (--registrations == 0) {
+                this.settings = Settings.DISABLED;
+                entries.clear();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One {@link #configure} of the cache; closing it more than once has no further effect.
+     */
+    public static final class Registration implements AutoCloseable {
+        private final DnsCache cache;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Registration(DnsCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                cache.unregister();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return settings.enabled();
+    }
+
+    /**
+     * @param key      cache key: the host plus anything that changes the answer, such as the lookup policy
+     * @param resolver the actual lookup, called on a miss and for refreshes
+     */
+    public InetAddress[] lookup(String key, String host, Resolver resolver) throws UnknownHostException {
+        Settings current = settings;
+        if (!current.enabled()) {
+            return resolver.resolve(host);
+        }
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            long age = nanoClock.getAsLong() - entry.resolvedNanos();
+            if (entry.addresses() == null) {
+                if (age < current.negativeTtlNanos()) {
+                    negativeHits.increment();
+                    throw new UnknownHostException(host + ": cached lookup failure");
+                }
+            } else if (age < current.ttlNanos()) {
+                hits.increment();
+                return entry.addresses().clone();
+            } else if (age < current.ttlNanos() + current.staleNanos()) {
+                staleHits.increment();
+                refreshInBackground(key, host, resolver);
+                return entry.addresses().clone();
+            }
+        }
+        misses.increment();
+        try {
+            InetAddress[] addresses = resolver.resolve(host);
+            store(key, new Entry(addresses.clone(), nanoClock.getAsLong()), current);
+            return addresses;
+        } catch (UnknownHostException e) {
+            if (current.negativeTtlNanos() > 0) {
+                store(key, new Entry(null, nanoClock.getAsLong()), current);
+            }
+            throw e;
+        }
+    }
+
+    private void refreshInBackground(String key, String host, Resolver resolver) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        refresher.execute(() -> {
+            try {
+                InetAddress[] addresses = resolver.resolve(host);
+                store(key, new Entry(addresses.clone(), nanoClock.getAsLong()), settings);
+            } catch (UnknownHostException e) {
+                // Keep serving the stale addresses until they expire
+                refreshFailures.increment();
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private void store(String key, Entry entry, Settings current) {
+        if (!current.enabled()) {
+            return;
+        }
+        if (entries.size() >= current.maxEntries() && !entries.containsKey(key)) {
+            long now = nanoClock.getAsLong();
+            entries.values().removeIf(e -> now - e.resolvedNanos() >= current.ttlNanos() + current.staleNanos());
+            if (entries.size() >= current.maxEntries()) {
+                return;
+            }
+        }
+        entries.put(key, entry);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public void bindTo(MeterRegistry meterRegistry) {
+        lookups(meterRegistry, "hit", hits);
+        lookups(meterRegistry, "stale", staleHits);
+        lookups(meterRegistry, "miss", misses);
+        lookups(meterRegistry, "negative", negativeHits);
+        FunctionCounter.builder("dns.cache.refresh.failures", refreshFailures, LongAdder::sum)
+                .description("Background refreshes that failed and kept the stale addresses")
+                .register(meterRegistry);
+        Gauge.builder("dns.cache.entries", entries, Map::size)
+                .description("Host names held by the DNS cache")
+                .register(meterRegistry);
+    }
+
+    private static void lookups(MeterRegistry meterRegistry, String result, LongAdder counter) {
+        FunctionCounter.builder("dns.cache.lookups", counter, LongAdder::sum)
+                .tag("result", result)
+                .description("Host name lookups by cache result")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,234 @@
+package com.web.opentelemetry.component.warmup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.web.client.RestClient;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the outbound path before the instance takes traffic, so the first requests after a deploy do not pay
+ * DNS lookups, TCP/TLS handshakes and HttpClient selector start-up. On {@link ApplicationStartedEvent}, every
+ * registered target is warmed in parallel on virtual threads:
+ * <ol>
+ *     <li>its host is resolved, which fills the {@link DnsCache};</li>
+ *     <li>{@code connections} HEAD requests are sent at once through the target's own RestClient, so its
+ *     HttpClient opens that many connections and keeps them pooled. Any response status counts, the
+ *     connection is what matters.</li>
+ * </ol>
+ * {@link DownstreamWarmupHealthIndicator} holds the readiness group OUT_OF_SERVICE until this finishes or
+ * {@code timeout} passes; a failed target is reported but does not keep the instance out of rotation.
+ * <p>
+ * Targets come from {@code app.warmup.downstreams} and from components that {@link #register} their own
+ * clients (each RestClient built by RestClientBuilderFactory has its own HttpClient, so its own pool).
+ * <p>
+ * With {@code keepWarmInterval} set, the connection step is repeated on that interval, which keeps idle pooled
+ * connections from reaching the HttpClient's keep-alive timeout ({@code jdk.httpclient.keepalive.timeout}).
+ */
+@Slf4j
+public class DownstreamWarmer implements ApplicationListener<ApplicationStartedEvent>, AutoCloseable {
+
+    public enum State {
+        PENDING, WARMING, READY, TIMED_OUT
+    }
+
+    public record Target(String name, RestClient client, URI uri, int connections) {
+    }
+
+    /**
+     * @param addresses resolved addresses, 0 when the lookup failed
+     * @param connected warm-up requests that got a response
+     */
+    public record TargetResult(String host, int addresses, int connected, int connections, long millis, String error) {
+    }
+
+    private final Duration timeout;
+    private final int defaultConnections;
+    private final Duration keepWarmInterval;
+    private final List<Target> targets = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private volatile Map<String, TargetResult> results = Map.of();
+    private volatile State state = State.PENDING;
+    private volatile long warmupMillis = -1;
+    private volatile Thread keepWarm;
+
+    public DownstreamWarmer(Duration timeout, int defaultConnections, Duration keepWarmInterval) {
+        this.timeout = timeout;
+        this.defaultConnections = defaultConnections;
+        this.keepWarmInterval = keepWarmInterval;
+    }
+
+    /**
+     * Adds a client to warm against {@code url}. Call before the application has started.
+     */
+    public void register(String name, RestClient client, String url, int connections) {
+        targets.add(new Target(name, client, URI.create(url), connections));
+    }
+
+    /**
+     * Same as {@link #register(String, RestClient, String, int)} with the configured number of connections.
+     */
+    public void register(String name, RestClient client, String url) {
+        register(name, client, url, defaultConnections);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        // Off the main thread: readiness, not startup, waits for it
+        Thread.ofVirtual().name("downstream-warmup").start(this::warmUp);
+    }
+
+    /**
+     * Warms every target, waiting at most {@code timeout}.
+     */
+    public State warmUp() {
+        state = State.WARMING;
+        long start = System.nanoTime();
+        List<Target> warming = List.copyOf(targets);
+        List<Future<TargetResult>> futures = new ArrayList<>(warming.size());
+        for (Target target : warming) {
+            futures.add(executor.submit(() -> warm(target)));
+        }
+
+        long deadline = start + timeout.toNanos();
+        boolean timedOut = false;
+        Map<String, TargetResult> warmed = new LinkedHashMap<>();
+        for (int i = 0; i < futures.size(); i++) {
+            Target target = warming.get(i);
+            TargetResult result;
+            try {
+                result = futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                timedOut = true;
+                result = new TargetResult(target.uri().getHost(), -1, -1, target.connections(), timeout.toMillis(), "timed out");
+            } catch (Exception e) {
+                result = new TargetResult(target.uri().getHost(), -1, -1, target.connections(), -1, e.toString());
+            }
+            warmed.put(target.name(), result);
+        }
+        results = Collections.unmodifiableMap(warmed);
+        warmupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        state = timedOut ? State.TIMED_OUT : State.READY;
+        log.info("Downstream warm-up {} in {} ms: {}", state, warmupMillis, warmed);
+        startKeepWarm();
+        return state;
+    }
+
+    private TargetResult warm(Target target) {
+        long start = System.nanoTime();
+        String host = target.uri().getHost();
+        int addresses;
+        try {
+            addresses = InetAddress.getAllByName(host).length;
+        } catch (Exception e) {
+            log.warn("Warm-up of '{}': cannot resolve {}: {}", target.name(), host, e.getMessage());
+            return new TargetResult(host, 0, 0, target.connections(), elapsedMillis(start), e.toString());
+        }
+        int connected = connect(target);
+        return new TargetResult(host, addresses, connected, target.connections(), elapsedMillis(start),
+                connected == 0 ? "no response" : null);
+    }
+
+    /**
+     * Sends {@code connections} requests released together, so none finds an idle pooled connection to reuse.
+     */
+    private int connect(Target target) {
+        CountDownLatch gate = new CountDownLatch(1);
+        AtomicInteger connected = new AtomicInteger();
+        List<Future<?>> requests = new ArrayList<>(target.connections());
+        for (int i = 0; i < target.connections(); i++) {
+            requests.add(executor.submit(() -> {
+                gate.await();
+                try {
+                    target.client().head().uri(target.uri()).exchange((request, response) -> response.getStatusCode());
+                    connected.incrementAndGet();
+                } catch (Exception e) {
+                    log.debug("Warm-up request to {} failed: {}", target.uri(), e.getMessage());
+                }
+                return null;
+            }));
+        }
+        gate.countDown();
+        for (Future<?> request : requests) {
+            try {
+                request.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // counted as not connected
+            }
+        }
+        return connected.get();
+    }
+
+    private void startKeepWarm() {
+        if (keepWarmInterval.isZero() || keepWarmInterval.isNegative() || targets.isEmpty()) {
+            return;
+        }
+        keepWarm = Thread.ofVirtual().name("downstream-keep-warm").start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(keepWarmInterval);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (Target target : targets) {
+                    executor.submit(() -> connect(target));
+                }
+            }
+        });
+    }
+
+    /**
+     * Per-target outcome of the last warm-up, empty until it has finished.
+     */
+    public Map<String, TargetResult> results() {
+        return results;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    /**
+     * Duration of the warm-up, -1 while it has not finished.
+     */
+    public long warmupMillis() {
+        return warmupMillis;
+    }
+
+    public List<Target> targets() {
+        return List.copyOf(targets);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public void close() {
+        Thread thread = keepWarm;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        executor.shutdownNow();
+    }
+}
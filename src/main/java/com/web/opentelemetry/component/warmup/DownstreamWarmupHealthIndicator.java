@@ -0,0 +1,39 @@
+package com.web.opentelemetry.component.warmup;
+
+import org.springframework.boot.health.contributor.Health;
+import org.springframework.boot.health.contributor.HealthIndicator;
+
+/**
+ * OUT_OF_SERVICE until {@link DownstreamWarmer} has finished, UP afterwards, including when the warm-up timed
+ * out or a target failed (see the details). Included in the readiness health group, so
+ * {@code /actuator/health/readiness} only reports UP once the outbound path is warm.
+ */
+public class DownstreamWarmupHealthIndicator implements HealthIndicator {
+
+    private final DownstreamWarmer warmer;
+    private final DnsCache dnsCache;
+
+    public DownstreamWarmupHealthIndicator(DownstreamWarmer warmer, DnsCache dnsCache) {
+        this.warmer = warmer;
+        this.dnsCache = dnsCache;
+    }
+
+    @Override
+    public Health health() {
+        DownstreamWarmer.State state = warmer.state();
+        Health.Builder builder = switch (state) {
+            case PENDING, WARMING -> Health.outOfService();
+            case READY, TIMED_OUT -> Health.up();
+        };
+        builder.withDetail("state", state)
+                .withDetail("targets", warmer.targets().size());
+        if (warmer.warmupMillis() >= 0) {
+            builder.withDetail("millis", warmer.warmupMillis())
+                    .withDetail("results", warmer.results());
+        }
+        if (dnsCache.isEnabled()) {
+            builder.withDetail("dnsCacheEntries", dnsCache.size());
+        }
+        return builder.build();
+    }
+}
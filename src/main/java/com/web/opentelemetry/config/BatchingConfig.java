@@ -0,0 +1,56 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.component.MicroBatchExecutor;
+import com.web.opentelemetry.model.InfoBatchItem;
+import com.web.opentelemetry.model.InfoBatchResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Micro-batching of the /api/info calls issued by AsyncTaskService.fetchDataAsync.
+ * Tune {@code app.batching.info.window} against the batch.queue.delay metric.
+ */
+@Configuration
+public class BatchingConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnBooleanProperty("app.batching.info.enabled")
+    public MicroBatchExecutor<InfoBatchItem, InfoBatchResult> infoBatchExecutor(
+            RestClient restClient,
+            MeterRegistry meterRegistry,
+            @Value("${app.batching.info.window:5ms}") Duration window,
+            @Value("${app.batching.info.max-size:64}") int maxBatchSize,
+            @Value("${app.downstream.base-url:http://localhost:8080}") String downstreamBaseUrl) {
+        return new MicroBatchExecutor<>("info", window, maxBatchSize, items -> {
+            List<InfoBatchResult> results = restClient.post()
+                    .uri(downstreamBaseUrl + "/api/info/batch")
+                    .body(items)
+                    .retrieve()
+                    .body(new ParameterizedTypeReference<List<InfoBatchResult>>() {});
+            List<MicroBatchExecutor.Outcome<InfoBatchResult>> outcomes = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                InfoBatchResult result = results != null && i < results.size() ? results.get(i) : null;
+                if (result == null || !Objects.equals(result.id(), items.get(i).id())) {
+                    outcomes.add(MicroBatchExecutor.Outcome.failure(
+                            new IllegalStateException("No batch result for item " + items.get(i).id())));
+                } else if (result.failed()) {
+                    outcomes.add(MicroBatchExecutor.Outcome.failure(
+                            new IllegalStateException("Batch item " + result.id() + " failed: " + result.error())));
+                } else {
+                    outcomes.add(MicroBatchExecutor.Outcome.success(result));
+                }
+            }
+            return outcomes;
+        }, meterRegistry);
+    }
+}
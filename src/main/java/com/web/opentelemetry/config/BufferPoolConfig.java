@@ -0,0 +1,26 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.component.buffer.BufferPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Buffer pool behind the pooled RestClient request factory and message converters,
+ * picked up by RestClientConfig and RestClientBuilderFactory.
+ */
+@Configuration
+@EnableConfigurationProperties(BufferPoolProperties.class)
+@ConditionalOnBooleanProperty(name = "app.http-client.buffer-pool.enabled", matchIfMissing = true)
+public class BufferPoolConfig {
+
+    @Bean
+    public BufferPool httpBufferPool(BufferPoolProperties properties, MeterRegistry meterRegistry) {
+        int stripes = properties.stripes() > 0 ? properties.stripes() : Runtime.getRuntime().availableProcessors() * 2;
+        return new BufferPool("http-client", (int) properties.minBufferSize().toBytes(),
+                (int) properties.maxBufferSize().toBytes(), stripes, properties.buffersPerStripe(),
+                properties.leakDetection(), meterRegistry);
+    }
+}
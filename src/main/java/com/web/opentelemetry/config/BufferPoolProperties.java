@@ -0,0 +1,25 @@
+package com.web.opentelemetry.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Pooled buffers for outbound request and response bodies.
+ * At most {@code stripes x buffersPerStripe} idle buffers are kept per size class.
+ *
+ * @param enabled          use the pooled request factory and converters for RestClient instances
+ * @param minBufferSize    smallest size class; classes grow by a factor of four
+ * @param maxBufferSize    largest size class; larger bodies are split into segments of this size
+ * @param stripes          stripes per size class, 0 for twice the number of processors
+ * @param buffersPerStripe idle buffers kept per stripe
+ * @param leakDetection    record where each outstanding buffer was acquired (for tests, it costs a stack trace per buffer)
+ */
+@ConfigurationProperties("app.http-client.buffer-pool")
+public record BufferPoolProperties(@DefaultValue("true") boolean enabled,
+                                   @DefaultValue("1KB") DataSize minBufferSize,
+                                   @DefaultValue("64KB") DataSize maxBufferSize,
+                                   @DefaultValue("0") int stripes,
+                                   @DefaultValue("8") int buffersPerStripe,
+                                   @DefaultValue("false") boolean leakDetection) {
+}
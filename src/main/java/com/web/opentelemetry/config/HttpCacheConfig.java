@@ -0,0 +1,78 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.component.loadbalancer.LoadBalancer;
+import com.web.opentelemetry.component.loadbalancer.LoadBalancerRegistry;
+import com.web.opentelemetry.interceptor.cache.HttpCacheInterceptor;
+import com.web.opentelemetry.interceptor.cache.HttpCacheStore;
+import com.web.opentelemetry.interceptor.ratelimit.OutboundRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.InterceptingClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+
+/**
+ * Client-side HTTP cache, picked up by RestClientBuilderFactory. See {@link HttpCacheInterceptor}.
+ */
+@Configuration
+@EnableConfigurationProperties(HttpCacheProperties.class)
+@ConditionalOnBooleanProperty(name = "app.http-client.cache.enabled", matchIfMissing = true)
+public class HttpCacheConfig {
+
+    @Bean
+    public HttpCacheStore httpCacheStore(HttpCacheProperties properties, MeterRegistry meterRegistry) {
+        return new HttpCacheStore("rest-client", properties.maxSize().toBytes(), properties.maxVariants(),
+                properties.expectedEntries(), meterRegistry);
+    }
+
+    @Bean
+    public HttpCacheInterceptor httpCacheInterceptor(HttpCacheStore httpCacheStore, HttpCacheProperties properties,
+                                                     ObjectProvider<LoadBalancerRegistry> loadBalancers,
+                                                     ObjectProvider<OutboundRateLimiter> rateLimiter,
+                                                     MeterRegistry meterRegistry) {
+        return new HttpCacheInterceptor("rest-client", httpCacheStore, (int) properties.maxEntrySize().toBytes(),
+                properties.maxHeuristicLifetime(),
+                refreshRequestFactory(loadBalancers.getIfAvailable(), rateLimiter.getIfAvailable()),
+                Clock.systemUTC(), meterRegistry);
+    }
+
+    /**
+     * Background refreshes get their own HttpClient. They still take host permits from the rate limiter
+     * (and honour Retry-After), and requests to a load-balanced service's logical host still go through its
+     * LoadBalancer.
+     */
+    private static ClientHttpRequestFactory refreshRequestFactory(LoadBalancerRegistry loadBalancers,
+                                                                  OutboundRateLimiter rateLimiter) {
+        ClientHttpRequestFactory routed = routedRequestFactory(loadBalancers);
+        if (rateLimiter == null) {
+            return routed;
+        }
+        return new InterceptingClientHttpRequestFactory(routed, List.of(rateLimiter.forHosts()));
+    }
+
+    private static ClientHttpRequestFactory routedRequestFactory(LoadBalancerRegistry loadBalancers) {
+        ClientHttpRequestFactory direct = new JdkClientHttpRequestFactory(HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build());
+        if (loadBalancers == null) {
+            return direct;
+        }
+        return (uri, method) -> Optional.ofNullable(uri.getHost())
+                .flatMap(loadBalancers::get)
+                .map(LoadBalancer::requestFactory)
+                .orElse(direct)
+                .createRequest(uri, method);
+    }
+}
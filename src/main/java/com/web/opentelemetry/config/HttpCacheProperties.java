@@ -0,0 +1,26 @@
+package com.web.opentelemetry.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * HTTP cache for the clients built by RestClientBuilderFactory.
+ *
+ * @param enabled               add the HttpCacheInterceptor to RestClientBuilderFactory clients
+ * @param maxSize               off-heap byte budget for bodies plus the estimated size of stored headers
+ * @param maxEntrySize          larger responses are passed through without being stored
+ * @param maxVariants           stored responses per URI for different Vary request header values
+ * @param expectedEntries       sizing of the frequency sketch behind the admission policy
+ * @param maxHeuristicLifetime  cap on the Last-Modified based freshness of responses without explicit expiry
+ */
+@ConfigurationProperties("app.http-client.cache")
+public record HttpCacheProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue("64MB") DataSize maxSize,
+                                  @DefaultValue("1MB") DataSize maxEntrySize,
+                                  @DefaultValue("8") int maxVariants,
+                                  @DefaultValue("10000") int expectedEntries,
+                                  @DefaultValue("1h") Duration maxHeuristicLifetime) {
+}
@@ -0,0 +1,76 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.component.buffer.BufferPool;
+import com.web.opentelemetry.component.buffer.PooledJdkClientHttpRequestFactory;
+import com.web.opentelemetry.component.loadbalancer.LoadBalancer;
+import com.web.opentelemetry.component.loadbalancer.LoadBalancerRegistry;
+import com.web.opentelemetry.component.warmup.DownstreamWarmer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Client-side load balancers, picked up by RestClientBuilderFactory#createWithLoadBalancer. Each instance gets
+ * its own HttpClient (virtual-thread executor, pooled body buffers when the buffer pool is on), and is
+ * registered with the downstream warm-up under {@code <service>@<host:port>}.
+ */
+@Configuration
+@EnableConfigurationProperties(LoadBalancerProperties.class)
+@ConditionalOnBooleanProperty(name = "app.http-client.load-balancer.enabled", matchIfMissing = true)
+public class LoadBalancerConfig {
+
+    @Bean
+    public LoadBalancerRegistry loadBalancerRegistry(LoadBalancerProperties properties,
+                                                     MeterRegistry meterRegistry,
+                                                     ObjectProvider<BufferPool> bufferPool,
+                                                     ObjectProvider<DownstreamWarmer> downstreamWarmer) {
+        Map<String, LoadBalancer> loadBalancers = new LinkedHashMap<>();
+        Map<String, Duration> reloadIntervals = new HashMap<>();
+        properties.services().forEach((name, service) -> {
+            LoadBalancer.Settings settings = new LoadBalancer.Settings(service.consecutiveFailures(),
+                    service.ejectionTime(), service.maxEjectionTime(), service.maxEjectionPercent(), service.latencyDecay());
+            LoadBalancer loadBalancer = new LoadBalancer(name, settings,
+                    service.instances().stream().map(URI::create).toList(), service.instancesFile(),
+                    () -> HttpClient.newBuilder()
+                            .connectTimeout(service.connectTimeout())
+                            .executor(Executors.newVirtualThreadPerTaskExecutor())
+                            .build(),
+                    httpClient -> requestFactory(httpClient, service.readTimeout(), bufferPool.getIfAvailable()),
+                    meterRegistry);
+            loadBalancers.put(name, loadBalancer);
+            if (service.instancesFile() != null) {
+                reloadIntervals.put(name, service.reloadInterval());
+            }
+            downstreamWarmer.ifAvailable(warmer -> loadBalancer.instances().forEach(instance ->
+                    warmer.register(name + "@" + instance.id(),
+                            RestClient.builder().requestFactory(instance.requestFactory()).build(),
+                            instance.uri().toString())));
+        });
+        return new LoadBalancerRegistry(loadBalancers, reloadIntervals);
+    }
+
+    private static ClientHttpRequestFactory requestFactory(HttpClient httpClient, Duration readTimeout, BufferPool bufferPool) {
+        if (bufferPool != null) {
+            PooledJdkClientHttpRequestFactory pooledFactory = new PooledJdkClientHttpRequestFactory(httpClient, bufferPool);
+            pooledFactory.setReadTimeout(readTimeout);
+            return pooledFactory;
+        }
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(readTimeout);
+        return factory;
+    }
+}
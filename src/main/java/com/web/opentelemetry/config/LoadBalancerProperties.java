@@ -0,0 +1,44 @@
+package com.web.opentelemetry.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client-side load balancing of logical services, see LoadBalancer.
+ *
+ * @param enabled  create the load balancers; RestClientBuilderFactory#createWithLoadBalancer needs them
+ * @param services settings keyed by service name, the host of the RestClient's base URL
+ */
+@ConfigurationProperties("app.http-client.load-balancer")
+public record LoadBalancerProperties(@DefaultValue("true") boolean enabled,
+                                     @DefaultValue Map<String, Service> services) {
+
+    /**
+     * @param instances           instance base URLs, used when there is no instances file or it cannot be read
+     * @param instancesFile       one instance URL per line; re-read when it changes
+     * @param reloadInterval      how often the instances file is checked for changes
+     * @param consecutiveFailures I/O errors or 5xx responses in a row that eject an instance
+     * @param ejectionTime        first ejection; each further ejection in a row adds this much
+     * @param maxEjectionTime     longest ejection
+     * @param maxEjectionPercent  share of the instances that may be ejected at once
+     * @param latencyDecay        time constant of the per-instance latency average
+     * @param connectTimeout      per-instance HttpClient connect timeout
+     * @param readTimeout         time to the response headers
+     */
+    public record Service(@DefaultValue List<String> instances,
+                          Path instancesFile,
+                          @DefaultValue("5s") Duration reloadInterval,
+                          @DefaultValue("5") int consecutiveFailures,
+                          @DefaultValue("10s") Duration ejectionTime,
+                          @DefaultValue("5m") Duration maxEjectionTime,
+                          @DefaultValue("50") int maxEjectionPercent,
+                          @DefaultValue("10s") Duration latencyDecay,
+                          @DefaultValue("2s") Duration connectTimeout,
+                          @DefaultValue("10s") Duration readTimeout) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.interceptor.ratelimit.OutboundRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Outbound rate limiter, picked up by RestClientConfig and RestClientBuilderFactory.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnBooleanProperty(name = "app.http-client.rate-limit.enabled", matchIfMissing = true)
+public class RateLimitConfig {
+
+    @Bean
+    public OutboundRateLimiter outboundRateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new OutboundRateLimiter(limits(properties.hosts()), limits(properties.clients()), meterRegistry);
+    }
+
+    private static Map<String, OutboundRateLimiter.Limit> limits(Map<String, RateLimitProperties.Limit> limits) {
+        return limits.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, e ->
+                new OutboundRateLimiter.Limit(e.getValue().permitsPerSecond(), e.getValue().burst(), e.getValue().maxWait())));
+    }
+}
@@ -0,0 +1,31 @@
+package com.web.opentelemetry.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outbound rate limits, per target host and per named client. Hosts with dots need the bracket form in YAML,
+ * e.g. {@code "[dog.ceo]"}.
+ *
+ * @param enabled add the per-host limiter to RestClient instances
+ * @param hosts   limits keyed by host name, shared by every client calling that host
+ * @param clients limits keyed by client name, see RestClientBuilderFactory#createWithRateLimit
+ */
+@ConfigurationProperties("app.http-client.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled,
+                                  @DefaultValue Map<String, Limit> hosts,
+                                  @DefaultValue Map<String, Limit> clients) {
+
+    /**
+     * @param permitsPerSecond sustained rate
+     * @param burst            permits available at once after an idle period
+     * @param maxWait          longest a caller parks for a permit before the request is rejected
+     */
+    public record Limit(double permitsPerSecond,
+                        @DefaultValue("1") int burst,
+                        @DefaultValue("2s") Duration maxWait) {
+    }
+}
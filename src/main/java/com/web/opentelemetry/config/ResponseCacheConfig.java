@@ -0,0 +1,41 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.filter.cache.ResponseCacheFilter;
+import com.web.opentelemetry.filter.cache.ResponseCacheStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Server-side response cache for the routes in {@code app.response-cache.routes}. The filter runs last, after
+ * the request-id filters, so responses served from the cache still carry a request id.
+ */
+@Configuration
+@EnableConfigurationProperties(ResponseCacheProperties.class)
+@ConditionalOnBooleanProperty(name = "app.response-cache.enabled", matchIfMissing = true)
+public class ResponseCacheConfig {
+
+    @Bean
+    public ResponseCacheStore responseCacheStore(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        return new ResponseCacheStore(properties.maxSize().toBytes(), properties.eviction(),
+                properties.expectedEntries(), meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(ResponseCacheProperties properties,
+                                                                           ResponseCacheStore responseCacheStore,
+                                                                           MeterRegistry meterRegistry) {
+        ResponseCacheFilter filter = new ResponseCacheFilter(
+                properties.routes().stream()
+                        .map(route -> new ResponseCacheFilter.Route(route.path(), route.ttl(), route.keyHeaders()))
+                        .toList(),
+                responseCacheStore, (int) properties.maxEntrySize().toBytes(), properties.waitTimeout(), meterRegistry);
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
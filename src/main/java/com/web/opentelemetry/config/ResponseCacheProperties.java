@@ -0,0 +1,40 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.filter.cache.ResponseCacheStore;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Server-side response cache, see ResponseCacheFilter. Only the listed routes are cached.
+ *
+ * @param enabled         register the ResponseCacheFilter
+ * @param maxSize         heap budget for stored bodies, keys and headers
+ * @param maxEntrySize    larger responses are passed through without being stored
+ * @param eviction        lru, or lfu to add TinyLFU admission in front of LRU eviction
+ * @param expectedEntries sizing of the frequency sketch behind lfu admission
+ * @param waitTimeout     how long concurrent misses wait for the request already rendering the same key
+ * @param routes          routes that opt in, first match wins
+ */
+@ConfigurationProperties("app.response-cache")
+public record ResponseCacheProperties(@DefaultValue("true") boolean enabled,
+                                      @DefaultValue("16MB") DataSize maxSize,
+                                      @DefaultValue("256KB") DataSize maxEntrySize,
+                                      @DefaultValue("lru") ResponseCacheStore.Eviction eviction,
+                                      @DefaultValue("1000") int expectedEntries,
+                                      @DefaultValue("5s") Duration waitTimeout,
+                                      @DefaultValue List<Route> routes) {
+
+    /**
+     * @param path       route pattern, e.g. /api/info or /api/items/{id}
+     * @param ttl        how long a stored response is served
+     * @param keyHeaders request headers whose values are part of the key, e.g. Accept
+     */
+    public record Route(String path,
+                        @DefaultValue("10s") Duration ttl,
+                        @DefaultValue List<String> keyHeaders) {
+    }
+}
@@ -2,7 +2,12 @@ package com.web.opentelemetry.config;
 
 import am.ik.spring.http.client.RetryableClientHttpRequestInterceptor;
 import com.web.opentelemetry.component.RestClientBuilderFactory;
+import com.web.opentelemetry.component.buffer.BufferPool;
+import com.web.opentelemetry.component.buffer.PooledJacksonJsonHttpMessageConverter;
+import com.web.opentelemetry.component.buffer.PooledJdkClientHttpRequestFactory;
+import com.web.opentelemetry.interceptor.ratelimit.OutboundRateLimiter;
 import com.web.opentelemetry.interceptor.TraceHttpInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.restclient.RestClientCustomizer;
 import org.springframework.context.annotation.Bean;
@@ -11,6 +16,7 @@ import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
 import org.springframework.util.backoff.FixedBackOff;
 import org.springframework.web.client.RestClient;
@@ -26,9 +32,15 @@ import java.util.concurrent.Executors;
 @Configuration
 public class RestClientConfig {
     private final boolean virtualThreadsEnabled;
+    private final BufferPool bufferPool;
+    private final OutboundRateLimiter rateLimiter;
 
-    public RestClientConfig(@Value("${spring.threads.virtual.enabled:true}") String virtualThreadsEnabled) {
+    public RestClientConfig(@Value("${spring.threads.virtual.enabled:true}") String virtualThreadsEnabled,
+                            ObjectProvider<BufferPool> bufferPool,
+                            ObjectProvider<OutboundRateLimiter> rateLimiter) {
         this.virtualThreadsEnabled = Boolean.parseBoolean(virtualThreadsEnabled);
+        this.bufferPool = bufferPool.getIfAvailable();
+        this.rateLimiter = rateLimiter.getIfAvailable();
     }
 
     @Bean
@@ -62,7 +74,11 @@ public class RestClientConfig {
                     .requestFactory(virtualClientHttpRequestFactory(Duration.ofSeconds(10), Duration.ofSeconds(10), virtualThreadsEnabled))
                     .requestInterceptor(new RetryableClientHttpRequestInterceptor(new FixedBackOff(100, 2)))
                     .configureMessageConverters(clientBuilder ->
-                            clientBuilder.withJsonConverter(new JacksonJsonHttpMessageConverter(jsonMapper())));
+                            clientBuilder.withJsonConverter(jsonConverter()));
+            if (rateLimiter != null) {
+                // After the retry interceptor, so every attempt needs a permit
+                restClientBuilder.requestInterceptor(rateLimiter.forHosts());
+            }
 
         };
     }
@@ -77,6 +93,12 @@ public class RestClientConfig {
                 .build();
     }
 
+    private HttpMessageConverter<Object> jsonConverter() {
+        return bufferPool != null
+                ? new PooledJacksonJsonHttpMessageConverter(jsonMapper(), bufferPool)
+                : new JacksonJsonHttpMessageConverter(jsonMapper());
+    }
+
     private static HttpComponentsClientHttpRequestFactory clientHttpRequestFactory() {
         HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory();
         factory.setConnectionRequestTimeout(Duration.ofSeconds(10));
@@ -96,6 +118,13 @@ public class RestClientConfig {
             httpClientBuilder.connectTimeout(connectTimeout);
         }
         HttpClient httpClient = httpClientBuilder.connectTimeout(Duration.ofSeconds(10)).build();
+        if (bufferPool != null) {
+            PooledJdkClientHttpRequestFactory pooledFactory = new PooledJdkClientHttpRequestFactory(httpClient, bufferPool);
+            if (readTimeout != null) {
+                pooledFactory.setReadTimeout(readTimeout);
+            }
+            return pooledFactory;
+        }
         JdkClientHttpRequestFactory customFactory = new JdkClientHttpRequestFactory(httpClient);
         if(readTimeout != null) {
             customFactory.setReadTimeout(readTimeout);
@@ -0,0 +1,63 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.observability.metrics.KeepAliveTracker;
+import com.web.opentelemetry.observability.metrics.KeepAliveTrackingValve;
+import com.web.opentelemetry.observability.metrics.TomcatConnectorMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.tomcat.TomcatConnectorCustomizer;
+import org.springframework.boot.tomcat.TomcatContextCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Connector socket options and metrics, applied to the factory from TomcatAccessLogAutoConfig
+ * (which picks up TomcatConnectorCustomizer and TomcatContextCustomizer beans). Connection limits,
+ * keep-alive and HTTP/2 are left to server.tomcat.* and server.http2.enabled: Boot's
+ * TomcatWebServerFactoryCustomizer runs after this customizer and would overwrite them anyway.
+ */
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(TomcatConnectorProperties.class)
+public class TomcatConnectorConfig {
+
+    @Bean
+    public KeepAliveTracker keepAliveTracker(@Value("${server.tomcat.max-connections:8192}") int maxConnections) {
+        return new KeepAliveTracker(maxConnections * 2);
+    }
+
+    @Bean
+    public TomcatConnectorMetrics tomcatConnectorMetrics(KeepAliveTracker keepAliveTracker) {
+        return new TomcatConnectorMetrics(keepAliveTracker);
+    }
+
+    @Bean
+    public TomcatContextCustomizer keepAliveTrackingCustomizer(KeepAliveTracker keepAliveTracker) {
+        return context -> context.getPipeline().addValve(new KeepAliveTrackingValve(keepAliveTracker));
+    }
+
+    @Bean
+    public TomcatConnectorCustomizer tunedConnectorCustomizer(TomcatConnectorProperties properties,
+                                                              TomcatConnectorMetrics tomcatConnectorMetrics,
+                                                              @Value("${server.port:8080}") int serverPort) {
+        return connector -> {
+            ProtocolHandler handler = connector.getProtocolHandler();
+            if (handler instanceof AbstractHttp11Protocol<?> http) {
+                http.setTcpNoDelay(properties.tcpNoDelay());
+            }
+            if (properties.socketReceiveBuffer() > 0) {
+                connector.setProperty("socket.rxBufSize", String.valueOf(properties.socketReceiveBuffer()));
+            }
+            if (properties.socketSendBuffer() > 0) {
+                connector.setProperty("socket.txBufSize", String.valueOf(properties.socketSendBuffer()));
+            }
+            if (connector.getPort() == serverPort) {
+                tomcatConnectorMetrics.bind(connector);
+            }
+            log.info("Tomcat connector on port {} tuned: {}", connector.getPort(), properties);
+        };
+    }
+}
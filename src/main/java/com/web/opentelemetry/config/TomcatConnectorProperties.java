@@ -0,0 +1,19 @@
+package com.web.opentelemetry.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Socket options that server.tomcat.* has no property for, applied to the TomcatServletWebServerFactory
+ * from TomcatAccessLogAutoConfig. Connection limits and keep-alive are set with server.tomcat.max-connections,
+ * accept-count, keep-alive-timeout and max-keep-alive-requests; h2c with server.http2.enabled.
+ *
+ * @param socketReceiveBuffer   SO_RCVBUF in bytes, 0 keeps the OS default
+ * @param socketSendBuffer      SO_SNDBUF in bytes, 0 keeps the OS default
+ * @param tcpNoDelay            disable Nagle's algorithm
+ */
+@ConfigurationProperties("app.tomcat.connector")
+public record TomcatConnectorProperties(@DefaultValue("0") int socketReceiveBuffer,
+                                        @DefaultValue("0") int socketSendBuffer,
+                                        @DefaultValue("true") boolean tcpNoDelay) {
+}
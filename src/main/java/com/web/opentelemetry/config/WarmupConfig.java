@@ -0,0 +1,55 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.component.warmup.DnsCache;
+import com.web.opentelemetry.component.warmup.DownstreamWarmer;
+import com.web.opentelemetry.component.warmup.DownstreamWarmupHealthIndicator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Start-up warm-up of the outbound path. The health indicator is named {@code downstreamWarmup} and included in
+ * the readiness group ({@code management.endpoint.health.group.readiness.include}).
+ */
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+@ConditionalOnBooleanProperty(name = "app.warmup.enabled", matchIfMissing = true)
+public class WarmupConfig {
+
+    @Bean
+    public DnsCache dnsCache() {
+        return DnsCache.shared();
+    }
+
+    /**
+     * This context's hold on the JVM-wide cache, released when the context closes.
+     */
+    @Bean
+    @ConditionalOnBooleanProperty(name = "app.warmup.dns.cache", matchIfMissing = true)
+    public DnsCache.Registration dnsCacheRegistration(DnsCache dnsCache, WarmupProperties properties,
+                                                      MeterRegistry meterRegistry) {
+        WarmupProperties.Dns dns = properties.dns();
+        dnsCache.bindTo(meterRegistry);
+        return dnsCache.configure(dns.ttl(), dns.staleTtl(), dns.negativeTtl(), dns.maxEntries());
+    }
+
+    @Bean
+    public DownstreamWarmer downstreamWarmer(WarmupProperties properties, RestClient restClient) {
+        DownstreamWarmer warmer = new DownstreamWarmer(properties.timeout(), properties.connections(),
+                properties.keepWarmInterval());
+        for (WarmupProperties.Downstream downstream : properties.downstreams()) {
+            String name = downstream.name() != null ? downstream.name() : downstream.url();
+            warmer.register(name, restClient, downstream.url(),
+                    downstream.connections() != null ? downstream.connections() : properties.connections());
+        }
+        return warmer;
+    }
+
+    @Bean
+    public DownstreamWarmupHealthIndicator downstreamWarmupHealthIndicator(DownstreamWarmer downstreamWarmer, DnsCache dnsCache) {
+        return new DownstreamWarmupHealthIndicator(downstreamWarmer, dnsCache);
+    }
+}
@@ -0,0 +1,46 @@
+package com.web.opentelemetry.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Start-up warm-up of the outbound path, see DownstreamWarmer.
+ *
+ * @param enabled          warm the downstreams and hold readiness until done
+ * @param timeout          readiness goes UP after this even if some targets are still warming
+ * @param connections      pooled connections to open per target, unless the target says otherwise
+ * @param keepWarmInterval repeat the connection step on this interval; 0 disables it
+ * @param downstreams      URLs warmed through the shared RestClient bean
+ * @param dns              JVM-wide host name cache behind the warm-up
+ */
+@ConfigurationProperties("app.warmup")
+public record WarmupProperties(@DefaultValue("true") boolean enabled,
+                               @DefaultValue("10s") Duration timeout,
+                               @DefaultValue("4") int connections,
+                               @DefaultValue("0s") Duration keepWarmInterval,
+                               @DefaultValue List<Downstream> downstreams,
+                               @DefaultValue Dns dns) {
+
+    /**
+     * @param connections overrides the default number of connections when set
+     */
+    public record Downstream(String name, String url, Integer connections) {
+    }
+
+    /**
+     * @param cache       route lookups through the DnsCache; off leaves only the JVM's own cache
+     * @param ttl         served from the cache without a lookup
+     * @param staleTtl    after the ttl, served while a background lookup refreshes the entry
+     * @param negativeTtl failed lookups are remembered this long
+     * @param maxEntries  host names cached at most
+     */
+    public record Dns(@DefaultValue("true") boolean cache,
+                      @DefaultValue("60s") Duration ttl,
+                      @DefaultValue("10m") Duration staleTtl,
+                      @DefaultValue("5s") Duration negativeTtl,
+                      @DefaultValue("1024") int maxEntries) {
+    }
+}
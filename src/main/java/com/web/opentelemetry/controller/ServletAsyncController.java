@@ -0,0 +1,142 @@
+package com.web.opentelemetry.controller;
+
+import com.web.opentelemetry.observability.tracing.RequestContextSnapshot;
+import com.web.opentelemetry.service.AsyncTaskService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Servlet async variants of the fan-out endpoints in {@link ThreadsLogTraceController}. The same two downstream
+ * calls are made, but the request thread is handed back to Tomcat instead of blocking in {@code allFutures.get()};
+ * the response is written on an async dispatch once both calls are done. On virtual threads that blocking is
+ * cheap, on platform threads ({@code spring.threads.virtual.enabled=false}) it holds a Tomcat worker per request.
+ * <p>
+ * Each call falls back to an error string after {@code app.fanout.servlet-async.call-timeout}, and the whole
+ * request answers 503 after {@code app.fanout.servlet-async.timeout}. Completion callbacks restore the request's
+ * MDC and trace context, see {@link RequestContextSnapshot}.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api")
+public class ServletAsyncController {
+
+    @Autowired
+    RestClient restClient;
+
+    @Autowired
+    AsyncTaskService asyncTaskService;
+
+    @Autowired
+    AsyncTaskExecutor taskExecutor;
+
+    @Value("${app.downstream.base-url:http://localhost:8080}")
+    String downstreamBaseUrl;
+
+    @Value("${app.fanout.servlet-async.timeout:5s}")
+    Duration timeout;
+
+    @Value("${app.fanout.servlet-async.call-timeout:3s}")
+    Duration callTimeout;
+
+    /**
+     * Servlet async form of {@code /api/info/async}: CompletableFuture tasks on the task executor.
+     */
+    @GetMapping("/info/async-servlet")
+    public CompletableFuture<String> asyncServlet() {
+        log.info("Starting servlet-async calls from thread: {}", Thread.currentThread().getName());
+        RequestContextSnapshot context = RequestContextSnapshot.capture();
+
+        CompletableFuture<String> future1 = withCallTimeout(
+                CompletableFuture.supplyAsync(() -> fetchInfo("first"), taskExecutor), "first");
+        CompletableFuture<String> future2 = withCallTimeout(
+                CompletableFuture.supplyAsync(() -> fetchInfo("second"), taskExecutor), "second");
+
+        return future1.thenCombine(future2, (result1, result2) -> {
+            try (RequestContextSnapshot.Scope scope = context.restore()) {
+                log.info("All servlet-async calls completed on thread: {}", Thread.currentThread().getName());
+                return combine(result1, result2);
+            }
+        }).orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Servlet async form of {@code /api/info/async-spring}: {@code @Async} service calls completing a DeferredResult.
+     */
+    @GetMapping("/info/async-spring-servlet")
+    public DeferredResult<String> asyncSpringServlet() {
+        log.info("Starting servlet-async Spring calls from thread: {}", Thread.currentThread().getName());
+        RequestContextSnapshot context = RequestContextSnapshot.capture();
+        DeferredResult<String> result = new DeferredResult<>(timeout.toMillis());
+        result.onTimeout(() -> {
+            try (RequestContextSnapshot.Scope scope = context.restore()) {
+                log.warn("Servlet-async Spring calls did not complete within {}", timeout);
+                result.setErrorResult(timedOut());
+            }
+        });
+
+        CompletableFuture<String> future1 = withCallTimeout(asyncTaskService.fetchDataAsync("call1"), "first");
+        CompletableFuture<String> future2 = withCallTimeout(asyncTaskService.fetchDataAsync("call2"), "second");
+
+        future1.thenCombine(future2, ServletAsyncController::combine).whenComplete((body, error) -> {
+            try (RequestContextSnapshot.Scope scope = context.restore()) {
+                if (error != null) {
+                    log.error("Error completing servlet-async Spring calls", error);
+                    result.setErrorResult(error);
+                } else {
+                    log.info("All servlet-async Spring calls completed on thread: {}", Thread.currentThread().getName());
+                    result.setResult(body);
+                }
+            }
+        });
+        return result;
+    }
+
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<String> handleTimeout(TimeoutException e) {
+        log.warn("Servlet-async calls did not complete within {}", timeout);
+        return timedOut();
+    }
+
+    private ResponseEntity<String> timedOut() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Async calls timed out after " + timeout);
+    }
+
+    private String fetchInfo(String call) {
+        try {
+            log.info("Executing servlet-async {} call on thread: {}", call, Thread.currentThread().getName());
+            return restClient.get()
+                    .uri(downstreamBaseUrl + "/api/info")
+                    .retrieve()
+                    .body(String.class);
+        } catch (Exception e) {
+            return "Failed to fetch data from " + call + " API call: " + e.getMessage();
+        }
+    }
+
+    /**
+     * Bounds one call without cancelling it; the RestClient read timeout still ends the downstream request.
+     */
+    private CompletableFuture<String> withCallTimeout(CompletableFuture<String> call, String name) {
+        return call.completeOnTimeout("Failed to fetch data from " + name + " API call: timed out after " + callTimeout,
+                callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static String combine(String result1, String result2) {
+        return "{\n  \"call1\": " + result1 + ",\n  \"call2\": " + result2 + "\n}";
+    }
+}
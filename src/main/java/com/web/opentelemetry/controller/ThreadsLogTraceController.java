@@ -1,16 +1,25 @@
 package com.web.opentelemetry.controller;
 
+import com.web.opentelemetry.model.InfoBatchItem;
+import com.web.opentelemetry.model.InfoBatchResult;
+import com.web.opentelemetry.observability.startup.FirstRequestTimingFilter;
 import com.web.opentelemetry.service.AsyncTaskService;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.RestClient;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
@@ -22,6 +31,7 @@ import static com.web.opentelemetry.interceptor.TraceHttpInterceptor.HEADER_REQU
 @RequestMapping("/api")
 public class ThreadsLogTraceController {
 //    static final Logger log = LoggerFactory.getLogger(ThreadsLogTraceController.class);
+    static final String FETCH_FAILED = "Failed to fetch data from Google";
 
     @Autowired
     RestClient restClient;
@@ -32,21 +42,43 @@ public class ThreadsLogTraceController {
     @Autowired
     AsyncTaskExecutor taskExecutor;
 
+    // This app by default; point it at a stub server to benchmark without calling back into the app
+    @Value("${app.downstream.base-url:http://localhost:8080}")
+    String downstreamBaseUrl;
+
     @GetMapping("/info")
     public String info(HttpServletRequest request) {
         log.info("In the info endpoint");
-        String response;
-        try {
-            response = restClient.get()
-                    .uri("http://localhost:8080/api/internal")
-                    .retrieve()
-                    .body(String.class);
-        } catch (Exception e) {
-            response = "Failed to fetch data from Google";
+        String response = fetchInternal();
+        if (FETCH_FAILED.equals(response)) {
+            // Still a 200, but not a success for the first-request timing
+            request.setAttribute(FirstRequestTimingFilter.DOWNSTREAM_FAILED_ATTRIBUTE, Boolean.TRUE);
         }
         return response;
     }
 
+    /**
+     * Batched form of {@link #info}, used by the micro-batching AsyncTaskService path.
+     * /api/info takes no parameters, so one downstream call serves every item; items are validated
+     * individually so a bad item fails alone.
+     */
+    @PostMapping("/info/batch")
+    public List<InfoBatchResult> infoBatch(@RequestBody List<InfoBatchItem> items) {
+        log.info("In the info batch endpoint with {} items", items.size());
+        String response = fetchInternal();
+
+        List<InfoBatchResult> results = new ArrayList<>(items.size());
+        for (InfoBatchItem item : items) {
+            if (item == null || !StringUtils.hasText(item.id())) {
+                results.add(InfoBatchResult.failure(item == null ? null : item.id(), 400, "Missing item id"));
+            } else {
+                log.debug("Batch item {} for requestId {}", item.id(), item.requestId());
+                results.add(InfoBatchResult.success(item.id(), response));
+            }
+        }
+        return results;
+    }
+
     @GetMapping("/info/async")
     public String async(HttpServletRequest request) {
         log.info("Starting manual async calls from Main thread");
@@ -55,7 +87,7 @@ public class ThreadsLogTraceController {
             try {
                 log.info("Executing async call 1 on thread: {}", Thread.currentThread().getName());
                 var resp = restClient.get()
-                        .uri("http://localhost:8080/api/info")
+                        .uri(downstreamBaseUrl + "/api/info")
                         .retrieve()
                         .body(String.class);
                 return resp;
@@ -68,7 +100,7 @@ public class ThreadsLogTraceController {
             try {
                 log.info("Executing async call 2 on thread: {}", Thread.currentThread().getName());
                 var resp = restClient.get()
-                        .uri("http://localhost:8080/api/info")
+                        .uri(downstreamBaseUrl + "/api/info")
                         .retrieve()
                         .body(String.class);
                 return resp;
@@ -117,6 +149,17 @@ public class ThreadsLogTraceController {
         }
     }
 
+    private String fetchInternal() {
+        try {
+            return restClient.get()
+                    .uri(downstreamBaseUrl + "/api/internal")
+                    .retrieve()
+                    .body(String.class);
+        } catch (Exception e) {
+            return FETCH_FAILED;
+        }
+    }
+
     @GetMapping("/internal")
     public void internal(HttpServletRequest request) {
         log.info("In internal endpoint...");
@@ -5,6 +5,8 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -14,17 +16,29 @@ import java.util.UUID;
 
 import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
 
+// Ahead of the ResponseCacheFilter, so cached responses get a request id too
+@Order(Ordered.LOWEST_PRECEDENCE - 100)
 @Component
 public class RequestIdObservabilityFilter extends OncePerRequestFilter {
 
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
             HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
-        String requestId = Optional.ofNullable(request.getHeader(X_SSTECHMINDS_REQUEST_ID))
-                .orElse(UUID.randomUUID().toString());
+        // Kept as a request attribute so the async dispatch of a Servlet async request logs with the same id
+        String requestId = (String) request.getAttribute(X_SSTECHMINDS_REQUEST_ID);
+        if (requestId == null) {
+            requestId = Optional.ofNullable(request.getHeader(X_SSTECHMINDS_REQUEST_ID))
+                    .orElse(UUID.randomUUID().toString());
+            request.setAttribute(X_SSTECHMINDS_REQUEST_ID, requestId);
+        }
 
         MDC.put(X_SSTECHMINDS_REQUEST_ID, requestId);
 
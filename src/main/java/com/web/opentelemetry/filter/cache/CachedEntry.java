@@ -0,0 +1,19 @@
+package com.web.opentelemetry.filter.cache;
+
+/**
+ * A stored server response. The body is the exact rendered bytes; the strong ETag is computed once, when the
+ * entry is created. Timestamps are {@code System.nanoTime()} values.
+ */
+record CachedEntry(int status, String contentType, byte[] body, String etag, long storedAt, long expiresAt) {
+
+    // Object headers, the record fields and the array header
+    private static final int OVERHEAD = 96;
+
+    boolean isExpired(long now) {
+        return now - expiresAt >= 0;
+    }
+
+    long weight() {
+        return OVERHEAD + body.length + 2L * etag.length() + (contentType != null ? 2L * contentType.length() : 0);
+    }
+}
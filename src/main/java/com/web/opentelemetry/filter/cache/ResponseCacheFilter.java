@@ -0,0 +1,352 @@
+package com.web.opentelemetry.filter.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+
+/**
+ * Server-side cache for idempotent GET routes that opt in with a TTL.
+ * <p>
+ * The key is the path, the query parameters sorted by name and value, and the values of the route's key
+ * headers (for example Accept, if the handler negotiates content). A hit writes the stored status,
+ * Content-Type and body with the entry's strong ETag and an Age header, without running the handler; HEAD
+ * requests are answered from the GET entry. A request whose If-None-Match matches the ETag (or is
+ * {@code *}) gets a 304 instead, whether the response came from the cache or was just rendered.
+ * <p>
+ * Stampede protection: the first miss for a key runs the handler, concurrent misses for the same key wait
+ * up to {@code waitTimeout} for its result and are served from it. If the result could not be cached, or
+ * the wait times out, they run the handler themselves.
+ * <p>
+ * Only 200 responses up to {@code maxEntrySize}, without Set-Cookie and without Cache-Control no-store or
+ * private, are stored. A handler that goes async is passed through uncached; its buffered body is written
+ * on the async dispatch.
+ * <p>
+ * Metrics, tagged with the route pattern: {@code http.server.cache.requests} by result (hit, coalesced,
+ * miss), {@code http.server.cache.not.modified}, the gauge {@code http.server.cache.hit.ratio}, and
+ * {@code http.server.cache.bytes.saved} by reason: render (body served from the cache instead of the
+ * handler) and transfer (body not sent because of a 304).
+ */
+@Slf4j
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    /**
+     * @param path       route pattern, e.g. /api/info or /api/items/{id}
+     * @param ttl        how long a stored response is served
+     * @param keyHeaders request headers whose values are part of the key
+     */
+    public record Route(String path, Duration ttl, List<String> keyHeaders) {
+    }
+
+    private static final class RouteState {
+        final PathPattern pattern;
+        final long ttlNanos;
+        final List<String> keyHeaders;
+        final Counter hits;
+        final Counter coalesced;
+        final Counter misses;
+        final Counter notModified;
+        final Counter savedRender;
+        final Counter savedTransfer;
+
+        RouteState(Route route, MeterRegistry meterRegistry) {
+            this.pattern = PathPatternParser.defaultInstance.parse(route.path());
+            this.ttlNanos = route.ttl().toNanos();
+            this.keyHeaders = List.copyOf(route.keyHeaders());
+            this.hits = requests(route, "hit", meterRegistry);
+            this.coalesced = requests(route, "coalesced", meterRegistry);
+            this.misses = requests(route, "miss", meterRegistry);
+            this.notModified = Counter.builder("http.server.cache.not.modified")
+                    .tag("route", route.path()).register(meterRegistry);
+            this.savedRender = bytesSaved(route, "render", meterRegistry);
+            this.savedTransfer = bytesSaved(route, "transfer", meterRegistry);
+            Gauge.builder("http.server.cache.hit.ratio", this, RouteState::hitRatio)
+                    .tag("route", route.path()).register(meterRegistry);
+        }
+
+        private static Counter requests(Route route, String result, MeterRegistry meterRegistry) {
+            return Counter.builder("http.server.cache.requests")
+                    .tag("route", route.path())
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        private static Counter bytesSaved(Route route, String reason, MeterRegistry meterRegistry) {
+            return Counter.builder("http.server.cache.bytes.saved")
+                    .tag("route", route.path())
+                    .tag("reason", reason)
+                    .baseUnit("bytes")
+                    .register(meterRegistry);
+        }
+
+        double hitRatio() {
+            double served = hits.count() + coalesced.count();
+            double total = served + misses.count();
+            return total == 0 ? 0 : served / total;
+        }
+    }
+
+    private final List<RouteState> routes;
+    private final ResponseCacheStore store;
+    private final int maxEntrySize;
+    private final Duration waitTimeout;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, CompletableFuture<CachedEntry>> loading = new ConcurrentHashMap<>();
+
+    public ResponseCacheFilter(List<Route> routes, ResponseCacheStore store, int maxEntrySize, Duration waitTimeout,
+                               MeterRegistry meterRegistry) {
+        this(routes, store, maxEntrySize, waitTimeout, meterRegistry, System::nanoTime);
+    }
+
+    ResponseCacheFilter(List<Route> routes, ResponseCacheStore store, int maxEntrySize, Duration waitTimeout,
+                        MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.routes = routes.stream().map(route -> new RouteState(route, meterRegistry)).toList();
+        this.store = store;
+        this.maxEntrySize = maxEntrySize;
+        this.waitTimeout = waitTimeout;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        if (isAsyncDispatch(request)) {
+            filterChain.doFilter(request, response);
+            ContentCachingResponseWrapper wrapper =
+                    WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+            if (wrapper != null && !isAsyncStarted(request)) {
+                wrapper.copyBodyToResponse();
+            }
+            return;
+        }
+
+        RouteState route = match(request);
+        if (route == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = key(request, route);
+        CachedEntry entry = store.get(key, nanoClock.getAsLong());
+        if (entry != null) {
+            route.hits.increment();
+            serve(entry, request, response, route);
+            return;
+        }
+        if (HttpMethod.HEAD.matches(request.getMethod())) {
+            // No body to store; the next GET fills the entry
+            route.misses.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CompletableFuture<CachedEntry> loader = new CompletableFuture<>();
+        CompletableFuture<CachedEntry> inFlight = loading.putIfAbsent(key, loader);
+        if (inFlight != null) {
+            CachedEntry shared = await(inFlight, key);
+            if (shared != null) {
+                route.coalesced.increment();
+                serve(shared, request, response, route);
+            } else {
+                route.misses.increment();
+                render(request, response, filterChain, route, key);
+            }
+            return;
+        }
+        route.misses.increment();
+        try {
+            loader.complete(render(request, response, filterChain, route, key));
+        } finally {
+            // Waiters run the handler themselves if rendering failed
+            loader.complete(null);
+            loading.remove(key, loader);
+        }
+    }
+
+    private RouteState match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(
+                request.getRequestURI().substring(request.getContextPath().length()));
+        for (RouteState route : routes) {
+            if (route.pattern.matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private static String key(HttpServletRequest request, RouteState route) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        Map<String, String[]> parameters = request.getParameterMap();
+        if (!parameters.isEmpty()) {
+            char separator = '?';
+            for (Map.Entry<String, String[]> parameter : new TreeMap<>(parameters).entrySet()) {
+                String[] values = parameter.getValue().clone();
+                Arrays.sort(values);
+                for (String value : values) {
+                    key.append(separator).append(URLEncoder.encode(parameter.getKey(), StandardCharsets.UTF_8))
+                            .append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+                    separator = '&';
+                }
+            }
+        }
+        for (String header : route.keyHeaders) {
+            key.append('\n').append(header.toLowerCase()).append(':');
+            Enumeration<String> values = request.getHeaders(header);
+            while (values.hasMoreElements()) {
+                key.append(values.nextElement()).append(values.hasMoreElements() ? "," : "");
+            }
+        }
+        return key.toString();
+    }
+
+    private CachedEntry await(CompletableFuture<CachedEntry> inFlight, String key) {
+        try {
+            return inFlight.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.debug("Gave up waiting {} for the in-flight response of {}", waitTimeout, key);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs the handler into a buffer and stores the response if it is cacheable.
+     *
+     * @return the stored entry, or null if the response was not cacheable
+     */
+    private CachedEntry render(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                               RouteState route, String key) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+        if (isAsyncStarted(request)) {
+            // Copied to the response on the async dispatch
+            return null;
+        }
+
+        CachedEntry entry = null;
+        if (isCacheable(wrapper)) {
+            long now = nanoClock.getAsLong();
+            byte[] body = wrapper.getContentAsByteArray();
+            entry = new CachedEntry(wrapper.getStatus(), wrapper.getContentType(), body, etag(body),
+                    now, now + route.ttlNanos);
+            store.put(key, entry, now);
+            wrapper.setHeader(HttpHeaders.ETAG, entry.etag());
+            if (isNotModified(request, entry.etag())) {
+                wrapper.resetBuffer();
+                wrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                route.notModified.increment();
+                route.savedTransfer.increment(body.length);
+            }
+        }
+        wrapper.copyBodyToResponse();
+        return entry;
+    }
+
+    private boolean isCacheable(ContentCachingResponseWrapper response) {
+        if (response.getStatus() != HttpServletResponse.SC_OK
+                || response.getContentSize() > maxEntrySize
+                || response.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        for (String cacheControl : response.getHeaders(HttpHeaders.CACHE_CONTROL)) {
+            String directives = cacheControl.toLowerCase();
+            if (directives.contains("no-store") || directives.contains("private")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void serve(CachedEntry entry, HttpServletRequest request, HttpServletResponse response,
+                       RouteState route) throws IOException {
+        long ageNanos = Math.max(0, nanoClock.getAsLong() - entry.storedAt());
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setHeader(HttpHeaders.AGE, Long.toString(TimeUnit.NANOSECONDS.toSeconds(ageNanos)));
+        route.savedRender.increment(entry.body().length);
+        if (isNotModified(request, entry.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            route.notModified.increment();
+            route.savedTransfer.increment(entry.body().length);
+            return;
+        }
+        response.setStatus(entry.status());
+        if (entry.contentType() != null) {
+            response.setContentType(entry.contentType());
+        }
+        response.setContentLength(entry.body().length);
+        if (!HttpMethod.HEAD.matches(request.getMethod())) {
+            response.getOutputStream().write(entry.body());
+        }
+    }
+
+    /**
+     * If-None-Match uses the weak comparison (RFC 9110 section 13.1.2): a W/ prefix on either side is ignored.
+     */
+    static boolean isNotModified(HttpServletRequest request, String etag) {
+        String opaqueTag = stripWeak(etag);
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.IF_NONE_MATCH);
+        while (headers.hasMoreElements()) {
+            for (String candidate : headers.nextElement().split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || stripWeak(tag).equals(opaqueTag)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    static String etag(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+}
@@ -0,0 +1,160 @@
+package com.web.opentelemetry.filter.cache;
+
+import com.web.opentelemetry.interceptor.cache.FrequencySketch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Byte-budgeted store of {@link ResponseCacheFilter} entries in one access-ordered map, so the eldest entry
+ * is always the least recently used.
+ * <p>
+ * With {@link Eviction#LRU} a new entry evicts least recently used entries until it fits. With
+ * {@link Eviction#LFU} it additionally has to pass TinyLFU admission: it is only stored if the
+ * {@link FrequencySketch} estimates it more popular than each entry it would displace, so a burst of
+ * one-off keys (a crawler walking query strings) cannot flush the popular ones. Expired entries are
+ * dropped when they are read or reach the eldest position, without an admission check. Everything is
+ * behind one ReentrantLock; bodies are plain byte arrays, so the lock only guards map operations.
+ * <p>
+ * Metrics: {@code http.server.cache.evictions} by cause, and the gauges {@code http.server.cache.size}
+ * (bytes), {@code http.server.cache.entries} and {@code http.server.cache.max}.
+ */
+public final class ResponseCacheStore {
+
+    public enum Eviction {LRU, LFU}
+
+    enum RemovalCause {SIZE, EXPIRED, REPLACED, REJECTED}
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final long maxBytes;
+    private final Map<RemovalCause, Counter> evictions = new EnumMap<>(RemovalCause.class);
+
+    private long weightedSize;
+
+    public ResponseCacheStore(long maxBytes, Eviction eviction, int expectedEntries, MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes;
+        this.sketch = eviction == Eviction.LFU ? new FrequencySketch(expectedEntries) : null;
+        for (RemovalCause cause : RemovalCause.values()) {
+            evictions.put(cause, Counter.builder("http.server.cache.evictions")
+                    .tag("cause", cause.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("http.server.cache.size", this, ResponseCacheStore::weightedSize)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("http.server.cache.entries", this, ResponseCacheStore::entries).register(meterRegistry);
+        Gauge.builder("http.server.cache.max", this, s -> s.maxBytes).baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * The fresh entry for the key, or null, recording the access for recency and frequency.
+     */
+    CachedEntry get(String key, long now) {
+        lock.lock();
+        try {
+            if (sketch != null) {
+                sketch.increment(FrequencySketch.hash(key));
+            }
+            CachedEntry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                remove(key, entry, RemovalCause.EXPIRED);
+                return null;
+            }
+            return entry;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the entry, replacing the one for the same key. The victims are chosen and the admission check
+     * is made before anything is removed, so a rejected entry leaves the store as it was.
+     *
+     * @return false if the entry is larger than the budget or lost the admission check
+     */
+    boolean put(String key, CachedEntry entry, long now) {
+        long weight = weight(key, entry);
+        if (weight > maxBytes) {
+            return false;
+        }
+        lock.lock();
+        try {
+            CachedEntry previous = entries.get(key);
+            long free = maxBytes - weightedSize + (previous != null ? weight(key, previous) : 0);
+            // Iterating does not change the access order
+            List<Map.Entry<String, CachedEntry>> victims = new ArrayList<>();
+            Iterator<Map.Entry<String, CachedEntry>> eldestFirst = entries.entrySet().iterator();
+            while (free < weight && eldestFirst.hasNext()) {
+                Map.Entry<String, CachedEntry> eldest = eldestFirst.next();
+                if (eldest.getKey().equals(key)) {
+                    continue;
+                }
+                // TinyLFU admission: the newcomer has to be more popular than each live entry it would replace
+                if (sketch != null && !eldest.getValue().isExpired(now) && sketch.frequency(FrequencySketch.hash(key))
+                        <= sketch.frequency(FrequencySketch.hash(eldest.getKey()))) {
+                    evictions.get(RemovalCause.REJECTED).increment();
+                    return false;
+                }
+                victims.add(eldest);
+                free += weight(eldest.getKey(), eldest.getValue());
+            }
+
+            if (previous != null) {
+                remove(key, previous, RemovalCause.REPLACED);
+            }
+            for (Map.Entry<String, CachedEntry> victim : victims) {
+                remove(victim.getKey(), victim.getValue(),
+                        victim.getValue().isExpired(now) ? RemovalCause.EXPIRED : RemovalCause.SIZE);
+            }
+            entries.put(key, entry);
+            weightedSize += weight;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void remove(String key, CachedEntry entry, RemovalCause cause) {
+        entries.remove(key);
+        weightedSize -= weight(key, entry);
+        evictions.get(cause).increment();
+    }
+
+    private static long weight(String key, CachedEntry entry) {
+        return entry.weight() + 2L * key.length();
+    }
+
+    public long weightedSize() {
+        lock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int entries() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+}
@@ -0,0 +1,75 @@
+package com.web.opentelemetry.interceptor.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * The {@code Cache-Control} directives this cache acts on (RFC 9111 section 5.2), parsed from request or
+ * response headers. Durations are null when the directive is absent.
+ */
+record CacheDirectives(boolean noStore, boolean noCache, boolean privateResponse, boolean publicResponse,
+                       boolean mustRevalidate, boolean proxyRevalidate, boolean onlyIfCached,
+                       Duration maxAge, Duration sharedMaxAge, Duration staleWhileRevalidate, Duration staleIfError) {
+
+    static final CacheDirectives NONE = new CacheDirectives(false, false, false, false, false, false, false,
+            null, null, null, null);
+
+    static CacheDirectives parse(HttpHeaders headers) {
+        boolean noStore = false, noCache = false, privateResponse = false, publicResponse = false;
+        boolean mustRevalidate = false, proxyRevalidate = false, onlyIfCached = false;
+        Duration maxAge = null, sharedMaxAge = null, staleWhileRevalidate = null, staleIfError = null;
+
+        for (String header : headers.getOrEmpty(HttpHeaders.CACHE_CONTROL)) {
+            for (String directive : header.split(",")) {
+                String token = directive.trim();
+                int eq = token.indexOf('=');
+                String name = (eq < 0 ? token : token.substring(0, eq)).trim().toLowerCase(Locale.ROOT);
+                String value = eq < 0 ? null : unquote(token.substring(eq + 1).trim());
+                switch (name) {
+                    case "no-store" -> noStore = true;
+                    // Field-qualified no-cache/private ("no-cache=Set-Cookie") are treated as unqualified: stricter, still correct
+                    case "no-cache" -> noCache = true;
+                    case "private" -> privateResponse = true;
+                    case "public" -> publicResponse = true;
+                    case "must-revalidate" -> mustRevalidate = true;
+                    case "proxy-revalidate" -> proxyRevalidate = true;
+                    case "only-if-cached" -> onlyIfCached = true;
+                    case "max-age" -> maxAge = seconds(value, maxAge);
+                    case "s-maxage" -> sharedMaxAge = seconds(value, sharedMaxAge);
+                    case "stale-while-revalidate" -> staleWhileRevalidate = seconds(value, staleWhileRevalidate);
+                    case "stale-if-error" -> staleIfError = seconds(value, staleIfError);
+                    default -> {
+                        // unknown extensions are ignored, as required
+                    }
+                }
+            }
+        }
+        // HTTP/1.0 "Pragma: no-cache" only counts when there is no Cache-Control (RFC 9111 section 5.4)
+        if (!headers.containsHeader(HttpHeaders.CACHE_CONTROL)
+                && headers.getOrEmpty(HttpHeaders.PRAGMA).stream().anyMatch(p -> p.toLowerCase(Locale.ROOT).contains("no-cache"))) {
+            noCache = true;
+        }
+        return new CacheDirectives(noStore, noCache, privateResponse, publicResponse, mustRevalidate, proxyRevalidate,
+                onlyIfCached, maxAge, sharedMaxAge, staleWhileRevalidate, staleIfError);
+    }
+
+    /**
+     * Invalid delta-seconds make the directive ineffective; a duplicate keeps the first value.
+     */
+    private static Duration seconds(String value, Duration current) {
+        if (current != null || value == null) {
+            return current;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String unquote(String value) {
+        return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"") ? value.substring(1, value.length() - 1) : value;
+    }
+}
@@ -0,0 +1,70 @@
+package com.web.opentelemetry.interceptor.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A response served from the cache. The body is streamed straight from a view of its off-heap buffer,
+ * which keeps the buffer alive while the response is read, so a hit does not copy the body onto the heap.
+ */
+final class CachedClientHttpResponse implements ClientHttpResponse {
+    private final CachedResponse cached;
+    private final HttpHeaders headers;
+    private final ByteBuffer body;
+
+    CachedClientHttpResponse(CachedResponse cached, long ageSeconds) {
+        this.cached = cached;
+        this.headers = CachedResponse.copy(cached.headers());
+        this.headers.set(HttpHeaders.AGE, Long.toString(ageSeconds));
+        this.body = cached.body().view();
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() {
+        return cached.status();
+    }
+
+    @Override
+    public String getStatusText() {
+        return "";
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+        return new InputStream() {
+            @Override
+            public int read() {
+                return body.hasRemaining() ? body.get() & 0xFF : -1;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (!body.hasRemaining()) {
+                    return -1;
+                }
+                int count = Math.min(length, body.remaining());
+                body.get(bytes, offset, count);
+                return count;
+            }
+
+            @Override
+            public int available() {
+                return body.remaining();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release: the off-heap body is freed once it is unreachable
+    }
+}
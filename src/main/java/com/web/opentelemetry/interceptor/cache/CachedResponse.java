@@ -0,0 +1,221 @@
+package com.web.opentelemetry.interceptor.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One stored response (RFC 9111): status, headers, off-heap body, the request header values it was
+ * selected by ({@code Vary}) and the timestamps needed for the age and freshness calculations of
+ * section 4.2. Immutable; revalidation produces a freshened copy that shares the body.
+ */
+final class CachedResponse {
+    /**
+     * Status codes defined as heuristically cacheable (RFC 9110 section 15.1), minus 206 since range
+     * requests are not cached.
+     */
+    static final Set<Integer> HEURISTICALLY_CACHEABLE = Set.of(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501);
+
+    // Headers that a 304 must not overwrite in the stored response (RFC 9111 section 3.2)
+    private static final Set<String> NOT_UPDATED_BY_304 = Set.of("content-length", "content-encoding", "transfer-encoding",
+            "content-range", "content-type");
+
+    private final HttpStatusCode status;
+    private final HttpHeaders headers;
+    private final OffHeapBody body;
+    private final Map<String, String> varyValues;
+    private final CacheDirectives directives;
+    private final long responseTimeMillis;
+    private final long correctedInitialAgeMillis;
+    private final long freshnessLifetimeMillis;
+    private final int weight;
+
+    private CachedResponse(HttpStatusCode status, HttpHeaders headers, OffHeapBody body, Map<String, String> varyValues,
+                           long requestTimeMillis, long responseTimeMillis, Duration maxHeuristicLifetime) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.varyValues = varyValues;
+        this.directives = CacheDirectives.parse(headers);
+        this.responseTimeMillis = responseTimeMillis;
+        this.correctedInitialAgeMillis = correctedInitialAge(headers, requestTimeMillis, responseTimeMillis);
+        this.freshnessLifetimeMillis = freshnessLifetime(status, headers, directives, maxHeuristicLifetime);
+        this.weight = body.length() + headerWeight(headers) + 128;
+    }
+
+    static CachedResponse create(HttpStatusCode status, HttpHeaders responseHeaders, byte[] body, HttpHeaders requestHeaders,
+                                 long requestTimeMillis, long responseTimeMillis, Duration maxHeuristicLifetime) {
+        return new CachedResponse(status, copy(responseHeaders), OffHeapBody.copyOf(body),
+                varyValues(responseHeaders, requestHeaders), requestTimeMillis, responseTimeMillis, maxHeuristicLifetime);
+    }
+
+    /**
+     * Stored response updated with the header fields of a 304 (RFC 9111 section 4.3.4), keeping the body.
+     */
+    CachedResponse freshen(HttpHeaders notModifiedHeaders, long requestTimeMillis, long responseTimeMillis,
+                           Duration maxHeuristicLifetime) {
+        HttpHeaders merged = copy(headers);
+        notModifiedHeaders.forEach((name, values) -> {
+            if (!NOT_UPDATED_BY_304.contains(name.toLowerCase(Locale.ROOT))) {
+                merged.put(name, new ArrayList<>(values));
+            }
+        });
+        return new CachedResponse(status, merged, body, varyValues, requestTimeMillis, responseTimeMillis, maxHeuristicLifetime);
+    }
+
+    /**
+     * RFC 9111 section 4.2.3: age when received, corrected for clock skew and network delay.
+     */
+    private static long correctedInitialAge(HttpHeaders headers, long requestTimeMillis, long responseTimeMillis) {
+        long date = safeDate(headers, HttpHeaders.DATE);
+        long apparentAge = date < 0 ? 0 : Math.max(0, responseTimeMillis - date);
+        long ageValue = 0;
+        String age = headers.getFirst(HttpHeaders.AGE);
+        if (age != null) {
+            try {
+                ageValue = Math.max(0, Long.parseLong(age.trim())) * 1000;
+            } catch (NumberFormatException ignored) {
+                // invalid Age is ignored
+            }
+        }
+        long responseDelay = responseTimeMillis - requestTimeMillis;
+        return Math.max(apparentAge, ageValue + responseDelay);
+    }
+
+    /**
+     * RFC 9111 section 4.2.1, as a shared cache: s-maxage, then max-age, then Expires minus Date, then
+     * 10% of the time since Last-Modified for heuristically cacheable statuses, capped.
+     */
+    private static long freshnessLifetime(HttpStatusCode status, HttpHeaders headers, CacheDirectives directives,
+                                          Duration maxHeuristicLifetime) {
+        if (directives.sharedMaxAge() != null) {
+            return directives.sharedMaxAge().toMillis();
+        }
+        if (directives.maxAge() != null) {
+            return directives.maxAge().toMillis();
+        }
+        if (headers.containsHeader(HttpHeaders.EXPIRES)) {
+            long expires = safeDate(headers, HttpHeaders.EXPIRES);
+            long date = safeDate(headers, HttpHeaders.DATE);
+            // An invalid Expires means "already expired"
+            return expires < 0 || date < 0 ? 0 : Math.max(0, expires - date);
+        }
+        long lastModified = safeDate(headers, HttpHeaders.LAST_MODIFIED);
+        long date = safeDate(headers, HttpHeaders.DATE);
+        if (lastModified >= 0 && date > lastModified && HEURISTICALLY_CACHEABLE.contains(status.value())) {
+            return Math.min((date - lastModified) / 10, maxHeuristicLifetime.toMillis());
+        }
+        return 0;
+    }
+
+    private static long safeDate(HttpHeaders headers, String name) {
+        try {
+            return headers.getFirstDate(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static Map<String, String> varyValues(HttpHeaders responseHeaders, HttpHeaders requestHeaders) {
+        List<String> names = varyNames(responseHeaders);
+        if (names.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String name : names) {
+            values.put(name, normalize(requestHeaders.getOrEmpty(name)));
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    static List<String> varyNames(HttpHeaders responseHeaders) {
+        List<String> names = new ArrayList<>();
+        for (String vary : responseHeaders.getOrEmpty(HttpHeaders.VARY)) {
+            for (String name : vary.split(",")) {
+                if (!name.isBlank()) {
+                    names.add(name.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Values compare after joining and collapsing whitespace (RFC 9111 section 4.1 allows this normalisation).
+     */
+    private static String normalize(List<String> values) {
+        return String.join(",", values).replaceAll("\\s*,\\s*", ",").trim();
+    }
+
+    boolean matches(HttpHeaders requestHeaders) {
+        for (Map.Entry<String, String> vary : varyValues.entrySet()) {
+            if (!vary.getValue().equals(normalize(requestHeaders.getOrEmpty(vary.getKey())))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean sameVariant(CachedResponse other) {
+        return varyValues.equals(other.varyValues);
+    }
+
+    long ageMillis(long nowMillis) {
+        return correctedInitialAgeMillis + Math.max(0, nowMillis - responseTimeMillis);
+    }
+
+    /**
+     * Negative while fresh; otherwise how long the response has been stale.
+     */
+    long stalenessMillis(long nowMillis) {
+        return ageMillis(nowMillis) - freshnessLifetimeMillis;
+    }
+
+    boolean hasValidators() {
+        return headers.getETag() != null || headers.containsHeader(HttpHeaders.LAST_MODIFIED);
+    }
+
+    static HttpHeaders copy(HttpHeaders source) {
+        HttpHeaders copy = new HttpHeaders();
+        source.forEach((name, values) -> copy.put(name, new ArrayList<>(values)));
+        return copy;
+    }
+
+    private static int headerWeight(HttpHeaders headers) {
+        int[] weight = {0};
+        headers.forEach((name, values) -> values.forEach(value -> weight[0] += name.length() + value.length() + 32));
+        return weight[0];
+    }
+
+    HttpStatusCode status() {
+        return status;
+    }
+
+    HttpHeaders headers() {
+        return headers;
+    }
+
+    OffHeapBody body() {
+        return body;
+    }
+
+    CacheDirectives directives() {
+        return directives;
+    }
+
+    long freshnessLifetimeMillis() {
+        return freshnessLifetimeMillis;
+    }
+
+    int weight() {
+        return weight;
+    }
+}
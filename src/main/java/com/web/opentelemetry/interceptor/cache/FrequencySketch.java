@@ -0,0 +1,77 @@
+package com.web.opentelemetry.interceptor.cache;
+
+/**
+ * Count-min sketch with 4-bit counters, the popularity estimate behind the TinyLFU admission policy of
+ * {@link HttpCacheStore} and the server-side ResponseCacheStore. Each key increments one counter in each
+ * of four rows; its frequency is the minimum of the four (0-15). After {@code 10 * width} increments every
+ * counter is halved, so the sketch ages and favours recent popularity. Not thread-safe; the store calls it under its lock.
+ */
+public final class FrequencySketch {
+    private static final long[] SEEDS = {0x97cb3127L, 0xab9a5a97L, 0x8ebca7d1L, 0xc2b2ae35L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    // 16 counters of 4 bits per long
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    public FrequencySketch(int expectedEntries) {
+        int width = Integer.highestOneBit(Math.max(64, expectedEntries - 1) << 1);
+        this.table = new long[width / 4];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    public int frequency(long hash) {
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < 4; row++) {
+            frequency = Math.min(frequency, counter(hash, row));
+        }
+        return frequency;
+    }
+
+    public void increment(long hash) {
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            int index = indexOf(hash, row);
+            int shift = offsetOf(hash, row);
+            if (((table[index] >>> shift) & 0xF) < 15) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions /= 2;
+    }
+
+    private int counter(long hash, int row) {
+        return (int) ((table[indexOf(hash, row)] >>> offsetOf(hash, row)) & 0xF);
+    }
+
+    private int indexOf(long hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 32;
+        return (int) h & tableMask;
+    }
+
+    /**
+     * Which of the 16 nibbles in the chosen long: 4 bits of the hash per row.
+     */
+    private static int offsetOf(long hash, int row) {
+        return (int) ((hash >>> (row * 4)) & 0xF) << 2;
+    }
+
+    public static long hash(String key) {
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+}
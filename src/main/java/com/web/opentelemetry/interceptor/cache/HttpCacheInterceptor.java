@@ -0,0 +1,375 @@
+package com.web.opentelemetry.interceptor.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client-side HTTP cache for RestClient (RFC 9111), acting as a shared cache because one application
+ * instance calls downstreams on behalf of many users: {@code private} responses and responses to
+ * requests with {@code Authorization} (unless explicitly allowed) are not stored, and {@code s-maxage}
+ * takes precedence over {@code max-age}.
+ * <ul>
+ *     <li>GET responses are stored per URI and {@code Vary} variant, bodies off-heap in a
+ *     byte-budgeted {@link HttpCacheStore}.</li>
+ *     <li>Fresh responses are served with an {@code Age} header, without a network call.</li>
+ *     <li>Stale responses with an {@code ETag} or {@code Last-Modified} are revalidated with a
+ *     conditional request; a 304 freshens the stored response.</li>
+ *     <li>Within {@code stale-while-revalidate} the stale response is served and refreshed on a virtual
+ *     thread through a separate request factory, at most one refresh per URI at a time; within {@code stale-if-error} it is served when the
+ *     origin fails.</li>
+ *     <li>A successful unsafe request (POST, PUT, ...) invalidates the URI and its Location/Content-Location.</li>
+ * </ul>
+ * Requests that carry their own conditional or Range headers, and responses with {@code Set-Cookie},
+ * bypass the cache.
+ * <p>
+ * Metrics, tagged with the cache name: {@code http.client.cache.requests} by result (hit, stale,
+ * revalidated, miss, bypass) and {@code http.client.cache.revalidations} by outcome (not_modified,
+ * modified, error), plus the store's eviction and size metrics.
+ */
+@Slf4j
+public class HttpCacheInterceptor implements ClientHttpRequestInterceptor {
+    private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE);
+    private static final List<String> CALLER_CONDITIONALS = List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE,
+            HttpHeaders.IF_MATCH, HttpHeaders.IF_UNMODIFIED_SINCE, HttpHeaders.IF_RANGE, HttpHeaders.RANGE);
+
+    private final HttpCacheStore store;
+    private final Clock clock;
+    private final int maxEntryBytes;
+    private final Duration maxHeuristicLifetime;
+    private final ClientHttpRequestFactory refreshRequestFactory;
+    private final Map<String, Boolean> refreshing = new ConcurrentHashMap<>();
+    private final Map<String, Counter> results = new ConcurrentHashMap<>();
+    private final Map<String, Counter> revalidations = new ConcurrentHashMap<>();
+    private final String name;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param refreshRequestFactory sends the stale-while-revalidate refreshes, outside of any caller's interceptor chain
+     */
+    public HttpCacheInterceptor(String name, HttpCacheStore store, int maxEntryBytes, Duration maxHeuristicLifetime,
+                                ClientHttpRequestFactory refreshRequestFactory, Clock clock, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.store = store;
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxHeuristicLifetime = maxHeuristicLifetime;
+        this.refreshRequestFactory = refreshRequestFactory;
+        this.clock = clock;
+        this.meterRegistry = meterRegistry;
+        for (String result : List.of("hit", "stale", "revalidated", "miss", "bypass")) {
+            result(result);
+        }
+        for (String outcome : List.of("not_modified", "modified", "error")) {
+            revalidation(outcome);
+        }
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        HttpMethod method = request.getMethod();
+        String key = request.getURI().toString();
+        if (!HttpMethod.GET.equals(method)) {
+            ClientHttpResponse response = execution.execute(request, body);
+            if (!SAFE_METHODS.contains(method) && isSuccessOrRedirect(response.getStatusCode())) {
+                invalidate(request.getURI(), response.getHeaders());
+            }
+            return response;
+        }
+
+        CacheDirectives requestDirectives = CacheDirectives.parse(request.getHeaders());
+        if (requestDirectives.noStore() || CALLER_CONDITIONALS.stream().anyMatch(request.getHeaders()::containsHeader)) {
+            result("bypass").increment();
+            return execution.execute(request, body);
+        }
+
+        long now = clock.millis();
+        CachedResponse stored = select(store.get(key), request.getHeaders());
+        if (stored != null) {
+            long staleness = stored.stalenessMillis(now);
+            boolean mustValidate = stored.directives().noCache() || requestDirectives.noCache()
+                    || (requestDirectives.maxAge() != null && stored.ageMillis(now) > requestDirectives.maxAge().toMillis());
+
+            if (!mustValidate && staleness < 0) {
+                result("hit").increment();
+                return serve(stored, now);
+            } else if (!mustValidate && withinStaleWhileRevalidate(stored, staleness)) {
+                result("stale").increment();
+                refreshInBackground(key, request, stored);
+                return serve(stored, now);
+            } else if (requestDirectives.onlyIfCached()) {
+                return gatewayTimeout();
+            } else if (stored.hasValidators()) {
+                return revalidate(key, request, body, execution, stored, true);
+            } else {
+                store.remove(key, stored);
+            }
+        } else if (requestDirectives.onlyIfCached()) {
+            return gatewayTimeout();
+        }
+
+        result("miss").increment();
+        long requestTime = clock.millis();
+        ClientHttpResponse response = execution.execute(request, body);
+        return storeIfCacheable(key, request, response, requestTime, clock.millis());
+    }
+
+    private ClientHttpResponse revalidate(String key, HttpRequest request, byte[] body,
+                                          ClientHttpRequestExecution execution, CachedResponse stored,
+                                          boolean foreground) throws IOException {
+        HttpHeaders conditionalHeaders = CachedResponse.copy(request.getHeaders());
+        if (stored.headers().getETag() != null) {
+            conditionalHeaders.set(HttpHeaders.IF_NONE_MATCH, stored.headers().getETag());
+        }
+        String lastModified = stored.headers().getFirst(HttpHeaders.LAST_MODIFIED);
+        if (lastModified != null) {
+            conditionalHeaders.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+
+        long requestTime = clock.millis();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(withHeaders(request, conditionalHeaders), body);
+        } catch (IOException e) {
+            revalidation("error").increment();
+            if (withinStaleIfError(stored, requestTime)) {
+                log.debug("Serving stale {} after revalidation failed: {}", key, e.toString());
+                return serve(stored, requestTime);
+            }
+            throw e;
+        }
+        long responseTime = clock.millis();
+
+        if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+            CachedResponse freshened = stored.freshen(response.getHeaders(), requestTime, responseTime, maxHeuristicLifetime);
+            response.close();
+            store.put(key, freshened);
+            revalidation("not_modified").increment();
+            if (foreground) {
+                result("revalidated").increment();
+            }
+            return serve(freshened, responseTime);
+        }
+        if (response.getStatusCode().is5xxServerError() && withinStaleIfError(stored, responseTime)) {
+            response.close();
+            revalidation("error").increment();
+            return serve(stored, responseTime);
+        }
+        revalidation("modified").increment();
+        if (foreground) {
+            result("miss").increment();
+        }
+        return storeIfCacheable(key, request, response, requestTime, responseTime);
+    }
+
+    /**
+     * The caller's execution belongs to its own interceptor chain and must not be used once {@link #intercept}
+     * has returned, so the refresh is sent through {@code refreshRequestFactory} instead.
+     */
+    private void refreshInBackground(String key, HttpRequest request, CachedResponse stored) {
+        if (refreshing.putIfAbsent(key, Boolean.TRUE) != null) {
+            return;
+        }
+        HttpRequest detached = withHeaders(request, CachedResponse.copy(request.getHeaders()));
+        ClientHttpRequestExecution execution = (refreshRequest, refreshBody) -> {
+            ClientHttpRequest outbound = refreshRequestFactory.createRequest(refreshRequest.getURI(), refreshRequest.getMethod());
+            outbound.getHeaders().putAll(refreshRequest.getHeaders());
+            return outbound.execute();
+        };
+        Thread.ofVirtual().name("http-cache-refresh").start(() -> {
+            try (ClientHttpResponse response = stored.hasValidators()
+                    ? revalidate(key, detached, new byte[0], execution, stored, false)
+                    : storeIfCacheable(key, detached, execution.execute(detached, new byte[0]), clock.millis(), clock.millis())) {
+                response.getBody().transferTo(OutputStream.nullOutputStream());
+            } catch (Exception e) {
+                log.debug("Background refresh of {} failed: {}", key, e.toString());
+            } finally {
+                refreshing.remove(key);
+            }
+        });
+    }
+
+    private ClientHttpResponse storeIfCacheable(String key, HttpRequest request, ClientHttpResponse response,
+                                                long requestTime, long responseTime) throws IOException {
+        HttpHeaders headers = response.getHeaders();
+        if (!isStorable(request, response.getStatusCode(), headers)) {
+            return response;
+        }
+        long contentLength = headers.getContentLength();
+        if (contentLength > maxEntryBytes) {
+            return response;
+        }
+        InputStream in = response.getBody();
+        byte[] bytes = in.readNBytes(maxEntryBytes + 1);
+        if (bytes.length > maxEntryBytes) {
+            // Too large to cache: hand back what was read followed by the rest of the stream
+            return new ReplayingResponse(response, new SequenceInputStream(new ByteArrayInputStream(bytes), in));
+        }
+        store.put(key, CachedResponse.create(response.getStatusCode(), headers, bytes, request.getHeaders(),
+                requestTime, responseTime, maxHeuristicLifetime));
+        return new ReplayingResponse(response, new ByteArrayInputStream(bytes));
+    }
+
+    /**
+     * RFC 9111 section 3 for a shared cache, limited to responses this cache can reuse (explicit
+     * freshness, validators or a heuristic based on Last-Modified).
+     */
+    private static boolean isStorable(HttpRequest request, HttpStatusCode status, HttpHeaders headers) {
+        CacheDirectives directives = CacheDirectives.parse(headers);
+        if (directives.noStore() || directives.privateResponse() || headers.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return false;
+        }
+        if (CachedResponse.varyNames(headers).contains("*")) {
+            return false;
+        }
+        boolean explicitFreshness = directives.maxAge() != null || directives.sharedMaxAge() != null
+                || headers.containsHeader(HttpHeaders.EXPIRES);
+        if (request.getHeaders().containsHeader(HttpHeaders.AUTHORIZATION)
+                && !(directives.publicResponse() || directives.mustRevalidate() || directives.sharedMaxAge() != null)) {
+            return false;
+        }
+        int code = status.value();
+        boolean understood = CachedResponse.HEURISTICALLY_CACHEABLE.contains(code)
+                || (explicitFreshness && code >= 200 && code != 206 && code != 304);
+        boolean reusable = explicitFreshness || headers.getETag() != null || headers.containsHeader(HttpHeaders.LAST_MODIFIED);
+        return understood && reusable;
+    }
+
+    private static CachedResponse select(List<CachedResponse> variants, HttpHeaders requestHeaders) {
+        for (CachedResponse variant : variants) {
+            if (variant.matches(requestHeaders)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    private static ClientHttpResponse serve(CachedResponse stored, long nowMillis) {
+        return new CachedClientHttpResponse(stored, stored.ageMillis(nowMillis) / 1000);
+    }
+
+    private static boolean withinStaleWhileRevalidate(CachedResponse stored, long staleness) {
+        CacheDirectives directives = stored.directives();
+        return staleness >= 0 && directives.staleWhileRevalidate() != null
+                && !directives.mustRevalidate() && !directives.proxyRevalidate()
+                && staleness <= directives.staleWhileRevalidate().toMillis();
+    }
+
+    private static boolean withinStaleIfError(CachedResponse stored, long nowMillis) {
+        CacheDirectives directives = stored.directives();
+        return directives.staleIfError() != null && !directives.mustRevalidate() && !directives.proxyRevalidate()
+                && stored.stalenessMillis(nowMillis) <= directives.staleIfError().toMillis();
+    }
+
+    /**
+     * RFC 9111 section 4.4: the target URI and same-origin Location/Content-Location.
+     */
+    private void invalidate(URI target, HttpHeaders responseHeaders) {
+        store.invalidate(target.toString());
+        for (String header : List.of(HttpHeaders.LOCATION, HttpHeaders.CONTENT_LOCATION)) {
+            String value = responseHeaders.getFirst(header);
+            if (value != null) {
+                try {
+                    URI resolved = target.resolve(value);
+                    if (resolved.getScheme() != null && resolved.getScheme().equalsIgnoreCase(target.getScheme())
+                            && resolved.getAuthority() != null && resolved.getAuthority().equalsIgnoreCase(target.getAuthority())) {
+                        store.invalidate(resolved.toString());
+                    }
+                } catch (IllegalArgumentException ignored) {
+                    // not a valid URI reference
+                }
+            }
+        }
+    }
+
+    private static boolean isSuccessOrRedirect(HttpStatusCode status) {
+        return status.is2xxSuccessful() || status.is3xxRedirection();
+    }
+
+    private static HttpRequest withHeaders(HttpRequest request, HttpHeaders headers) {
+        return new HttpRequestWrapper(request) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private static ClientHttpResponse gatewayTimeout() {
+        return new ReplayingResponse(null, new ByteArrayInputStream(new byte[0]));
+    }
+
+    private Counter result(String result) {
+        return results.computeIfAbsent(result, r -> Counter.builder("http.client.cache.requests")
+                .tag("cache", name).tag("result", r).register(meterRegistry));
+    }
+
+    private Counter revalidation(String outcome) {
+        return revalidations.computeIfAbsent(outcome, o -> Counter.builder("http.client.cache.revalidations")
+                .tag("cache", name).tag("outcome", o).register(meterRegistry));
+    }
+
+    /**
+     * The origin response with its body replaced by bytes already read (plus, for uncached large
+     * bodies, the rest of the original stream). Without a delegate it is the 504 for only-if-cached.
+     */
+    private static final class ReplayingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final InputStream body;
+
+        ReplayingResponse(ClientHttpResponse delegate, InputStream body) {
+            this.delegate = delegate;
+            this.body = body;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate != null ? delegate.getStatusCode() : HttpStatus.GATEWAY_TIMEOUT;
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate != null ? delegate.getStatusText() : HttpStatus.GATEWAY_TIMEOUT.getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate != null ? delegate.getHeaders() : new HttpHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (delegate != null) {
+                delegate.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.web.opentelemetry.interceptor.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Byte-budgeted store of cached responses, keyed by URI with up to {@code maxVariants} stored responses
+ * per URI (one per combination of {@code Vary} request header values).
+ * <p>
+ * Eviction follows W-TinyLFU: new entries enter a small LRU window (1% of the budget); entries pushed
+ * out of the window become candidates for the main SLRU space (probation and protected, 80% of main
+ * for protected) and are only admitted if the {@link FrequencySketch} estimates them more popular than
+ * the probation victim they would displace. One-hit wonders therefore cannot flush the popular entries
+ * out of the cache. All bookkeeping is behind one ReentrantLock; bodies live off-heap, so the lock only
+ * guards small node objects.
+ * <p>
+ * Metrics, tagged with the cache name: {@code http.client.cache.evictions} by cause, and the gauges
+ * {@code http.client.cache.size} (bytes), {@code http.client.cache.entries} and {@code http.client.cache.max}.
+ */
+public final class HttpCacheStore {
+
+    enum RemovalCause {SIZE, REPLACED, INVALIDATED, EXPIRED}
+
+    private enum Region {WINDOW, PROBATION, PROTECTED}
+
+    private static final class Node {
+        final String key;
+        final long hash;
+        List<CachedResponse> variants = List.of();
+        long weight;
+        Region region = Region.WINDOW;
+
+        Node(String key) {
+            this.key = key;
+            this.hash = FrequencySketch.hash(key);
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Node> index = new HashMap<>();
+    private final LinkedHashMap<String, Node> window = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Node> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<String, Node> protectedSpace = new LinkedHashMap<>();
+    private final FrequencySketch sketch;
+    private final long maxBytes;
+    private final long windowMaxBytes;
+    private final long protectedMaxBytes;
+    private final int maxVariants;
+    private final Map<RemovalCause, Counter> evictions = new EnumMap<>(RemovalCause.class);
+
+    private long windowBytes;
+    private long probationBytes;
+    private long protectedBytes;
+
+    public HttpCacheStore(String name, long maxBytes, int maxVariants, int expectedEntries, MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes;
+        this.windowMaxBytes = Math.max(1, maxBytes / 100);
+        this.protectedMaxBytes = (maxBytes - windowMaxBytes) * 8 / 10;
+        this.maxVariants = maxVariants;
+        this.sketch = new FrequencySketch(expectedEntries);
+        for (RemovalCause cause : RemovalCause.values()) {
+            evictions.put(cause, Counter.builder("http.client.cache.evictions")
+                    .tag("cache", name)
+                    .tag("cause", cause.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("http.client.cache.size", this, HttpCacheStore::weightedSize)
+                .tag("cache", name).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("http.client.cache.entries", this, HttpCacheStore::entries)
+                .tag("cache", name).register(meterRegistry);
+        Gauge.builder("http.client.cache.max", this, s -> s.maxBytes)
+                .tag("cache", name).baseUnit("bytes").register(meterRegistry);
+    }
+
+    /**
+     * Stored responses for the URI (empty if none), recording the access for recency and frequency.
+     */
+    List<CachedResponse> get(String key) {
+        lock.lock();
+        try {
+            Node node = index.get(key);
+            sketch.increment(node != null ? node.hash : FrequencySketch.hash(key));
+            if (node == null) {
+                return List.of();
+            }
+            onHit(node);
+            return node.variants;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the response, replacing the stored response for the same variant.
+     */
+    void put(String key, CachedResponse response) {
+        if (response.weight() > maxBytes - windowMaxBytes) {
+            return;
+        }
+        int replaced = 0;
+        lock.lock();
+        try {
+            Node node = index.get(key);
+            if (node == null) {
+                node = new Node(key);
+                index.put(key, node);
+                window.putLast(key, node);
+            }
+            List<CachedResponse> variants = new ArrayList<>(node.variants.size() + 1);
+            variants.add(response);
+            for (CachedResponse existing : node.variants) {
+                if (existing.sameVariant(response) || variants.size() >= maxVariants) {
+                    replaced++;
+                } else {
+                    variants.add(existing);
+                }
+            }
+            setVariants(node, variants);
+            evict();
+        } finally {
+            lock.unlock();
+        }
+        evictions.get(RemovalCause.REPLACED).increment(replaced);
+    }
+
+    /**
+     * Removes every stored response for the URI (unsafe method, RFC 9111 section 4.4).
+     */
+    void invalidate(String key) {
+        Node node;
+        lock.lock();
+        try {
+            node = index.get(key);
+            if (node != null) {
+                unlink(node);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (node != null) {
+            evictions.get(RemovalCause.INVALIDATED).increment(node.variants.size());
+        }
+    }
+
+    /**
+     * Removes one stored response that can no longer be used (stale without validators).
+     */
+    void remove(String key, CachedResponse response) {
+        boolean removed = false;
+        lock.lock();
+        try {
+            Node node = index.get(key);
+            if (node != null && node.variants.contains(response)) {
+                List<CachedResponse> variants = new ArrayList<>(node.variants);
+                variants.remove(response);
+                removed = true;
+                if (variants.isEmpty()) {
+                    unlink(node);
+                } else {
+                    setVariants(node, variants);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (removed) {
+            evictions.get(RemovalCause.EXPIRED).increment();
+        }
+    }
+
+    private void onHit(Node node) {
+        switch (node.region) {
+            case WINDOW -> window.putLast(node.key, node);
+            case PROTECTED -> protectedSpace.putLast(node.key, node);
+            case PROBATION -> {
+                probation.remove(node.key);
+                probationBytes -= node.weight;
+                node.region = Region.PROTECTED;
+                protectedSpace.putLast(node.key, node);
+                protectedBytes += node.weight;
+                // Overflowing protected entries are demoted back to probation, not evicted
+                while (protectedBytes > protectedMaxBytes && protectedSpace.size() > 1) {
+                    Node demoted = protectedSpace.pollFirstEntry().getValue();
+                    protectedBytes -= demoted.weight;
+                    demoted.region = Region.PROBATION;
+                    probation.putLast(demoted.key, demoted);
+                    probationBytes += demoted.weight;
+                }
+            }
+        }
+    }
+
+    private void setVariants(Node node, List<CachedResponse> variants) {
+        long weight = 0;
+        for (CachedResponse variant : variants) {
+            weight += variant.weight();
+        }
+        adjust(node.region, weight - node.weight);
+        node.weight = weight;
+        node.variants = List.copyOf(variants);
+    }
+
+    private void evict() {
+        // Window overflow: the oldest window entries become candidates for the main space
+        Deque<Node> candidates = new ArrayDeque<>();
+        while (windowBytes > windowMaxBytes && window.size() > 1) {
+            Node candidate = window.pollFirstEntry().getValue();
+            windowBytes -= candidate.weight;
+            candidate.region = Region.PROBATION;
+            probation.putLast(candidate.key, candidate);
+            probationBytes += candidate.weight;
+            candidates.addLast(candidate);
+        }
+
+        while (weightedSize() > maxBytes) {
+            Node victim = firstOf(probation);
+            if (victim == null) {
+                victim = firstOf(protectedSpace);
+            }
+            if (victim == null) {
+                victim = firstOf(window);
+            }
+            Node candidate = candidates.pollLast();
+            while (candidate != null && index.get(candidate.key) != candidate) {
+                candidate = candidates.pollLast(); // already evicted as a victim
+            }
+            if (candidate == null || candidate == victim) {
+                evict(victim);
+                continue;
+            }
+            // TinyLFU admission: the newcomer has to be more popular than the entry it would replace
+            if (sketch.frequency(candidate.hash) > sketch.frequency(victim.hash)) {
+                evict(victim);
+                candidates.addLast(candidate);
+            } else {
+                evict(candidate);
+            }
+        }
+    }
+
+    private void evict(Node node) {
+        unlink(node);
+        evictions.get(RemovalCause.SIZE).increment(node.variants.size());
+    }
+
+    private void unlink(Node node) {
+        index.remove(node.key);
+        switch (node.region) {
+            case WINDOW -> window.remove(node.key);
+            case PROBATION -> probation.remove(node.key);
+            case PROTECTED -> protectedSpace.remove(node.key);
+        }
+        adjust(node.region, -node.weight);
+    }
+
+    private void adjust(Region region, long delta) {
+        switch (region) {
+            case WINDOW -> windowBytes += delta;
+            case PROBATION -> probationBytes += delta;
+            case PROTECTED -> protectedBytes += delta;
+        }
+    }
+
+    private static Node firstOf(LinkedHashMap<String, Node> region) {
+        Map.Entry<String, Node> first = region.firstEntry();
+        return first == null ? null : first.getValue();
+    }
+
+    public long weightedSize() {
+        lock.lock();
+        try {
+            return windowBytes + probationBytes + protectedBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int entries() {
+        lock.lock();
+        try {
+            return index.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+}
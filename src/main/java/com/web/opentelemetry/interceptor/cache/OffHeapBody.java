@@ -0,0 +1,44 @@
+package com.web.opentelemetry.interceptor.cache;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+
+/**
+ * A cached response body in native memory, sized exactly to the body. Each body gets its own automatic
+ * arena, so the memory is freed by the GC once the body and every view handed to a reader are unreachable:
+ * eviction needs no reference counting, and a reader still streaming an evicted body keeps it alive.
+ * Closing a shared arena per body instead would cost a JVM-wide handshake on every eviction.
+ */
+final class OffHeapBody {
+    static final OffHeapBody EMPTY = new OffHeapBody(MemorySegment.NULL, 0);
+
+    private final MemorySegment segment;
+    private final int length;
+
+    private OffHeapBody(MemorySegment segment, int length) {
+        this.segment = segment;
+        this.length = length;
+    }
+
+    static OffHeapBody copyOf(byte[] bytes) {
+        if (bytes.length == 0) {
+            return EMPTY;
+        }
+        MemorySegment segment = Arena.ofAuto().allocate(bytes.length);
+        MemorySegment.copy(bytes, 0, segment, ValueLayout.JAVA_BYTE, 0, bytes.length);
+        return new OffHeapBody(segment, bytes.length);
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * Read-only view for streaming; it keeps the native memory reachable for as long as it is used.
+     */
+    ByteBuffer view() {
+        return length == 0 ? ByteBuffer.allocate(0) : segment.asByteBuffer().asReadOnlyBuffer();
+    }
+}
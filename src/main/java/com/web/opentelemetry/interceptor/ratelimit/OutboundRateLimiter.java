@@ -0,0 +1,128 @@
+package com.web.opentelemetry.interceptor.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Token buckets for outbound calls, keyed by target host ({@link #forHosts()}) or by client name
+ * ({@link #forClient(String)}); requests to hosts without a configured limit pass through.
+ * Host buckets are shared by every client calling that host.
+ * <p>
+ * Metrics, tagged with the limiter ({@code host:<host>} or {@code client:<name>}):
+ * {@code http.client.ratelimit.permits} by outcome (granted, waited, rejected),
+ * {@code http.client.ratelimit.wait} (time spent parked for a permit),
+ * {@code http.client.ratelimit.signals} by signal (retry-after, remaining, policy), counting responses whose
+ * rate limit headers were applied to the bucket,
+ * and the gauge {@code http.client.ratelimit.rate} (current permits per second).
+ */
+public class OutboundRateLimiter {
+
+    public record Limit(double permitsPerSecond, int burst, Duration maxWait) {
+    }
+
+    final class Bucket {
+        final TokenBucket tokens;
+        final long maxWaitNanos;
+        final Duration maxWait;
+        final Counter granted;
+        final Counter waited;
+        final Counter rejected;
+        final Timer waitTime;
+        private final Map<String, Counter> signals = new ConcurrentHashMap<>();
+
+        Bucket(String limiter, Limit limit) {
+            this.tokens = new TokenBucket(limiter, limit.permitsPerSecond(), limit.burst());
+            this.maxWait = limit.maxWait();
+            this.maxWaitNanos = limit.maxWait().toNanos();
+            this.granted = permits(limiter, "granted");
+            this.waited = permits(limiter, "waited");
+            this.rejected = permits(limiter, "rejected");
+            this.waitTime = Timer.builder("http.client.ratelimit.wait")
+                    .tag("limiter", limiter)
+                    .description("Time callers were parked waiting for a permit")
+                    .register(meterRegistry);
+            Gauge.builder("http.client.ratelimit.rate", tokens, TokenBucket::permitsPerSecond)
+                    .tag("limiter", limiter)
+                    .description("Permits per second, after any tightening by the server")
+                    .register(meterRegistry);
+        }
+
+        private Counter permits(String limiter, String outcome) {
+            return Counter.builder("http.client.ratelimit.permits")
+                    .tag("limiter", limiter)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        void applied(String signal) {
+            signals.computeIfAbsent(signal, s -> Counter.builder("http.client.ratelimit.signals")
+                    .tag("limiter", tokens.name())
+                    .tag("signal", s)
+                    .register(meterRegistry)).increment();
+        }
+    }
+
+    private final Map<String, Limit> hostLimits;
+    private final Map<String, Limit> clientLimits;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bucket> hostBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> clientBuckets = new ConcurrentHashMap<>();
+    private final ClientHttpRequestInterceptor hostInterceptor;
+
+    public OutboundRateLimiter(Map<String, Limit> hostLimits, Map<String, Limit> clientLimits, MeterRegistry meterRegistry) {
+        this.hostLimits = lowerCaseKeys(hostLimits);
+        this.clientLimits = Map.copyOf(clientLimits);
+        this.meterRegistry = meterRegistry;
+        this.hostInterceptor = new RateLimitInterceptor(this::hostBucket);
+    }
+
+    /**
+     * Interceptor applying the limit configured for each request's host.
+     */
+    public ClientHttpRequestInterceptor forHosts() {
+        return hostInterceptor;
+    }
+
+    /**
+     * Interceptor applying the limit configured for {@code clientName} to every request of that client.
+     *
+     * @throws IllegalArgumentException if no limit is configured for the client
+     */
+    public ClientHttpRequestInterceptor forClient(String clientName) {
+        Limit limit = clientLimits.get(clientName);
+        if (limit == null) {
+            throw new IllegalArgumentException("No rate limit configured for client '" + clientName + "'");
+        }
+        Bucket bucket = clientBuckets.computeIfAbsent(clientName, name -> new Bucket("client:" + name, limit));
+        return new RateLimitInterceptor(request -> bucket);
+    }
+
+    private Bucket hostBucket(HttpRequest request) {
+        String host = request.getURI().getHost();
+        if (host == null) {
+            return null;
+        }
+        String key = host.toLowerCase(Locale.ROOT);
+        Limit limit = hostLimits.get(key);
+        if (limit == null) {
+            return null;
+        }
+        return hostBuckets.computeIfAbsent(key, h -> new Bucket("host:" + h, limit));
+    }
+
+    private static Map<String, Limit> lowerCaseKeys(Map<String, Limit> limits) {
+        Map<String, Limit> copy = new HashMap<>();
+        limits.forEach((host, limit) -> copy.put(host.toLowerCase(Locale.ROOT), limit));
+        return Map.copyOf(copy);
+    }
+}
@@ -0,0 +1,23 @@
+package com.web.opentelemetry.interceptor.ratelimit;
+
+import org.springframework.web.client.RestClientException;
+
+import java.time.Duration;
+
+/**
+ * Thrown instead of sending a request whose permit would not be due within the limiter's max wait.
+ * Not an IOException, so retry interceptors do not turn one rejection into several.
+ */
+public class RateLimitExceededException extends RestClientException {
+
+    private final String limiter;
+
+    public RateLimitExceededException(String limiter, Duration maxWait) {
+        super("Rate limit '" + limiter + "' exceeded: no permit within " + maxWait);
+        this.limiter = limiter;
+    }
+
+    public String getLimiter() {
+        return limiter;
+    }
+}
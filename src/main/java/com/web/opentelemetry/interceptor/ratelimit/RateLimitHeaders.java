@@ -0,0 +1,113 @@
+package com.web.opentelemetry.interceptor.ratelimit;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limit signals of one response, in the forms commonly seen on third-party APIs:
+ * <ul>
+ *     <li>{@code Retry-After} (seconds or HTTP-date), honoured on 429 and 503;</li>
+ *     <li>{@code RateLimit-Remaining} / {@code RateLimit-Reset} (delta seconds) and their {@code X-RateLimit-*}
+ *     variants, where a reset above 10^9 is read as epoch seconds;</li>
+ *     <li>the structured {@code RateLimit: "default";r=10;t=30} field;</li>
+ *     <li>{@code RateLimit-Policy: 100;w=60} or {@code "default";q=100;w=60}.</li>
+ * </ul>
+ * Absent values are -1.
+ */
+record RateLimitHeaders(long retryAfterNanos, long remaining, long resetNanos, long quota, long windowNanos) {
+
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+
+    static RateLimitHeaders parse(HttpStatusCode status, HttpHeaders headers, long nowMillis) {
+        long retryAfter = status.value() == 429 || status.value() == 503
+                ? retryAfterNanos(headers.getFirst(HttpHeaders.RETRY_AFTER), headers, nowMillis)
+                : -1;
+
+        long remaining = number(first(headers, "RateLimit-Remaining", "X-RateLimit-Remaining"));
+        long reset = resetNanos(number(first(headers, "RateLimit-Reset", "X-RateLimit-Reset")), nowMillis);
+        String structured = headers.getFirst("RateLimit");
+        if (structured != null) {
+            remaining = parameter(structured, "r", remaining);
+            long seconds = parameter(structured, "t", -1);
+            reset = seconds >= 0 ? TimeUnit.SECONDS.toNanos(seconds) : reset;
+        }
+
+        long quota = -1;
+        long window = -1;
+        String policy = headers.getFirst("RateLimit-Policy");
+        if (policy != null) {
+            String firstPolicy = policy.split(",")[0].trim();
+            quota = parameter(firstPolicy, "q", number(firstPolicy.split(";")[0]));
+            long windowSeconds = parameter(firstPolicy, "w", -1);
+            window = windowSeconds > 0 ? TimeUnit.SECONDS.toNanos(windowSeconds) : -1;
+        }
+        return new RateLimitHeaders(retryAfter, remaining, reset, quota, window);
+    }
+
+    boolean isEmpty() {
+        return retryAfterNanos < 0 && (remaining < 0 || resetNanos < 0) && (quota <= 0 || windowNanos <= 0);
+    }
+
+    private static long retryAfterNanos(String value, HttpHeaders headers, long nowMillis) {
+        if (value == null) {
+            return -1;
+        }
+        long seconds = number(value);
+        if (seconds >= 0) {
+            return TimeUnit.SECONDS.toNanos(seconds);
+        }
+        try {
+            long date = headers.getFirstDate(HttpHeaders.RETRY_AFTER);
+            return date < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(Math.max(0, date - nowMillis));
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static long resetNanos(long reset, long nowMillis) {
+        if (reset < 0) {
+            return -1;
+        }
+        if (reset > EPOCH_SECONDS_THRESHOLD) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, reset * 1000 - nowMillis));
+        }
+        return TimeUnit.SECONDS.toNanos(reset);
+    }
+
+    private static String first(HttpHeaders headers, String name, String alternative) {
+        String value = headers.getFirst(name);
+        return value != null ? value : headers.getFirst(alternative);
+    }
+
+    /**
+     * Value of {@code key=value} among the {@code ;}-separated parameters of a structured field item.
+     */
+    private static long parameter(String item, String key, long fallback) {
+        for (String part : item.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq > 0 && part.substring(0, eq).trim().equals(key)) {
+                long value = number(part.substring(eq + 1));
+                return value >= 0 ? value : fallback;
+            }
+        }
+        return fallback;
+    }
+
+    private static long number(String value) {
+        if (value == null) {
+            return -1;
+        }
+        String trimmed = value.trim();
+        if (trimmed.isEmpty() || trimmed.length() > 18) {
+            return -1;
+        }
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (!Character.isDigit(trimmed.charAt(i))) {
+                return -1;
+            }
+        }
+        return Long.parseLong(trimmed);
+    }
+}
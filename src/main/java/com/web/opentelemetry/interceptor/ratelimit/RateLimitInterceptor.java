@@ -0,0 +1,72 @@
+package com.web.opentelemetry.interceptor.ratelimit;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Takes a permit from the request's {@link OutboundRateLimiter.Bucket} before sending it, and feeds the
+ * response's rate limit headers back into the bucket. Place it after retry interceptors so every attempt
+ * needs its own permit.
+ */
+class RateLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final Function<HttpRequest, OutboundRateLimiter.Bucket> buckets;
+
+    RateLimitInterceptor(Function<HttpRequest, OutboundRateLimiter.Bucket> buckets) {
+        this.buckets = buckets;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        OutboundRateLimiter.Bucket bucket = buckets.apply(request);
+        if (bucket == null) {
+            return execution.execute(request, body);
+        }
+
+        long waitedNanos;
+        try {
+            waitedNanos = bucket.tokens.acquire(bucket.maxWaitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+        if (waitedNanos < 0) {
+            bucket.rejected.increment();
+            throw new RateLimitExceededException(bucket.tokens.name(), bucket.maxWait);
+        }
+        if (waitedNanos > 0) {
+            bucket.waited.increment();
+            bucket.waitTime.record(waitedNanos, TimeUnit.NANOSECONDS);
+        } else {
+            bucket.granted.increment();
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        adapt(bucket, RateLimitHeaders.parse(response.getStatusCode(), response.getHeaders(), System.currentTimeMillis()));
+        return response;
+    }
+
+    private static void adapt(OutboundRateLimiter.Bucket bucket, RateLimitHeaders headers) {
+        if (headers.isEmpty()) {
+            return;
+        }
+        if (headers.quota() > 0 && headers.windowNanos() > 0) {
+            bucket.tokens.adoptPolicy(headers.quota(), headers.windowNanos());
+            bucket.applied("policy");
+        }
+        if (headers.retryAfterNanos() >= 0) {
+            bucket.tokens.pauseFor(headers.retryAfterNanos());
+            bucket.applied("retry-after");
+        } else if (headers.remaining() >= 0 && headers.resetNanos() >= 0) {
+            bucket.tokens.limitRemaining(headers.remaining(), headers.resetNanos());
+            bucket.applied("remaining");
+        }
+    }
+}
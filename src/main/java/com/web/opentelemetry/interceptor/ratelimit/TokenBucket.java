@@ -0,0 +1,168 @@
+package com.web.opentelemetry.interceptor.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket in its GCRA form: the token count and the last refill time are folded into a single
+ * {@code long}, the theoretical arrival time (TAT) of the next permit, updated with one CAS per permit.
+ * A bucket with {@code burst} permits and one permit per {@code interval} grants a permit at {@code now} when
+ * {@code max(tat, now) + interval - now <= burst * interval}; an empty bucket simply has its TAT in the future.
+ * <p>
+ * A caller that has to wait reserves its permit first (so waiters are served in reservation order) and then
+ * parks, which unmounts a virtual thread instead of spinning. Reservations never exceed {@code maxWait}; a
+ * caller that would have to wait longer is rejected without consuming anything.
+ * <p>
+ * The server can tighten the configured rate, never loosen it:
+ * <ul>
+ *     <li>{@link #pauseFor}: Retry-After, no permit until the pause is over and the burst refills from empty;</li>
+ *     <li>{@link #limitRemaining}: RateLimit-Remaining/Reset, the remaining permits are spread evenly over the
+ *     rest of the window (smoothing) and at most that many are available at once;</li>
+ *     <li>{@link #adoptPolicy}: RateLimit-Policy, the tighter of the configured and the advertised quota.</li>
+ * </ul>
+ */
+public final class TokenBucket {
+
+    record Rate(long intervalNanos, int burst) {
+        long toleranceNanos() {
+            return intervalNanos * burst;
+        }
+    }
+
+    private final String name;
+    private final Rate configured;
+    private final LongSupplier nanoClock;
+    private final AtomicLong theoreticalArrival;
+
+    private volatile Rate base;
+    private volatile Rate override;
+    private volatile long overrideUntilNanos;
+
+    public TokenBucket(String name, double permitsPerSecond, int burst) {
+        this(name, permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(String name, double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit '" + name + "' needs a positive rate and burst, got "
+                    + permitsPerSecond + "/s, burst " + burst);
+        }
+        this.name = name;
+        this.configured = new Rate(Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond)), burst);
+        this.base = configured;
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Takes a permit, parking the calling thread until it is due.
+     *
+     * @return nanoseconds waited (0 when granted at once), or -1 if the permit would not be due within {@code maxWaitNanos}
+     * @throws InterruptedException if interrupted while waiting; the reserved permit is not given back
+     */
+    public long acquire(long maxWaitNanos) throws InterruptedException {
+        long waitNanos = tryReserve(maxWaitNanos);
+        if (waitNanos > 0) {
+            long deadline = nanoClock.getAsLong() + waitNanos;
+            for (long remaining = waitNanos; remaining > 0; remaining = deadline - nanoClock.getAsLong()) {
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException("Interrupted waiting for rate limit '" + name + "'");
+                }
+            }
+        }
+        return waitNanos;
+    }
+
+    /**
+     * Reserves a permit without waiting for it.
+     *
+     * @return nanoseconds until the reserved permit is due, or -1 (nothing reserved) if that exceeds {@code maxWaitNanos}
+     */
+    long tryReserve(long maxWaitNanos) {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            Rate rate = rate(now);
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + rate.intervalNanos();
+            long waitNanos = Math.max(0, next - now - rate.toleranceNanos());
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return waitNanos;
+            }
+        }
+    }
+
+    private Rate rate(long now) {
+        Rate temporary = override;
+        return temporary != null && now - overrideUntilNanos < 0 ? temporary : base;
+    }
+
+    /**
+     * No permit before {@code pauseNanos} from now (Retry-After); afterwards one permit per interval until the burst refills.
+     */
+    public void pauseFor(long pauseNanos) {
+        long now = nanoClock.getAsLong();
+        Rate rate = rate(now);
+        raiseTheoreticalArrival(now + pauseNanos + rate.toleranceNanos() - rate.intervalNanos());
+    }
+
+    /**
+     * The server allows {@code remaining} more requests until its window resets in {@code resetNanos}.
+     */
+    public void limitRemaining(long remaining, long resetNanos) {
+        if (remaining <= 0) {
+            pauseFor(resetNanos);
+            return;
+        }
+        long now = nanoClock.getAsLong();
+        long spreadInterval = resetNanos / remaining;
+        if (spreadInterval > base.intervalNanos()) {
+            // Spread what is left over the rest of the window instead of bursting it out and hitting the wall
+            override = new Rate(spreadInterval, 1);
+            overrideUntilNanos = now + resetNanos;
+        }
+        Rate rate = rate(now);
+        long available = Math.min(remaining, rate.burst());
+        raiseTheoreticalArrival(now + (rate.burst() - available) * rate.intervalNanos());
+    }
+
+    /**
+     * The server's advertised quota, applied when it is tighter than the configured rate.
+     */
+    public void adoptPolicy(long quota, long windowNanos) {
+        if (quota <= 0 || windowNanos <= 0) {
+            return;
+        }
+        base = new Rate(Math.max(configured.intervalNanos(), windowNanos / quota), (int) Math.min(configured.burst(), quota));
+    }
+
+    private void raiseTheoreticalArrival(long target) {
+        theoreticalArrival.getAndUpdate(tat -> target - tat > 0 ? target : tat);
+    }
+
+    /**
+     * Permits that could be taken right now without waiting.
+     */
+    public int availablePermits() {
+        long now = nanoClock.getAsLong();
+        Rate rate = rate(now);
+        long debt = Math.max(0, theoreticalArrival.get() - now);
+        return (int) Math.max(0, (rate.toleranceNanos() - debt) / rate.intervalNanos());
+    }
+
+    /**
+     * Current permits per second, including any tightening by the server.
+     */
+    public double permitsPerSecond() {
+        return (double) TimeUnit.SECONDS.toNanos(1) / rate(nanoClock.getAsLong()).intervalNanos();
+    }
+
+    public String name() {
+        return name;
+    }
+}
@@ -0,0 +1,10 @@
+package com.web.opentelemetry.model;
+
+/**
+ * One call folded into a POST /api/info/batch request.
+ *
+ * @param id        caller chosen id, echoed back in the matching {@link InfoBatchResult}
+ * @param requestId request id of the originating request, for log correlation
+ */
+public record InfoBatchItem(String id, String requestId) {
+}
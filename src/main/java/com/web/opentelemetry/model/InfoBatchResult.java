@@ -0,0 +1,20 @@
+package com.web.opentelemetry.model;
+
+/**
+ * Per-item result of POST /api/info/batch. A failed item carries its own status and error,
+ * the other items of the batch are unaffected.
+ */
+public record InfoBatchResult(String id, int status, String body, String error) {
+
+    public static InfoBatchResult success(String id, String body) {
+        return new InfoBatchResult(id, 200, body, null);
+    }
+
+    public static InfoBatchResult failure(String id, int status, String error) {
+        return new InfoBatchResult(id, status, null, error);
+    }
+
+    public boolean failed() {
+        return error != null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.web.opentelemetry.observability.flightrecorder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.restclient.RestClientCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Slow-request flight recorder: see {@link RequestFlightRecorder}.
+ */
+@AutoConfiguration
+@ConditionalOnBooleanProperty(name = "app.flight-recorder.enabled", matchIfMissing = true)
+public class FlightRecorderAutoConfig {
+
+    @Bean
+    public RequestFlightRecorder requestFlightRecorder(@Value("${app.flight-recorder.recent-capacity:1024}") int recentCapacity,
+                                                       @Value("${app.flight-recorder.slowest-per-route:16}") int slowestPerRoute,
+                                                       @Value("${app.flight-recorder.max-routes:256}") int maxRoutes,
+                                                       @Value("${app.flight-recorder.max-calls-per-request:16}") int maxCallsPerRequest) {
+        return new RequestFlightRecorder(recentCapacity, slowestPerRoute, maxRoutes, maxCallsPerRequest);
+    }
+
+    @Bean
+    public FilterRegistrationBean<FlightRecorderFilter> flightRecorderFilter(RequestFlightRecorder recorder) {
+        FilterRegistrationBean<FlightRecorderFilter> registration = new FilterRegistrationBean<>(new FlightRecorderFilter(recorder));
+        // Right after ProfilingFilter, so the recorded total covers every other filter
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    public WebMvcConfigurer flightRecorderWebMvcConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new FlightRecorderHandlerInterceptor());
+            }
+        };
+    }
+
+    @Bean
+    public RestClientCustomizer flightRecorderRestClientCustomizer() {
+        return builder -> builder.requestInterceptor(new FlightRecorderClientInterceptor());
+    }
+
+    @Bean
+    public FlightRecorderEndpoint flightRecorderEndpoint(RequestFlightRecorder recorder) {
+        return new FlightRecorderEndpoint(recorder);
+    }
+}
@@ -0,0 +1,32 @@
+package com.web.opentelemetry.observability.flightrecorder;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * Adds each outbound call (each attempt, when retried) to the current {@link RequestRecording}.
+ * The duration is time to response headers; a failed call is recorded with status -1.
+ */
+public class FlightRecorderClientInterceptor implements ClientHttpRequestInterceptor {
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        RequestRecording recording = RequestFlightRecorder.current();
+        if (recording == null) {
+            return execution.execute(request, body);
+        }
+        long start = System.nanoTime();
+        int status = -1;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = response.getStatusCode().value();
+            return response;
+        } finally {
+            recording.recordCall(request.getMethod().name(), request.getURI(), start, System.nanoTime() - start, status);
+        }
+    }
+}
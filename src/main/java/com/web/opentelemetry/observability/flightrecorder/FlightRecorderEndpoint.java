@@ -0,0 +1,25 @@
+package com.web.opentelemetry.observability.flightrecorder;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+/**
+ * /actuator/flightrecorder: the most recent requests (newest first) and the slowest requests per route.
+ * {@code ?limit=} caps the recent list, {@code ?route=} (a route pattern such as /api/info) filters both.
+ */
+@Endpoint(id = "flightrecorder")
+public class FlightRecorderEndpoint {
+    private static final int DEFAULT_LIMIT = 100;
+
+    private final RequestFlightRecorder recorder;
+
+    public FlightRecorderEndpoint(RequestFlightRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public RequestFlightRecorder.FlightReport flights(@OptionalParameter Integer limit, @OptionalParameter String route) {
+        return recorder.report(limit != null ? limit : DEFAULT_LIMIT, route);
+    }
+}
@@ -0,0 +1,62 @@
+package com.web.opentelemetry.observability.flightrecorder;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Outermost filter after ProfilingFilter: starts a {@link RequestRecording} so its total covers every other filter, and hands
+ * it to the recorder when the response is complete (on async completion for async requests).
+ */
+public class FlightRecorderFilter extends OncePerRequestFilter {
+    private final RequestFlightRecorder recorder;
+
+    public FlightRecorderFilter(RequestFlightRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RequestRecording recording = recorder.start(request.getMethod(), request.getRequestURI());
+        request.setAttribute(RequestFlightRecorder.REQUEST_ATTRIBUTE, recording);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestFlightRecorder.detach();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        complete(recording, request, response);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                complete(recording, request, response);
+            }
+        }
+    }
+
+    private void complete(RequestRecording recording, HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        recorder.complete(recording, pattern instanceof String route ? route : null, response.getStatus());
+    }
+}
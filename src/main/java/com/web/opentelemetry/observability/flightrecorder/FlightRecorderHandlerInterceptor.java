@@ -0,0 +1,34 @@
+package com.web.opentelemetry.observability.flightrecorder;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
+
+/**
+ * Marks the handler phase of the current {@link RequestRecording}. The request and trace ids are picked
+ * up here because the request id filter and the server observation have both run by now.
+ */
+public class FlightRecorderHandlerInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(RequestFlightRecorder.REQUEST_ATTRIBUTE) instanceof RequestRecording recording) {
+            SpanContext spanContext = Span.current().getSpanContext();
+            recording.handlerStarted(MDC.get(X_SSTECHMINDS_REQUEST_ID),
+                    spanContext.isValid() ? spanContext.getTraceId() : null);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(RequestFlightRecorder.REQUEST_ATTRIBUTE) instanceof RequestRecording recording) {
+            recording.handlerEnded();
+        }
+    }
+}
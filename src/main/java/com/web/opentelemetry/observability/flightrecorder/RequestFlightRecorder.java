@@ -0,0 +1,221 @@
+package com.web.opentelemetry.observability.flightrecorder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Always-on, fixed-memory flight recorder for server requests: a ring buffer of the last
+ * {@code recentCapacity} requests and, per route, the {@code slowestPerRoute} slowest requests seen.
+ * <p>
+ * Completing a request is one slot write into the ring plus, only when the request is slower than the
+ * route's current admission threshold, a short locked insert into that route's top-K. Everything is
+ * turned into report objects only when the actuator endpoint is read.
+ */
+public class RequestFlightRecorder {
+    public static final String CONTEXT_KEY = "flightrecorder.recording";
+    static final String REQUEST_ATTRIBUTE = RequestFlightRecorder.class.getName() + ".recording";
+    static final String UNMATCHED_ROUTE = "UNMATCHED";
+    static final String OTHER_ROUTE = "OTHER";
+
+    private static final ThreadLocal<RequestRecording> CURRENT = new ThreadLocal<>();
+
+    private final AtomicReferenceArray<RequestRecording> recent;
+    private final int recentMask;
+    private final AtomicLong recorded = new AtomicLong();
+    private final Map<String, SlowestRequests> slowestByRoute = new ConcurrentHashMap<>();
+    private final int slowestPerRoute;
+    private final int maxRoutes;
+    private final int maxCallsPerRequest;
+
+    public RequestFlightRecorder(int recentCapacity, int slowestPerRoute, int maxRoutes, int maxCallsPerRequest) {
+        int capacity = Integer.highestOneBit(Math.max(1, recentCapacity - 1) << 1);
+        this.recent = new AtomicReferenceArray<>(capacity);
+        this.recentMask = capacity - 1;
+        this.slowestPerRoute = slowestPerRoute;
+        this.maxRoutes = maxRoutes;
+        this.maxCallsPerRequest = maxCallsPerRequest;
+    }
+
+    /**
+     * Starts a recording and makes it current on this thread (and, through RequestContextAccessors,
+     * on tasks submitted to the application's task executor).
+     */
+    public RequestRecording start(String method, String uri) {
+        RequestRecording recording = new RequestRecording(method, uri, maxCallsPerRequest);
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    public void complete(RequestRecording recording, String route, int status) {
+        recording.complete(route != null ? route : UNMATCHED_ROUTE, status);
+        long sequence = recorded.getAndIncrement();
+        recent.set((int) (sequence & recentMask), recording);
+        slowest(recording.route()).offer(recording);
+    }
+
+    public static RequestRecording current() {
+        return CURRENT.get();
+    }
+
+    public static void attach(RequestRecording recording) {
+        CURRENT.set(recording);
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+    }
+
+    private SlowestRequests slowest(String route) {
+        SlowestRequests slowest = slowestByRoute.get(route);
+        if (slowest != null) {
+            return slowest;
+        }
+        // Routes are bounded by the handler mappings, but cap them anyway so memory stays fixed
+        String key = slowestByRoute.size() < maxRoutes ? route : OTHER_ROUTE;
+        return slowestByRoute.computeIfAbsent(key, k -> new SlowestRequests(slowestPerRoute));
+    }
+
+    public int capacity() {
+        return recent.length();
+    }
+
+    public long recorded() {
+        return recorded.get();
+    }
+
+    /**
+     * @param limit maximum number of recent requests, newest first
+     * @param route only report this route pattern, or all routes when null
+     */
+    public FlightReport report(int limit, String route) {
+        long end = recorded.get();
+        long start = Math.max(0, end - Math.min(limit, recent.length()));
+        List<RequestView> recentViews = new ArrayList<>();
+        for (long sequence = end - 1; sequence >= start; sequence--) {
+            RequestRecording recording = recent.get((int) (sequence & recentMask));
+            if (recording != null && (route == null || route.equals(recording.route()))) {
+                recentViews.add(RequestView.of(recording));
+            }
+        }
+
+        Map<String, List<RequestView>> slowestViews = new LinkedHashMap<>();
+        slowestByRoute.entrySet().stream()
+                .filter(e -> route == null || route.equals(e.getKey()))
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> slowestViews.put(e.getKey(), e.getValue().snapshot().stream().map(RequestView::of).toList()));
+
+        return new FlightReport(recent.length(), end, recentViews, slowestViews);
+    }
+
+    /**
+     * Top-K slowest requests of one route. The admission threshold (the fastest of the K kept, once full)
+     * is read without locking, so the common case of a request that is not among the slowest costs one
+     * volatile read.
+     */
+    static final class SlowestRequests {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final RequestRecording[] slots;
+        private int size;
+        private volatile long admissionNanos = -1;
+
+        SlowestRequests(int capacity) {
+            this.slots = new RequestRecording[capacity];
+        }
+
+        void offer(RequestRecording recording) {
+            long nanos = recording.totalNanos();
+            if (nanos <= admissionNanos) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (size < slots.length) {
+                    slots[size++] = recording;
+                } else {
+                    int fastest = fastestSlot();
+                    if (nanos <= slots[fastest].totalNanos()) {
+                        return;
+                    }
+                    slots[fastest] = recording;
+                }
+                if (size == slots.length) {
+                    admissionNanos = slots[fastestSlot()].totalNanos();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int fastestSlot() {
+            int fastest = 0;
+            for (int i = 1; i < size; i++) {
+                if (slots[i].totalNanos() < slots[fastest].totalNanos()) {
+                    fastest = i;
+                }
+            }
+            return fastest;
+        }
+
+        List<RequestRecording> snapshot() {
+            List<RequestRecording> copy;
+            lock.lock();
+            try {
+                copy = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    copy.add(slots[i]);
+                }
+            } finally {
+                lock.unlock();
+            }
+            copy.sort(Comparator.comparingLong(RequestRecording::totalNanos).reversed());
+            return copy;
+        }
+    }
+
+    public record FlightReport(int capacity, long recorded, List<RequestView> recent, Map<String, List<RequestView>> slowest) {
+    }
+
+    public record RequestView(String requestId, String traceId, String method, String uri, String route, int status,
+                              String threadType, long startEpochMillis, double totalMillis, double filterMillis,
+                              double handlerMillis, List<CallView> calls, int droppedCalls) {
+
+        static RequestView of(RequestRecording recording) {
+            int count = recording.callCount() - recording.droppedCalls();
+            List<CallView> calls = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                RequestRecording.OutboundCall call = recording.call(i);
+                if (call != null) {
+                    calls.add(CallView.of(call));
+                }
+            }
+            return new RequestView(recording.requestId(), recording.traceId(), recording.method(), recording.uri(),
+                    recording.route(), recording.status(), threadType(recording.virtualThread()),
+                    recording.startEpochMillis(), millis(recording.totalNanos()), millis(recording.filterNanos()),
+                    millis(recording.handlerNanos()), calls, recording.droppedCalls());
+        }
+    }
+
+    public record CallView(String method, String target, double offsetMillis, double durationMillis, int status, String threadType) {
+
+        static CallView of(RequestRecording.OutboundCall call) {
+            String target = call.uri().getHost() + (call.uri().getPort() > 0 ? ":" + call.uri().getPort() : "") + call.uri().getPath();
+            return new CallView(call.method(), target, millis(call.offsetNanos()), millis(call.durationNanos()),
+                    call.status(), threadType(call.virtualThread()));
+        }
+    }
+
+    private static String threadType(boolean virtual) {
+        return virtual ? "virtual" : "platform";
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1_000.0) / 1_000.0;
+    }
+}
@@ -0,0 +1,138 @@
+package com.web.opentelemetry.observability.flightrecorder;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Timings of one server request, filled in by the flight recorder filter, handler interceptor and
+ * client interceptor. Only timestamps and references to strings that already exist (method, URI,
+ * route pattern, ids) are stored, so recording adds one object per request and one per outbound call.
+ * <p>
+ * Outbound calls may be recorded from other threads (async fan-out), hence the atomic slot counter.
+ * Calls beyond the fixed capacity are only counted.
+ */
+public final class RequestRecording {
+
+    public record OutboundCall(String method, URI uri, long offsetNanos, long durationNanos, int status, boolean virtualThread) {
+    }
+
+    private final long startEpochMillis;
+    private final long startNanos;
+    private final String method;
+    private final String uri;
+    private final boolean virtualThread;
+    private final OutboundCall[] calls;
+    private final AtomicInteger callCount = new AtomicInteger();
+
+    private volatile String requestId;
+    private volatile String traceId;
+    private volatile String route;
+    private volatile long handlerStartNanos;
+    private volatile long handlerEndNanos;
+    private volatile long totalNanos = -1;
+    private volatile int status;
+
+    RequestRecording(String method, String uri, int maxCalls) {
+        this.startEpochMillis = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+        this.method = method;
+        this.uri = uri;
+        this.virtualThread = Thread.currentThread().isVirtual();
+        this.calls = new OutboundCall[maxCalls];
+    }
+
+    void handlerStarted(String requestId, String traceId) {
+        this.requestId = requestId;
+        this.traceId = traceId;
+        this.handlerStartNanos = System.nanoTime();
+    }
+
+    void handlerEnded() {
+        this.handlerEndNanos = System.nanoTime();
+    }
+
+    void recordCall(String method, URI uri, long startNanos, long durationNanos, int status) {
+        if (completed()) {
+            return; // fire-and-forget call that outlived the request
+        }
+        int slot = callCount.getAndIncrement();
+        if (slot < calls.length) {
+            calls[slot] = new OutboundCall(method, uri, startNanos - this.startNanos, durationNanos, status,
+                    Thread.currentThread().isVirtual());
+        }
+    }
+
+    void complete(String route, int status) {
+        this.route = route;
+        this.status = status;
+        this.totalNanos = System.nanoTime() - startNanos;
+    }
+
+    public boolean completed() {
+        return totalNanos >= 0;
+    }
+
+    public long startEpochMillis() {
+        return startEpochMillis;
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public String uri() {
+        return uri;
+    }
+
+    public boolean virtualThread() {
+        return virtualThread;
+    }
+
+    public String requestId() {
+        return requestId;
+    }
+
+    public String traceId() {
+        return traceId;
+    }
+
+    public String route() {
+        return route;
+    }
+
+    public int status() {
+        return status;
+    }
+
+    public long totalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Time spent in the handler (controller method, including its outbound calls), or 0 if no handler ran.
+     */
+    public long handlerNanos() {
+        long start = handlerStartNanos;
+        long end = handlerEndNanos;
+        return start > 0 && end >= start ? end - start : 0;
+    }
+
+    /**
+     * Time spent outside the handler: the servlet filter chain, dispatching and writing the response.
+     */
+    public long filterNanos() {
+        return Math.max(0, totalNanos - handlerNanos());
+    }
+
+    public int callCount() {
+        return callCount.get();
+    }
+
+    public OutboundCall call(int index) {
+        return index < calls.length ? calls[index] : null;
+    }
+
+    public int droppedCalls() {
+        return Math.max(0, callCount.get() - calls.length);
+    }
+}
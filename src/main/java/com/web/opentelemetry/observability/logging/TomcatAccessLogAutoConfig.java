@@ -2,11 +2,19 @@ package com.web.opentelemetry.observability.logging;
 
 import ch.qos.logback.access.tomcat.LogbackValve;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.LifecycleException;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.tomcat.TomcatConnectorCustomizer;
 import org.springframework.boot.tomcat.TomcatContextCustomizer;
+import org.springframework.boot.tomcat.TomcatProtocolHandlerCustomizer;
 import org.springframework.boot.tomcat.servlet.TomcatServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import static com.web.opentelemetry.observability.startup.StartupProfiler.LOGBACK_VALVE_STEP;
 
 @Slf4j
 @AutoConfiguration
@@ -15,11 +23,22 @@ public class TomcatAccessLogAutoConfig {
 
     /**
      * Setup embedded Tomcat logging using logback-access.xml file.
+     * The valve start (config parsing, appender init) is recorded as a startup step.
      */
     @Bean
-    public TomcatContextCustomizer tomcatContextCustomizer() {
+    public TomcatContextCustomizer tomcatContextCustomizer(ApplicationStartup applicationStartup) {
         return context -> {
-            LogbackValve logbackValue = new LogbackValve();
+            LogbackValve logbackValue = new LogbackValve() {
+                @Override
+                public void startInternal() throws LifecycleException {
+                    StartupStep step = applicationStartup.start(LOGBACK_VALVE_STEP);
+                    try {
+                        super.startInternal();
+                    } finally {
+                        step.end();
+                    }
+                }
+            };
             logbackValue.setFilename("logback-access.xml");
             logbackValue.setAsyncSupported(true);
             logbackValue.setQuiet(false);
@@ -40,10 +59,20 @@ public class TomcatAccessLogAutoConfig {
 //        };
 //    }
 
+    /**
+     * Replaces Boot's factory, so it has to collect the customizer beans Boot's own factory would:
+     * context customizers (this valve, KeepAliveTrackingValve) and connector/protocol handler customizers
+     * (socket options, see TomcatConnectorConfig). server.tomcat.* and server.http2.* still apply through
+     * Boot's WebServerFactoryCustomizer beans, whose connector customizers are added after these.
+     */
     @Bean
-    public TomcatServletWebServerFactory servletContainer(TomcatContextCustomizer customizer) {
+    public TomcatServletWebServerFactory servletContainer(ObjectProvider<TomcatContextCustomizer> contextCustomizers,
+                                                          ObjectProvider<TomcatConnectorCustomizer> connectorCustomizers,
+                                                          ObjectProvider<TomcatProtocolHandlerCustomizer<?>> protocolHandlerCustomizers) {
         TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory();
-        factory.addContextCustomizers(customizer);
+        factory.addContextCustomizers(contextCustomizers.orderedStream().toArray(TomcatContextCustomizer[]::new));
+        factory.addConnectorCustomizers(connectorCustomizers.orderedStream().toArray(TomcatConnectorCustomizer[]::new));
+        factory.addProtocolHandlerCustomizers(protocolHandlerCustomizers.orderedStream().toArray(TomcatProtocolHandlerCustomizer[]::new));
         return factory;
     }
 }
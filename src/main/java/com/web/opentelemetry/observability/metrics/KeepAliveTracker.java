@@ -0,0 +1,49 @@
+package com.web.opentelemetry.observability.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts requests and the connections they arrive on, to derive the keep-alive reuse ratio.
+ * <p>
+ * A connection is identified by the client address and ephemeral port. The set of known connections is
+ * bounded: once it exceeds {@code maxTrackedConnections} it is cleared, which counts the surviving
+ * connections as new once more. That slightly under-reports reuse after a reset, never over-reports it.
+ */
+public class KeepAliveTracker {
+    private final ConcurrentHashMap<Long, Boolean> knownConnections = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder newConnections = new LongAdder();
+    private final int maxTrackedConnections;
+
+    public KeepAliveTracker(int maxTrackedConnections) {
+        this.maxTrackedConnections = maxTrackedConnections;
+    }
+
+    public void onRequest(String remoteAddr, int remotePort) {
+        requests.increment();
+        long connectionKey = ((long) remoteAddr.hashCode() << 16) | (remotePort & 0xFFFF);
+        if (knownConnections.putIfAbsent(connectionKey, Boolean.TRUE) == null) {
+            newConnections.increment();
+            if (knownConnections.size() > maxTrackedConnections) {
+                knownConnections.clear();
+            }
+        }
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long newConnections() {
+        return newConnections.sum();
+    }
+
+    /**
+     * Share of requests that reused an already open connection.
+     */
+    public double reuseRatio() {
+        long total = requests.sum();
+        return total == 0 ? 0 : 1.0 - (double) newConnections.sum() / total;
+    }
+}
@@ -0,0 +1,26 @@
+package com.web.opentelemetry.observability.metrics;
+
+import jakarta.servlet.ServletException;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+
+import java.io.IOException;
+
+/**
+ * Feeds every request into a shared {@link KeepAliveTracker}. One valve per context, since valves are chained.
+ */
+public class KeepAliveTrackingValve extends ValveBase {
+    private final KeepAliveTracker tracker;
+
+    public KeepAliveTrackingValve(KeepAliveTracker tracker) {
+        super(true);
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void invoke(Request request, Response response) throws IOException, ServletException {
+        tracker.onRequest(request.getRemoteAddr(), request.getRemotePort());
+        getNext().invoke(request, response);
+    }
+}
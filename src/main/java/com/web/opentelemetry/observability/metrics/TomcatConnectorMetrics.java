@@ -0,0 +1,98 @@
+package com.web.opentelemetry.observability.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToLongFunction;
+
+/**
+ * Connector level metrics: open connections against the limit, keep-alive reuse and accept queue overflows.
+ * <p>
+ * Accept queue overflows happen in the kernel once Tomcat stops accepting at maxConnections and the
+ * acceptCount backlog is full, so they are read from the TcpExt ListenOverflows/ListenDrops counters in
+ * /proc/net/netstat (Linux, per network namespace, i.e. per container). Elsewhere they report NaN.
+ */
+@Slf4j
+public class TomcatConnectorMetrics implements MeterBinder {
+    private static final Path NETSTAT = Path.of("/proc/net/netstat");
+
+    private final AtomicReference<Connector> connector = new AtomicReference<>();
+    private final KeepAliveTracker keepAliveTracker;
+
+    public TomcatConnectorMetrics(KeepAliveTracker keepAliveTracker) {
+        this.keepAliveTracker = keepAliveTracker;
+    }
+
+    /**
+     * Registered from the connector customizer, so only the application connector is observed.
+     */
+    public void bind(Connector connector) {
+        this.connector.set(connector);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tomcat.connector.connections.open", this, m -> m.protocol(AbstractProtocol::getConnectionCount))
+                .description("Connections currently open on the application connector")
+                .register(registry);
+        Gauge.builder("tomcat.connector.connections.max", this, m -> m.protocol(AbstractProtocol::getMaxConnections))
+                .description("Configured maxConnections")
+                .register(registry);
+        Gauge.builder("tomcat.connector.keepalive.reuse.ratio", keepAliveTracker, KeepAliveTracker::reuseRatio)
+                .description("Share of requests served on an already open connection")
+                .register(registry);
+        FunctionCounter.builder("tomcat.connector.requests", keepAliveTracker, KeepAliveTracker::requests)
+                .register(registry);
+        FunctionCounter.builder("tomcat.connector.connections.new", keepAliveTracker, KeepAliveTracker::newConnections)
+                .register(registry);
+        FunctionCounter.builder("tomcat.connector.accept.overflows", this, m -> readNetstat("ListenOverflows"))
+                .description("Kernel accept queue overflows (TcpExt ListenOverflows)")
+                .register(registry);
+        FunctionCounter.builder("tomcat.connector.accept.drops", this, m -> readNetstat("ListenDrops"))
+                .description("Connections dropped before accept (TcpExt ListenDrops)")
+                .register(registry);
+    }
+
+    private double protocol(ToLongFunction<AbstractProtocol<?>> value) {
+        Connector current = connector.get();
+        if (current == null) {
+            return Double.NaN;
+        }
+        ProtocolHandler handler = current.getProtocolHandler();
+        return handler instanceof AbstractProtocol<?> protocol ? value.applyAsLong(protocol) : Double.NaN;
+    }
+
+    static double readNetstat(String field) {
+        if (!Files.isReadable(NETSTAT)) {
+            return Double.NaN;
+        }
+        try {
+            List<String> lines = Files.readAllLines(NETSTAT);
+            for (int i = 0; i + 1 < lines.size(); i++) {
+                if (lines.get(i).startsWith("TcpExt:") && lines.get(i + 1).startsWith("TcpExt:")) {
+                    String[] names = lines.get(i).split("\\s+");
+                    String[] values = lines.get(i + 1).split("\\s+");
+                    for (int j = 1; j < names.length && j < values.length; j++) {
+                        if (names[j].equals(field)) {
+                            return Double.parseDouble(values[j]);
+                        }
+                    }
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Unable to read {} from {}", field, NETSTAT, e);
+        }
+        return Double.NaN;
+    }
+}
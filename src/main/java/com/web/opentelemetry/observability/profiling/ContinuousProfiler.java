@@ -0,0 +1,402 @@
+package com.web.opentelemetry.observability.profiling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Always-on sampling profiler over a JFR RecordingStream: {@code jdk.ExecutionSample} for CPU (one sample
+ * per running thread every {@code executionPeriod}) and {@code jdk.ObjectAllocationSample} for allocations
+ * (throttled to {@code allocationThrottle}, each sample weighted with the bytes it stands for). Samples are
+ * attributed to a route and request id through {@link ProfilingContext}; samples of threads that were not
+ * working for a request (HttpClient selector, schedulers) go to {@value #UNATTRIBUTED}.
+ * <p>
+ * Each sample adds its weight to a collapsed stack (root first, frames separated by {@code ;}, at most
+ * {@code maxFrames} leaf-side frames) in the current time slice. The last {@code slices} slices form the
+ * rolling {@code window}. Everything is bounded: {@code maxRoutes} per slice (then {@value #OTHER_ROUTE}),
+ * {@code maxStacksPerRoute} per route and slice (then {@value #OTHER_STACKS}), and the last
+ * {@code recentRequests} request ids with up to {@value #MAX_STACKS_PER_REQUEST} stacks each.
+ * <p>
+ * Events are handled on the single JFR stream thread; the aggregates are shared with the readers under one
+ * ReentrantLock. Metrics: {@code profiler.samples} by event and attribution, {@code profiler.threads}
+ * (threads with spans in ProfilingContext).
+ */
+@Slf4j
+public class ContinuousProfiler implements AutoCloseable {
+
+    public enum Kind {
+        CPU("cpu", "jdk.ExecutionSample"),
+        ALLOCATION("alloc", "jdk.ObjectAllocationSample");
+
+        private final String id;
+        private final String eventName;
+
+        Kind(String id, String eventName) {
+            this.id = id;
+            this.eventName = eventName;
+        }
+
+        public String id() {
+            return id;
+        }
+
+        public static Optional<Kind> of(String id) {
+            return Arrays.stream(values()).filter(kind -> kind.id.equals(id)).findFirst();
+        }
+    }
+
+    /**
+     * @param executionPeriod    JFR execution sampling period
+     * @param allocationThrottle JFR allocation sample rate, e.g. 100/s
+     * @param window             how far back the per-route profiles go
+     * @param slices             the window rolls over in this many steps
+     * @param maxRoutes          routes per slice
+     * @param maxStacksPerRoute  distinct stacks per route and slice
+     * @param maxFrames          leaf-side frames kept per stack
+     * @param recentRequests     request ids whose profiles are kept
+     */
+    public record Settings(Duration executionPeriod, String allocationThrottle, Duration window, int slices,
+                           int maxRoutes, int maxStacksPerRoute, int maxFrames, int recentRequests) {
+    }
+
+    public record RouteSummary(long cpuSamples, long allocatedBytes) {
+    }
+
+    public record Summary(boolean running, Duration window, Map<String, RouteSummary> routes, List<String> recentRequests) {
+    }
+
+    static final String UNATTRIBUTED = "UNATTRIBUTED";
+    static final String UNMATCHED_ROUTE = "UNMATCHED";
+    static final String OTHER_ROUTE = "OTHER";
+    static final String OTHER_STACKS = "(other stacks)";
+    static final String TRUNCATED = "(truncated)";
+    static final int MAX_STACKS_PER_REQUEST = 64;
+
+    // Spans are kept this long after they end; the stream delivers samples within a flush, about a second
+    private static final Duration SPAN_RETENTION = Duration.ofSeconds(10);
+
+    /**
+     * Collapsed stack to samples (CPU) or sampled bytes (allocation), capped at {@code maxStacks} stacks.
+     */
+    static final class StackCounts {
+        private final Map<String, long[]> counts = new HashMap<>();
+        private final int maxStacks;
+        private long total;
+
+        StackCounts(int maxStacks) {
+            this.maxStacks = maxStacks;
+        }
+
+        void add(String stack, long weight) {
+            long[] count = counts.get(stack);
+            if (count == null) {
+                count = counts.computeIfAbsent(counts.size() < maxStacks ? stack : OTHER_STACKS, k -> new long[1]);
+            }
+            count[0] += weight;
+            total += weight;
+        }
+
+        void addAll(StackCounts other) {
+            other.counts.forEach((stack, count) -> counts.computeIfAbsent(stack, k -> new long[1])[0] += count[0]);
+            total += other.total;
+        }
+
+        long total() {
+            return total;
+        }
+    }
+
+    private static final class Slice {
+        final long start;
+        final Map<Kind, Map<String, StackCounts>> routes = new EnumMap<>(Kind.class);
+
+        Slice(long start) {
+            this.start = start;
+            for (Kind kind : Kind.values()) {
+                routes.put(kind, new HashMap<>());
+            }
+        }
+    }
+
+    private final Settings settings;
+    private final LongSupplier clock;
+    private final long sliceMillis;
+    private final Slice[] slices;
+    private final LinkedHashMap<String, Map<Kind, StackCounts>> recent;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Kind, Counter> attributed = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> unattributed = new EnumMap<>(Kind.class);
+
+    private volatile RecordingStream stream;
+
+    public ContinuousProfiler(Settings settings, MeterRegistry meterRegistry) {
+        this(settings, meterRegistry, System::currentTimeMillis);
+    }
+
+    ContinuousProfiler(Settings settings, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.settings = settings;
+        this.clock = clock;
+        this.sliceMillis = Math.max(1, settings.window().toMillis() / settings.slices());
+        this.slices = new Slice[settings.slices()];
+        this.recent = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<Kind, StackCounts>> eldest) {
+                return size() > settings.recentRequests();
+            }
+        };
+        for (Kind kind : Kind.values()) {
+            attributed.put(kind, samples(kind, true, meterRegistry));
+            unattributed.put(kind, samples(kind, false, meterRegistry));
+        }
+        Gauge.builder("profiler.threads", ProfilingContext::threads).register(meterRegistry);
+    }
+
+    private static Counter samples(Kind kind, boolean attributed, MeterRegistry meterRegistry) {
+        return Counter.builder("profiler.samples")
+                .tag("event", kind.id())
+                .tag("attributed", Boolean.toString(attributed))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts streaming from JFR; does nothing if JFR is not available in this JVM.
+     */
+    public void start() {
+        if (!FlightRecorder.isAvailable()) {
+            log.warn("JFR is not available, continuous profiling is off");
+            return;
+        }
+        RecordingStream recordingStream = new RecordingStream();
+        recordingStream.enable(Kind.CPU.eventName).withPeriod(settings.executionPeriod()).withStackTrace();
+        recordingStream.enable(Kind.ALLOCATION.eventName).with("throttle", settings.allocationThrottle()).withStackTrace();
+        // Chunks of the stream's own recording only need to live until they are parsed
+        recordingStream.setMaxAge(Duration.ofMinutes(1));
+        // Slices are picked by event time, so events do not have to be sorted first
+        recordingStream.setOrdered(false);
+        recordingStream.onEvent(Kind.CPU.eventName, event ->
+                onSample(Kind.CPU, event, event.getThread("sampledThread"), 1, null));
+        recordingStream.onEvent(Kind.ALLOCATION.eventName, event ->
+                onSample(Kind.ALLOCATION, event, event.getThread(), event.getLong("weight"),
+                        typeName(event.getClass("objectClass").getName())));
+        recordingStream.onFlush(() ->
+                ProfilingContext.expire(ProfilingContext.epochNanos(Instant.now().minus(SPAN_RETENTION))));
+        recordingStream.startAsync();
+        stream = recordingStream;
+        log.info("Continuous profiling started: execution samples every {}, allocation samples {}",
+                settings.executionPeriod(), settings.allocationThrottle());
+    }
+
+    @Override
+    public void close() {
+        RecordingStream recordingStream = stream;
+        stream = null;
+        if (recordingStream != null) {
+            recordingStream.close();
+            // No flush will expire them any more; spans still open are closed by their detach
+            ProfilingContext.expire(Long.MAX_VALUE);
+        }
+    }
+
+    public boolean isRunning() {
+        return stream != null;
+    }
+
+    private void onSample(Kind kind, RecordedEvent event, RecordedThread thread, long weight, String leaf) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (thread == null || stackTrace == null) {
+            return;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        int depth = Math.min(frames.size(), settings.maxFrames());
+        StringBuilder stack = new StringBuilder(depth * 48);
+        if (depth < frames.size() || stackTrace.isTruncated()) {
+            stack.append(TRUNCATED).append(';');
+        }
+        // JFR lists the leaf frame first
+        for (int i = depth - 1; i >= 0; i--) {
+            RecordedMethod method = frames.get(i).getMethod();
+            stack.append(method.getType().getName()).append('.').append(method.getName());
+            if (i > 0) {
+                stack.append(';');
+            }
+        }
+        if (leaf != null) {
+            stack.append(';').append(leaf);
+        }
+        record(kind, thread.getJavaThreadId(), event.getStartTime(), stack.toString(), weight);
+    }
+
+    /**
+     * Adds one sample of the thread, taken at the given time, to its route and request.
+     */
+    void record(Kind kind, long threadId, Instant time, String stack, long weight) {
+        ProfiledRequest request = ProfilingContext.find(threadId, ProfilingContext.epochNanos(time));
+        String route = request == null ? UNATTRIBUTED : request.route() != null ? request.route() : UNMATCHED_ROUTE;
+        String requestId = request != null ? request.requestId() : null;
+        (request != null ? attributed : unattributed).get(kind).increment();
+
+        lock.lock();
+        try {
+            Slice slice = slice(time.toEpochMilli());
+            if (slice != null) {
+                Map<String, StackCounts> routes = slice.routes.get(kind);
+                StackCounts counts = routes.get(route);
+                if (counts == null) {
+                    counts = routes.computeIfAbsent(routes.size() < settings.maxRoutes() ? route : OTHER_ROUTE,
+                            k -> new StackCounts(settings.maxStacksPerRoute()));
+                }
+                counts.add(stack, weight);
+            }
+            if (requestId != null) {
+                recent.computeIfAbsent(requestId, k -> new EnumMap<>(Kind.class))
+                        .computeIfAbsent(kind, k -> new StackCounts(MAX_STACKS_PER_REQUEST))
+                        .add(stack, weight);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The slice for the time, starting a new one if its ring position holds an older one; null for samples
+     * older than every slice in the ring.
+     */
+    private Slice slice(long epochMillis) {
+        long start = epochMillis - Math.floorMod(epochMillis, sliceMillis);
+        int index = (int) Math.floorMod(start / sliceMillis, (long) slices.length);
+        Slice slice = slices[index];
+        if (slice == null || slice.start < start) {
+            slice = new Slice(start);
+            slices[index] = slice;
+        }
+        return slice.start == start ? slice : null;
+    }
+
+    /**
+     * Collapsed stacks ({@code frame;frame;frame weight} per line, heaviest first) for flame graph tools.
+     * With a request id, that request's samples, or empty if it is no longer retained. With a route, that
+     * route's samples in the window. Otherwise every route, with the route as the root frame.
+     */
+    public Optional<String> collapsed(Kind kind, String route, String requestId) {
+        lock.lock();
+        try {
+            if (requestId != null) {
+                Map<Kind, StackCounts> request = recent.get(requestId);
+                if (request == null) {
+                    return Optional.empty();
+                }
+                StackCounts counts = request.get(kind);
+                return Optional.of(counts == null ? "" : format(counts, null));
+            }
+            Map<String, StackCounts> routes = merge(kind);
+            if (route != null) {
+                StackCounts counts = routes.get(route);
+                return Optional.of(counts == null ? "" : format(counts, null));
+            }
+            StringBuilder all = new StringBuilder();
+            routes.forEach((name, counts) -> all.append(format(counts, "[" + name + "]")));
+            return Optional.of(all.toString());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Summary summary() {
+        lock.lock();
+        try {
+            Map<String, StackCounts> cpu = merge(Kind.CPU);
+            Map<String, StackCounts> allocation = merge(Kind.ALLOCATION);
+            List<String> names = new ArrayList<>(cpu.keySet());
+            allocation.keySet().stream().filter(name -> !cpu.containsKey(name)).forEach(names::add);
+            names.sort(Comparator.comparingLong((String name) -> total(cpu, name)).reversed()
+                    .thenComparing(Comparator.comparingLong((String name) -> total(allocation, name)).reversed()));
+            Map<String, RouteSummary> routes = new LinkedHashMap<>();
+            for (String name : names) {
+                routes.put(name, new RouteSummary(total(cpu, name), total(allocation, name)));
+            }
+            return new Summary(isRunning(), settings.window(), routes, List.copyOf(recent.sequencedKeySet().reversed()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long total(Map<String, StackCounts> routes, String route) {
+        StackCounts counts = routes.get(route);
+        return counts == null ? 0 : counts.total();
+    }
+
+    private Map<String, StackCounts> merge(Kind kind) {
+        long now = clock.getAsLong();
+        long oldest = now - Math.floorMod(now, sliceMillis) - (slices.length - 1) * sliceMillis;
+        Map<String, StackCounts> merged = new HashMap<>();
+        for (Slice slice : slices) {
+            if (slice == null || slice.start < oldest) {
+                continue;
+            }
+            slice.routes.get(kind).forEach((route, counts) ->
+                    merged.computeIfAbsent(route, k -> new StackCounts(Integer.MAX_VALUE)).addAll(counts));
+        }
+        return merged;
+    }
+
+    private static String format(StackCounts counts, String rootFrame) {
+        StringBuilder text = new StringBuilder();
+        counts.counts.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .forEach(entry -> {
+                    if (rootFrame != null) {
+                        text.append(rootFrame).append(';');
+                    }
+                    text.append(entry.getKey()).append(' ').append(entry.getValue()[0]).append('\n');
+                });
+        return text.toString();
+    }
+
+    /**
+     * Source-style name of a JVM class name: {@code [B} becomes {@code byte[]}, {@code [Ljava.lang.String;}
+     * becomes {@code java.lang.String[]}.
+     */
+    static String typeName(String name) {
+        int dimensions = 0;
+        while (dimensions < name.length() && name.charAt(dimensions) == '[') {
+            dimensions++;
+        }
+        if (dimensions == 0) {
+            return name;
+        }
+        String element = switch (name.charAt(dimensions)) {
+            case 'Z' -> "boolean";
+            case 'B' -> "byte";
+            case 'C' -> "char";
+            case 'S' -> "short";
+            case 'I' -> "int";
+            case 'J' -> "long";
+            case 'F' -> "float";
+            case 'D' -> "double";
+            default -> name.substring(dimensions + 1, name.length() - 1);
+        };
+        return element + "[]".repeat(dimensions);
+    }
+}
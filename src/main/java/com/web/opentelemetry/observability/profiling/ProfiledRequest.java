@@ -0,0 +1,36 @@
+package com.web.opentelemetry.observability.profiling;
+
+/**
+ * The request a thread is working for, as the profiler sees it. {@link ProfilingFilter} creates it before the
+ * route and request id are known and {@link ProfilingHandlerInterceptor} fills them in. JFR samples are
+ * attributed when the stream delivers them, about a second after they were taken, so samples from the filter
+ * phase still get the route of a request that reached its handler.
+ */
+public final class ProfiledRequest {
+    private volatile String route;
+    private volatile String requestId;
+
+    public ProfiledRequest() {
+    }
+
+    public ProfiledRequest(String route, String requestId) {
+        this.route = route;
+        this.requestId = requestId;
+    }
+
+    public String route() {
+        return route;
+    }
+
+    void route(String route) {
+        this.route = route;
+    }
+
+    public String requestId() {
+        return requestId;
+    }
+
+    void requestId(String requestId) {
+        this.requestId = requestId;
+    }
+}
@@ -0,0 +1,48 @@
+package com.web.opentelemetry.observability.profiling;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+
+import java.util.Optional;
+
+/**
+ * /actuator/profiler: CPU samples and sampled allocation bytes per route over the rolling window, and the
+ * request ids whose profiles are still retained (see {@link ContinuousProfiler}).
+ * <p>
+ * /actuator/profiler/{cpu|alloc} returns collapsed stacks as text, ready for flamegraph.pl or speedscope:
+ * <ul>
+ *     <li>{@code ?route=} one route pattern, such as /api/info</li>
+ *     <li>{@code ?requestId=} one recent request (404 once it is no longer retained)</li>
+ * </ul>
+ * Without either, every route is returned with the route as the root frame.
+ */
+@Endpoint(id = "profiler")
+public class ProfilerEndpoint {
+    private final ContinuousProfiler profiler;
+
+    public ProfilerEndpoint(ContinuousProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @ReadOperation
+    public ContinuousProfiler.Summary summary() {
+        return profiler.summary();
+    }
+
+    @ReadOperation(produces = "text/plain")
+    public WebEndpointResponse<String> collapsed(@Selector String event, @OptionalParameter String route,
+                                                 @OptionalParameter String requestId) {
+        Optional<ContinuousProfiler.Kind> kind = ContinuousProfiler.Kind.of(event);
+        if (kind.isEmpty()) {
+            return new WebEndpointResponse<>("Unknown event " + event + ", use cpu or alloc\n",
+                    WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        return profiler.collapsed(kind.get(), route, requestId)
+                .map(WebEndpointResponse::new)
+                .orElseGet(() -> new WebEndpointResponse<>("Request " + requestId + " is no longer retained\n",
+                        WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+}
@@ -0,0 +1,60 @@
+package com.web.opentelemetry.observability.profiling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Continuous profiling: see {@link ContinuousProfiler}.
+ */
+@AutoConfiguration
+@ConditionalOnBooleanProperty(name = "app.profiling.enabled", matchIfMissing = true)
+public class ProfilingAutoConfig {
+
+    @Bean
+    public ContinuousProfiler continuousProfiler(MeterRegistry meterRegistry,
+                                                 @Value("${app.profiling.execution-period:20ms}") Duration executionPeriod,
+                                                 @Value("${app.profiling.allocation-throttle:100/s}") String allocationThrottle,
+                                                 @Value("${app.profiling.window:5m}") Duration window,
+                                                 @Value("${app.profiling.slices:5}") int slices,
+                                                 @Value("${app.profiling.max-routes:64}") int maxRoutes,
+                                                 @Value("${app.profiling.max-stacks-per-route:2000}") int maxStacksPerRoute,
+                                                 @Value("${app.profiling.max-frames:64}") int maxFrames,
+                                                 @Value("${app.profiling.recent-requests:256}") int recentRequests) {
+        ContinuousProfiler profiler = new ContinuousProfiler(new ContinuousProfiler.Settings(executionPeriod,
+                allocationThrottle, window, slices, maxRoutes, maxStacksPerRoute, maxFrames, recentRequests), meterRegistry);
+        profiler.start();
+        return profiler;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ProfilingFilter> profilingFilter(ContinuousProfiler continuousProfiler) {
+        FilterRegistrationBean<ProfilingFilter> registration = new FilterRegistrationBean<>(new ProfilingFilter(continuousProfiler));
+        // Strictly first: FlightRecorderFilter, FirstRequestTimingFilter and TraceHeaderFilter follow in that order
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public WebMvcConfigurer profilingWebMvcConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ProfilingHandlerInterceptor());
+            }
+        };
+    }
+
+    @Bean
+    public ProfilerEndpoint profilerEndpoint(ContinuousProfiler continuousProfiler) {
+        return new ProfilerEndpoint(continuousProfiler);
+    }
+}
@@ -0,0 +1,93 @@
+package com.web.opentelemetry.observability.profiling;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Which {@link ProfiledRequest} each thread worked for, and when. A JFR sample only carries a thread id and
+ * a timestamp, and arrives after the fact, when the thread may be serving another request already; so every
+ * attach opens a time-stamped span on the thread and every detach closes it, and samples are matched against
+ * the spans by time.
+ * <p>
+ * The current request is propagated under {@link #CONTEXT_KEY} by RequestContextAccessors, so spans are
+ * opened on the async fan-out tasks of a request as well. Closed spans are forgotten once no sample can refer to them any more.
+ */
+public final class ProfilingContext {
+    public static final String CONTEXT_KEY = "profiling.request";
+
+    private static final long OPEN = Long.MAX_VALUE;
+    private static final ThreadLocal<ProfiledRequest> CURRENT = new ThreadLocal<>();
+    private static final Map<Long, Span> SPANS = new ConcurrentHashMap<>();
+
+    /**
+     * One thread working for one request, in epoch nanoseconds; newest first. Spans of one thread never overlap.
+     */
+    private record Span(ProfiledRequest request, long start, long end, Span previous) {
+    }
+
+    private ProfilingContext() {
+    }
+
+    public static ProfiledRequest current() {
+        return CURRENT.get();
+    }
+
+    public static void attach(ProfiledRequest request) {
+        if (request == null) {
+            detach();
+            return;
+        }
+        CURRENT.set(request);
+        long now = epochNanos(Instant.now());
+        SPANS.compute(Thread.currentThread().threadId(), (id, head) -> new Span(request, now, OPEN, close(head, now)));
+    }
+
+    public static void detach() {
+        CURRENT.remove();
+        long now = epochNanos(Instant.now());
+        SPANS.computeIfPresent(Thread.currentThread().threadId(), (id, head) -> close(head, now));
+    }
+
+    private static Span close(Span head, long now) {
+        return head == null || head.end() != OPEN ? head : new Span(head.request(), head.start(), now, head.previous());
+    }
+
+    /**
+     * The request the thread worked for at that time, or null.
+     */
+    static ProfiledRequest find(long threadId, long epochNanos) {
+        for (Span span = SPANS.get(threadId); span != null; span = span.previous()) {
+            if (epochNanos >= span.start()) {
+                return epochNanos < span.end() ? span.request() : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forgets the spans that ended before the cutoff, and threads left without spans.
+     */
+    static void expire(long cutoffEpochNanos) {
+        for (Long threadId : SPANS.keySet()) {
+            SPANS.computeIfPresent(threadId, (id, head) -> trim(head, cutoffEpochNanos));
+        }
+    }
+
+    private static Span trim(Span span, long cutoff) {
+        if (span == null || span.end() < cutoff) {
+            // Older spans of the thread ended even earlier
+            return null;
+        }
+        Span previous = trim(span.previous(), cutoff);
+        return previous == span.previous() ? span : new Span(span.request(), span.start(), span.end(), previous);
+    }
+
+    static int threads() {
+        return SPANS.size();
+    }
+
+    static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+}
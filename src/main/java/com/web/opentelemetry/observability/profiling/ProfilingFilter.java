@@ -0,0 +1,56 @@
+package com.web.opentelemetry.observability.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
+
+/**
+ * Outermost filter: attaches a {@link ProfiledRequest} to the request thread, so the samples taken in every
+ * other filter (flight recorder, header logging, observation, request id) are attributed to the request too.
+ * The async dispatch of a Servlet async request attaches the same ProfiledRequest again.
+ * <p>
+ * Requests are only attached while the profiler streams: its flushes are what expire the spans in
+ * {@link ProfilingContext}, so without JFR, or once the profiler is closed, they would pile up.
+ */
+public class ProfilingFilter extends OncePerRequestFilter {
+    static final String REQUEST_ATTRIBUTE = ProfiledRequest.class.getName();
+
+    private final ContinuousProfiler profiler;
+
+    public ProfilingFilter(ContinuousProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !profiler.isRunning();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ProfiledRequest profiled = request.getAttribute(REQUEST_ATTRIBUTE) instanceof ProfiledRequest existing
+                ? existing : new ProfiledRequest();
+        request.setAttribute(REQUEST_ATTRIBUTE, profiled);
+        ProfilingContext.attach(profiled);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Requests that never reached a handler (404, served from the response cache) still have a request id
+            if (profiled.requestId() == null && request.getAttribute(X_SSTECHMINDS_REQUEST_ID) instanceof String requestId) {
+                profiled.requestId(requestId);
+            }
+            ProfilingContext.detach();
+        }
+    }
+}
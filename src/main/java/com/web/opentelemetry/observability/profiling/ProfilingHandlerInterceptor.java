@@ -0,0 +1,26 @@
+package com.web.opentelemetry.observability.profiling;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
+
+/**
+ * Names the current {@link ProfiledRequest}: the route pattern is known once the handler is mapped, and the
+ * request id filter has run by now.
+ */
+public class ProfilingHandlerInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getAttribute(ProfilingFilter.REQUEST_ATTRIBUTE) instanceof ProfiledRequest profiled) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            profiled.route(pattern instanceof String route ? route : null);
+            profiled.requestId(MDC.get(X_SSTECHMINDS_REQUEST_ID));
+        }
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package com.web.opentelemetry.observability.startup;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Records the time from application start to the first successful response of the path it is registered for.
+ * A response only counts when its status is below 400 and the handler did not mark it with
+ * {@link #DOWNSTREAM_FAILED_ATTRIBUTE}: /api/info answers 200 with a fallback body when its downstream call fails,
+ * which is not the application serving traffic yet.
+ * After that first success the filter is a single volatile read per request.
+ */
+public class FirstRequestTimingFilter extends OncePerRequestFilter {
+    /**
+     * Request attribute a handler sets when it answered with a fallback because a downstream call failed.
+     */
+    public static final String DOWNSTREAM_FAILED_ATTRIBUTE = FirstRequestTimingFilter.class.getName() + ".downstreamFailed";
+
+    private final StartupProfiler startupProfiler;
+
+    public FirstRequestTimingFilter(StartupProfiler startupProfiler) {
+        this.startupProfiler = startupProfiler;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+        if (!startupProfiler.firstRequestRecorded() && response.getStatus() < 400
+                && request.getAttribute(DOWNSTREAM_FAILED_ATTRIBUTE) == null) {
+            startupProfiler.recordFirstSuccessfulRequest();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.web.opentelemetry.observability.startup;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * /actuator/startupprofile: the aggregated startup profile. A POST re-writes the JSON dump file
+ * ({@code app.startup.dump-file}) with the current state, e.g. once time-to-first-request is known.
+ */
+@Endpoint(id = "startupprofile")
+public class StartupProfileEndpoint {
+    private final StartupProfiler startupProfiler;
+
+    public StartupProfileEndpoint(StartupProfiler startupProfiler) {
+        this.startupProfiler = startupProfiler;
+    }
+
+    @ReadOperation
+    public StartupProfiler.StartupReport profile() {
+        return startupProfiler.report();
+    }
+
+    @WriteOperation
+    public StartupProfiler.StartupReport dump() {
+        startupProfiler.dump();
+        return startupProfiler.report();
+    }
+}
@@ -0,0 +1,218 @@
+package com.web.opentelemetry.observability.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.util.StringUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns the {@link BufferingApplicationStartup} timeline into a startup profile: context refresh steps,
+ * per-bean creation times (self time, excluding nested dependencies), the auto-configurations we care
+ * about and the time until the first successful /api/info.
+ * <p>
+ * Times are measured from the start of {@code SpringApplication.run} (Boot's {@link ApplicationReadyEvent#getTimeTaken()}),
+ * not from JVM start: in a reused Surefire JVM the uptime also counts every test context that ran before.
+ * <p>
+ * The timeline is snapshot on {@link ApplicationReadyEvent}, so draining the stock /actuator/startup
+ * endpoint afterwards does not affect this profile.
+ */
+@Slf4j
+public class StartupProfiler implements ApplicationListener<ApplicationReadyEvent> {
+    static final String BEAN_INSTANTIATE_STEP = "spring.beans.instantiate";
+    public static final String LOGBACK_VALVE_STEP = "tomcat.logback-valve.start";
+
+    /**
+     * Components tracked individually in the report, matched against the bean name and type (or step name).
+     */
+    static final Map<String, String> TRACKED_COMPONENTS = Map.of(
+            "TracingAutoConfig", "com.web.opentelemetry.observability.tracing.TracingAutoConfig",
+            "TomcatAccessLogAutoConfig", "com.web.opentelemetry.observability.logging.TomcatAccessLogAutoConfig",
+            "LogbackValve", LOGBACK_VALVE_STEP,
+            "OpenTelemetryAutoConfig", "org.springframework.boot.opentelemetry",
+            "OpenTelemetrySdk", "io.opentelemetry.",
+            "ExampleRestClientUsageService", "com.web.opentelemetry.service.ExampleRestClientUsageService");
+
+    private final ApplicationStartup applicationStartup;
+    private final JsonMapper jsonMapper;
+    private final String dumpFile;
+    private final int topBeans;
+
+    private static final long UNSET = Long.MIN_VALUE;
+
+    private final long createdNanos = System.nanoTime();
+    private volatile StartupReport readyReport;
+    private volatile long runStartNanos = UNSET;
+    private volatile long firstInfoNanos = UNSET;
+
+    public StartupProfiler(ApplicationStartup applicationStartup, JsonMapper jsonMapper, String dumpFile, int topBeans) {
+        this.applicationStartup = applicationStartup;
+        this.jsonMapper = jsonMapper;
+        this.dumpFile = dumpFile;
+        this.topBeans = topBeans;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Duration timeTaken = event.getTimeTaken();
+        // Without a time taken, fall back to the creation of this bean, early in the context refresh
+        runStartNanos = timeTaken == null ? createdNanos : System.nanoTime() - timeTaken.toNanos();
+        readyReport = buildReport(timeTaken);
+        log.info("Startup profile: ready in {} ms (context refresh {} ms, {} bean steps recorded)",
+                readyReport.applicationReadyMillis(), readyReport.contextRefreshMillis(), readyReport.beanCount());
+        dump();
+    }
+
+    /**
+     * Called once by {@link FirstRequestTimingFilter} when /api/info first succeeds without a downstream fallback.
+     */
+    void recordFirstSuccessfulRequest() {
+        if (firstInfoNanos == UNSET) {
+            firstInfoNanos = System.nanoTime();
+            log.info("First successful /api/info {} ms after start", timeToFirstInfoMillis());
+            dump();
+        }
+    }
+
+    boolean firstRequestRecorded() {
+        return firstInfoNanos != UNSET;
+    }
+
+    /**
+     * Null until both ends are known: a request can succeed before {@link ApplicationReadyEvent}.
+     */
+    private Long timeToFirstInfoMillis() {
+        long start = runStartNanos;
+        long firstInfo = firstInfoNanos;
+        return start == UNSET || firstInfo == UNSET ? null : TimeUnit.NANOSECONDS.toMillis(firstInfo - start);
+    }
+
+    public StartupReport report() {
+        StartupReport ready = readyReport;
+        if (ready == null) {
+            return null;
+        }
+        return ready.withTimeToFirstInfo(timeToFirstInfoMillis());
+    }
+
+    public void dump() {
+        if (!StringUtils.hasText(dumpFile) || readyReport == null) {
+            return;
+        }
+        try {
+            Path path = Path.of(dumpFile);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            jsonMapper.writeValue(path.toFile(), report());
+        } catch (Exception e) {
+            log.warn("Failed to dump startup profile to {}", dumpFile, e);
+        }
+    }
+
+    private StartupReport buildReport(Duration readyTimeTaken) {
+        long readyMillis = readyTimeTaken == null ? -1 : readyTimeTaken.toMillis();
+        if (!(applicationStartup instanceof BufferingApplicationStartup buffering)) {
+            log.warn("ApplicationStartup is {}, not BufferingApplicationStartup: only totals are available",
+                    applicationStartup.getClass().getSimpleName());
+            return new StartupReport(readyMillis, -1, null,
+                    List.of(), List.of(), Map.of(), 0);
+        }
+
+        List<StartupTimeline.TimelineEvent> events = buffering.getBufferedTimeline().getEvents();
+        Map<Long, Long> childNanos = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            Long parentId = event.getStartupStep().getParentId();
+            if (parentId != null) {
+                childNanos.merge(parentId, event.getDuration().toNanos(), Long::sum);
+            }
+        }
+
+        long contextRefreshMillis = -1;
+        Map<String, StepTiming> steps = new LinkedHashMap<>();
+        List<BeanTiming> beans = new ArrayList<>();
+        Map<String, Double> components = new LinkedHashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            StartupStep step = event.getStartupStep();
+            long totalNanos = event.getDuration().toNanos();
+            long selfNanos = Math.max(0, totalNanos - childNanos.getOrDefault(step.getId(), 0L));
+
+            if ("spring.context.refresh".equals(step.getName()) && step.getParentId() == null) {
+                contextRefreshMillis = event.getDuration().toMillis();
+            }
+            steps.merge(step.getName(), new StepTiming(step.getName(), 1, toMillis(totalNanos), toMillis(selfNanos)), StepTiming::plus);
+
+            String beanName = null;
+            String beanType = null;
+            for (StartupStep.Tag tag : step.getTags()) {
+                if ("beanName".equals(tag.getKey())) {
+                    beanName = tag.getValue();
+                } else if ("beanType".equals(tag.getKey())) {
+                    beanType = tag.getValue();
+                }
+            }
+            if (BEAN_INSTANTIATE_STEP.equals(step.getName()) && beanName != null) {
+                beans.add(new BeanTiming(beanName, beanType, toMillis(totalNanos), toMillis(selfNanos)));
+            }
+            // Auto-configuration beans are named after their class; other beans only carry it in "beanType".
+            String subject = BEAN_INSTANTIATE_STEP.equals(step.getName()) ? beanName + " " + beanType : step.getName();
+            for (Map.Entry<String, String> tracked : TRACKED_COMPONENTS.entrySet()) {
+                if (subject.contains(tracked.getValue())) {
+                    components.merge(tracked.getKey(), toMillis(selfNanos), Double::sum);
+                }
+            }
+        }
+
+        int beanCount = beans.size();
+        beans.sort(Comparator.comparingDouble(BeanTiming::selfMillis).reversed());
+        List<StepTiming> sortedSteps = new ArrayList<>(steps.values());
+        sortedSteps.sort(Comparator.comparingDouble(StepTiming::totalMillis).reversed());
+        return new StartupReport(readyMillis, contextRefreshMillis, null,
+                sortedSteps, List.copyOf(beans.subList(0, Math.min(topBeans, beans.size()))), components, beanCount);
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public record StepTiming(String name, int count, double totalMillis, double selfMillis) {
+        StepTiming plus(StepTiming other) {
+            return new StepTiming(name, count + other.count, totalMillis + other.totalMillis, selfMillis + other.selfMillis);
+        }
+    }
+
+    public record BeanTiming(String beanName, String beanType, double totalMillis, double selfMillis) {
+    }
+
+    /**
+     * @param applicationReadyMillis from the start of SpringApplication.run to ApplicationReadyEvent
+     * @param timeToFirstInfoMillis  from the start of SpringApplication.run to the first successful /api/info
+     */
+    public record StartupReport(long applicationReadyMillis,
+                                long contextRefreshMillis,
+                                Long timeToFirstInfoMillis,
+                                List<StepTiming> steps,
+                                List<BeanTiming> slowestBeans,
+                                Map<String, Double> trackedComponentsMillis,
+                                int beanCount) {
+        StartupReport withTimeToFirstInfo(Long millis) {
+            return new StartupReport(applicationReadyMillis, contextRefreshMillis, millis,
+                    steps, slowestBeans, trackedComponentsMillis, beanCount);
+        }
+    }
+}
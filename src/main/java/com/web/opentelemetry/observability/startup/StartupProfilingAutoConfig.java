@@ -0,0 +1,73 @@
+package com.web.opentelemetry.observability.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.metrics.ApplicationStartup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+
+/**
+ * Startup profiling: see {@link StartupProfiler}. The detailed step timeline needs the
+ * {@code BufferingApplicationStartup} installed in {@code SpringBootVirtualThreadsDemoApplication.main}.
+ */
+@Slf4j
+@AutoConfiguration
+@ConditionalOnBooleanProperty(name = "app.startup.profiling.enabled", matchIfMissing = true)
+public class StartupProfilingAutoConfig {
+
+    @Bean
+    public StartupProfiler startupProfiler(ApplicationStartup applicationStartup,
+                                           JsonMapper jsonMapper,
+                                           @Value("${app.startup.dump-file:}") String dumpFile,
+                                           @Value("${app.startup.top-beans:25}") int topBeans) {
+        return new StartupProfiler(applicationStartup, jsonMapper, dumpFile, topBeans);
+    }
+
+    @Bean
+    public FilterRegistrationBean<FirstRequestTimingFilter> firstRequestTimingFilter(StartupProfiler startupProfiler) {
+        FilterRegistrationBean<FirstRequestTimingFilter> registration =
+                new FilterRegistrationBean<>(new FirstRequestTimingFilter(startupProfiler));
+        registration.addUrlPatterns("/api/info");
+        // After the profiling and flight recorder filters, ahead of TraceHeaderFilter
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    @Bean
+    public StartupProfileEndpoint startupProfileEndpoint(StartupProfiler startupProfiler) {
+        return new StartupProfileEndpoint(startupProfiler);
+    }
+
+    /**
+     * Marks the beans listed in {@code app.startup.lazy-beans} as lazy, so they are created on first use
+     * instead of during context refresh (see the "lazy" profile).
+     */
+    @Bean
+    public static BeanFactoryPostProcessor lazyBeansPostProcessor(Environment environment) {
+        List<String> lazyBeans = Binder.get(environment)
+                .bind("app.startup.lazy-beans", Bindable.listOf(String.class))
+                .orElse(List.of());
+        return beanFactory -> {
+            for (String beanName : lazyBeans) {
+                if (beanFactory.containsBeanDefinition(beanName)) {
+                    BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+                    definition.setLazyInit(true);
+                    log.info("Deferring creation of bean '{}' until first use", beanName);
+                } else {
+                    log.warn("app.startup.lazy-beans lists unknown bean '{}'", beanName);
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,344 @@
+package com.web.opentelemetry.observability.threaddump;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Summarises a JDK thread dump by stack: threads whose top frames are the same form one group, with its count,
+ * thread states, park or blocking reasons and the request ids of its threads.
+ * <p>
+ * The dump is written by {@link HotSpotDiagnosticMXBean#dumpThreads} in JSON (the format that includes
+ * virtual threads) straight to a file under {@code directory}, then read back with a streaming parser one thread
+ * at a time. Heap use is bounded by {@code maxGroups}, not by the number of threads, so taking a summary with
+ * 100k+ virtual threads under load is safe. The last {@code retainedFiles} raw dumps are kept for download.
+ * <p>
+ * Leading frames that only implement the wait itself (VirtualThread.park, LockSupport, Unsafe, Continuation)
+ * are left out of the group key; the first of them is the fallback reason when the dump has no lock details.
+ * The last {@code history} snapshots are kept so a later snapshot can be {@link #diff diffed} against them.
+ * Only one dump runs at a time.
+ */
+@Slf4j
+public class ThreadDumpAggregator {
+
+    private static final List<String> WAIT_FRAME_PREFIXES = List.of(
+            "java.lang.VirtualThread.", "jdk.internal.vm.Continuation.", "jdk.internal.misc.Unsafe.park",
+            "java.util.concurrent.locks.LockSupport.", "java.lang.Thread.sleep", "java.lang.Object.wait");
+    private static final String OTHER_STACKS = "(other stacks)";
+    private static final int MAX_REASONS_PER_GROUP = 8;
+    private static final int MAX_REQUEST_IDS_PER_GROUP = 16;
+
+    /**
+     * One thread of the JSON dump. {@code virtual}, {@code state} and the lock fields are only written by recent
+     * JDKs; the lock fields are either an object description or an object with an {@code object} field.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record DumpedThread(String tid, String name, String state, Boolean virtual, List<String> stack,
+                        Object parkBlocker, Object blockedOn, Object waitingOn) {
+    }
+
+    public record Group(List<String> frames, int count, Map<String, Integer> states, Map<String, Integer> reasons,
+                        int requestIdCount, List<String> requestIds) {
+    }
+
+    public record Snapshot(long id, Instant time, int frames, int threads, int virtualThreads, int platformThreads,
+                           long dumpBytes, long dumpMillis, long parseMillis, int groupCount, List<Group> groups) {
+
+        Snapshot limit(int limit) {
+            return groups.size() <= limit ? this : new Snapshot(id, time, frames, threads, virtualThreads, platformThreads,
+                    dumpBytes, dumpMillis, parseMillis, groupCount, groups.subList(0, limit));
+        }
+    }
+
+    public record GroupDiff(List<String> frames, int before, int after, int delta) {
+    }
+
+    public record Diff(long fromId, long toId, double seconds, int threadsDelta, List<GroupDiff> groups) {
+    }
+
+    private final JsonMapper jsonMapper;
+    private final Path directory;
+    private final int maxGroups;
+    private final int history;
+    private final int retainedFiles;
+    private final ReentrantLock dumpLock = new ReentrantLock();
+    private final ReentrantLock historyLock = new ReentrantLock();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Deque<Snapshot> snapshots = new ArrayDeque<>();
+    private final Deque<Path> files = new ArrayDeque<>();
+
+    public ThreadDumpAggregator(JsonMapper jsonMapper, Path directory, int maxGroups, int history, int retainedFiles) {
+        this.jsonMapper = jsonMapper;
+        this.directory = directory.toAbsolutePath();
+        this.maxGroups = maxGroups;
+        this.history = history;
+        this.retainedFiles = retainedFiles;
+    }
+
+    /**
+     * Dumps all threads and groups them by their top {@code frames} frames.
+     *
+     * @param includePlatform group platform threads as well; they are always counted
+     * @return empty if another dump is in progress
+     */
+    public Optional<Snapshot> snapshot(int frames, boolean includePlatform) throws IOException {
+        if (!dumpLock.tryLock()) {
+            return Optional.empty();
+        }
+        try {
+            long id = sequence.incrementAndGet();
+            Files.createDirectories(directory);
+            Path file = directory.resolve("threads-" + id + ".json");
+            Files.deleteIfExists(file);
+
+            long start = System.nanoTime();
+            ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+                    .dumpThreads(file.toString(), HotSpotDiagnosticMXBean.ThreadDumpFormat.JSON);
+            long dumped = System.nanoTime();
+            Snapshot snapshot = summarize(id, file, frames, includePlatform,
+                    TimeUnit.NANOSECONDS.toMillis(dumped - start), dumped);
+            retain(snapshot, file);
+            return Optional.of(snapshot);
+        } finally {
+            dumpLock.unlock();
+        }
+    }
+
+    Snapshot summarize(long id, Path file, int frames, boolean includePlatform, long dumpMillis, long parseStart) throws IOException {
+        Map<String, GroupBuilder> groups = new HashMap<>();
+        int[] counts = new int[2];
+        try (JsonParser parser = jsonMapper.createParser(file.toFile())) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token != JsonToken.START_ARRAY || !"threads".equals(parser.currentName())) {
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    DumpedThread thread = jsonMapper.readValue(parser, DumpedThread.class);
+                    boolean virtual = isVirtual(thread);
+                    counts[virtual ? 0 : 1]++;
+                    if (virtual || includePlatform) {
+                        add(groups, thread, frames);
+                    }
+                }
+            }
+        }
+        List<Group> sorted = groups.values().stream()
+                .map(GroupBuilder::build)
+                .sorted(Comparator.comparingInt(Group::count).reversed())
+                .toList();
+        return new Snapshot(id, Instant.now(), frames, counts[0] + counts[1], counts[0], counts[1], Files.size(file),
+                dumpMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - parseStart), sorted.size(), sorted);
+    }
+
+    private void add(Map<String, GroupBuilder> groups, DumpedThread thread, int frames) {
+        List<String> stack = thread.stack() != null ? thread.stack() : List.of();
+        int top = 0;
+        String waitFrame = null;
+        while (top < stack.size() && isWaitFrame(withoutModule(stack.get(top)))) {
+            if (waitFrame == null) {
+                waitFrame = withoutModule(stack.get(top));
+            }
+            top++;
+        }
+        List<String> key = stack.subList(top, Math.min(stack.size(), top + frames));
+        String joined = String.join("\n", key);
+
+        GroupBuilder group = groups.get(joined);
+        if (group == null) {
+            if (groups.size() >= maxGroups) {
+                group = groups.computeIfAbsent(OTHER_STACKS, k -> new GroupBuilder(List.of(OTHER_STACKS)));
+            } else {
+                group = new GroupBuilder(List.copyOf(key));
+                groups.put(joined, group);
+            }
+        }
+        group.add(thread, reason(thread, waitFrame));
+    }
+
+    static String reason(DumpedThread thread, String waitFrame) {
+        if (thread.parkBlocker() != null) {
+            return "parked on " + objectClass(thread.parkBlocker());
+        }
+        if (thread.blockedOn() != null) {
+            return "blocked on " + objectClass(thread.blockedOn());
+        }
+        if (thread.waitingOn() != null) {
+            return "waiting on " + objectClass(thread.waitingOn());
+        }
+        if (waitFrame != null) {
+            int paren = waitFrame.indexOf('(');
+            return paren > 0 ? waitFrame.substring(0, paren) : waitFrame;
+        }
+        return thread.state() != null ? thread.state() : "running";
+    }
+
+    /**
+     * {@code java.util.concurrent.CountDownLatch$Sync@1a2b3c} to {@code java.util.concurrent.CountDownLatch$Sync}.
+     */
+    private static String objectClass(Object lock) {
+        Object description = lock instanceof Map<?, ?> map ? map.get("object") : lock;
+        String text = String.valueOf(description);
+        int at = text.indexOf('@');
+        return at > 0 ? text.substring(0, at) : text;
+    }
+
+    private static boolean isVirtual(DumpedThread thread) {
+        if (thread.virtual() != null) {
+            return thread.virtual();
+        }
+        List<String> stack = thread.stack();
+        return stack != null && !stack.isEmpty() && withoutModule(stack.getLast()).startsWith("java.lang.VirtualThread.run");
+    }
+
+    private static boolean isWaitFrame(String frame) {
+        for (String prefix : WAIT_FRAME_PREFIXES) {
+            if (frame.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@code java.base/java.lang.Thread.run(Thread.java:1583)} to {@code java.lang.Thread.run(Thread.java:1583)}.
+     */
+    static String withoutModule(String frame) {
+        int paren = frame.indexOf('(');
+        int slash = frame.lastIndexOf('/', paren < 0 ? frame.length() : paren);
+        return slash >= 0 ? frame.substring(slash + 1) : frame;
+    }
+
+    private void retain(Snapshot snapshot, Path file) {
+        List<Path> expired = new ArrayList<>();
+        withHistory(() -> {
+            snapshots.addLast(snapshot);
+            while (snapshots.size() > history) {
+                snapshots.removeFirst();
+            }
+            files.addLast(file);
+            while (files.size() > retainedFiles) {
+                expired.add(files.removeFirst());
+            }
+        });
+        for (Path old : expired) {
+            try {
+                Files.deleteIfExists(old);
+            } catch (IOException e) {
+                log.warn("Could not delete old thread dump {}: {}", old, e.getMessage());
+            }
+        }
+    }
+
+    public Optional<Snapshot> find(long id) {
+        List<Snapshot> retained = new ArrayList<>();
+        withHistory(() -> retained.addAll(snapshots));
+        return retained.stream().filter(s -> s.id() == id).findFirst();
+    }
+
+    /**
+     * The raw JSON dump of snapshot {@code id}, while it is still retained.
+     */
+    public Optional<Path> file(long id) {
+        Path file = directory.resolve("threads-" + id + ".json");
+        List<Path> retained = new ArrayList<>();
+        withHistory(() -> retained.addAll(files));
+        return retained.contains(file) && Files.exists(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    public List<Long> snapshotIds() {
+        List<Long> ids = new ArrayList<>();
+        withHistory(() -> snapshots.forEach(s -> ids.add(s.id())));
+        return ids;
+    }
+
+    /**
+     * Per-group change in thread count from {@code from} to {@code to}, largest changes first. Both snapshots
+     * must be grouped by the same number of frames.
+     */
+    public static Diff diff(Snapshot from, Snapshot to, int limit) {
+        if (from.frames() != to.frames()) {
+            throw new IllegalArgumentException("Snapshot " + from.id() + " is grouped by " + from.frames()
+                    + " frames, snapshot " + to.id() + " by " + to.frames());
+        }
+        Map<List<String>, int[]> counts = new LinkedHashMap<>();
+        for (Group group : from.groups()) {
+            counts.computeIfAbsent(group.frames(), f -> new int[2])[0] = group.count();
+        }
+        for (Group group : to.groups()) {
+            counts.computeIfAbsent(group.frames(), f -> new int[2])[1] = group.count();
+        }
+        List<GroupDiff> changes = counts.entrySet().stream()
+                .filter(e -> e.getValue()[0] != e.getValue()[1])
+                .map(e -> new GroupDiff(e.getKey(), e.getValue()[0], e.getValue()[1], e.getValue()[1] - e.getValue()[0]))
+                .sorted(Comparator.comparingInt((GroupDiff d) -> Math.abs(d.delta())).reversed())
+                .limit(limit)
+                .toList();
+        double seconds = (to.time().toEpochMilli() - from.time().toEpochMilli()) / 1000.0;
+        return new Diff(from.id(), to.id(), seconds, to.threads() - from.threads(), changes);
+    }
+
+    private void withHistory(Runnable action) {
+        historyLock.lock();
+        try {
+            action.run();
+        } finally {
+            historyLock.unlock();
+        }
+    }
+
+    private static final class GroupBuilder {
+        final List<String> frames;
+        int count;
+        final Map<String, Integer> states = new LinkedHashMap<>();
+        final Map<String, Integer> reasons = new LinkedHashMap<>();
+        final Set<String> requestIds = new HashSet<>();
+        int requestIdCount;
+
+        GroupBuilder(List<String> frames) {
+            this.frames = frames;
+        }
+
+        void add(DumpedThread thread, String reason) {
+            count++;
+            states.merge(thread.state() != null ? thread.state() : "UNKNOWN", 1, Integer::sum);
+            if (reasons.containsKey(reason) || reasons.size() < MAX_REASONS_PER_GROUP) {
+                reasons.merge(reason, 1, Integer::sum);
+            }
+            String requestId = thread.tid() != null ? ThreadRequestIds.forThread(Long.parseLong(thread.tid())) : null;
+            if (requestId != null) {
+                requestIdCount++;
+                if (requestIds.size() < MAX_REQUEST_IDS_PER_GROUP) {
+                    requestIds.add(requestId);
+                }
+            }
+        }
+
+        Group build() {
+            return new Group(frames, count, states, reasons, requestIdCount, List.copyOf(requestIds));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.web.opentelemetry.observability.threaddump;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Path;
+
+/**
+ * Aggregated virtual-thread dumps: see {@link ThreadDumpAggregator}.
+ */
+@AutoConfiguration
+@ConditionalOnBooleanProperty(name = "app.thread-dump.enabled", matchIfMissing = true)
+public class ThreadDumpAutoConfig {
+
+    @Bean
+    public ThreadDumpAggregator threadDumpAggregator(JsonMapper jsonMapper,
+                                                     @Value("${app.thread-dump.dir:${java.io.tmpdir}/thread-dumps}") String dir,
+                                                     @Value("${app.thread-dump.max-groups:500}") int maxGroups,
+                                                     @Value("${app.thread-dump.history:8}") int history,
+                                                     @Value("${app.thread-dump.retained-files:2}") int retainedFiles) {
+        return new ThreadDumpAggregator(jsonMapper, Path.of(dir), maxGroups, history, retainedFiles);
+    }
+
+    @Bean
+    public WebMvcConfigurer threadDumpWebMvcConfigurer() {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ThreadRequestIdInterceptor());
+            }
+        };
+    }
+
+    @Bean
+    public VirtualThreadDumpEndpoint virtualThreadDumpEndpoint(ThreadDumpAggregator aggregator,
+                                                               @Value("${app.thread-dump.frames:8}") int frames) {
+        return new VirtualThreadDumpEndpoint(aggregator, frames);
+    }
+}
@@ -0,0 +1,31 @@
+package com.web.opentelemetry.observability.threaddump;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
+
+/**
+ * Registers the request id of the handler thread in {@link ThreadRequestIds} for the duration of the handler,
+ * including the async dispatch of Servlet async requests. The request id filter has run by now.
+ */
+public class ThreadRequestIdInterceptor implements AsyncHandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ThreadRequestIds.attach(MDC.get(X_SSTECHMINDS_REQUEST_ID));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ThreadRequestIds.detach();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ThreadRequestIds.detach();
+    }
+}
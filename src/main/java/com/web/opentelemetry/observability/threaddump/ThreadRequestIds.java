@@ -0,0 +1,45 @@
+package com.web.opentelemetry.observability.threaddump;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request id per thread id, readable from any thread, so a thread dump (which only has thread ids) can be
+ * joined with the requests the threads are serving. A ThreadLocal or the MDC cannot be read from the thread
+ * taking the dump.
+ * <p>
+ * Filled by {@link ThreadRequestIdInterceptor} on the request thread and, through RequestContextAccessors,
+ * on the async tasks of the request.
+ */
+public final class ThreadRequestIds {
+    public static final String CONTEXT_KEY = "threaddump.request-id";
+
+    private static final Map<Long, String> BY_THREAD = new ConcurrentHashMap<>();
+
+    private ThreadRequestIds() {
+    }
+
+    public static String current() {
+        return BY_THREAD.get(Thread.currentThread().threadId());
+    }
+
+    public static void attach(String requestId) {
+        if (requestId != null) {
+            BY_THREAD.put(Thread.currentThread().threadId(), requestId);
+        } else {
+            detach();
+        }
+    }
+
+    public static void detach() {
+        BY_THREAD.remove(Thread.currentThread().threadId());
+    }
+
+    public static String forThread(long threadId) {
+        return BY_THREAD.get(threadId);
+    }
+
+    public static int size() {
+        return BY_THREAD.size();
+    }
+}
@@ -0,0 +1,83 @@
+package com.web.opentelemetry.observability.threaddump;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.OptionalParameter;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * /actuator/vthreaddump: takes a thread dump and returns the virtual threads grouped by stack, largest group
+ * first (see {@link ThreadDumpAggregator}).
+ * <ul>
+ *     <li>{@code ?frames=} frames per group key (default {@code app.thread-dump.frames})</li>
+ *     <li>{@code ?limit=} groups returned (default 50)</li>
+ *     <li>{@code ?includePlatform=true} groups platform threads too</li>
+ *     <li>{@code ?diff=<id>} also returns the change per group since an earlier snapshot</li>
+ * </ul>
+ * /actuator/vthreaddump/{id} downloads the raw JSON dump of a retained snapshot. 503 while another dump runs.
+ */
+@Endpoint(id = "vthreaddump")
+public class VirtualThreadDumpEndpoint {
+    private static final int DEFAULT_LIMIT = 50;
+
+    private final ThreadDumpAggregator aggregator;
+    private final int defaultFrames;
+
+    public VirtualThreadDumpEndpoint(ThreadDumpAggregator aggregator, int defaultFrames) {
+        this.aggregator = aggregator;
+        this.defaultFrames = defaultFrames;
+    }
+
+    @ReadOperation
+    public WebEndpointResponse<Map<String, Object>> dump(@OptionalParameter Integer frames, @OptionalParameter Integer limit,
+                                                         @OptionalParameter Long diff, @OptionalParameter Boolean includePlatform) {
+        int groupLimit = limit != null ? limit : DEFAULT_LIMIT;
+        Optional<ThreadDumpAggregator.Snapshot> previous = Optional.empty();
+        if (diff != null) {
+            previous = aggregator.find(diff);
+            if (previous.isEmpty()) {
+                return new WebEndpointResponse<>(Map.of("error", "Snapshot " + diff + " is no longer retained",
+                        "snapshots", aggregator.snapshotIds()), WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+        }
+        int depth = frames != null ? frames : previous.map(ThreadDumpAggregator.Snapshot::frames).orElse(defaultFrames);
+
+        Optional<ThreadDumpAggregator.Snapshot> snapshot;
+        try {
+            snapshot = aggregator.snapshot(depth, Boolean.TRUE.equals(includePlatform));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (snapshot.isEmpty()) {
+            return new WebEndpointResponse<>(Map.of("error", "Another thread dump is in progress"),
+                    WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("snapshot", snapshot.get().limit(groupLimit));
+        if (previous.isPresent()) {
+            try {
+                body.put("diff", ThreadDumpAggregator.diff(previous.get(), snapshot.get(), groupLimit));
+            } catch (IllegalArgumentException e) {
+                body.put("diffError", e.getMessage());
+            }
+        }
+        return new WebEndpointResponse<>(body, WebEndpointResponse.STATUS_OK);
+    }
+
+    @ReadOperation(produces = "application/json")
+    public WebEndpointResponse<Resource> raw(@Selector long id) {
+        return aggregator.file(id)
+                .<WebEndpointResponse<Resource>>map(file -> new WebEndpointResponse<>(new FileSystemResource(file)))
+                .orElseGet(() -> new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND));
+    }
+}
@@ -0,0 +1,99 @@
+package com.web.opentelemetry.observability.tracing;
+
+import com.web.opentelemetry.observability.flightrecorder.RequestFlightRecorder;
+import com.web.opentelemetry.observability.flightrecorder.RequestRecording;
+import com.web.opentelemetry.observability.profiling.ProfiledRequest;
+import com.web.opentelemetry.observability.profiling.ProfilingContext;
+import com.web.opentelemetry.observability.threaddump.ThreadRequestIds;
+import io.micrometer.context.ThreadLocalAccessor;
+
+/**
+ * The request-scoped thread locals of the observability modules, as context-propagation accessors. They are
+ * listed in {@code META-INF/services/io.micrometer.context.ThreadLocalAccessor}, which
+ * {@code ContextRegistry.getInstance()} loads on first use, so every ContextSnapshot captures them next to the
+ * current observation: the ContextPropagatingTaskDecorator from TracingAutoConfig restores them on the async
+ * fan-out tasks of a request, and RequestContextSnapshot on Servlet async completion callbacks.
+ * <p>
+ * A value is only captured when its module set one on the request thread, so a disabled module costs one
+ * null read per snapshot.
+ */
+public final class RequestContextAccessors {
+
+    private RequestContextAccessors() {
+    }
+
+    /**
+     * The request id a thread dump shows for the thread.
+     */
+    public static final class ThreadRequestId implements ThreadLocalAccessor<String> {
+        @Override
+        public Object key() {
+            return ThreadRequestIds.CONTEXT_KEY;
+        }
+
+        @Override
+        public String getValue() {
+            return ThreadRequestIds.current();
+        }
+
+        @Override
+        public void setValue(String requestId) {
+            ThreadRequestIds.attach(requestId);
+        }
+
+        @Override
+        public void setValue() {
+            ThreadRequestIds.detach();
+        }
+    }
+
+    /**
+     * The flight recording outbound calls are attributed to.
+     */
+    public static final class FlightRecording implements ThreadLocalAccessor<RequestRecording> {
+        @Override
+        public Object key() {
+            return RequestFlightRecorder.CONTEXT_KEY;
+        }
+
+        @Override
+        public RequestRecording getValue() {
+            return RequestFlightRecorder.current();
+        }
+
+        @Override
+        public void setValue(RequestRecording recording) {
+            RequestFlightRecorder.attach(recording);
+        }
+
+        @Override
+        public void setValue() {
+            RequestFlightRecorder.detach();
+        }
+    }
+
+    /**
+     * The request CPU and allocation samples are attributed to; attaching opens a profiling span on the thread.
+     */
+    public static final class Profiling implements ThreadLocalAccessor<ProfiledRequest> {
+        @Override
+        public Object key() {
+            return ProfilingContext.CONTEXT_KEY;
+        }
+
+        @Override
+        public ProfiledRequest getValue() {
+            return ProfilingContext.current();
+        }
+
+        @Override
+        public void setValue(ProfiledRequest request) {
+            ProfilingContext.attach(request);
+        }
+
+        @Override
+        public void setValue() {
+            ProfilingContext.detach();
+        }
+    }
+}
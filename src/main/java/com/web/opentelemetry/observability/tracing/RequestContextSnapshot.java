@@ -0,0 +1,67 @@
+package com.web.opentelemetry.observability.tracing;
+
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import org.slf4j.MDC;
+
+import java.util.Map;
+
+/**
+ * The request thread's MDC and context-propagation thread locals (current observation and span, and those of
+ * RequestContextAccessors), captured so a Servlet async completion callback can log and trace as part of the request.
+ * Completion callbacks run on whichever thread completed the future (an executor thread, the
+ * CompletableFuture delayer on timeout, a container thread for DeferredResult timeouts), none of which
+ * carry the request's context. MDC is captured separately because it is not a registered accessor.
+ * <pre>{@code
+ * RequestContextSnapshot context = RequestContextSnapshot.capture();
+ * future.whenComplete((value, error) -> {
+ *     try (RequestContextSnapshot.Scope scope = context.restore()) {
+ *         log.info("completed");
+ *     }
+ * });
+ * }</pre>
+ */
+public final class RequestContextSnapshot {
+
+    private static final ContextSnapshotFactory SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final ContextSnapshot threadLocals;
+    private final Map<String, String> mdc;
+
+    private RequestContextSnapshot(ContextSnapshot threadLocals, Map<String, String> mdc) {
+        this.threadLocals = threadLocals;
+        this.mdc = mdc;
+    }
+
+    public static RequestContextSnapshot capture() {
+        return new RequestContextSnapshot(SNAPSHOTS.captureAll(), MDC.getCopyOfContextMap());
+    }
+
+    /**
+     * Installs the captured context on the current thread until the scope is closed, which puts back
+     * whatever the thread had before.
+     */
+    public Scope restore() {
+        Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+        setMdc(mdc);
+        ContextSnapshot.Scope threadLocalScope = threadLocals.setThreadLocals();
+        return () -> {
+            threadLocalScope.close();
+            setMdc(previousMdc);
+        };
+    }
+
+    private static void setMdc(Map<String, String> values) {
+        if (values == null) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(values);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
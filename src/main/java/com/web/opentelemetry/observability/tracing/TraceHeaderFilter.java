@@ -16,7 +16,8 @@ import java.util.UUID;
 import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
 
 @Slf4j
-@Order(Ordered.HIGHEST_PRECEDENCE)
+// Behind the profiling, flight recorder and first-request timing filters, ahead of everything else
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
 public class TraceHeaderFilter extends OncePerRequestFilter {
     private final String hostId;
 
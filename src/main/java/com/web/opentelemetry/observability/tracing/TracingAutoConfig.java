@@ -12,7 +12,7 @@ import java.net.UnknownHostException;
 @AutoConfiguration
 public class TracingAutoConfig {
 
-    @Bean //SB4 context propagation. But, to support Virtual threads refer AsyncThreadConfig.java
+    @Bean //SB4 context propagation, request thread locals listed in RequestContextAccessors. But, to support Virtual threads refer AsyncThreadConfig.java
     ContextPropagatingTaskDecorator taskDecorator() {
         return new ContextPropagatingTaskDecorator();
     }
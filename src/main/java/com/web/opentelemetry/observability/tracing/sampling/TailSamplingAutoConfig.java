@@ -0,0 +1,81 @@
+package com.web.opentelemetry.observability.tracing.sampling;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Tail-based sampling: head sampling stays at 1.0 so every span is recorded, and every SpanExporter
+ * bean is wrapped so only error, slow and a rate-limited random share of traces get exported. Each wrapped
+ * exporter has its own buffer and policy, see {@link TailSamplingSpanBuffers}.
+ */
+@Slf4j
+@AutoConfiguration
+@ConditionalOnClass(SpanExporter.class)
+@ConditionalOnBooleanProperty(name = "app.tracing.tail-sampling.enabled", matchIfMissing = true)
+public class TailSamplingAutoConfig {
+
+    @Bean
+    public TailSamplingSpanBuffers tailSamplingSpanBuffers(
+            @Value("${app.tracing.tail-sampling.latency-threshold:500ms}") Duration latencyThreshold,
+            @Value("${app.tracing.tail-sampling.sample-ratio:0.01}") double sampleRatio,
+            @Value("${app.tracing.tail-sampling.max-random-per-second:10}") int maxRandomPerSecond,
+            @Value("${app.tracing.tail-sampling.stripes:64}") int stripes,
+            @Value("${app.tracing.tail-sampling.max-buffered-spans:50000}") int maxBufferedSpans,
+            @Value("${app.tracing.tail-sampling.max-trace-age:30s}") Duration maxTraceAge,
+            @Value("${app.tracing.tail-sampling.decision-cache-size:65536}") int decisionCacheSize) {
+        return new TailSamplingSpanBuffers(() -> new TailSamplingSpanBuffer(stripes, maxBufferedSpans,
+                maxTraceAge.toNanos(), decisionCacheSize,
+                new TailSamplingPolicy(latencyThreshold, sampleRatio, maxRandomPerSecond)));
+    }
+
+    @Bean
+    public static BeanPostProcessor tailSamplingSpanExporterPostProcessor(ObjectProvider<TailSamplingSpanBuffers> buffers) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof SpanExporter exporter && !(bean instanceof TailSamplingSpanExporter)) {
+                    log.info("Tail sampling enabled for span exporter '{}'", beanName);
+                    return new TailSamplingSpanExporter(exporter, buffers.getObject().forExporter(beanName));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder tailSamplingMetrics(TailSamplingSpanBuffers buffers) {
+        return registry -> {
+            Gauge.builder("tracing.tail.buffer.spans", buffers, TailSamplingSpanBuffers::bufferedSpans)
+                    .description("Spans held until their trace is decided")
+                    .register(registry);
+            Gauge.builder("tracing.tail.buffer.traces", buffers, TailSamplingSpanBuffers::bufferedTraces)
+                    .register(registry);
+            Gauge.builder("tracing.tail.buffer.occupancy", buffers, TailSamplingSpanBuffers::occupancy)
+                    .description("Buffered spans relative to max-buffered-spans, of the fullest exporter's buffer")
+                    .register(registry);
+            for (TailSamplingPolicy.Decision decision : TailSamplingPolicy.Decision.values()) {
+                FunctionCounter.builder("tracing.tail.decisions", buffers, b -> b.decisions(decision))
+                        .tag("decision", decision.name().toLowerCase())
+                        .register(registry);
+            }
+            FunctionCounter.builder("tracing.tail.spans.evicted", buffers, TailSamplingSpanBuffers::evictedSpans)
+                    .description("Spans dropped undecided because the buffer was full")
+                    .register(registry);
+            FunctionCounter.builder("tracing.tail.spans.late", buffers, TailSamplingSpanBuffers::lateSpans)
+                    .description("Spans that ended after their trace was decided")
+                    .register(registry);
+        };
+    }
+}
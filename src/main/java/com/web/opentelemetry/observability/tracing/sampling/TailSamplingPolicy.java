@@ -0,0 +1,88 @@
+package com.web.opentelemetry.observability.tracing.sampling;
+
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keep/drop decision for a complete (or expired) trace: keep every trace with an error, every trace
+ * whose root took at least {@code latencyThreshold}, and a random {@code sampleRatio} of the rest,
+ * capped at {@code maxRandomPerSecond} so a traffic burst cannot flood the exporter.
+ */
+public class TailSamplingPolicy {
+
+    public enum Decision {
+        KEEP_ERROR, KEEP_SLOW, KEEP_RANDOM, DROP;
+
+        public boolean keep() {
+            return this != DROP;
+        }
+    }
+
+    private final long latencyThresholdNanos;
+    private final double sampleRatio;
+    private final int maxRandomPerSecond;
+    // Fixed one-second window: upper 32 bits hold the window (epoch seconds), lower 32 bits the count
+    private final AtomicLong randomWindow = new AtomicLong();
+
+    public TailSamplingPolicy(Duration latencyThreshold, double sampleRatio, int maxRandomPerSecond) {
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.sampleRatio = sampleRatio;
+        this.maxRandomPerSecond = maxRandomPerSecond;
+    }
+
+    /**
+     * @param spans the buffered spans of the trace
+     * @param root  the trace's root span, or null when the trace expired before a root ended here
+     */
+    public Decision decide(List<SpanData> spans, SpanData root) {
+        for (SpanData span : spans) {
+            if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+                return Decision.KEEP_ERROR;
+            }
+        }
+        long durationNanos = root != null
+                ? root.getEndEpochNanos() - root.getStartEpochNanos()
+                : longestSpanNanos(spans);
+        if (durationNanos >= latencyThresholdNanos) {
+            return Decision.KEEP_SLOW;
+        }
+        if (sampleRatio > 0 && ThreadLocalRandom.current().nextDouble() < sampleRatio && acquireRandomPermit()) {
+            return Decision.KEEP_RANDOM;
+        }
+        return Decision.DROP;
+    }
+
+    private static long longestSpanNanos(List<SpanData> spans) {
+        long longest = 0;
+        for (SpanData span : spans) {
+            longest = Math.max(longest, span.getEndEpochNanos() - span.getStartEpochNanos());
+        }
+        return longest;
+    }
+
+    private boolean acquireRandomPermit() {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        while (true) {
+            long current = randomWindow.get();
+            long window = current >>> 32;
+            long count = current & 0xFFFFFFFFL;
+            long next;
+            if (window != (second & 0xFFFFFFFFL)) {
+                next = ((second & 0xFFFFFFFFL) << 32) | 1;
+            } else if (count < maxRandomPerSecond) {
+                next = current + 1;
+            } else {
+                return false;
+            }
+            if (randomWindow.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.web.opentelemetry.observability.tracing.sampling;
+
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, lock-striped buffer of ended spans, keyed by trace id, that holds each trace until its root span
+ * (no parent at all) ends and the {@link TailSamplingPolicy} decides whether the whole trace is exported.
+ * <p>
+ * A server span with a remote parent does not decide: when the application calls itself (/api/info calls
+ * /api/internal), the inner request's span ends first, and deciding on it would hide the outer request's
+ * latency and errors. Traces that start in another service therefore wait for {@code maxTraceAgeNanos}.
+ * <p>
+ * Each stripe keeps its traces in insertion order, so the oldest trace is evicted first when the global
+ * span budget is exceeded, and traces whose root never ends here are decided by {@link #expire} once they
+ * are older than {@code maxTraceAgeNanos}. Decisions are remembered per stripe (bounded LRU) so spans that end after
+ * their root follow the decision already made for the trace.
+ */
+public class TailSamplingSpanBuffer {
+
+    private static final class TraceEntry {
+        final List<SpanData> spans = new ArrayList<>(8);
+        final long createdNanos;
+
+        TraceEntry(long createdNanos) {
+            this.createdNanos = createdNanos;
+        }
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final LinkedHashMap<String, TraceEntry> traces = new LinkedHashMap<>();
+        final LinkedHashMap<String, Boolean> decided;
+
+        Stripe(int decisionCacheSize) {
+            this.decided = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > decisionCacheSize;
+                }
+            };
+        }
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int maxBufferedSpans;
+    private final long maxTraceAgeNanos;
+    private final TailSamplingPolicy policy;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger bufferedSpans = new AtomicInteger();
+    private final AtomicInteger bufferedTraces = new AtomicInteger();
+    private final AtomicInteger evictionCursor = new AtomicInteger();
+    private final LongAdder evictedSpans = new LongAdder();
+    private final LongAdder lateSpans = new LongAdder();
+    private final Map<TailSamplingPolicy.Decision, LongAdder> decisions = new EnumMap<>(TailSamplingPolicy.Decision.class);
+
+    public TailSamplingSpanBuffer(int stripeCount, int maxBufferedSpans, long maxTraceAgeNanos,
+                                  int decisionCacheSize, TailSamplingPolicy policy) {
+        this(stripeCount, maxBufferedSpans, maxTraceAgeNanos, decisionCacheSize, policy, System::nanoTime);
+    }
+
+    TailSamplingSpanBuffer(int stripeCount, int maxBufferedSpans, long maxTraceAgeNanos,
+                           int decisionCacheSize, TailSamplingPolicy policy, LongSupplier nanoClock) {
+        int stripesPowerOfTwo = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new Stripe[stripesPowerOfTwo];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(Math.max(16, decisionCacheSize / stripes.length));
+        }
+        this.stripeMask = stripes.length - 1;
+        this.maxBufferedSpans = maxBufferedSpans;
+        this.maxTraceAgeNanos = maxTraceAgeNanos;
+        this.policy = policy;
+        this.nanoClock = nanoClock;
+        for (TailSamplingPolicy.Decision decision : TailSamplingPolicy.Decision.values()) {
+            decisions.put(decision, new LongAdder());
+        }
+    }
+
+    /**
+     * Buffers the span and appends to {@code exportable} every span that can be exported now:
+     * this trace if its root just ended and it was kept, and late spans of kept traces.
+     */
+    public void offer(SpanData span, List<SpanData> exportable) {
+        String traceId = span.getTraceId();
+        Stripe stripe = stripes[traceId.hashCode() & stripeMask];
+        stripe.lock.lock();
+        try {
+            Boolean earlierDecision = stripe.decided.get(traceId);
+            if (earlierDecision != null) {
+                lateSpans.increment();
+                if (earlierDecision) {
+                    exportable.add(span);
+                }
+                return;
+            }
+
+            TraceEntry entry = stripe.traces.get(traceId);
+            if (entry == null) {
+                entry = new TraceEntry(nanoClock.getAsLong());
+                stripe.traces.put(traceId, entry);
+                bufferedTraces.incrementAndGet();
+            }
+            entry.spans.add(span);
+            bufferedSpans.incrementAndGet();
+
+            if (isTraceRoot(span)) {
+                decide(stripe, traceId, entry, span, exportable);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        if (bufferedSpans.get() > maxBufferedSpans) {
+            evictUnderPressure();
+        }
+    }
+
+    private void decide(Stripe stripe, String traceId, TraceEntry entry, SpanData root, List<SpanData> exportable) {
+        TailSamplingPolicy.Decision decision = policy.decide(entry.spans, root);
+        decisions.get(decision).increment();
+        stripe.traces.remove(traceId);
+        stripe.decided.put(traceId, decision.keep());
+        bufferedTraces.decrementAndGet();
+        bufferedSpans.addAndGet(-entry.spans.size());
+        if (decision.keep()) {
+            exportable.addAll(entry.spans);
+        }
+    }
+
+    /**
+     * Decides every trace, in every stripe, that is older than {@code maxTraceAgeNanos} and appends the
+     * spans of the kept ones to {@code exportable}.
+     */
+    public void expire(List<SpanData> exportable) {
+        expire(maxTraceAgeNanos, exportable);
+    }
+
+    /**
+     * Decides every buffered trace as if it had expired, so nothing is left behind on flush or shutdown.
+     */
+    public void drain(List<SpanData> exportable) {
+        expire(0, exportable);
+    }
+
+    private void expire(long maxAgeNanos, List<SpanData> exportable) {
+        long now = nanoClock.getAsLong();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                expireOldest(stripe, now, maxAgeNanos, exportable);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    private void expireOldest(Stripe stripe, long now, long maxAgeNanos, List<SpanData> exportable) {
+        Iterator<Map.Entry<String, TraceEntry>> it = stripe.traces.entrySet().iterator();
+        // Insertion order: stop at the first trace that is still young enough.
+        while (it.hasNext()) {
+            Map.Entry<String, TraceEntry> oldest = it.next();
+            if (now - oldest.getValue().createdNanos < maxAgeNanos) {
+                return;
+            }
+            TraceEntry entry = oldest.getValue();
+            TailSamplingPolicy.Decision decision = policy.decide(entry.spans, null);
+            decisions.get(decision).increment();
+            it.remove();
+            stripe.decided.put(oldest.getKey(), decision.keep());
+            bufferedTraces.decrementAndGet();
+            bufferedSpans.addAndGet(-entry.spans.size());
+            if (decision.keep()) {
+                exportable.addAll(entry.spans);
+            }
+        }
+    }
+
+    /**
+     * Memory pressure: drop whole traces, oldest first, round-robin over the stripes.
+     */
+    private void evictUnderPressure() {
+        int attempts = stripes.length;
+        while (bufferedSpans.get() > maxBufferedSpans && attempts-- > 0) {
+            Stripe stripe = stripes[evictionCursor.getAndIncrement() & stripeMask];
+            if (!stripe.lock.tryLock()) {
+                continue;
+            }
+            try {
+                Iterator<Map.Entry<String, TraceEntry>> it = stripe.traces.entrySet().iterator();
+                if (it.hasNext()) {
+                    Map.Entry<String, TraceEntry> oldest = it.next();
+                    it.remove();
+                    stripe.decided.put(oldest.getKey(), Boolean.FALSE);
+                    int spans = oldest.getValue().spans.size();
+                    bufferedTraces.decrementAndGet();
+                    bufferedSpans.addAndGet(-spans);
+                    evictedSpans.add(spans);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    static boolean isTraceRoot(SpanData span) {
+        return !span.getParentSpanContext().isValid();
+    }
+
+    public int bufferedSpans() {
+        return bufferedSpans.get();
+    }
+
+    public int bufferedTraces() {
+        return bufferedTraces.get();
+    }
+
+    public double occupancy() {
+        return (double) bufferedSpans.get() / maxBufferedSpans;
+    }
+
+    public long evictedSpans() {
+        return evictedSpans.sum();
+    }
+
+    public long lateSpans() {
+        return lateSpans.sum();
+    }
+
+    public long decisions(TailSamplingPolicy.Decision decision) {
+        return decisions.get(decision).sum();
+    }
+}
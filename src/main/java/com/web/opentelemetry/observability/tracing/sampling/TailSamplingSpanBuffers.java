@@ -0,0 +1,63 @@
+package com.web.opentelemetry.observability.tracing.sampling;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * The {@link TailSamplingSpanBuffer}s of all wrapped exporters, one per exporter: every exporter receives
+ * every span, so a shared buffer would see each span once per exporter. Metrics read the totals.
+ */
+public class TailSamplingSpanBuffers {
+
+    private final Supplier<TailSamplingSpanBuffer> factory;
+    private final Map<String, TailSamplingSpanBuffer> buffers = new ConcurrentHashMap<>();
+
+    public TailSamplingSpanBuffers(Supplier<TailSamplingSpanBuffer> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * The buffer of the named exporter, created on first use.
+     */
+    public TailSamplingSpanBuffer forExporter(String exporterName) {
+        return buffers.computeIfAbsent(exporterName, name -> factory.get());
+    }
+
+    public long bufferedSpans() {
+        return sum(TailSamplingSpanBuffer::bufferedSpans);
+    }
+
+    public long bufferedTraces() {
+        return sum(TailSamplingSpanBuffer::bufferedTraces);
+    }
+
+    /**
+     * Occupancy of the fullest buffer.
+     */
+    public double occupancy() {
+        return max(TailSamplingSpanBuffer::occupancy);
+    }
+
+    public long evictedSpans() {
+        return sum(TailSamplingSpanBuffer::evictedSpans);
+    }
+
+    public long lateSpans() {
+        return sum(TailSamplingSpanBuffer::lateSpans);
+    }
+
+    public long decisions(TailSamplingPolicy.Decision decision) {
+        return sum(buffer -> buffer.decisions(decision));
+    }
+
+    private long sum(ToLongFunction<TailSamplingSpanBuffer> value) {
+        return buffers.values().stream().mapToLong(value).sum();
+    }
+
+    private double max(ToDoubleFunction<TailSamplingSpanBuffer> value) {
+        return buffers.values().stream().mapToDouble(value).max().orElse(0);
+    }
+}
@@ -0,0 +1,72 @@
+package com.web.opentelemetry.observability.tracing.sampling;
+
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Sits in front of a real exporter: spans are buffered in the exporter's own {@link TailSamplingSpanBuffer}
+ * and only the spans of kept traces reach the delegate.
+ * <p>
+ * Every export also expires the buffer's old traces, so a trace whose root never ends here is decided on
+ * the next batch from any stripe. Flush and shutdown first decide and export everything still buffered.
+ */
+public class TailSamplingSpanExporter implements SpanExporter {
+    private final SpanExporter delegate;
+    private final TailSamplingSpanBuffer buffer;
+
+    public TailSamplingSpanExporter(SpanExporter delegate, TailSamplingSpanBuffer buffer) {
+        this.delegate = delegate;
+        this.buffer = buffer;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        List<SpanData> exportable = new ArrayList<>();
+        for (SpanData span : spans) {
+            buffer.offer(span, exportable);
+        }
+        buffer.expire(exportable);
+        return exportable.isEmpty() ? CompletableResultCode.ofSuccess() : delegate.export(exportable);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return drainThen(delegate::flush);
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return drainThen(delegate::shutdown);
+    }
+
+    private CompletableResultCode drainThen(Supplier<CompletableResultCode> next) {
+        List<SpanData> exportable = new ArrayList<>();
+        buffer.drain(exportable);
+        if (exportable.isEmpty()) {
+            return next.get();
+        }
+        CompletableResultCode exported = delegate.export(exportable);
+        CompletableResultCode result = new CompletableResultCode();
+        exported.whenComplete(() -> {
+            CompletableResultCode completed = next.get();
+            completed.whenComplete(() -> {
+                if (exported.isSuccess() && completed.isSuccess()) {
+                    result.succeed();
+                } else {
+                    result.fail();
+                }
+            });
+        });
+        return result;
+    }
+
+    SpanExporter delegate() {
+        return delegate;
+    }
+}
@@ -1,9 +1,13 @@
 package com.web.opentelemetry.service;
 
+import com.web.opentelemetry.component.MicroBatchExecutor;
+import com.web.opentelemetry.model.InfoBatchItem;
+import com.web.opentelemetry.model.InfoBatchResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
@@ -19,6 +23,13 @@ public class AsyncTaskService {
     @Autowired
     RestClient restClient;
 
+    // Present when app.batching.info.enabled=true, see BatchingConfig
+    @Autowired(required = false)
+    MicroBatchExecutor<InfoBatchItem, InfoBatchResult> infoBatchExecutor;
+
+    @Value("${app.downstream.base-url:http://localhost:8080}")
+    String downstreamBaseUrl;
+
     @Async("taskExecutor")
     public CompletableFuture<String> fetchDataAsync(String callId) {
         logger.info("Executing async-spring method: {} on thread: {}", callId, Thread.currentThread().getName());
@@ -26,10 +37,15 @@ public class AsyncTaskService {
         String requestId = MDC.get(X_SSTECHMINDS_REQUEST_ID);
         logger.info("Async task executing with requestId: {}", requestId);
         try {
-            String response = restClient.get()
-                    .uri("http://localhost:8080/api/info")
-                    .retrieve()
-                    .body(String.class);
+            if (infoBatchExecutor != null) {
+                // Folded with concurrent calls into one POST /api/info/batch; parks this (virtual) thread until its item completes
+                infoBatchExecutor.submit(new InfoBatchItem(callId, requestId)).join();
+            } else {
+                restClient.get()
+                        .uri(downstreamBaseUrl + "/api/info")
+                        .retrieve()
+                        .body(String.class);
+            }
 
             logger.info("Completed async-spring method: {}", callId); //TODO: TraceId missing here???
             return CompletableFuture.completedFuture(requestId);
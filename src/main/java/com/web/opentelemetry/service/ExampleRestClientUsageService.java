@@ -1,8 +1,11 @@
 package com.web.opentelemetry.service;
 
 import com.web.opentelemetry.component.RestClientBuilderFactory;
+import com.web.opentelemetry.component.warmup.DownstreamWarmer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
@@ -24,22 +27,37 @@ public class ExampleRestClientUsageService {
     private final RestClient externalServiceClient;
     private final RestClientBuilderFactory restClientBuilderFactory;
 
-    public ExampleRestClientUsageService(RestClientBuilderFactory restClientBuilderFactory) {
+    public ExampleRestClientUsageService(RestClientBuilderFactory restClientBuilderFactory,
+                                         @Value("${app.downstream.base-url:http://localhost:8080}") String downstreamBaseUrl,
+                                         @Value("${app.downstream.dog-api-url:https://dog.ceo/api}") String dogApiUrl,
+                                         ObjectProvider<DownstreamWarmer> downstreamWarmer) {
         this.restClientBuilderFactory = restClientBuilderFactory;
 
         // Example 1: Create a default client (reuse across methods)
         this.defaultClient = restClientBuilderFactory.create().build();
 
-        // Example 2: Create a client with base URL for internal API
-        this.apiClient = restClientBuilderFactory.createWithBaseUrl("http://localhost:8080/api").build();
+        // Example 2: Create a client with base URL for internal API, spread over its instances when load balanced
+        boolean loadBalanced = restClientBuilderFactory.hasLoadBalancer("downstream");
+        this.apiClient = loadBalanced
+                ? restClientBuilderFactory.createWithLoadBalancer("downstream", "/api").build()
+                : restClientBuilderFactory.createWithBaseUrl(downstreamBaseUrl + "/api").build();
 
         // Example 3: Create a client with custom configuration for external service
         this.externalServiceClient = restClientBuilderFactory.create(builder ->
             builder
                     //.requestFactory(null)
-                    .baseUrl("https://dog.ceo/api")
+                    .baseUrl(dogApiUrl)
                     .defaultHeader("User-Agent", "Spring-Boot-App/1.0")
         ).build();
+
+        // Each client has its own HttpClient and connection pool, so each is warmed on its own;
+        // load-balanced instances are warmed by LoadBalancerConfig
+        downstreamWarmer.ifAvailable(warmer -> {
+            if (!loadBalanced) {
+                warmer.register("example-api", apiClient, downstreamBaseUrl + "/api/internal");
+            }
+            warmer.register("example-dog-api", externalServiceClient, dogApiUrl + "/breeds/image/random");
+        });
     }
 
     /**
@@ -0,0 +1,73 @@
+package com.web.opentelemetry.component;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MicroBatchExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testFlushesWhenBatchIsFull() throws Exception {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        try (MicroBatchExecutor<Integer, Integer> executor = new MicroBatchExecutor<>("full", Duration.ofMinutes(1), 3,
+                items -> {
+                    batches.add(items);
+                    return items.stream().map(i -> MicroBatchExecutor.Outcome.success(i * 10)).toList();
+                }, meterRegistry)) {
+            List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                futures.add(executor.submit(i));
+            }
+            assertEquals(30, futures.get(2).get(5, TimeUnit.SECONDS));
+            assertEquals(List.of(List.of(1, 2, 3)), batches, "Three items should be dispatched as one batch without waiting for the window");
+        }
+        assertEquals(3.0, meterRegistry.get("batch.size").tag("name", "full").summary().totalAmount());
+    }
+
+    @Test
+    void testFlushesWhenWindowCloses() throws Exception {
+        try (MicroBatchExecutor<Integer, Integer> executor = new MicroBatchExecutor<>("window", Duration.ofMillis(20), 100,
+                items -> items.stream().map(MicroBatchExecutor.Outcome::success).toList(), meterRegistry)) {
+            assertEquals(7, executor.submit(7).get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, meterRegistry.get("batch.queue.delay").tag("name", "window").timer().count());
+    }
+
+    @Test
+    void testFailedItemDoesNotFailTheBatch() throws Exception {
+        try (MicroBatchExecutor<Integer, Integer> executor = new MicroBatchExecutor<>("isolation", Duration.ofMinutes(1), 2,
+                items -> items.stream().map(i -> i == 2
+                        ? MicroBatchExecutor.Outcome.<Integer>failure(new IllegalArgumentException("bad item"))
+                        : MicroBatchExecutor.Outcome.success(i)).toList(), meterRegistry)) {
+            CompletableFuture<Integer> good = executor.submit(1);
+            CompletableFuture<Integer> bad = executor.submit(2);
+            assertEquals(1, good.get(5, TimeUnit.SECONDS));
+            ExecutionException e = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+        }
+    }
+
+    @Test
+    void testHandlerFailureFailsEveryItem() {
+        try (MicroBatchExecutor<Integer, Integer> executor = new MicroBatchExecutor<>("broken", Duration.ofMinutes(1), 2,
+                items -> {
+                    throw new IllegalStateException("downstream unavailable");
+                }, meterRegistry)) {
+            CompletableFuture<Integer> first = executor.submit(1);
+            CompletableFuture<Integer> second = executor.submit(2);
+            assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.web.opentelemetry.component.buffer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferPoolTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BufferPool pool = new BufferPool("test", 1024, 64 * 1024, 4, 4, true, meterRegistry);
+
+    @AfterEach
+    void assertNoLeaks() {
+        assertEquals(List.of(), pool.leaks(), "Every acquired buffer should have been released");
+        assertEquals(0, pool.outstanding());
+    }
+
+    @Test
+    void testRoundsUpToSizeClass() {
+        PooledBuffer small = pool.acquire(1);
+        PooledBuffer medium = pool.acquire(1025);
+        PooledBuffer huge = pool.acquire(100_000);
+
+        assertEquals(1024, small.capacity());
+        assertEquals(4096, medium.capacity(), "Size classes grow by a factor of four");
+        assertEquals(100_000, huge.capacity(), "Requests above the largest class get an exact, unpooled array");
+
+        small.release();
+        medium.release();
+        huge.release();
+        assertEquals(1.0, meterRegistry.get("buffer.pool.acquires").tag("result", "unpooled").counter().count());
+        assertEquals(1.0, meterRegistry.get("buffer.pool.releases").tag("result", "dropped").counter().count());
+    }
+
+    @Test
+    void testReusesReleasedBuffers() {
+        PooledBuffer first = pool.acquire(2048);
+        byte[] array = first.array();
+        first.release();
+        assertEquals(4096, pool.retainedBytes());
+
+        PooledBuffer second = pool.acquire(3000);
+        assertSame(array, second.array(), "A released buffer should be handed out again from the same thread");
+        assertEquals(0, pool.retainedBytes());
+        second.release();
+        assertEquals(1.0, meterRegistry.get("buffer.pool.acquires").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void testDiscardedBufferIsNotReused() {
+        PooledBuffer buffer = pool.acquire(1024);
+        buffer.discard();
+        assertEquals(0, pool.retainedBytes());
+        assertThrows(IllegalStateException.class, buffer::release, "A discarded buffer cannot be released");
+    }
+
+    @Test
+    void testDoubleReleaseFails() {
+        PooledBuffer buffer = pool.acquire(1024);
+        buffer.release();
+        assertThrows(IllegalStateException.class, buffer::release);
+    }
+
+    @Test
+    void testLeakDetectionReportsAcquisitionSite() {
+        PooledBuffer leaked = pool.acquire(1024);
+        List<Throwable> leaks = pool.leaks();
+        assertEquals(1, leaks.size());
+        assertEquals(getClass().getName(), leaks.getFirst().getStackTrace()[2].getClassName(),
+                "The leak report should point at the caller that acquired the buffer");
+        leaked.release();
+    }
+
+    @Test
+    void testBoundsIdleBuffers() {
+        List<PooledBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            buffers.add(pool.acquire(1024));
+        }
+        buffers.forEach(PooledBuffer::release);
+        assertTrue(pool.retainedBytes() <= 2 * 4 * 1024, "Only the home stripe and one neighbour are probed, four slots each");
+    }
+
+    @Test
+    void testConcurrentVirtualThreadsDoNotShareBuffers() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 200; t++) {
+                byte marker = (byte) t;
+                results.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        PooledBuffer buffer = pool.acquire(1024 << (i % 3));
+                        Arrays.fill(buffer.array(), marker);
+                        Thread.yield();
+                        for (byte b : buffer.array()) {
+                            if (b != marker) {
+                                return false;
+                            }
+                        }
+                        buffer.release();
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get(), "A buffer was handed to two threads at once");
+            }
+        }
+    }
+
+    @Test
+    void testOutputStreamGrowsInSegmentsAndReadsBack() throws IOException {
+        byte[] content = new byte[200_000];
+        new Random(42).nextBytes(content);
+
+        try (PooledBufferOutputStream out = PooledBufferOutputStream.readFully(new ByteArrayInputStream(content), -1, pool)) {
+            assertEquals(content.length, out.size());
+            assertFalse(out.isSingleSegment());
+            assertEquals(content.length, out.byteBuffers().stream().mapToInt(ByteBuffer::remaining).sum());
+            assertArrayEquals(content, out.toInputStream().readAllBytes());
+            ByteArrayOutputStream copy = new ByteArrayOutputStream();
+            out.writeTo(copy);
+            assertArrayEquals(content, copy.toByteArray());
+        }
+    }
+
+    @Test
+    void testExactlyFullFirstSegmentStaysSingle() throws IOException {
+        byte[] content = new byte[4096];
+        try (PooledBufferOutputStream out = PooledBufferOutputStream.readFully(new ByteArrayInputStream(content), content.length, pool)) {
+            assertTrue(out.isSingleSegment(), "Probing for the end of input should not leave an empty segment");
+            assertEquals(4096, out.size());
+        }
+    }
+}
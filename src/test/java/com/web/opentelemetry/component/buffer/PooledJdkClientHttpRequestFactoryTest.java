@@ -0,0 +1,161 @@
+package com.web.opentelemetry.component.buffer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledJdkClientHttpRequestFactoryTest {
+
+    record Breed(String name, int score) {
+    }
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BufferPool pool = new BufferPool("test", 1024, 16 * 1024, 4, 8, true, meterRegistry);
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private HttpServer server;
+    private HttpClient httpClient;
+    private RestClient restClient;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/echo", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Content-Type", exchange.getRequestHeaders().getFirst("Content-Type"));
+            respond(exchange, body);
+        });
+        server.createContext("/redirect", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().set("Location", "/echo");
+            exchange.sendResponseHeaders(307, -1);
+            exchange.close();
+        });
+        server.createContext("/breeds", exchange -> {
+            List<Breed> breeds = IntStream.range(0, 500).mapToObj(i -> new Breed("breed-" + i, i)).toList();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            respond(exchange, jsonMapper.writeValueAsBytes(breeds));
+        });
+        server.start();
+
+        httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        restClient = RestClient.builder()
+                .baseUrl("http://localhost:" + server.getAddress().getPort())
+                .requestFactory(new PooledJdkClientHttpRequestFactory(httpClient, pool))
+                .configureMessageConverters(converters -> converters
+                        .withStringConverter(new PooledStringHttpMessageConverter(pool))
+                        .withJsonConverter(new PooledJacksonJsonHttpMessageConverter(jsonMapper, pool)))
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    @AfterEach
+    void stopServerAndCheckForLeaks() {
+        server.stop(0);
+        httpClient.close();
+        assertEquals(List.of(), pool.leaks(), "Request and response buffers should all be back in the pool");
+        assertEquals(0, pool.outstanding());
+    }
+
+    @Test
+    void testSendsMultiSegmentBody() {
+        byte[] payload = new byte[100_000];
+        new Random(7).nextBytes(payload);
+        String text = new String(payload, StandardCharsets.ISO_8859_1);
+
+        String echoed = restClient.post().uri("/echo")
+                .contentType(new MediaType("text", "plain", StandardCharsets.ISO_8859_1))
+                .body(text)
+                .retrieve()
+                .body(String.class);
+
+        assertEquals(text, echoed, "A body spanning several pooled segments should arrive intact");
+    }
+
+    @Test
+    void testResendsPooledBodyOnRedirect() {
+        String text = "redirected-" + "x".repeat(5_000);
+        try (HttpClient redirecting = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).build()) {
+            String echoed = RestClient.builder()
+                    .baseUrl("http://localhost:" + server.getAddress().getPort())
+                    .requestFactory(new PooledJdkClientHttpRequestFactory(redirecting, pool))
+                    .build()
+                    .post().uri("/redirect")
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .body(text)
+                    .retrieve()
+                    .body(String.class);
+
+            assertEquals(text, echoed, "The second subscription should still read the body the first one completed");
+        }
+    }
+
+    @Test
+    void testDecodesJsonFromPooledBuffers() {
+        List<Breed> breeds = restClient.get().uri("/breeds")
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<Breed>>() {});
+
+        assertNotNull(breeds);
+        assertEquals(500, breeds.size());
+        assertEquals(new Breed("breed-499", 499), breeds.getLast());
+    }
+
+    @Test
+    void testReusesBuffersAcrossRequests() {
+        for (int i = 0; i < 20; i++) {
+            String echoed = restClient.post().uri("/echo")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(new Breed("request-" + i, i))
+                    .retrieve()
+                    .body(String.class);
+            assertTrue(echoed.contains("request-" + i));
+        }
+        double hits = meterRegistry.get("buffer.pool.acquires").tag("result", "hit").counter().count();
+        double misses = meterRegistry.get("buffer.pool.acquires").tag("result", "miss").counter().count();
+        assertTrue(hits > misses, "Most buffers should come from the pool once it is warm (hits " + hits + ", misses " + misses + ")");
+    }
+
+    @Test
+    void testConcurrentRequestsOnVirtualThreads() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = IntStream.range(0, 100)
+                    .mapToObj(i -> executor.submit(() -> restClient.post().uri("/echo")
+                            .contentType(MediaType.TEXT_PLAIN)
+                            .body("payload-" + i + "-" + "x".repeat(i * 100))
+                            .retrieve()
+                            .body(String.class)))
+                    .toList();
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("payload-" + i + "-" + "x".repeat(i * 100), results.get(i).get());
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.web.opentelemetry.component.loadbalancer;
+
+import com.web.opentelemetry.stub.LatencyDistribution;
+import com.web.opentelemetry.stub.StubServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadBalancerTest {
+
+    private static final LoadBalancer.Settings SETTINGS = new LoadBalancer.Settings(3, Duration.ofSeconds(10),
+            Duration.ofMinutes(1), 50, Duration.ofSeconds(1));
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(System.nanoTime());
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables.reversed()) {
+            closeable.close();
+        }
+    }
+
+    private StubServer stub(Duration latency) {
+        StubServer stub = StubServer.start(StubServer.downstreamRoutes());
+        stub.route("/api/internal").latency(LatencyDistribution.constant(latency));
+        closeables.add(stub);
+        return stub;
+    }
+
+    private LoadBalancer loadBalancer(List<URI> instances, Path instancesFile) {
+        LoadBalancer loadBalancer = new LoadBalancer("downstream", SETTINGS, instances, instancesFile,
+                HttpClient::newHttpClient, JdkClientHttpRequestFactory::new, meterRegistry, clock::get);
+        closeables.add(loadBalancer);
+        return loadBalancer;
+    }
+
+    private static RestClient client(LoadBalancer loadBalancer) {
+        return RestClient.builder().baseUrl("http://downstream/api").requestFactory(loadBalancer.requestFactory()).build();
+    }
+
+    private static boolean call(RestClient client) {
+        try {
+            client.get().uri("/internal").retrieve().toBodilessEntity();
+            return true;
+        } catch (RestClientException e) {
+            return false;
+        }
+    }
+
+    private static long requests(StubServer stub) {
+        return stub.route("/api/internal").requests();
+    }
+
+    @Test
+    void testPrefersFastAndIdleInstances() throws Exception {
+        StubServer fast1 = stub(Duration.ofMillis(2));
+        StubServer fast2 = stub(Duration.ofMillis(2));
+        StubServer slow = stub(Duration.ofMillis(40));
+        // Real clock and a short decay, so the slow first requests of a cold JVM are forgotten within the test
+        LoadBalancer.Settings settings = new LoadBalancer.Settings(3, Duration.ofSeconds(10), Duration.ofMinutes(1), 50,
+                Duration.ofMillis(100));
+        LoadBalancer loadBalancer = new LoadBalancer("downstream", settings, List.of(URI.create(fast1.baseUrl()),
+                URI.create(fast2.baseUrl()), URI.create(slow.baseUrl())), null,
+                HttpClient::newHttpClient, JdkClientHttpRequestFactory::new, meterRegistry);
+        closeables.add(loadBalancer);
+        RestClient client = client(loadBalancer);
+
+        int total = 800;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Boolean>> calls = new ArrayList<>();
+            for (int worker = 0; worker < 8; worker++) {
+                calls.add(executor.submit(() -> {
+                    boolean ok = true;
+                    for (int i = 0; i < total / 8; i++) {
+                        ok &= call(client);
+                    }
+                    return ok;
+                }));
+            }
+            for (Future<Boolean> call : calls) {
+                assertTrue(call.get(60, TimeUnit.SECONDS), "Every request should succeed");
+            }
+        }
+
+        assertEquals(total, requests(fast1) + requests(fast2) + requests(slow), "Every request reaches one instance");
+        assertTrue(requests(slow) < total * 0.1, "The slow instance should get little traffic, got " + requests(slow));
+        assertTrue(requests(fast1) > total * 0.25 && requests(fast2) > total * 0.25,
+                "Traffic should be spread over both fast instances: " + requests(fast1) + "/" + requests(fast2));
+
+        LoadBalancedInstance slowInstance = loadBalancer.instances().get(2);
+        Timer slowTimer = meterRegistry.get("http.client.lb.requests")
+                .tags("instance", slowInstance.id(), "outcome", "success").timer();
+        assertEquals(requests(slow), slowTimer.count(), "Per-instance request metric should match the traffic");
+        assertTrue(slowInstance.latencyNanos() > Duration.ofMillis(30).toNanos(), "Latency EWMA should reflect the slow stub");
+        assertEquals(0, loadBalancer.instances().stream().mapToInt(LoadBalancedInstance::inFlight).sum(),
+                "Nothing should be left in flight");
+    }
+
+    @Test
+    void testEjectsFailingInstanceAndReadmitsAfterTrial() {
+        StubServer healthy = stub(Duration.ZERO);
+        StubServer failing = stub(Duration.ZERO);
+        failing.route("/api/internal").errors(1.0, 503);
+        LoadBalancer loadBalancer = loadBalancer(List.of(URI.create(healthy.baseUrl()), URI.create(failing.baseUrl())), null);
+        LoadBalancedInstance failingInstance = loadBalancer.instances().get(1);
+        RestClient client = client(loadBalancer);
+
+        for (int i = 0; i < 200 && !failingInstance.ejected(); i++) {
+            call(client);
+        }
+        assertTrue(failingInstance.ejected(), "Three 503s in a row should eject the instance");
+        assertEquals(3, failingInstance.failures(), "Ejected after exactly the configured failures");
+
+        long failingBefore = requests(failing);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(call(client), "Requests should go to the healthy instance while the other is ejected");
+        }
+        assertEquals(failingBefore, requests(failing), "An ejected instance gets no traffic");
+
+        failing.route("/api/internal").errors(0.0, 503);
+        clock.addAndGet(SETTINGS.ejectionTime().toNanos());
+        for (int i = 0; i < 200 && failingInstance.ejected(); i++) {
+            call(client);
+        }
+        assertFalse(failingInstance.ejected(), "A successful trial request should re-admit the instance");
+        assertEquals(1, failingInstance.ejections());
+    }
+
+    @Test
+    void testFailedTrialEjectsForLonger() {
+        StubServer healthy = stub(Duration.ZERO);
+        StubServer failing = stub(Duration.ZERO);
+        failing.route("/api/internal").errors(1.0, 503);
+        LoadBalancer loadBalancer = loadBalancer(List.of(URI.create(healthy.baseUrl()), URI.create(failing.baseUrl())), null);
+        LoadBalancedInstance failingInstance = loadBalancer.instances().get(1);
+        RestClient client = client(loadBalancer);
+
+        for (int i = 0; i < 200 && !failingInstance.ejected(); i++) {
+            call(client);
+        }
+        clock.addAndGet(SETTINGS.ejectionTime().toNanos());
+        long failures = failingInstance.failures();
+        for (int i = 0; i < 200 && failingInstance.failures() == failures; i++) {
+            call(client);
+        }
+        assertEquals(2, failingInstance.ejections(), "One failed trial request should eject again");
+
+        clock.addAndGet(SETTINGS.ejectionTime().toNanos());
+        assertFalse(failingInstance.isAvailable(clock.get()), "The second ejection should last twice as long");
+        clock.addAndGet(SETTINGS.ejectionTime().toNanos());
+        assertTrue(failingInstance.isAvailable(clock.get()));
+    }
+
+    @Test
+    void testAdmitsOneProbeAfterEjectionRunsOut() throws Exception {
+        LoadBalancer loadBalancer = loadBalancer(List.of(URI.create("http://healthy:8080"), URI.create("http://failing:8080")), null);
+        LoadBalancedInstance healthy = loadBalancer.instances().get(0);
+        LoadBalancedInstance failing = loadBalancer.instances().get(1);
+        // The failing instance answers fast, so the cost comparison always prefers it once it is available
+        loadBalancer.record(healthy, Duration.ofSeconds(1).toNanos(), true);
+        for (int i = 0; i < SETTINGS.consecutiveFailures(); i++) {
+            loadBalancer.record(failing, 1, false);
+        }
+        assertTrue(failing.ejected());
+
+        clock.addAndGet(SETTINGS.ejectionTime().toNanos());
+        int probes = 0;
+        for (int i = 0; i < 20; i++) {
+            if (loadBalancer.choose() == failing) {
+                probes++;
+            }
+        }
+        assertEquals(1, probes, "Only one request should probe the instance until its outcome is recorded");
+
+        loadBalancer.record(failing, 1, true);
+        assertFalse(failing.ejected(), "The probe's success should re-admit the instance");
+        assertSame(failing, loadBalancer.choose());
+        assertSame(failing, loadBalancer.choose(), "A re-admitted instance takes regular traffic again");
+    }
+
+    @Test
+    void testReadmitsFailedTrialWhenEjectionIsRefused() throws Exception {
+        LoadBalancer loadBalancer = loadBalancer(List.of(URI.create("http://first:8080"), URI.create("http://second:8080")), null);
+        LoadBalancedInstance first = loadBalancer.instances().get(0);
+        LoadBalancedInstance second = loadBalancer.instances().get(1);
+        for (int i = 0; i < SETTINGS.consecutiveFailures(); i++) {
+            loadBalancer.record(first, 1, false);
+        }
+        clock.addAndGet(SETTINGS.ejectionTime().toNanos());
+        for (int i = 0; i < SETTINGS.consecutiveFailures(); i++) {
+            loadBalancer.record(second, 1, false);
+        }
+        assertTrue(second.ejected() && !second.isAvailable(clock.get()), "Ejected while the first is on trial");
+
+        assertSame(first, loadBalancer.choose(), "The only available instance gets the probe");
+        loadBalancer.record(first, 1, false);
+
+        assertFalse(first.ejected(), "max-ejection-percent refuses a second ejection, so the instance is re-admitted");
+        assertTrue(first.isAvailable(clock.get()), "The failed probe must not leave the instance out of rotation");
+        assertSame(first, loadBalancer.choose());
+        assertSame(first, loadBalancer.choose());
+    }
+
+    @Test
+    void testNeverEjectsMoreThanMaxPercent() {
+        StubServer first = stub(Duration.ZERO);
+        StubServer second = stub(Duration.ZERO);
+        first.route("/api/internal").errors(1.0, 503);
+        second.route("/api/internal").errors(1.0, 503);
+        LoadBalancer loadBalancer = loadBalancer(List.of(URI.create(first.baseUrl()), URI.create(second.baseUrl())), null);
+        RestClient client = client(loadBalancer);
+
+        for (int i = 0; i < 50; i++) {
+            call(client);
+        }
+        assertEquals(1, loadBalancer.instances().stream().filter(LoadBalancedInstance::ejected).count(),
+                "With max-ejection-percent 50 only one of two instances may be ejected");
+    }
+
+    @Test
+    void testReloadsInstancesFile(@TempDir Path dir) throws Exception {
+        StubServer first = stub(Duration.ZERO);
+        StubServer second = stub(Duration.ZERO);
+        Path file = dir.resolve("instances.txt");
+        Files.writeString(file, "# downstream\n" + first.baseUrl() + "\n");
+        LoadBalancer loadBalancer = loadBalancer(List.of(URI.create("http://localhost:1")), file);
+        RestClient client = client(loadBalancer);
+
+        assertEquals(List.of(URI.create(first.baseUrl())), loadBalancer.instances().stream().map(LoadBalancedInstance::uri).toList(),
+                "The instances file takes precedence over the static list");
+        assertTrue(call(client));
+        String firstId = loadBalancer.instances().getFirst().id();
+
+        Files.writeString(file, second.baseUrl() + "  # moved\n");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(5)));
+        loadBalancer.reloadIfModified();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(call(client));
+        }
+        assertEquals(1, requests(first), "The removed instance gets no more traffic");
+        assertEquals(10, requests(second));
+        assertNull(meterRegistry.find("http.client.lb.requests").tag("instance", firstId).timer(),
+                "Metrics of a removed instance are removed");
+
+        Files.writeString(file, "");
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().plusSeconds(10)));
+        loadBalancer.reloadIfModified();
+        assertEquals(1, loadBalancer.instances().size(), "An empty file keeps the current instances");
+    }
+
+    @Test
+    void testResolvesLogicalUriOnInstance() {
+        LoadBalancedInstance instance = new LoadBalancedInstance("svc", URI.create("https://backend:8443/base/"),
+                HttpClient.newHttpClient(), null, 1, meterRegistry);
+        assertEquals(URI.create("https://backend:8443/base/api/x?y=a%20b"), instance.resolve(URI.create("http://svc/api/x?y=a%20b")));
+        assertEquals("backend:8443", instance.id());
+        instance.close(meterRegistry);
+    }
+}
@@ -0,0 +1,127 @@
+package com.web.opentelemetry.component.warmup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DnsCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final DnsCache cache = new DnsCache(clock::get, Runnable::run);
+    private final AtomicInteger lookups = new AtomicInteger();
+    private volatile boolean failing;
+    private DnsCache.Registration registration;
+
+    private final DnsCache.Resolver resolver = host -> {
+        int lookup = lookups.incrementAndGet();
+        if (failing) {
+            throw new UnknownHostException(host);
+        }
+        return new InetAddress[]{InetAddress.getByAddress(host, new byte[]{10, 0, 0, (byte) lookup})};
+    };
+
+    @BeforeEach
+    void configure() {
+        registration = cache.configure(Duration.ofSeconds(60), Duration.ofMinutes(10), Duration.ofSeconds(5), 2);
+    }
+
+    private InetAddress lookup(String host) throws UnknownHostException {
+        return cache.lookup(host, host, resolver)[0];
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    @Test
+    void testServesFreshEntriesWithoutLookup() throws Exception {
+        InetAddress first = lookup("api.example.com");
+        advance(Duration.ofSeconds(59));
+        assertEquals(first, lookup("api.example.com"));
+        assertEquals(1, lookups.get(), "A fresh entry must not be looked up again");
+    }
+
+    @Test
+    void testRefreshesStaleEntriesOffTheCallingPath() throws Exception {
+        InetAddress first = lookup("api.example.com");
+        advance(Duration.ofSeconds(61));
+        assertEquals(first, lookup("api.example.com"), "A stale entry is served as is");
+        assertEquals(2, lookups.get(), "and refreshed in the background");
+        assertNotEquals(first, lookup("api.example.com"), "The next lookup sees the refreshed address");
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testKeepsStaleEntryWhenRefreshFails() throws Exception {
+        InetAddress first = lookup("api.example.com");
+        advance(Duration.ofSeconds(61));
+        failing = true;
+        assertEquals(first, lookup("api.example.com"));
+        assertEquals(first, lookup("api.example.com"), "A failed refresh must not drop the stale addresses");
+    }
+
+    @Test
+    void testResolvesAgainAfterStaleWindow() throws Exception {
+        lookup("api.example.com");
+        advance(Duration.ofMinutes(11));
+        lookup("api.example.com");
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testRemembersFailuresForNegativeTtl() {
+        failing = true;
+        assertThrows(UnknownHostException.class, () -> lookup("missing.example.com"));
+        assertThrows(UnknownHostException.class, () -> lookup("missing.example.com"));
+        assertEquals(1, lookups.get(), "The failure is cached");
+
+        advance(Duration.ofSeconds(6));
+        failing = false;
+        assertDoesNotThrow(() -> lookup("missing.example.com"));
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    void testBoundsEntries() throws Exception {
+        lookup("a.example.com");
+        lookup("b.example.com");
+        lookup("c.example.com");
+        assertEquals(2, cache.size(), "Beyond maxEntries new hosts are resolved but not cached");
+
+        advance(Duration.ofMinutes(11));
+        lookup("c.example.com");
+        assertEquals(1, cache.size(), "Expired entries make room");
+    }
+
+    @Test
+    void testPassesThroughWhenDisabled() throws Exception {
+        registration.close();
+        lookup("api.example.com");
+        lookup("api.example.com");
+        assertEquals(2, lookups.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testStaysEnabledUntilLastRegistrationCloses() throws Exception {
+        DnsCache.Registration other = cache.configure(Duration.ofSeconds(60), Duration.ofMinutes(10),
+                Duration.ofSeconds(5), 2);
+        lookup("api.example.com");
+
+        registration.close();
+        registration.close();
+        assertTrue(cache.isEnabled(), "Closing one context must not disable the cache for another");
+        assertEquals(1, cache.size());
+
+        other.close();
+        assertFalse(cache.isEnabled());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,72 @@
+package com.web.opentelemetry.component.warmup;
+
+import com.web.opentelemetry.stub.LatencyDistribution;
+import com.web.opentelemetry.stub.StubRoute;
+import com.web.opentelemetry.stub.StubServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.health.contributor.Status;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DownstreamWarmerTest {
+
+    private final StubServer stub = StubServer.start(List.of(
+            StubRoute.any("/warm").latency(LatencyDistribution.constant(Duration.ofMillis(100))),
+            StubRoute.any("/slow").latency(LatencyDistribution.constant(Duration.ofSeconds(2)))));
+    private final DnsCache dnsCache = new DnsCache(System::nanoTime, Runnable::run);
+
+    @AfterEach
+    void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void testOpensConnectionsInParallelAndReportsReady() {
+        try (DownstreamWarmer warmer = new DownstreamWarmer(Duration.ofSeconds(5), 4, Duration.ZERO)) {
+            warmer.register("stub", RestClient.create(), stub.baseUrl() + "/warm");
+            DownstreamWarmupHealthIndicator health = new DownstreamWarmupHealthIndicator(warmer, dnsCache);
+            assertEquals(Status.OUT_OF_SERVICE, health.health().getStatus(), "Not ready before the warm-up");
+
+            assertEquals(DownstreamWarmer.State.READY, warmer.warmUp());
+
+            DownstreamWarmer.TargetResult result = warmer.results().get("stub");
+            assertEquals(4, result.connected());
+            assertTrue(result.addresses() > 0);
+            assertNull(result.error());
+            assertEquals(4, stub.route("/warm").maxInFlight(), "The warm-up requests should overlap, one connection each");
+            assertEquals(Status.UP, health.health().getStatus());
+        }
+    }
+
+    @Test
+    void testFailedTargetDoesNotBlockReadiness() {
+        try (DownstreamWarmer warmer = new DownstreamWarmer(Duration.ofSeconds(5), 2, Duration.ZERO)) {
+            warmer.register("stub", RestClient.create(), stub.baseUrl() + "/warm");
+            warmer.register("unknown", RestClient.create(), "http://warmup-target.invalid/");
+
+            assertEquals(DownstreamWarmer.State.READY, warmer.warmUp());
+            assertEquals(2, warmer.results().get("stub").connected());
+            DownstreamWarmer.TargetResult unknown = warmer.results().get("unknown");
+            assertEquals(0, unknown.addresses());
+            assertNotNull(unknown.error());
+        }
+    }
+
+    @Test
+    void testTimeoutStillMarksReady() {
+        try (DownstreamWarmer warmer = new DownstreamWarmer(Duration.ofMillis(300), 1, Duration.ZERO)) {
+            warmer.register("slow", RestClient.create(), stub.baseUrl() + "/slow");
+            long start = System.nanoTime();
+
+            assertEquals(DownstreamWarmer.State.TIMED_OUT, warmer.warmUp());
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 1_500, "The warm-up must not outlast its timeout");
+            assertEquals("timed out", warmer.results().get("slow").error());
+            assertEquals(Status.UP, new DownstreamWarmupHealthIndicator(warmer, dnsCache).health().getStatus());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.web.opentelemetry.config;
+
+import com.web.opentelemetry.stub.StubServer;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads the connector settings back from the running connector, after every customizer (ours and Boot's) ran.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.max-connections=1234",
+        "server.tomcat.accept-count=321",
+        "server.tomcat.keep-alive-timeout=7s",
+        "server.tomcat.max-keep-alive-requests=55",
+        "server.http2.enabled=true",
+        "app.tomcat.connector.socket-receive-buffer=65536",
+        "app.tomcat.connector.tcp-no-delay=false"})
+class TomcatConnectorConfigTest {
+
+    private static final StubServer STUB = StubServer.start(StubServer.downstreamRoutes());
+
+    @DynamicPropertySource
+    static void downstream(DynamicPropertyRegistry registry) {
+        STUB.propertyOverrides().forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @TestConfiguration
+    static class ConnectorCapture {
+        static final AtomicReference<Connector> CONNECTOR = new AtomicReference<>();
+
+        @Bean
+        TomcatConnectorCustomizer connectorCapture() {
+            return CONNECTOR::set;
+        }
+    }
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private TomcatConnectorProperties properties;
+
+    @Test
+    void testRunningConnectorUsesConfiguredValues() {
+        Connector connector = ConnectorCapture.CONNECTOR.get();
+        assertNotNull(connector, "The application connector should have been customized");
+        assertEquals(port, connector.getLocalPort());
+        AbstractHttp11Protocol<?> http = assertInstanceOf(AbstractHttp11Protocol.class, connector.getProtocolHandler());
+
+        assertEquals(1234, http.getMaxConnections(), "server.tomcat.max-connections");
+        assertEquals(321, http.getAcceptCount(), "server.tomcat.accept-count");
+        assertEquals(7_000, http.getKeepAliveTimeout(), "server.tomcat.keep-alive-timeout");
+        assertEquals(55, http.getMaxKeepAliveRequests(), "server.tomcat.max-keep-alive-requests");
+        UpgradeProtocol[] upgrades = connector.findUpgradeProtocols();
+        assertTrue(Arrays.stream(upgrades).anyMatch(Http2Protocol.class::isInstance), "server.http2.enabled adds h2c");
+
+        assertFalse(properties.tcpNoDelay());
+        assertFalse(http.getTcpNoDelay(), "app.tomcat.connector.tcp-no-delay");
+        assertEquals("65536", String.valueOf(connector.getProperty("socket.rxBufSize")),
+                "app.tomcat.connector.socket-receive-buffer");
+    }
+}
@@ -0,0 +1,87 @@
+package com.web.opentelemetry.controller;
+
+import com.web.opentelemetry.stub.LatencyDistribution;
+import com.web.opentelemetry.stub.StubRoute;
+import com.web.opentelemetry.stub.StubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "app.batching.info.enabled=false",
+        "app.fanout.servlet-async.call-timeout=300ms",
+        "app.fanout.servlet-async.timeout=2s"})
+class ServletAsyncControllerTest {
+
+    private static final StubServer STUB = StubServer.start(StubServer.downstreamRoutes());
+
+    @DynamicPropertySource
+    static void downstream(DynamicPropertyRegistry registry) {
+        STUB.propertyOverrides().forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @AfterEach
+    void resetLatency() {
+        STUB.route("/api/info").latency(LatencyDistribution.NONE);
+    }
+
+    private HttpResponse<String> get(String path, String requestId) throws Exception {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                            .header(X_SSTECHMINDS_REQUEST_ID, requestId)
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+        }
+    }
+
+    @Test
+    void testServletAsyncEndpointsMatchBlockingResponses() throws Exception {
+        StubRoute info = STUB.route("/api/info");
+        for (String path : new String[]{"/api/info/async-servlet", "/api/info/async-spring-servlet"}) {
+            long before = info.requests();
+            HttpResponse<String> response = get(path, "req-" + path.hashCode());
+
+            assertEquals(200, response.statusCode(), path);
+            assertTrue(response.body().contains("\"call1\"") && response.body().contains("\"call2\""), response.body());
+            assertFalse(response.body().contains("Failed"), response.body());
+            assertEquals(before + 2, info.requests(), path + " should fan out to two downstream calls");
+            assertEquals("req-" + path.hashCode(), response.headers().firstValue(X_SSTECHMINDS_REQUEST_ID).orElseThrow(),
+                    "The async dispatch should keep the caller's request id");
+        }
+    }
+
+    @Test
+    void testSlowCallsFallBackAfterCallTimeout() throws Exception {
+        STUB.route("/api/info").latency(LatencyDistribution.constant(Duration.ofSeconds(1)));
+        for (String path : new String[]{"/api/info/async-servlet", "/api/info/async-spring-servlet"}) {
+            long start = System.nanoTime();
+            HttpResponse<String> response = get(path, "slow");
+            long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+            assertEquals(200, response.statusCode(), path);
+            assertTrue(response.body().contains("timed out after"), response.body());
+            assertTrue(elapsedMillis < 1_000, path + " should answer at the call timeout, not the downstream latency: " + elapsedMillis + "ms");
+        }
+    }
+}
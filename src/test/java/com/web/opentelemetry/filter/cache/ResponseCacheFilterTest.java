@@ -0,0 +1,277 @@
+package com.web.opentelemetry.filter.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(System.nanoTime());
+    private final AtomicInteger renders = new AtomicInteger();
+    private final ResponseCacheStore store = new ResponseCacheStore(1024 * 1024, ResponseCacheStore.Eviction.LRU,
+            100, meterRegistry);
+
+    private volatile Consumer<HttpServletResponse> handler = response -> write(response, "{\"status\":\"ok\"}");
+
+    private final HttpServlet servlet = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+            renders.incrementAndGet();
+            handler.accept(response);
+        }
+    };
+
+    private ResponseCacheFilter filter(Duration waitTimeout) {
+        return new ResponseCacheFilter(List.of(
+                new ResponseCacheFilter.Route("/api/info", Duration.ofSeconds(10), List.of("Accept")),
+                new ResponseCacheFilter.Route("/api/items/{id}", Duration.ofSeconds(10), List.of())),
+                store, 1024, waitTimeout, meterRegistry, clock::get);
+    }
+
+    private final ResponseCacheFilter filter = filter(Duration.ofSeconds(5));
+
+    private static void write(HttpServletResponse response, String body) {
+        try {
+            response.setContentType("application/json");
+            response.getWriter().write(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MockHttpServletResponse get(ResponseCacheFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private MockHttpServletResponse get(String uri) throws Exception {
+        return get(filter, request(uri));
+    }
+
+    private static MockHttpServletRequest request(String uri) {
+        int query = uri.indexOf('?');
+        if (query < 0) {
+            return new MockHttpServletRequest("GET", uri);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri.substring(0, query));
+        request.setQueryString(uri.substring(query + 1));
+        for (String parameter : uri.substring(query + 1).split("&")) {
+            String[] pair = parameter.split("=", 2);
+            request.addParameter(pair[0], pair[1]);
+        }
+        return request;
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("http.server.cache.requests").tags("route", "/api/info", "result", result)
+                .counter().count();
+    }
+
+    @Test
+    void testServesRepeatedGetFromCache() throws Exception {
+        MockHttpServletResponse first = get("/api/info");
+        clock.addAndGet(Duration.ofSeconds(3).toNanos());
+        MockHttpServletResponse second = get("/api/info");
+
+        assertEquals(1, renders.get(), "The handler should run once");
+        assertEquals(200, second.getStatus());
+        assertEquals("{\"status\":\"ok\"}", second.getContentAsString());
+        assertEquals("application/json", second.getContentType());
+        assertNotNull(first.getHeader("ETag"), "The rendered response should carry the ETag");
+        assertEquals(first.getHeader("ETag"), second.getHeader("ETag"), "The ETag is computed once per entry");
+        assertEquals("3", second.getHeader("Age"));
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("miss"));
+        assertEquals(0.5, meterRegistry.get("http.server.cache.hit.ratio").tag("route", "/api/info").gauge().value());
+        assertEquals(15, meterRegistry.get("http.server.cache.bytes.saved").tags("route", "/api/info", "reason", "render")
+                .counter().count(), "The body served from the cache counts as saved rendering");
+    }
+
+    @Test
+    void testAnswersMatchingIfNoneMatchWith304() throws Exception {
+        String etag = get("/api/info").getHeader("ETag");
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest("GET", "/api/info");
+        conditional.addHeader("If-None-Match", "\"other\", W/" + etag);
+        MockHttpServletResponse notModified = get(filter, conditional);
+        assertEquals(304, notModified.getStatus(), "A weak match is enough for If-None-Match");
+        assertEquals(0, notModified.getContentAsByteArray().length);
+        assertEquals(etag, notModified.getHeader("ETag"));
+
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/api/info");
+        stale.addHeader("If-None-Match", "\"other\"");
+        assertEquals(200, get(filter, stale).getStatus());
+
+        assertEquals(1, renders.get());
+        assertEquals(1, meterRegistry.get("http.server.cache.not.modified").tag("route", "/api/info").counter().count());
+        assertEquals(15, meterRegistry.get("http.server.cache.bytes.saved").tags("route", "/api/info", "reason", "transfer")
+                .counter().count(), "The body not sent counts as saved transfer");
+    }
+
+    @Test
+    void testRenderedResponseHonoursIfNoneMatch() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/info");
+        request.addHeader("If-None-Match", ResponseCacheFilter.etag("{\"status\":\"ok\"}".getBytes()));
+        assertEquals(304, get(filter, request).getStatus(), "A miss that renders the same body should still be a 304");
+    }
+
+    @Test
+    void testExpiresAfterTtl() throws Exception {
+        get("/api/info");
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        get("/api/info");
+        assertEquals(2, renders.get(), "An expired entry should be rendered again");
+    }
+
+    @Test
+    void testKeyUsesSortedQueryAndKeyHeaders() throws Exception {
+        get("/api/items/1?b=2&a=1");
+        get("/api/items/1?a=1&b=2");
+        assertEquals(1, renders.get(), "Parameter order should not matter");
+        get("/api/items/2?a=1&b=2");
+        assertEquals(2, renders.get(), "Path variables are part of the key");
+
+        MockHttpServletRequest json = new MockHttpServletRequest("GET", "/api/info");
+        json.addHeader("Accept", "application/json");
+        MockHttpServletRequest text = new MockHttpServletRequest("GET", "/api/info");
+        text.addHeader("Accept", "text/plain");
+        get(filter, json);
+        get(filter, text);
+        get(filter, json);
+        assertEquals(4, renders.get(), "Each value of a key header gets its own entry");
+
+        get("/api/other");
+        get("/api/other");
+        assertEquals(6, renders.get(), "Routes that do not opt in are never cached");
+    }
+
+    @Test
+    void testHeadIsServedFromGetEntry() throws Exception {
+        get("/api/info");
+        MockHttpServletResponse head = get(filter, new MockHttpServletRequest("HEAD", "/api/info"));
+        assertEquals(1, renders.get());
+        assertEquals(200, head.getStatus());
+        assertEquals(15, head.getContentLength());
+        assertEquals(0, head.getContentAsByteArray().length, "HEAD responses have no body");
+    }
+
+    @Test
+    void testDoesNotStoreUncacheableResponses() throws Exception {
+        handler = response -> {
+            response.setStatus(500);
+            write(response, "boom");
+        };
+        get("/api/info");
+        MockHttpServletResponse failed = get("/api/info");
+        assertEquals(500, failed.getStatus());
+        assertEquals("boom", failed.getContentAsString(), "An uncached response is still written");
+
+        handler = response -> {
+            response.addHeader("Set-Cookie", "session=1");
+            write(response, "personal");
+        };
+        get("/api/items/1");
+        get("/api/items/1");
+
+        handler = response -> {
+            response.setHeader("Cache-Control", "no-store");
+            write(response, "secret");
+        };
+        get("/api/items/2");
+        get("/api/items/2");
+
+        handler = response -> write(response, "x".repeat(2048));
+        get("/api/items/3");
+        assertEquals(2048, get("/api/items/3").getContentAsByteArray().length);
+
+        assertEquals(8, renders.get(), "Errors, cookies, no-store and oversized bodies should not be stored");
+        assertEquals(0, store.entries());
+    }
+
+    @Test
+    void testConcurrentMissesRunHandlerOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch rendering = new CountDownLatch(1);
+        handler = response -> {
+            rendering.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            write(response, "{\"status\":\"ok\"}");
+        };
+
+        int callers = 20;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<MockHttpServletResponse>> responses = new ArrayList<>();
+            responses.add(executor.submit(() -> get("/api/info")));
+            assertTrue(rendering.await(10, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                responses.add(executor.submit(() -> get("/api/info")));
+            }
+            // Let the waiters reach the in-flight future before the handler finishes
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<MockHttpServletResponse> response : responses) {
+                assertEquals("{\"status\":\"ok\"}", response.get(10, TimeUnit.SECONDS).getContentAsString());
+            }
+        }
+
+        assertEquals(1, renders.get(), "Only the first miss should run the handler");
+        assertEquals(callers - 1, requests("coalesced") + requests("hit"),
+                "The other callers should be served the shared result or the stored entry");
+        assertTrue(requests("coalesced") > 0, "Callers that arrived during rendering should wait for it");
+    }
+
+    @Test
+    void testWaitersRenderThemselvesAfterTimeout() throws Exception {
+        ResponseCacheFilter impatient = filter(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch rendering = new CountDownLatch(1);
+        handler = response -> {
+            if (rendering.getCount() > 0) {
+                rendering.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            write(response, "{\"status\":\"ok\"}");
+        };
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<MockHttpServletResponse> slow = executor.submit(() -> get(impatient, new MockHttpServletRequest("GET", "/api/info")));
+            assertTrue(rendering.await(10, TimeUnit.SECONDS));
+            MockHttpServletResponse waiter = get(impatient, new MockHttpServletRequest("GET", "/api/info"));
+            assertEquals(200, waiter.getStatus(), "A waiter that times out should render the response itself");
+            release.countDown();
+            assertEquals(200, slow.get(10, TimeUnit.SECONDS).getStatus());
+        }
+        assertEquals(2, renders.get());
+    }
+}
@@ -0,0 +1,111 @@
+package com.web.opentelemetry.filter.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResponseCacheStoreTest {
+
+    private static final long NOW = 1_000_000_000L;
+    private static final long TTL = 60_000_000_000L;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static CachedEntry entry(int size) {
+        byte[] body = new byte[size];
+        return new CachedEntry(200, "text/plain", body, ResponseCacheFilter.etag(body), NOW, NOW + TTL);
+    }
+
+    private static long weight(String key, int size) {
+        return entry(size).weight() + 2L * key.length();
+    }
+
+    @Test
+    void testLruEvictsLeastRecentlyUsed() {
+        ResponseCacheStore store = new ResponseCacheStore(3 * weight("/a", 1000), ResponseCacheStore.Eviction.LRU,
+                100, meterRegistry);
+        assertTrue(store.put("/a", entry(1000), NOW));
+        assertTrue(store.put("/b", entry(1000), NOW));
+        assertTrue(store.put("/c", entry(1000), NOW));
+        assertNotNull(store.get("/a", NOW), "Reading /a makes /b the least recently used");
+
+        assertTrue(store.put("/d", entry(1000), NOW));
+        assertNull(store.get("/b", NOW), "The least recently used entry should be evicted");
+        assertNotNull(store.get("/a", NOW));
+        assertEquals(3, store.entries());
+        assertTrue(store.weightedSize() <= store.maxBytes(), "The store should stay within its budget");
+        assertEquals(1, meterRegistry.get("http.server.cache.evictions").tag("cause", "size").counter().count());
+    }
+
+    @Test
+    void testLfuRejectsOneHitWonders() {
+        ResponseCacheStore store = new ResponseCacheStore(2 * weight("/a", 1000), ResponseCacheStore.Eviction.LFU,
+                100, meterRegistry);
+        store.put("/a", entry(1000), NOW);
+        store.put("/b", entry(1000), NOW);
+        for (int i = 0; i < 5; i++) {
+            store.get("/a", NOW);
+            store.get("/b", NOW);
+        }
+
+        for (int i = 0; i < 20; i++) {
+            String key = "/scan/" + i;
+            assertNull(store.get(key, NOW));
+            assertFalse(store.put(key, entry(1000), NOW), "A key seen once should not displace a popular entry");
+        }
+        assertNotNull(store.get("/a", NOW), "Popular entries should survive the scan");
+        assertNotNull(store.get("/b", NOW));
+
+        for (int i = 0; i < 10; i++) {
+            store.get("/c", NOW);
+        }
+        assertTrue(store.put("/c", entry(1000), NOW), "A key read more often than the victim should be admitted");
+    }
+
+    @Test
+    void testRejectedReplacementKeepsPreviousEntry() {
+        ResponseCacheStore store = new ResponseCacheStore(2 * weight("/a", 1000), ResponseCacheStore.Eviction.LFU,
+                100, meterRegistry);
+        store.put("/a", entry(1000), NOW);
+        store.put("/b", entry(1000), NOW);
+        store.get("/a", NOW);
+        for (int i = 0; i < 5; i++) {
+            store.get("/b", NOW);
+        }
+
+        assertFalse(store.put("/a", entry(1500), NOW), "The larger /a would have to displace the more popular /b");
+        CachedEntry previous = store.get("/a", NOW);
+        assertNotNull(previous, "A rejected replacement should keep the stored entry");
+        assertEquals(1000, previous.body().length);
+        assertNotNull(store.get("/b", NOW), "Nothing should be evicted for a rejected entry");
+        assertEquals(2 * weight("/a", 1000), store.weightedSize());
+        assertEquals(0, meterRegistry.get("http.server.cache.evictions").tag("cause", "replaced").counter().count());
+        assertEquals(0, meterRegistry.get("http.server.cache.evictions").tag("cause", "size").counter().count());
+    }
+
+    @Test
+    void testExpiredEntriesAreDropped() {
+        ResponseCacheStore store = new ResponseCacheStore(2 * weight("/a", 1000), ResponseCacheStore.Eviction.LFU,
+                100, meterRegistry);
+        store.put("/a", entry(1000), NOW);
+        store.put("/b", entry(1000), NOW);
+        for (int i = 0; i < 5; i++) {
+            store.get("/a", NOW);
+        }
+
+        assertTrue(store.put("/c", entry(1000), NOW + TTL), "Expired entries make room without an admission check");
+        assertEquals(2, store.entries(), "Only the eldest expired entry had to go");
+        assertNull(store.get("/a", NOW + TTL), "An expired entry is dropped when read");
+        assertEquals(1, store.entries());
+        assertEquals(2, meterRegistry.get("http.server.cache.evictions").tag("cause", "expired").counter().count());
+    }
+
+    @Test
+    void testRejectsEntryLargerThanBudget() {
+        ResponseCacheStore store = new ResponseCacheStore(1024, ResponseCacheStore.Eviction.LRU, 100, meterRegistry);
+        assertFalse(store.put("/big", entry(2048), NOW));
+        assertEquals(0, store.weightedSize());
+    }
+}
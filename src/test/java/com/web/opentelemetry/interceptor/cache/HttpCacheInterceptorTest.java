@@ -0,0 +1,223 @@
+package com.web.opentelemetry.interceptor.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpCacheInterceptorTest {
+
+    private static final URI DOGS = URI.create("https://dog.ceo/api/breeds/image/random");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MutableClock clock = new MutableClock();
+    private final HttpCacheStore store = new HttpCacheStore("test", 1024 * 1024, 4, 1000, meterRegistry);
+    private final Deque<MockClientHttpResponse> origin = new ArrayDeque<>();
+    private final List<HttpHeaders> originRequests = new CopyOnWriteArrayList<>();
+    private final ClientHttpRequestExecution execution = (request, body) -> {
+        originRequests.add(request.getHeaders());
+        MockClientHttpResponse response = origin.poll();
+        assertNotNull(response, "Unexpected request to the origin");
+        return response;
+    };
+    private final AtomicInteger refreshes = new AtomicInteger();
+    private final ClientHttpRequestFactory refreshRequestFactory = (uri, method) -> new MockClientHttpRequest(method, uri) {
+        @Override
+        protected ClientHttpResponse executeInternal() throws IOException {
+            refreshes.incrementAndGet();
+            return execution.execute(this, new byte[0]);
+        }
+    };
+
+    private final HttpCacheInterceptor interceptor = new HttpCacheInterceptor("test", store, 64 * 1024,
+            Duration.ofHours(1), refreshRequestFactory, clock, meterRegistry);
+
+    private void originResponds(HttpStatus status, String body, Consumer<HttpHeaders> headers) {
+        MockClientHttpResponse response = new MockClientHttpResponse(body.getBytes(StandardCharsets.UTF_8), status);
+        response.getHeaders().setDate(clock.millis());
+        headers.accept(response.getHeaders());
+        origin.add(response);
+    }
+
+    private String get(URI uri, Consumer<HttpHeaders> headers) throws IOException {
+        HttpRequest request = new MockClientHttpRequest(HttpMethod.GET, uri);
+        headers.accept(request.getHeaders());
+        try (ClientHttpResponse response = interceptor.intercept(request, new byte[0], execution)) {
+            return new String(response.getBody().readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private String get(URI uri) throws IOException {
+        return get(uri, headers -> {
+        });
+    }
+
+    private double results(String result) {
+        return meterRegistry.get("http.client.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void testServesFreshResponseFromCache() throws IOException {
+        originResponds(HttpStatus.OK, "woof", h -> h.setCacheControl("max-age=60"));
+
+        assertEquals("woof", get(DOGS));
+        clock.advance(Duration.ofSeconds(30));
+        assertEquals("woof", get(DOGS));
+
+        assertEquals(1, originRequests.size(), "Fresh response should be served without calling the origin");
+        assertEquals(1.0, results("hit"));
+        assertEquals(1.0, results("miss"));
+    }
+
+    @Test
+    void testRevalidatesStaleResponseWithETag() throws IOException {
+        originResponds(HttpStatus.OK, "woof", h -> {
+            h.setCacheControl("max-age=10");
+            h.setETag("\"v1\"");
+        });
+        originResponds(HttpStatus.NOT_MODIFIED, "", h -> h.setCacheControl("max-age=10"));
+
+        assertEquals("woof", get(DOGS));
+        clock.advance(Duration.ofSeconds(20));
+        assertEquals("woof", get(DOGS), "A 304 should be answered with the stored body");
+
+        assertEquals("\"v1\"", originRequests.get(1).getFirst(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(1.0, results("revalidated"));
+        clock.advance(Duration.ofSeconds(5));
+        assertEquals("woof", get(DOGS));
+        assertEquals(2, originRequests.size(), "The 304 should have freshened the stored response");
+    }
+
+    @Test
+    void testKeepsSeparateVariantsPerVaryHeader() throws IOException {
+        originResponds(HttpStatus.OK, "json", h -> {
+            h.setCacheControl("max-age=60");
+            h.set(HttpHeaders.VARY, "Accept");
+        });
+        originResponds(HttpStatus.OK, "xml", h -> {
+            h.setCacheControl("max-age=60");
+            h.set(HttpHeaders.VARY, "Accept");
+        });
+
+        assertEquals("json", get(DOGS, h -> h.set(HttpHeaders.ACCEPT, "application/json")));
+        assertEquals("xml", get(DOGS, h -> h.set(HttpHeaders.ACCEPT, "application/xml")));
+        assertEquals("json", get(DOGS, h -> h.set(HttpHeaders.ACCEPT, "application/json")));
+        assertEquals("xml", get(DOGS, h -> h.set(HttpHeaders.ACCEPT, "application/xml")));
+        assertEquals(2, originRequests.size(), "Each Accept value should be cached as its own variant");
+    }
+
+    @Test
+    void testDoesNotStoreNoStoreOrPrivateResponses() throws IOException {
+        originResponds(HttpStatus.OK, "a", h -> h.setCacheControl("no-store"));
+        originResponds(HttpStatus.OK, "b", h -> h.setCacheControl("private, max-age=60"));
+        originResponds(HttpStatus.OK, "c", h -> h.setCacheControl("max-age=60"));
+
+        assertEquals("a", get(DOGS));
+        assertEquals("b", get(DOGS));
+        assertEquals("c", get(DOGS));
+        assertEquals(3, originRequests.size());
+    }
+
+    @Test
+    void testServesStaleWhileRevalidatingInBackground() throws Exception {
+        originResponds(HttpStatus.OK, "old", h -> h.setCacheControl("max-age=10, stale-while-revalidate=60"));
+        originResponds(HttpStatus.OK, "new", h -> h.setCacheControl("max-age=10, stale-while-revalidate=60"));
+
+        assertEquals("old", get(DOGS));
+        clock.advance(Duration.ofSeconds(20));
+        assertEquals("old", get(DOGS), "A stale response within stale-while-revalidate should be served immediately");
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (originRequests.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        assertEquals("new", get(DOGS), "The background refresh should have replaced the stored response");
+        assertEquals(1.0, results("stale"));
+        assertEquals(1, refreshes.get(), "The refresh should be sent through the refresh request factory");
+    }
+
+    @Test
+    void testUnsafeRequestInvalidatesStoredResponse() throws IOException {
+        originResponds(HttpStatus.OK, "v1", h -> h.setCacheControl("max-age=60"));
+        originResponds(HttpStatus.NO_CONTENT, "", h -> {
+        });
+        originResponds(HttpStatus.OK, "v2", h -> h.setCacheControl("max-age=60"));
+
+        assertEquals("v1", get(DOGS));
+        interceptor.intercept(new MockClientHttpRequest(HttpMethod.DELETE, DOGS), new byte[0], execution).close();
+        assertEquals("v2", get(DOGS));
+        assertEquals(1.0, meterRegistry.get("http.client.cache.evictions").tag("cause", "invalidated").counter().count());
+    }
+
+    @Test
+    void testEvictsWithinByteBudgetAndKeepsPopularEntries() {
+        HttpCacheStore small = new HttpCacheStore("small", 16 * 1024, 1, 1000, meterRegistry);
+        byte[] body = new byte[1024];
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl("max-age=60");
+        String popular = "https://example.com/popular";
+
+        small.put(popular, CachedResponse.create(HttpStatus.OK, headers, body, new HttpHeaders(), 0, 0, Duration.ZERO));
+        for (int i = 0; i < 20; i++) {
+            small.get(popular);
+        }
+        for (int i = 0; i < 100; i++) {
+            String key = "https://example.com/once/" + i;
+            small.get(key);
+            small.put(key, CachedResponse.create(HttpStatus.OK, headers, body, new HttpHeaders(), 0, 0, Duration.ZERO));
+        }
+
+        assertTrue(small.weightedSize() <= 16 * 1024, "Store should stay within its byte budget");
+        assertFalse(small.get(popular).isEmpty(), "A frequently used entry should survive a scan of one-hit wonders");
+        assertTrue(meterRegistry.get("http.client.cache.evictions").tag("cache", "small").tag("cause", "size").counter().count() > 0);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.web.opentelemetry.interceptor.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OutboundRateLimiter limiter = new OutboundRateLimiter(
+            Map.of("Dog.CEO", new OutboundRateLimiter.Limit(1, 2, Duration.ofMillis(50))),
+            Map.of("reports", new OutboundRateLimiter.Limit(1, 1, Duration.ZERO)),
+            meterRegistry);
+    private final AtomicInteger sent = new AtomicInteger();
+
+    private ClientHttpRequestExecution respondWith(HttpStatus status, Consumer<MockClientHttpResponse> headers) {
+        return (request, body) -> {
+            sent.incrementAndGet();
+            MockClientHttpResponse response = new MockClientHttpResponse(new byte[0], status);
+            headers.accept(response);
+            return response;
+        };
+    }
+
+    private void call(ClientHttpRequestInterceptor interceptor, String uri, ClientHttpRequestExecution execution) throws IOException {
+        interceptor.intercept(new MockClientHttpRequest(HttpMethod.GET, URI.create(uri)), new byte[0], execution).close();
+    }
+
+    private double permits(String limiterName, String outcome) {
+        return meterRegistry.get("http.client.ratelimit.permits").tag("limiter", limiterName).tag("outcome", outcome)
+                .counter().count();
+    }
+
+    @Test
+    void testLimitsConfiguredHostsOnly() throws IOException {
+        ClientHttpRequestExecution ok = respondWith(HttpStatus.OK, response -> {
+        });
+        for (int i = 0; i < 5; i++) {
+            call(limiter.forHosts(), "http://localhost:8080/api/info", ok);
+        }
+        call(limiter.forHosts(), "https://dog.ceo/api/breeds/image/random", ok);
+        call(limiter.forHosts(), "https://dog.ceo/api/breeds/image/random", ok);
+        RateLimitExceededException e = assertThrows(RateLimitExceededException.class,
+                () -> call(limiter.forHosts(), "https://dog.ceo/api/breeds/image/random", ok),
+                "The third call exceeds the burst of two, and the next permit is a second away");
+
+        assertEquals("host:dog.ceo", e.getLimiter());
+        assertEquals(7, sent.get(), "The rejected request must not be sent");
+        assertEquals(2.0, permits("host:dog.ceo", "granted"));
+        assertEquals(1.0, permits("host:dog.ceo", "rejected"));
+    }
+
+    @Test
+    void testRetryAfterPausesTheHost() {
+        call429(limiter.forHosts());
+        assertThrows(RateLimitExceededException.class,
+                () -> call(limiter.forHosts(), "https://dog.ceo/api/breeds/list", respondWith(HttpStatus.OK, r -> {
+                })),
+                "Calls during Retry-After are rejected locally instead of earning more 429s");
+        assertEquals(1, sent.get());
+        assertEquals(1.0, meterRegistry.get("http.client.ratelimit.signals").tag("signal", "retry-after").counter().count());
+    }
+
+    private void call429(ClientHttpRequestInterceptor interceptor) {
+        assertDoesNotThrow(() -> call(interceptor, "https://dog.ceo/api/breeds/list",
+                respondWith(HttpStatus.TOO_MANY_REQUESTS, response -> response.getHeaders().set("Retry-After", "30"))));
+    }
+
+    @Test
+    void testAdoptsAdvertisedPolicy() throws IOException {
+        call(limiter.forHosts(), "https://dog.ceo/api/breeds/list", respondWith(HttpStatus.OK, response -> {
+            response.getHeaders().set("RateLimit-Policy", "\"default\";q=30;w=60");
+        }));
+        assertEquals(0.5, meterRegistry.get("http.client.ratelimit.rate").tag("limiter", "host:dog.ceo").gauge().value(), 0.01,
+                "30 per minute is tighter than the configured one per second");
+    }
+
+    @Test
+    void testClientLimitAppliesToEveryHost() throws IOException {
+        ClientHttpRequestInterceptor reports = limiter.forClient("reports");
+        ClientHttpRequestExecution ok = respondWith(HttpStatus.OK, response -> {
+        });
+        call(reports, "http://localhost:8080/a", ok);
+        assertThrows(RateLimitExceededException.class, () -> call(reports, "http://example.com/b", ok));
+        assertThrows(IllegalArgumentException.class, () -> limiter.forClient("unknown"));
+    }
+
+    @Test
+    void testParsesRateLimitHeaderForms() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-RateLimit-Remaining", "0");
+        headers.set("X-RateLimit-Reset", String.valueOf(System.currentTimeMillis() / 1000 + 10));
+        RateLimitHeaders parsed = RateLimitHeaders.parse(HttpStatus.OK, headers, System.currentTimeMillis());
+        assertEquals(0, parsed.remaining());
+        assertEquals(10, Duration.ofNanos(parsed.resetNanos()).toSeconds(), 1.0, "A reset above 10^9 is epoch seconds");
+        assertEquals(-1, parsed.retryAfterNanos(), "Retry-After is only honoured on 429 and 503");
+
+        headers.set("Retry-After", "Wed, 21 Oct 2015 07:28:00 GMT");
+        assertEquals(0, RateLimitHeaders.parse(HttpStatus.SERVICE_UNAVAILABLE, headers, System.currentTimeMillis()).retryAfterNanos(),
+                "A Retry-After date in the past means no pause");
+
+        headers.set("RateLimit-Policy", "100;w=60, 1000;w=3600");
+        RateLimitHeaders policy = RateLimitHeaders.parse(HttpStatus.OK, headers, System.currentTimeMillis());
+        assertEquals(100, policy.quota());
+        assertEquals(60, Duration.ofNanos(policy.windowNanos()).toSeconds());
+    }
+}
@@ -0,0 +1,113 @@
+package com.web.opentelemetry.interceptor.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000_000 * MS);
+    // 10 permits per second (one per 100 ms), burst of 5
+    private final TokenBucket bucket = new TokenBucket("test", 10, 5, clock::get);
+
+    @Test
+    void testGrantsBurstThenPacesAtRate() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryReserve(0), "Permit " + i + " is within the burst");
+        }
+        assertEquals(-1, bucket.tryReserve(0), "The sixth permit is not available at once");
+        assertEquals(100 * MS, bucket.tryReserve(Long.MAX_VALUE), "It is due one interval later");
+        assertEquals(200 * MS, bucket.tryReserve(Long.MAX_VALUE), "Waiters queue in reservation order");
+    }
+
+    @Test
+    void testRefillsWhileIdle() {
+        for (int i = 0; i < 5; i++) {
+            bucket.tryReserve(0);
+        }
+        assertEquals(0, bucket.availablePermits());
+        clock.addAndGet(250 * MS);
+        assertEquals(2, bucket.availablePermits());
+        clock.addAndGet(10_000 * MS);
+        assertEquals(5, bucket.availablePermits(), "Idle time never adds more than the burst");
+    }
+
+    @Test
+    void testRejectionDoesNotConsumeAPermit() {
+        for (int i = 0; i < 5; i++) {
+            bucket.tryReserve(0);
+        }
+        assertEquals(-1, bucket.tryReserve(50 * MS));
+        assertEquals(-1, bucket.tryReserve(50 * MS));
+        assertEquals(100 * MS, bucket.tryReserve(100 * MS), "Rejected callers must not push the next permit back");
+    }
+
+    @Test
+    void testPausesForRetryAfter() {
+        bucket.pauseFor(2_000 * MS);
+        assertEquals(2_000 * MS, bucket.tryReserve(Long.MAX_VALUE), "Nothing is granted before Retry-After has passed");
+        assertEquals(2_100 * MS, bucket.tryReserve(Long.MAX_VALUE), "Afterwards the burst refills from empty");
+    }
+
+    @Test
+    void testSpreadsRemainingPermitsOverResetWindow() {
+        // 4 requests left for the next 2 s: one every 500 ms instead of a burst followed by 429s
+        bucket.limitRemaining(4, 2_000 * MS);
+        assertEquals(2.0, bucket.permitsPerSecond(), 0.01);
+        assertEquals(0, bucket.tryReserve(0));
+        assertEquals(500 * MS, bucket.tryReserve(Long.MAX_VALUE));
+
+        clock.addAndGet(2_500 * MS);
+        assertEquals(10.0, bucket.permitsPerSecond(), 0.01, "The configured rate applies again after the reset");
+    }
+
+    @Test
+    void testNoRemainingPausesUntilReset() {
+        bucket.limitRemaining(0, 3_000 * MS);
+        assertEquals(3_000 * MS, bucket.tryReserve(Long.MAX_VALUE));
+    }
+
+    @Test
+    void testAdoptsTighterPolicyOnly() {
+        bucket.adoptPolicy(100, TimeUnit.SECONDS.toNanos(60));
+        assertEquals(100.0 / 60, bucket.permitsPerSecond(), 0.01, "100 per minute is tighter than 10 per second");
+
+        TokenBucket loose = new TokenBucket("loose", 10, 5, clock::get);
+        loose.adoptPolicy(1_000, TimeUnit.SECONDS.toNanos(1));
+        assertEquals(10.0, loose.permitsPerSecond(), 0.01, "A looser advertised quota must not raise the configured rate");
+    }
+
+    @Test
+    void testConcurrentVirtualThreadsParkForTheirPermits() throws Exception {
+        TokenBucket real = new TokenBucket("real", 100, 10);
+        int callers = 60;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> waits = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                waits.add(executor.submit(() -> real.acquire(Duration.ofSeconds(5).toNanos())));
+            }
+            long waited = 0;
+            for (Future<Long> wait : waits) {
+                long nanos = wait.get();
+                assertTrue(nanos >= 0, "No caller should be rejected within the max wait");
+                waited += nanos > 0 ? 1 : 0;
+            }
+            // A permit or two may refill while the callers are still being started
+            assertTrue(waited >= callers - 12, "Everything beyond the burst has to wait, waited " + waited);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMillis >= 450, "50 permits beyond the burst at 100/s take about 500 ms, took " + elapsedMillis);
+    }
+}
@@ -0,0 +1,77 @@
+package com.web.opentelemetry.observability.flightrecorder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestFlightRecorderTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestFlightRecorder.detach();
+    }
+
+    private static void record(RequestFlightRecorder recorder, String route, long sleepMillis) {
+        RequestRecording recording = recorder.start("GET", route);
+        recording.handlerStarted("req-" + route, null);
+        if (sleepMillis > 0) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(sleepMillis));
+        }
+        recording.handlerEnded();
+        recorder.complete(recording, route, 200);
+        RequestFlightRecorder.detach();
+    }
+
+    @Test
+    void testRecentRingKeepsOnlyTheLastRequests() {
+        RequestFlightRecorder recorder = new RequestFlightRecorder(4, 2, 16, 4);
+        for (int i = 0; i < 10; i++) {
+            record(recorder, "/r" + i, 0);
+        }
+
+        RequestFlightRecorder.FlightReport report = recorder.report(100, null);
+        assertEquals(10, report.recorded());
+        assertEquals(List.of("/r9", "/r8", "/r7", "/r6"), report.recent().stream().map(RequestFlightRecorder.RequestView::route).toList(),
+                "Only the last ring-capacity requests should be kept, newest first");
+    }
+
+    @Test
+    void testKeepsSlowestPerRoute() {
+        RequestFlightRecorder recorder = new RequestFlightRecorder(64, 2, 16, 4);
+        record(recorder, "/api/info", 1);
+        record(recorder, "/api/info", 30);
+        record(recorder, "/api/info", 0);
+        record(recorder, "/api/info", 15);
+        record(recorder, "/api/internal", 0);
+
+        List<RequestFlightRecorder.RequestView> slowest = recorder.report(10, "/api/info").slowest().get("/api/info");
+        assertNotNull(slowest, "Slowest requests should be reported for /api/info");
+        assertEquals(2, slowest.size());
+        assertTrue(slowest.get(0).totalMillis() >= 30, "Slowest request should come first");
+        assertTrue(slowest.get(1).totalMillis() >= 15, "Only the two slowest requests should be kept");
+        assertFalse(recorder.report(10, "/api/info").slowest().containsKey("/api/internal"), "Route filter should apply");
+    }
+
+    @Test
+    void testRecordsOutboundCallsUpToCapacity() {
+        RequestFlightRecorder recorder = new RequestFlightRecorder(8, 2, 16, 2);
+        RequestRecording recording = recorder.start("GET", "/api/info/async");
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            recording.recordCall("GET", URI.create("http://localhost:8080/api/info"), start, 1_000_000, 200);
+        }
+        recorder.complete(recording, "/api/info/async", 200);
+
+        RequestFlightRecorder.RequestView view = recorder.report(1, null).recent().getFirst();
+        assertEquals(2, view.calls().size());
+        assertEquals(1, view.droppedCalls(), "Calls beyond max-calls-per-request should only be counted");
+        assertEquals("localhost:8080/api/info", view.calls().getFirst().target());
+        assertEquals("platform", view.threadType(), "JUnit runs the request on a platform thread");
+    }
+}
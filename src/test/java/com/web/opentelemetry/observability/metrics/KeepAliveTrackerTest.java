@@ -0,0 +1,37 @@
+package com.web.opentelemetry.observability.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeepAliveTrackerTest {
+
+    private final KeepAliveTracker tracker = new KeepAliveTracker(2);
+
+    @Test
+    void testReuseRatio() {
+        assertEquals(0, tracker.reuseRatio(), "No requests, no reuse");
+
+        tracker.onRequest("10.0.0.1", 50000);
+        tracker.onRequest("10.0.0.1", 50000);
+        tracker.onRequest("10.0.0.1", 50000);
+        tracker.onRequest("10.0.0.1", 50001);
+
+        assertEquals(4, tracker.requests());
+        assertEquals(2, tracker.newConnections(), "Connections are told apart by address and port");
+        assertEquals(0.5, tracker.reuseRatio(), 1e-9);
+    }
+
+    @Test
+    void testClearsKnownConnectionsBeyondLimit() {
+        tracker.onRequest("10.0.0.1", 50000);
+        tracker.onRequest("10.0.0.2", 50000);
+        tracker.onRequest("10.0.0.3", 50000);
+        assertEquals(3, tracker.newConnections());
+
+        tracker.onRequest("10.0.0.1", 50000);
+        assertEquals(4, tracker.newConnections(),
+                "After the reset a surviving connection counts as new again, under-reporting reuse");
+        assertTrue(tracker.reuseRatio() <= 0, "Reuse should never be over-reported");
+    }
+}
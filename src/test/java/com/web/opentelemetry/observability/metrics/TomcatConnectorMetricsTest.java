@@ -0,0 +1,47 @@
+package com.web.opentelemetry.observability.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TomcatConnectorMetricsTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KeepAliveTracker tracker = new KeepAliveTracker(100);
+    private final TomcatConnectorMetrics metrics = new TomcatConnectorMetrics(tracker);
+
+    @Test
+    void testReportsConnectorOnceBound() {
+        metrics.bindTo(meterRegistry);
+        assertTrue(Double.isNaN(meterRegistry.get("tomcat.connector.connections.max").gauge().value()),
+                "Unknown until the application connector is bound");
+
+        Connector connector = new Connector("HTTP/1.1");
+        ((AbstractHttp11Protocol<?>) connector.getProtocolHandler()).setMaxConnections(512);
+        metrics.bind(connector);
+        assertEquals(512, meterRegistry.get("tomcat.connector.connections.max").gauge().value());
+    }
+
+    @Test
+    void testReportsKeepAliveReuse() {
+        metrics.bindTo(meterRegistry);
+        tracker.onRequest("10.0.0.1", 50000);
+        tracker.onRequest("10.0.0.1", 50000);
+
+        assertEquals(2, meterRegistry.get("tomcat.connector.requests").functionCounter().count());
+        assertEquals(1, meterRegistry.get("tomcat.connector.connections.new").functionCounter().count());
+        assertEquals(0.5, meterRegistry.get("tomcat.connector.keepalive.reuse.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void testAcceptQueueCounters() {
+        metrics.bindTo(meterRegistry);
+        double overflows = meterRegistry.get("tomcat.connector.accept.overflows").functionCounter().count();
+        assertTrue(Double.isNaN(overflows) || overflows >= 0, "Kernel counter or NaN off Linux, got " + overflows);
+        assertTrue(Double.isNaN(TomcatConnectorMetrics.readNetstat("NoSuchField")));
+    }
+}
@@ -0,0 +1,199 @@
+package com.web.opentelemetry.observability.profiling;
+
+import com.web.opentelemetry.observability.tracing.RequestContextAccessors;
+import io.micrometer.context.ContextRegistry;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.FlightRecorder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ContinuousProfilerTest {
+
+    private static final ContinuousProfiler.Settings SETTINGS = new ContinuousProfiler.Settings(Duration.ofMillis(10),
+            "100/s", Duration.ofMinutes(5), 5, 3, 3, 64, 2);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+    private final ContinuousProfiler profiler = new ContinuousProfiler(SETTINGS, meterRegistry, clock::get);
+
+    @AfterEach
+    void tearDown() {
+        ProfilingContext.detach();
+        profiler.close();
+    }
+
+    private void sample(String stack) {
+        profiler.record(ContinuousProfiler.Kind.CPU, Thread.currentThread().threadId(), Instant.now(), stack, 1);
+    }
+
+    private String cpu(String route) {
+        return profiler.collapsed(ContinuousProfiler.Kind.CPU, route, null).orElseThrow();
+    }
+
+    @Test
+    void testAttributesSamplesToRouteAndRequestId() {
+        Instant before = Instant.now().minusMillis(50);
+        ProfilingContext.attach(new ProfiledRequest("/api/info", "req-1"));
+        sample("Thread.run;TraceHeaderFilter.doFilterInternal;Logger.info");
+        sample("Thread.run;TraceHeaderFilter.doFilterInternal;Logger.info");
+        sample("Thread.run;Controller.info");
+        profiler.record(ContinuousProfiler.Kind.ALLOCATION, Thread.currentThread().threadId(), Instant.now(),
+                "Thread.run;JsonMapper.writeValue;byte[]", 4096);
+        ProfilingContext.detach();
+        sample("Thread.run;Selector.select");
+        profiler.record(ContinuousProfiler.Kind.CPU, Thread.currentThread().threadId(), before, "Thread.run;Early.work", 1);
+
+        assertEquals("Thread.run;TraceHeaderFilter.doFilterInternal;Logger.info 2\nThread.run;Controller.info 1\n",
+                cpu("/api/info"), "Heaviest stack first, in collapsed format");
+        assertEquals("Thread.run;TraceHeaderFilter.doFilterInternal;Logger.info 2\nThread.run;Controller.info 1\n",
+                profiler.collapsed(ContinuousProfiler.Kind.CPU, null, "req-1").orElseThrow());
+        assertEquals("Thread.run;JsonMapper.writeValue;byte[] 4096\n",
+                profiler.collapsed(ContinuousProfiler.Kind.ALLOCATION, "/api/info", null).orElseThrow(),
+                "Allocation samples are weighted with their bytes");
+
+        String unattributed = cpu(ContinuousProfiler.UNATTRIBUTED);
+        assertTrue(unattributed.contains("Thread.run;Selector.select 1"), "Samples after detach belong to no request");
+        assertTrue(unattributed.contains("Thread.run;Early.work 1"), "Samples before attach belong to no request");
+        assertTrue(cpu(null).contains("[/api/info];Thread.run;Controller.info 1"),
+                "Without a route every route is returned with the route as the root frame");
+
+        ContinuousProfiler.Summary summary = profiler.summary();
+        assertEquals(3, summary.routes().get("/api/info").cpuSamples());
+        assertEquals(4096, summary.routes().get("/api/info").allocatedBytes());
+        assertEquals(3, meterRegistry.get("profiler.samples").tags("event", "cpu", "attributed", "true")
+                .counter().count());
+    }
+
+    @Test
+    void testRouteIsResolvedWhenSampleIsProcessed() {
+        ProfiledRequest request = new ProfiledRequest();
+        ProfilingContext.attach(request);
+        Instant filterPhase = Instant.now();
+        request.route("/api/internal");
+        request.requestId("req-2");
+        ProfilingContext.detach();
+
+        profiler.record(ContinuousProfiler.Kind.CPU, Thread.currentThread().threadId(), filterPhase, "Filter.doFilter", 1);
+        assertEquals("Filter.doFilter 1\n", cpu("/api/internal"),
+                "A sample from before the handler was mapped should still get the route");
+    }
+
+    @Test
+    void testPropagatesToAsyncTasksThroughContextSnapshot() throws Exception {
+        ContextRegistry registry = new ContextRegistry()
+                .registerThreadLocalAccessor(new RequestContextAccessors.Profiling());
+        ContextSnapshotFactory snapshots = ContextSnapshotFactory.builder().contextRegistry(registry).build();
+
+        ProfilingContext.attach(new ProfiledRequest("/api/info/async", "req-3"));
+        Runnable task = snapshots.captureAll().wrap(() -> sample("VirtualThread.run;AsyncTaskService.fetch"));
+        ProfilingContext.detach();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(task).get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals("VirtualThread.run;AsyncTaskService.fetch 1\n", cpu("/api/info/async"),
+                "A sample of the async task should be attributed to the request that started it");
+    }
+
+    @Test
+    void testBoundsRoutesStacksAndRecentRequests() {
+        for (int route = 0; route < 5; route++) {
+            ProfilingContext.attach(new ProfiledRequest("/route/" + route, "req-" + route));
+            for (int stack = 0; stack < 5; stack++) {
+                sample("Thread.run;Stack.s" + stack);
+            }
+            ProfilingContext.detach();
+        }
+
+        ContinuousProfiler.Summary summary = profiler.summary();
+        assertEquals(4, summary.routes().size(), "Routes beyond max-routes share one entry");
+        assertEquals(10, summary.routes().get(ContinuousProfiler.OTHER_ROUTE).cpuSamples());
+        assertTrue(cpu("/route/0").contains(ContinuousProfiler.OTHER_STACKS + " 2"),
+                "Stacks beyond max-stacks-per-route are counted together");
+        assertEquals(List.of("req-4", "req-3"), summary.recentRequests(), "Only the last requests are kept");
+        assertTrue(profiler.collapsed(ContinuousProfiler.Kind.CPU, null, "req-0").isEmpty());
+    }
+
+    @Test
+    void testWindowRollsOver() {
+        ProfilingContext.attach(new ProfiledRequest("/api/info", "req-4"));
+        sample("Thread.run;Controller.info");
+        ProfilingContext.detach();
+        assertEquals("Thread.run;Controller.info 1\n", cpu("/api/info"));
+
+        clock.addAndGet(Duration.ofMinutes(6).toMillis());
+        assertEquals("", cpu("/api/info"), "Slices older than the window should no longer count");
+    }
+
+    @Test
+    void testFilterOnlyAttachesWhileStreaming() throws Exception {
+        assertFalse(profiler.isRunning());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/info");
+        new ProfilingFilter(profiler).doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(request.getAttribute(ProfilingFilter.REQUEST_ATTRIBUTE),
+                "Without a running stream nothing would expire the request's span");
+    }
+
+    @Test
+    void testTypeName() {
+        assertEquals("byte[]", ContinuousProfiler.typeName("[B"));
+        assertEquals("java.lang.String[][]", ContinuousProfiler.typeName("[[Ljava.lang.String;"));
+        assertEquals("java.lang.Object", ContinuousProfiler.typeName("java.lang.Object"));
+    }
+
+    @Test
+    void testStreamsExecutionSamplesFromJfr() throws Exception {
+        assumeTrue(FlightRecorder.isAvailable(), "JFR is not available in this JVM");
+        profiler.start();
+        assertTrue(profiler.isRunning());
+
+        AtomicBoolean done = new AtomicBoolean();
+        Thread busy = Thread.ofPlatform().name("profiled-busy").start(() -> {
+            ProfilingContext.attach(new ProfiledRequest("/busy", "req-busy"));
+            try {
+                while (!done.get()) {
+                    spin();
+                }
+            } finally {
+                ProfilingContext.detach();
+            }
+        });
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!cpu("/busy").contains("ContinuousProfilerTest.spin") && System.nanoTime() < deadline) {
+                clock.set(System.currentTimeMillis());
+                Thread.sleep(200);
+            }
+        } finally {
+            done.set(true);
+            busy.join();
+        }
+        assertTrue(cpu("/busy").contains("ContinuousProfilerTest.spin"),
+                "JFR execution samples of the busy thread should be attributed to its route");
+    }
+
+    private static double spin() {
+        double x = 0;
+        for (int i = 0; i < 100_000; i++) {
+            x += Math.sqrt(i);
+        }
+        return x;
+    }
+}
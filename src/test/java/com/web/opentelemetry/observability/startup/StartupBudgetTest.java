@@ -0,0 +1,82 @@
+package com.web.opentelemetry.observability.startup;
+
+import com.web.opentelemetry.stub.StubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fails the build when startup regresses past the budget in startup-budget.properties.
+ * Boots through main() so the BufferingApplicationStartup is in place, with the downstream calls on a stub so the
+ * first /api/info is a real success rather than the connection-refused fallback.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        useMainMethod = SpringBootTest.UseMainMethod.ALWAYS)
+@TestPropertySource(locations = "classpath:startup-budget.properties")
+class StartupBudgetTest {
+
+    private static final StubServer STUB = StubServer.start(StubServer.downstreamRoutes());
+
+    @DynamicPropertySource
+    static void downstream(DynamicPropertyRegistry registry) {
+        STUB.propertyOverrides().forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Autowired
+    private StartupProfiler startupProfiler;
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Value("${budget.context-refresh}")
+    private long contextRefreshBudget;
+
+    @Value("${budget.time-to-first-info}")
+    private long timeToFirstInfoBudget;
+
+    @Value("${budget.tracked-component}")
+    private long trackedComponentBudget;
+
+    @Test
+    void testStartupWithinBudget() throws Exception {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = client.send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/info")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            assertFalse(response.body().startsWith("Failed to fetch data"),
+                    "/api/info should reach the stub, got the fallback: " + response.body());
+        }
+
+        StartupProfiler.StartupReport report = startupProfiler.report();
+        assertNotNull(report, "Startup profile should be available once the application is ready");
+        assertTrue(report.beanCount() > 0, "Bean creation steps should be recorded");
+        assertTrue(report.contextRefreshMillis() > 0, "Context refresh step should be recorded");
+
+        assertTrue(report.contextRefreshMillis() <= contextRefreshBudget,
+                "Context refresh took " + report.contextRefreshMillis() + " ms, budget " + contextRefreshBudget + " ms");
+        assertNotNull(report.timeToFirstInfoMillis(), "First successful /api/info should be recorded");
+        assertTrue(report.timeToFirstInfoMillis() <= timeToFirstInfoBudget,
+                "First /api/info after " + report.timeToFirstInfoMillis() + " ms, budget " + timeToFirstInfoBudget + " ms");
+        report.trackedComponentsMillis().forEach((component, millis) ->
+                assertTrue(millis <= trackedComponentBudget,
+                        component + " took " + millis + " ms, budget " + trackedComponentBudget + " ms"));
+    }
+}
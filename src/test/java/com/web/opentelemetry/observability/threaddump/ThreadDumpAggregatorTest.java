@@ -0,0 +1,118 @@
+package com.web.opentelemetry.observability.threaddump;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ThreadDumpAggregatorTest {
+    private static final int PARKED = 40;
+
+    @TempDir
+    Path dir;
+
+    private static void parkedInTest(CountDownLatch started, CountDownLatch release, String requestId) {
+        ThreadRequestIds.attach(requestId);
+        try {
+            started.countDown();
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            ThreadRequestIds.detach();
+        }
+    }
+
+    private static ThreadDumpAggregator.Group parkedGroup(ThreadDumpAggregator.Snapshot snapshot) {
+        return snapshot.groups().stream()
+                .filter(g -> g.frames().stream().anyMatch(f -> f.contains("parkedInTest")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No group for the parked threads in " + snapshot.groups()));
+    }
+
+    @Test
+    void testGroupsParkedVirtualThreadsAndDiffsSnapshots() throws Exception {
+        ThreadDumpAggregator aggregator = new ThreadDumpAggregator(JsonMapper.builder().build(), dir, 500, 4, 1);
+        CountDownLatch started = new CountDownLatch(PARKED);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < PARKED; i++) {
+                CountDownLatch release = i % 2 == 0 ? releaseFirst : releaseSecond;
+                String requestId = i < 10 ? "req-" + i : null;
+                executor.submit(() -> parkedInTest(started, release, requestId));
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS), "Virtual threads should start");
+
+            ThreadDumpAggregator.Snapshot before = aggregator.snapshot(6, false).orElseThrow();
+            ThreadDumpAggregator.Group group = parkedGroup(before);
+            assertEquals(PARKED, group.count(), "All parked threads share the same top frames");
+            assertTrue(before.virtualThreads() >= PARKED, "Parked threads should be counted as virtual");
+            assertFalse(group.frames().getFirst().startsWith("java.lang.VirtualThread"),
+                    "Park mechanism frames should not be part of the group key");
+            assertTrue(group.reasons().keySet().stream().anyMatch(r -> r.contains("CountDownLatch") || r.contains("park")),
+                    "Reason should name the latch or the park: " + group.reasons());
+            assertEquals(10, group.requestIdCount(), "Threads with a request id should be counted");
+            assertTrue(group.requestIds().contains("req-3"), "Request ids should be sampled");
+
+            releaseFirst.countDown();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            ThreadDumpAggregator.Snapshot after;
+            do {
+                Thread.sleep(20);
+                after = aggregator.snapshot(6, false).orElseThrow();
+            } while (parkedGroup(after).count() > PARKED / 2 && System.nanoTime() < deadline);
+
+            ThreadDumpAggregator.Diff diff = ThreadDumpAggregator.diff(before, after, 10);
+            ThreadDumpAggregator.GroupDiff change = diff.groups().stream()
+                    .filter(d -> d.frames().equals(group.frames()))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("Parked group should be in the diff: " + diff));
+            assertEquals(-PARKED / 2, change.delta(), "Half of the parked threads were released");
+
+            assertTrue(aggregator.file(before.id()).isEmpty(), "Only the last dump file should be kept");
+            Path raw = aggregator.file(after.id()).orElseThrow();
+            assertTrue(Files.size(raw) > 0, "Raw dump should be on disk");
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(1, files.count(), "Older dumps should be deleted");
+            }
+
+            releaseSecond.countDown();
+        }
+    }
+
+    @Test
+    void testDiffRejectsDifferentFrameDepths() {
+        ThreadDumpAggregator.Snapshot a = new ThreadDumpAggregator.Snapshot(1, Instant.now(), 4, 0, 0, 0, 0, 0, 0, 0, List.of());
+        ThreadDumpAggregator.Snapshot b = new ThreadDumpAggregator.Snapshot(2, Instant.now(), 8, 0, 0, 0, 0, 0, 0, 0, List.of());
+        assertThrows(IllegalArgumentException.class, () -> ThreadDumpAggregator.diff(a, b, 10),
+                "Groups keyed by different frame depths cannot be compared");
+    }
+
+    @Test
+    void testReasonPrefersLockDetailsOverFrames() {
+        ThreadDumpAggregator.DumpedThread parked = new ThreadDumpAggregator.DumpedThread("1", "", "WAITING", true, List.of(),
+                Map.of("object", "java.util.concurrent.CountDownLatch$Sync@1a2b"), null, null);
+        assertEquals("parked on java.util.concurrent.CountDownLatch$Sync", ThreadDumpAggregator.reason(parked, "java.lang.VirtualThread.park"));
+
+        ThreadDumpAggregator.DumpedThread bare = new ThreadDumpAggregator.DumpedThread("2", "", "WAITING", true, List.of(),
+                null, null, null);
+        assertEquals("java.lang.VirtualThread.park",
+                ThreadDumpAggregator.reason(bare, "java.lang.VirtualThread.park(VirtualThread.java:582)"));
+        assertEquals("java.lang.Thread.run(Thread.java:1583)",
+                ThreadDumpAggregator.withoutModule("java.base/java.lang.Thread.run(Thread.java:1583)"));
+    }
+}
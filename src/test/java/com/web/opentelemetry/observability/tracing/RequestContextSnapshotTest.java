@@ -0,0 +1,51 @@
+package com.web.opentelemetry.observability.tracing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestContextSnapshotTest {
+
+    @AfterEach
+    void clearMdc() {
+        MDC.clear();
+    }
+
+    @Test
+    void testRestoresMdcOnCompletingThread() throws Exception {
+        MDC.put(X_SSTECHMINDS_REQUEST_ID, "req-1");
+        RequestContextSnapshot context = RequestContextSnapshot.capture();
+        MDC.clear();
+
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            CompletableFuture<String> seen = CompletableFuture.supplyAsync(() -> {
+                MDC.put("worker", "true");
+                try (RequestContextSnapshot.Scope scope = context.restore()) {
+                    assertNull(MDC.get("worker"), "The worker's own MDC is replaced while the scope is open");
+                    return MDC.get(X_SSTECHMINDS_REQUEST_ID);
+                } finally {
+                    assertEquals("true", MDC.get("worker"), "Closing the scope puts the worker's MDC back");
+                    assertNull(MDC.get(X_SSTECHMINDS_REQUEST_ID));
+                }
+            }, executor);
+            assertEquals("req-1", seen.get());
+        }
+    }
+
+    @Test
+    void testEmptyCaptureClearsMdcInScope() {
+        RequestContextSnapshot context = RequestContextSnapshot.capture();
+        MDC.put(X_SSTECHMINDS_REQUEST_ID, "other");
+        try (RequestContextSnapshot.Scope scope = context.restore()) {
+            assertNull(MDC.get(X_SSTECHMINDS_REQUEST_ID));
+        }
+        assertEquals("other", MDC.get(X_SSTECHMINDS_REQUEST_ID));
+    }
+}
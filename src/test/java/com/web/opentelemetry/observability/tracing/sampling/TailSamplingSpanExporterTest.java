@@ -0,0 +1,228 @@
+package com.web.opentelemetry.observability.tracing.sampling;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.TraceFlags;
+import io.opentelemetry.api.trace.TraceState;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TailSamplingSpanExporterTest {
+
+    private final List<SpanData> exported = new CopyOnWriteArrayList<>();
+    private final SpanExporter capturing = new SpanExporter() {
+        @Override
+        public CompletableResultCode export(Collection<SpanData> spans) {
+            exported.addAll(spans);
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode flush() {
+            return CompletableResultCode.ofSuccess();
+        }
+
+        @Override
+        public CompletableResultCode shutdown() {
+            return CompletableResultCode.ofSuccess();
+        }
+    };
+
+    private final AtomicLong nanoClock = new AtomicLong();
+    private SdkTracerProvider tracerProvider;
+    private TailSamplingSpanExporter exporter;
+
+    private Tracer tracer(TailSamplingSpanBuffer buffer) {
+        exporter = new TailSamplingSpanExporter(capturing, buffer);
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(exporter))
+                .build();
+        return tracerProvider.get("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tracerProvider.shutdown().join(5, TimeUnit.SECONDS);
+    }
+
+    private TailSamplingSpanBuffer buffer(int maxBufferedSpans) {
+        return new TailSamplingSpanBuffer(4, maxBufferedSpans, Duration.ofMinutes(1).toNanos(), 1024,
+                new TailSamplingPolicy(Duration.ofMillis(500), 0.0, 0), nanoClock::get);
+    }
+
+    /**
+     * A trace whose root is still open, with one ended child marked as an error.
+     */
+    private static Span openTraceWithErrorChild(Tracer tracer) {
+        Span root = tracer.spanBuilder("open-root").startSpan();
+        Span child = tracer.spanBuilder("child").setParent(Context.current().with(root)).startSpan();
+        child.setStatus(StatusCode.ERROR);
+        child.end();
+        return root;
+    }
+
+    private static void trace(Tracer tracer, Duration rootDuration, boolean childError) {
+        Instant start = Instant.now();
+        Span root = tracer.spanBuilder("root").setStartTimestamp(start).startSpan();
+        Span child = tracer.spanBuilder("child").setParent(Context.current().with(root)).startSpan();
+        if (childError) {
+            child.setStatus(StatusCode.ERROR);
+        }
+        child.end();
+        root.end(start.plus(rootDuration));
+    }
+
+    @Test
+    void testKeepsErrorAndSlowTracesAndDropsTheRest() {
+        TailSamplingSpanBuffer buffer = buffer(1000);
+        Tracer tracer = tracer(buffer);
+
+        trace(tracer, Duration.ofMillis(5), false);
+        assertTrue(exported.isEmpty(), "A fast trace without errors should be dropped");
+
+        trace(tracer, Duration.ofMillis(5), true);
+        assertEquals(2, exported.size(), "A trace with an error span should be exported in full");
+
+        trace(tracer, Duration.ofSeconds(1), false);
+        assertEquals(4, exported.size(), "A slow trace should be exported in full");
+
+        assertEquals(1, buffer.decisions(TailSamplingPolicy.Decision.DROP));
+        assertEquals(1, buffer.decisions(TailSamplingPolicy.Decision.KEEP_ERROR));
+        assertEquals(1, buffer.decisions(TailSamplingPolicy.Decision.KEEP_SLOW));
+        assertEquals(0, buffer.bufferedSpans(), "Decided traces should leave the buffer");
+    }
+
+    @Test
+    void testLateSpanFollowsTraceDecision() {
+        TailSamplingSpanBuffer buffer = buffer(1000);
+        Tracer tracer = tracer(buffer);
+
+        Instant start = Instant.now();
+        Span root = tracer.spanBuilder("root").setStartTimestamp(start).startSpan();
+        Span child = tracer.spanBuilder("child").setParent(Context.current().with(root)).startSpan();
+        root.end(start.plus(Duration.ofSeconds(1)));
+        child.end();
+
+        assertEquals(2, exported.size(), "A span ending after its kept root should still be exported");
+        assertEquals(1, buffer.lateSpans());
+    }
+
+    @Test
+    void testEvictsOldestTracesWhenBufferIsFull() {
+        TailSamplingSpanBuffer buffer = buffer(10);
+        Tracer tracer = tracer(buffer);
+
+        Span root = tracer.spanBuilder("root").startSpan();
+        for (int i = 0; i < 50; i++) {
+            Span open = tracer.spanBuilder("orphan-root").startSpan();
+            tracer.spanBuilder("child").setParent(Context.current().with(open)).startSpan().end();
+        }
+        root.end();
+
+        assertTrue(buffer.bufferedSpans() <= 10, "Buffer should stay within max-buffered-spans");
+        assertTrue(buffer.evictedSpans() > 0, "Oldest traces should have been evicted");
+    }
+
+    @Test
+    void testExpiresOldTracesOnAnyExport() {
+        TailSamplingSpanBuffer buffer = buffer(1000);
+        Tracer tracer = tracer(buffer);
+
+        openTraceWithErrorChild(tracer);
+        assertTrue(exported.isEmpty(), "The trace is undecided while its root is open");
+
+        nanoClock.addAndGet(Duration.ofMinutes(2).toNanos());
+        trace(tracer, Duration.ofMillis(5), false);
+        assertEquals(1, exported.size(), "An unrelated export should decide the expired trace, whatever its stripe");
+        assertEquals(1, buffer.decisions(TailSamplingPolicy.Decision.KEEP_ERROR));
+        assertEquals(0, buffer.bufferedSpans());
+    }
+
+    @Test
+    void testFlushAndShutdownExportBufferedTraces() {
+        TailSamplingSpanBuffer buffer = buffer(1000);
+        Tracer tracer = tracer(buffer);
+
+        openTraceWithErrorChild(tracer);
+        assertTrue(exporter.flush().join(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals(1, exported.size(), "Flush should decide and export what is still buffered");
+
+        openTraceWithErrorChild(tracer);
+        assertTrue(exporter.shutdown().join(5, TimeUnit.SECONDS).isSuccess());
+        assertEquals(2, exported.size(), "Shutdown should not lose buffered traces");
+        assertEquals(0, buffer.bufferedSpans());
+    }
+
+    @Test
+    void testNestedCallDoesNotDecideForOuterRequest() {
+        TailSamplingSpanBuffer buffer = buffer(1000);
+        Tracer tracer = tracer(buffer);
+
+        Instant start = Instant.now();
+        Span outer = tracer.spanBuilder("GET /api/info").setStartTimestamp(start).startSpan();
+        Span client = tracer.spanBuilder("GET /api/internal client").setParent(Context.current().with(outer)).startSpan();
+        // The nested server span only sees the client span through the traceparent header
+        SpanContext remote = SpanContext.createFromRemoteParent(client.getSpanContext().getTraceId(),
+                client.getSpanContext().getSpanId(), TraceFlags.getSampled(), TraceState.getDefault());
+        tracer.spanBuilder("GET /api/internal").setParent(Context.root().with(Span.wrap(remote))).startSpan().end();
+        client.end();
+        assertTrue(exported.isEmpty(), "A span with a remote parent should not decide the trace");
+
+        outer.end(start.plus(Duration.ofSeconds(1)));
+        assertEquals(3, exported.size(), "The slow outer request should keep the whole trace");
+        assertEquals(1, buffer.decisions(TailSamplingPolicy.Decision.KEEP_SLOW));
+        assertEquals(0, buffer.lateSpans());
+    }
+
+    @Test
+    void testEachExporterGetsEveryKeptSpanOnce() {
+        TailSamplingSpanBuffers buffers = new TailSamplingSpanBuffers(() -> buffer(1000));
+        List<SpanData> logged = new CopyOnWriteArrayList<>();
+        SpanExporter logging = new SpanExporter() {
+            @Override
+            public CompletableResultCode export(Collection<SpanData> spans) {
+                logged.addAll(spans);
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode flush() {
+                return CompletableResultCode.ofSuccess();
+            }
+
+            @Override
+            public CompletableResultCode shutdown() {
+                return CompletableResultCode.ofSuccess();
+            }
+        };
+        tracerProvider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(new TailSamplingSpanExporter(capturing, buffers.forExporter("otlp"))))
+                .addSpanProcessor(SimpleSpanProcessor.create(new TailSamplingSpanExporter(logging, buffers.forExporter("logging"))))
+                .build();
+
+        trace(tracerProvider.get("test"), Duration.ofMillis(5), true);
+
+        assertEquals(2, exported.size(), "The first exporter should get the kept trace once, not once per exporter");
+        assertEquals(2, logged.size(), "The second exporter should get the whole trace too");
+        assertEquals(2, buffers.decisions(TailSamplingPolicy.Decision.KEEP_ERROR));
+        assertEquals(0, buffers.bufferedSpans());
+    }
+}
@@ -0,0 +1,136 @@
+package com.web.opentelemetry.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares an AOT cache recorded with {@code -Dspring.context.exit=onRefresh} against one recorded
+ * with the {@code app.aot.training.enabled} workload: time until the first successful /api/info and the
+ * latency of the first N requests served from a cold JVM.
+ * <p>
+ * Needs a JDK 25 and the extracted jar ({@code java -Djarmode=tools -jar app.jar extract}):
+ * <pre>
+ * mvn -Pperf test -Dtest=AotCacheStartupBenchmark -Dperf.aot.dir=target/application
+ * </pre>
+ */
+@Slf4j
+@Tag("perf")
+@EnabledIfSystemProperty(named = "perf.aot.dir", matches = ".+")
+class AotCacheStartupBenchmark {
+    private static final int PORT = 8080;
+
+    private final Path appDir = Path.of(System.getProperty("perf.aot.dir"));
+    private final String java = ProcessHandle.current().info().command().orElse("java");
+    private final int firstRequests = Integer.getInteger("perf.aot.first-requests", 100);
+    private final int rounds = Integer.getInteger("perf.aot.rounds", 3);
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void trainedCacheVersusRefreshOnlyCache() throws Exception {
+        Path refreshOnly = record("app-onrefresh.aot", "-Dspring.context.exit=onRefresh");
+        Path trained = record("app-trained.aot", "-Dapp.aot.training.enabled=true");
+
+        Map<String, StartupSample> report = new LinkedHashMap<>();
+        report.put("no-cache", measure(null));
+        report.put("onRefresh", measure(refreshOnly));
+        report.put("trained", measure(trained));
+
+        Path out = Path.of(System.getProperty("perf.reports.dir", "target/perf-reports"));
+        Files.createDirectories(out);
+        LoadReportWriter.JSON.writeValue(out.resolve("aot-startup.json").toFile(), report);
+        log.info("AOT startup comparison: {}", report);
+        report.values().forEach(sample -> assertTrue(sample.firstRequestMillis() > 0));
+    }
+
+    private Path record(String cacheName, String trainingFlag) throws IOException, InterruptedException {
+        Path cache = appDir.resolve(cacheName);
+        Files.deleteIfExists(cache);
+        Process process = new ProcessBuilder(java, "-XX:+UseCompactObjectHeaders", "-XX:AOTCacheOutput=" + cacheName,
+                trainingFlag, "-jar", "app.jar")
+                .directory(appDir.toFile())
+                .inheritIO()
+                .start();
+        assertTrue(process.waitFor(10, TimeUnit.MINUTES), "Training run did not finish for " + cacheName);
+        assertTrue(Files.exists(cache), "AOT cache was not written: " + cache);
+        return cache;
+    }
+
+    /**
+     * Median over {@code rounds} cold starts of time-to-first-request and first-N request percentiles.
+     */
+    private StartupSample measure(Path cache) throws IOException, InterruptedException {
+        List<StartupSample> samples = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            List<String> command = new ArrayList<>(List.of(java, "-XX:+UseCompactObjectHeaders"));
+            if (cache != null) {
+                command.add("-XX:AOTCache=" + cache.getFileName());
+            }
+            command.addAll(List.of("-jar", "app.jar"));
+
+            long launched = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .directory(appDir.toFile())
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .redirectErrorStream(true)
+                    .start();
+            try {
+                URI info = URI.create("http://localhost:" + PORT + "/api/info");
+                while (!succeeds(info)) {
+                    assertTrue(process.isAlive(), "Application exited during startup");
+                    Thread.sleep(5);
+                }
+                long firstRequestMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched);
+
+                Histogram latencies = new Histogram(TimeUnit.SECONDS.toMicros(60), 3);
+                for (int i = 0; i < firstRequests; i++) {
+                    long start = System.nanoTime();
+                    succeeds(info);
+                    latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start)));
+                }
+                samples.add(new StartupSample(firstRequestMillis,
+                        latencies.getValueAtPercentile(50) / 1000.0,
+                        latencies.getValueAtPercentile(99) / 1000.0,
+                        latencies.getMaxValue() / 1000.0));
+            } finally {
+                process.destroy();
+                process.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+        samples.sort((a, b) -> Long.compare(a.firstRequestMillis(), b.firstRequestMillis()));
+        return samples.get(samples.size() / 2);
+    }
+
+    private boolean succeeds(URI uri) {
+        try {
+            return client.send(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    record StartupSample(long firstRequestMillis, double firstNp50Millis, double firstNp99Millis, double firstNMaxMillis) {
+    }
+}
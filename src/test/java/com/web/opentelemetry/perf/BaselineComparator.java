@@ -0,0 +1,74 @@
+package com.web.opentelemetry.perf;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compares a run against a stored baseline summary and lists every metric that regressed.
+ * <p>
+ * A latency percentile regresses when it exceeds the baseline by more than {@code latencyTolerance}
+ * (relative) and by more than {@code latencySlackMillis} (absolute, so sub-millisecond noise on a fast
+ * endpoint does not fail the build). The error rate may grow by at most {@code errorRateSlack}.
+ */
+@Slf4j
+public class BaselineComparator {
+    private static final List<String> COMPARED_PERCENTILES = List.of("p50", "p95", "p99");
+
+    private final Path baselineDir;
+    private final double latencyTolerance;
+    private final double latencySlackMillis;
+    private final double errorRateSlack;
+
+    public BaselineComparator(Path baselineDir, double latencyTolerance, double latencySlackMillis, double errorRateSlack) {
+        this.baselineDir = baselineDir;
+        this.latencyTolerance = latencyTolerance;
+        this.latencySlackMillis = latencySlackMillis;
+        this.errorRateSlack = errorRateSlack;
+    }
+
+    public Optional<LoadResult.Summary> load(String name) {
+        Path file = baselineDir.resolve(name + ".json");
+        if (!Files.exists(file)) {
+            log.warn("No baseline found at {}; run with -Dperf.baseline.update=true to record one", file);
+            return Optional.empty();
+        }
+        return Optional.of(LoadReportWriter.JSON.readValue(file.toFile(), LoadResult.Summary.class));
+    }
+
+    public void store(LoadResult.Summary summary) {
+        try {
+            Files.createDirectories(baselineDir);
+            LoadReportWriter.JSON.writeValue(baselineDir.resolve(summary.name() + ".json").toFile(), summary);
+            log.info("Baseline for '{}' updated in {}", summary.name(), baselineDir.toAbsolutePath());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store baseline for " + summary.name(), e);
+        }
+    }
+
+    public List<String> compare(LoadResult.Summary current, LoadResult.Summary baseline) {
+        List<String> regressions = new ArrayList<>();
+        for (String percentile : COMPARED_PERCENTILES) {
+            Double before = baseline.correctedLatencyMillis().get(percentile);
+            Double after = current.correctedLatencyMillis().get(percentile);
+            if (before == null || after == null) {
+                continue;
+            }
+            if (after > before * (1 + latencyTolerance) && after - before > latencySlackMillis) {
+                regressions.add(String.format("%s latency regressed: %.2fms -> %.2fms (tolerance %.0f%%)",
+                        percentile, before, after, latencyTolerance * 100));
+            }
+        }
+        if (current.errorRate() > baseline.errorRate() + errorRateSlack) {
+            regressions.add(String.format("error rate regressed: %.2f%% -> %.2f%%",
+                    baseline.errorRate() * 100, current.errorRate() * 100));
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,46 @@
+package com.web.opentelemetry.perf;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BaselineComparatorTest {
+
+    private final BaselineComparator comparator = new BaselineComparator(Path.of("unused"), 0.25, 5.0, 0.01);
+
+    @Test
+    void testNoRegressionWithinTolerance() {
+        List<String> regressions = comparator.compare(summary(10, 50, 100, 0.0), summary(10, 45, 90, 0.0));
+        assertTrue(regressions.isEmpty(), "Latency within tolerance should not be reported");
+    }
+
+    @Test
+    void testLatencyRegressionDetected() {
+        List<String> regressions = comparator.compare(summary(10, 50, 300, 0.0), summary(10, 50, 100, 0.0));
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.getFirst().startsWith("p99"));
+    }
+
+    @Test
+    void testSmallAbsoluteDifferenceIgnored() {
+        List<String> regressions = comparator.compare(summary(2, 3, 4, 0.0), summary(1, 1, 1, 0.0));
+        assertTrue(regressions.isEmpty(), "Sub-slack differences on fast endpoints should be ignored");
+    }
+
+    @Test
+    void testErrorRateRegressionDetected() {
+        List<String> regressions = comparator.compare(summary(10, 50, 100, 0.05), summary(10, 50, 100, 0.0));
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.getFirst().startsWith("error rate"));
+    }
+
+    private static LoadResult.Summary summary(double p50, double p95, double p99, double errorRate) {
+        Map<String, Double> latency = Map.of("p50", p50, "p95", p95, "p99", p99);
+        return new LoadResult.Summary("test", "http://localhost", 1000, 100, 0, 0, errorRate, 100,
+                Map.of(200, 100L), latency, latency);
+    }
+}
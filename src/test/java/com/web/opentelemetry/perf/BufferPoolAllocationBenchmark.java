@@ -0,0 +1,214 @@
+package com.web.opentelemetry.perf;
+
+import com.sun.management.ThreadMXBean;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.web.opentelemetry.component.buffer.BufferPool;
+import com.web.opentelemetry.component.buffer.PooledJacksonJsonHttpMessageConverter;
+import com.web.opentelemetry.component.buffer.PooledJdkClientHttpRequestFactory;
+import com.web.opentelemetry.component.buffer.PooledStringHttpMessageConverter;
+import com.web.opentelemetry.model.InfoBatchItem;
+import com.web.opentelemetry.model.InfoBatchResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.web.client.RestClient;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Allocation rate of the RestClient body path, Spring's JdkClientHttpRequestFactory and Jackson/String
+ * converters versus the pooled request factory and converters, against an in-process stub.
+ * <p>
+ * Three calls per iteration: a JSON POST of a batch (about 4 KB out), a JSON GET decoded into records
+ * (about 30 KB in) and a GET read as a String. Two measurements per variant:
+ * <ul>
+ *     <li>bytes allocated by the calling (platform) thread per iteration, which is where the body copies
+ *     and the decoding happen;</li>
+ *     <li>bytes allocated by the whole process per iteration, young collections and MB/s while
+ *     {@code perf.buffers.concurrency} virtual threads run the same iteration. This includes the stub
+ *     and the HttpClient's own threads, so compare the two variants rather than reading absolute numbers.</li>
+ * </ul>
+ * <pre>
+ * mvn -Pperf test -Dtest=BufferPoolAllocationBenchmark
+ * </pre>
+ */
+@Slf4j
+@Tag("perf")
+class BufferPoolAllocationBenchmark {
+
+    private final int iterations = Integer.getInteger("perf.buffers.iterations", 20_000);
+    private final int concurrency = Integer.getInteger("perf.buffers.concurrency", 64);
+    private final Path reportsDir = Path.of(System.getProperty("perf.reports.dir", "target/perf-reports"));
+    private final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    record AllocationResult(String variant, double callerBytesPerIteration, double processBytesPerIteration,
+                            double allocationRateMbPerSecond, double iterationsPerSecond,
+                            double youngCollectionsPer10kIterations, long poolHits, long poolMisses) {
+    }
+
+    @Test
+    void allocationRate() throws Exception {
+        HttpServer stub = startStub();
+        String baseUrl = "http://localhost:" + stub.getAddress().getPort();
+        List<AllocationResult> results = new ArrayList<>();
+        try (HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            RestClient baseline = RestClient.builder()
+                    .baseUrl(baseUrl)
+                    .requestFactory(new JdkClientHttpRequestFactory(httpClient))
+                    .configureMessageConverters(converters ->
+                            converters.withJsonConverter(new JacksonJsonHttpMessageConverter(jsonMapper)))
+                    .build();
+            results.add(measure("JdkClientHttpRequestFactory", baseline, null));
+
+            SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+            BufferPool pool = new BufferPool("perf", 1024, 64 * 1024,
+                    Runtime.getRuntime().availableProcessors() * 2, 8, false, meterRegistry);
+            RestClient pooled = RestClient.builder()
+                    .baseUrl(baseUrl)
+                    .requestFactory(new PooledJdkClientHttpRequestFactory(httpClient, pool))
+                    .configureMessageConverters(converters -> converters
+                            .withStringConverter(new PooledStringHttpMessageConverter(pool))
+                            .withJsonConverter(new PooledJacksonJsonHttpMessageConverter(jsonMapper, pool)))
+                    .build();
+            AllocationResult pooledResult = measure("PooledJdkClientHttpRequestFactory", pooled, meterRegistry);
+            results.add(pooledResult);
+            assertEquals(0, pool.outstanding(), "The benchmark leaked pooled buffers");
+        } finally {
+            stub.stop(0);
+        }
+
+        results.forEach(result -> log.info("{}: {} B/iteration on the caller, {} B/iteration process-wide, {} MB/s, {} young GCs per 10k",
+                result.variant(), Math.round(result.callerBytesPerIteration()), Math.round(result.processBytesPerIteration()),
+                Math.round(result.allocationRateMbPerSecond()), result.youngCollectionsPer10kIterations()));
+        Files.createDirectories(reportsDir);
+        LoadReportWriter.JSON.writeValue(reportsDir.resolve("buffer-pool-allocation.json").toFile(), results);
+        results.forEach(result -> assertTrue(result.callerBytesPerIteration() > 0, "No allocation measured for " + result.variant()));
+    }
+
+    private AllocationResult measure(String variant, RestClient client, SimpleMeterRegistry meterRegistry) throws Exception {
+        List<InfoBatchItem> batch = IntStream.range(0, 100)
+                .mapToObj(i -> new InfoBatchItem("item-" + i, "perf-request-" + i))
+                .toList();
+
+        // Caller thread, sequential
+        long[] caller = new long[1];
+        Thread thread = Thread.ofPlatform().start(() -> {
+            for (int i = 0; i < iterations / 4; i++) {
+                iteration(client, batch);
+            }
+            long start = threadBean.getCurrentThreadAllocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                iteration(client, batch);
+            }
+            caller[0] = threadBean.getCurrentThreadAllocatedBytes() - start;
+        });
+        thread.join();
+
+        // Whole process, concurrent virtual threads
+        long gcBefore = youngCollections();
+        long allocatedBefore = threadBean.getTotalThreadAllocatedBytes();
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < concurrency; w++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations / concurrency; i++) {
+                        iteration(client, batch);
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long processAllocated = threadBean.getTotalThreadAllocatedBytes() - allocatedBefore;
+        int completed = iterations / concurrency * concurrency;
+
+        long hits = meterRegistry == null ? 0 : (long) meterRegistry.get("buffer.pool.acquires").tag("result", "hit").counter().count();
+        long misses = meterRegistry == null ? 0 : (long) meterRegistry.get("buffer.pool.acquires").tag("result", "miss").counter().count();
+        return new AllocationResult(variant, caller[0] / (double) iterations, processAllocated / (double) completed,
+                processAllocated / seconds / (1024 * 1024), completed / seconds,
+                (youngCollections() - gcBefore) * 10_000.0 / completed, hits, misses);
+    }
+
+    private static void iteration(RestClient client, List<InfoBatchItem> batch) {
+        client.post().uri("/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(batch)
+                .retrieve()
+                .toBodilessEntity();
+        List<InfoBatchResult> results = client.get().uri("/results")
+                .retrieve()
+                .body(new ParameterizedTypeReference<List<InfoBatchResult>>() {});
+        String text = client.get().uri("/results")
+                .retrieve()
+                .body(String.class);
+        if (results == null || results.isEmpty() || text == null) {
+            throw new IllegalStateException("Empty response from the stub");
+        }
+    }
+
+    private static long youngCollections() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            String name = gc.getName();
+            if (name.contains("Young") || name.contains("Scavenge") || name.contains("Minor") || name.equals("ZGC Minor Cycles")) {
+                count += Math.max(0, gc.getCollectionCount());
+            }
+        }
+        return count;
+    }
+
+    private HttpServer startStub() throws IOException {
+        List<InfoBatchResult> results = IntStream.range(0, 200)
+                .mapToObj(i -> InfoBatchResult.success("item-" + i,
+                        "{\"message\":\"https://images.dog.ceo/breeds/hound-" + i + "/n02088094_1003.jpg\",\"status\":\"success\"}"))
+                .toList();
+        byte[] resultsJson = jsonMapper.writeValueAsBytes(results);
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/batch", exchange -> {
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            respond(exchange, new byte[0]);
+        });
+        server.createContext("/results", exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            respond(exchange, resultsJson);
+        });
+        server.start();
+        log.info("Buffer pool benchmark stub on port {}, {} bytes per JSON response", server.getAddress().getPort(), resultsJson.length);
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(200, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
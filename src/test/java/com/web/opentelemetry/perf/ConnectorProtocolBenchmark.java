@@ -0,0 +1,49 @@
+package com.web.opentelemetry.perf;
+
+import com.web.opentelemetry.observability.metrics.KeepAliveTracker;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HTTP/1.1 keep-alive versus h2c for the self-call fan-out (/api/info/async calls /api/info twice,
+ * which calls /api/internal). The load generator itself stays on HTTP/1.1; the toggle only changes
+ * whether the JDK HttpClient behind RestClient upgrades its localhost connections to HTTP/2.
+ */
+@Slf4j
+@Tag("perf")
+class ConnectorProtocolBenchmark {
+
+    @Test
+    void http11KeepAliveVersusH2c() throws InterruptedException {
+        double rate = Double.parseDouble(System.getProperty("perf.connector.rate", "500"));
+        Duration duration = Duration.ofSeconds(Long.getLong("perf.connector.seconds", 30));
+        Map<String, LoadResult.Summary> results = new LinkedHashMap<>();
+
+        for (boolean h2c : new boolean[]{false, true}) {
+            String name = h2c ? "fanout-h2c" : "fanout-http11-keepalive";
+            try (ConfigurableApplicationContext context = PerfApplication.start(Map.of("server.http2.enabled", h2c))) {
+                LoadHarness harness = LoadHarness.forBaseUri(URI.create("http://localhost:8080"));
+                // Warm up connections and JIT before measuring
+                harness.run(LoadProfile.constantRate(name + "-warmup", "/api/info/async", rate, Duration.ofSeconds(5)));
+                LoadHarness.Verdict verdict = harness.run(LoadProfile.constantRate(name, "/api/info/async", rate, duration));
+                KeepAliveTracker tracker = context.getBean(KeepAliveTracker.class);
+                log.info("{}: {} (server keep-alive reuse {}%)", name, verdict.result().summary(),
+                        Math.round(tracker.reuseRatio() * 100));
+                results.put(name, verdict.result().toSummary());
+                assertTrue(verdict.passed(), () -> String.join("\n", verdict.failures()));
+            }
+        }
+        results.forEach((name, summary) -> log.info("{} p50={}ms p99={}ms rps={}", name,
+                summary.correctedLatencyMillis().get("p50"), summary.correctedLatencyMillis().get("p99"),
+                Math.round(summary.throughput())));
+    }
+}
@@ -0,0 +1,138 @@
+package com.web.opentelemetry.perf;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Child-process side of {@link RequestFootprintBenchmark}, so that neither the slow stub nor the client
+ * connections show up in the application's heap:
+ * <ul>
+ *     <li>a stub HTTP server that holds every request until told to release them</li>
+ *     <li>N raw client connections, each sending one request to the application and never reading</li>
+ * </ul>
+ * Driven over stdin/stdout: prints {@code READY}; on {@code GO} sends the warm-up requests one at a time
+ * (answered by the stub without holding) and prints {@code WARM}; on {@code HOLD} opens the N connections
+ * and prints {@code HELD <n>} every 250ms until {@code RELEASE}.
+ * <pre>
+ * FootprintDriver &lt;appPort&gt; &lt;stubPort&gt; &lt;requests&gt; &lt;warmupRequests&gt; &lt;path&gt;
+ * </pre>
+ */
+public final class FootprintDriver {
+
+    private FootprintDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int appPort = Integer.parseInt(args[0]);
+        int stubPort = Integer.parseInt(args[1]);
+        int requests = Integer.parseInt(args[2]);
+        int warmupRequests = Integer.parseInt(args[3]);
+        String path = args[4];
+
+        AtomicInteger held = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer stub = HttpServer.create(new InetSocketAddress("localhost", stubPort), 4096);
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.createContext("/echo", exchange -> {
+            byte[] body = "\"echo\"".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.createContext("/hold", exchange -> {
+            held.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "\"held\"".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        stub.start();
+
+        BufferedReader commands = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        System.out.println("READY");
+        System.out.flush();
+        expect(commands, "GO");
+        byte[] warmup = ("GET " + path + "?warmup=true HTTP/1.1\r\nHost: localhost:" + appPort
+                + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer sink = ByteBuffer.allocate(8192);
+        for (int i = 0; i < warmupRequests; i++) {
+            try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", appPort))) {
+                channel.write(ByteBuffer.wrap(warmup));
+                while (channel.read(sink.clear()) >= 0) {
+                    // drain until the server closes the connection
+                }
+            }
+        }
+        System.out.println("WARM");
+        System.out.flush();
+        expect(commands, "HOLD");
+
+        Thread reporter = Thread.ofPlatform().daemon().start(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                System.out.println("HELD " + held.get());
+                System.out.flush();
+                try {
+                    TimeUnit.MILLISECONDS.sleep(250);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+
+        byte[] request = ("GET " + path + " HTTP/1.1\r\nHost: localhost:" + appPort + "\r\nAccept: */*\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        List<SocketChannel> connections = new ArrayList<>(requests);
+        try {
+            for (int i = 0; i < requests; i++) {
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", appPort));
+                channel.write(ByteBuffer.wrap(request));
+                connections.add(channel);
+            }
+        } catch (IOException e) {
+            System.out.println("ERROR opened " + connections.size() + " connections: " + e);
+            System.out.flush();
+        }
+
+        expect(commands, "RELEASE");
+        release.countDown();
+        reporter.interrupt();
+        // Give the application time to write its responses before the connections are reset
+        TimeUnit.SECONDS.sleep(Math.max(2, requests / 20_000));
+        for (SocketChannel channel : connections) {
+            channel.close();
+        }
+        stub.stop(0);
+        System.exit(0);
+    }
+
+    private static void expect(BufferedReader commands, String command) throws IOException {
+        String line;
+        while ((line = commands.readLine()) != null) {
+            if (line.trim().equals(command)) {
+                return;
+            }
+        }
+        System.exit(1);
+    }
+}
@@ -0,0 +1,102 @@
+package com.web.opentelemetry.perf;
+
+import org.slf4j.MDC;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.servlet.function.RouterFunction;
+import org.springframework.web.servlet.function.RouterFunctions;
+import org.springframework.web.servlet.function.ServerResponse;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark-only route {@code GET /perf/footprint}: goes through the application's full filter chain,
+ * then calls the {@link FootprintDriver} stub with the application's RestClient, so the request stays in flight with the
+ * same per-request state a real fan-out call has. Registered as a functional route through an initializer
+ * (see {@link PerfApplication}) because an annotated controller in this package would be picked up by the
+ * component scan of every other test.
+ * <p>
+ * It also samples the MDC of each request on entry, as MDC maps are plain HashMaps and cannot be told apart
+ * from other maps in a class histogram.
+ */
+final class FootprintProbe implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+    static final String PATH = "/perf/footprint";
+
+    private final String stubBaseUrl;
+    private final AtomicInteger entered = new AtomicInteger();
+    private final LongAdder mdcEntries = new LongAdder();
+    private final LongAdder mdcBytes = new LongAdder();
+
+    FootprintProbe(String stubBaseUrl) {
+        this.stubBaseUrl = stubBaseUrl;
+    }
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        ((GenericApplicationContext) context).registerBean("footprintProbeRoute", RouterFunction.class, () -> {
+            RestClient restClient = context.getBean(RestClient.class);
+            return RouterFunctions.route().GET(PATH, request -> {
+                boolean warmup = request.param("warmup").isPresent();
+                if (!warmup) {
+                    sampleMdc();
+                }
+                String body = restClient.get().uri(stubBaseUrl + (warmup ? "/echo" : "/hold")).retrieve().body(String.class);
+                return ServerResponse.ok().body(body);
+            }).build();
+        });
+    }
+
+    private void sampleMdc() {
+        entered.incrementAndGet();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        if (mdc != null) {
+            mdcEntries.add(mdc.size());
+            mdcBytes.add(estimateMapBytes(mdc));
+        }
+    }
+
+    /**
+     * Shallow HashMap estimate with compressed oops: map header, table, one node per entry and the
+     * key/value strings (Latin-1). Keys are usually shared constants, so this is an upper bound.
+     */
+    static long estimateMapBytes(Map<String, String> map) {
+        int tableSize = Integer.highestOneBit(Math.max(1, (int) (map.size() / 0.75f) + 1) << 1);
+        long bytes = 48 + align(16 + 4L * tableSize) + 32L * map.size();
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            bytes += stringBytes(entry.getKey()) + stringBytes(entry.getValue());
+        }
+        return bytes;
+    }
+
+    private static long stringBytes(String value) {
+        return value == null ? 0 : 24 + align(16 + value.length());
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    void reset() {
+        entered.set(0);
+        mdcEntries.reset();
+        mdcBytes.reset();
+    }
+
+    int entered() {
+        return entered.get();
+    }
+
+    double meanMdcEntries() {
+        int n = entered.get();
+        return n == 0 ? 0 : (double) mdcEntries.sum() / n;
+    }
+
+    double meanMdcBytes() {
+        int n = entered.get();
+        return n == 0 ? 0 : (double) mdcBytes.sum() / n;
+    }
+}
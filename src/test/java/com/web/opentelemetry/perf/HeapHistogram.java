@@ -0,0 +1,71 @@
+package com.web.opentelemetry.perf;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Live-object class histogram of this JVM, taken in-process through the DiagnosticCommand MBean
+ * ({@code GC.class_histogram}, which runs a full GC first so only retained objects are counted).
+ */
+record HeapHistogram(Map<String, ClassUsage> classes, long totalBytes) {
+    private static final Pattern LINE = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+)");
+    private static final Pattern NMT_THREAD = Pattern.compile("-\\s+Thread \\(reserved=(\\d+)KB, committed=(\\d+)KB\\)");
+
+    record ClassUsage(long instances, long bytes) {
+    }
+
+    static HeapHistogram take() {
+        String output = diagnosticCommand("gcClassHistogram", new String[0]);
+        Map<String, ClassUsage> classes = new HashMap<>();
+        long total = 0;
+        for (String line : output.split("\n")) {
+            Matcher matcher = LINE.matcher(line);
+            if (matcher.find()) {
+                ClassUsage usage = new ClassUsage(Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)));
+                classes.merge(matcher.group(3), usage, (a, b) -> new ClassUsage(a.instances() + b.instances(), a.bytes() + b.bytes()));
+                total += usage.bytes();
+            }
+        }
+        return new HeapHistogram(classes, total);
+    }
+
+    /**
+     * Per-class growth from {@code before} to this histogram (classes that shrank are left out).
+     */
+    Map<String, ClassUsage> growthSince(HeapHistogram before) {
+        Map<String, ClassUsage> growth = new HashMap<>();
+        classes.forEach((name, usage) -> {
+            ClassUsage previous = before.classes().getOrDefault(name, new ClassUsage(0, 0));
+            long bytes = usage.bytes() - previous.bytes();
+            if (bytes > 0) {
+                growth.put(name, new ClassUsage(usage.instances() - previous.instances(), bytes));
+            }
+        });
+        return growth;
+    }
+
+    /**
+     * Committed native memory for thread stacks in KB, or -1 unless the JVM runs with
+     * {@code -XX:NativeMemoryTracking=summary}.
+     */
+    static long committedThreadStackKb() {
+        String output = diagnosticCommand("vmNativeMemory", new String[]{"summary"});
+        Matcher matcher = NMT_THREAD.matcher(output);
+        return matcher.find() ? Long.parseLong(matcher.group(2)) : -1;
+    }
+
+    private static String diagnosticCommand(String operation, String[] arguments) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            return (String) server.invoke(new ObjectName("com.sun.management:type=DiagnosticCommand"), operation,
+                    new Object[]{arguments}, new String[]{String[].class.getName()});
+        } catch (Exception e) {
+            throw new IllegalStateException("Diagnostic command " + operation + " failed", e);
+        }
+    }
+}
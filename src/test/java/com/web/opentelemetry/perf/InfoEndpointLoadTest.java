@@ -0,0 +1,51 @@
+package com.web.opentelemetry.perf;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Offline replacement for the k6 scripts. Excluded from the default build; run with
+ * {@code mvn -Pperf test} (add {@code -Dperf.scale=1.0} for the full k6-equivalent rates).
+ * The app is started on its configured port because /api/info calls back into localhost:8080.
+ */
+@Tag("perf")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+class InfoEndpointLoadTest {
+
+    @Value("${local.server.port}")
+    private int port;
+
+    private LoadHarness harness;
+
+    @BeforeEach
+    void setUp() {
+        harness = LoadHarness.forBaseUri(URI.create("http://localhost:" + port));
+    }
+
+    @Test
+    void infoEndpointLoad() throws InterruptedException {
+        LoadHarness.Verdict verdict = harness.run(LoadProfile.infoEndpoint(LoadHarness.scale()));
+        assertTrue(verdict.passed(), () -> String.join("\n", verdict.failures()));
+    }
+
+    @Test
+    void spike() throws InterruptedException {
+        LoadHarness.Verdict verdict = harness.run(LoadProfile.spike(LoadHarness.scale()));
+        assertTrue(verdict.passed(), () -> String.join("\n", verdict.failures()));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "perf.soak", matches = "true")
+    void soak() throws InterruptedException {
+        LoadHarness.Verdict verdict = harness.run(LoadProfile.soak(LoadHarness.scale()));
+        assertTrue(verdict.passed(), () -> String.join("\n", verdict.failures()));
+    }
+}
@@ -0,0 +1,171 @@
+package com.web.opentelemetry.perf;
+
+import com.web.opentelemetry.component.loadbalancer.LoadBalancedInstance;
+import com.web.opentelemetry.component.loadbalancer.LoadBalancer;
+import com.web.opentelemetry.stub.LatencyDistribution;
+import com.web.opentelemetry.stub.StubServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Client-side load balancing over four local {@link StubServer} instances with different behaviour: two fast,
+ * one slow and one fast but failing a share of its requests. The same closed-loop load (a fixed number of
+ * virtual-thread callers, each sending its next request when the previous one completes) is run through a
+ * plain round-robin request factory and through {@link LoadBalancer}, and the report compares overall
+ * latency, errors and the traffic each instance received.
+ * <pre>
+ * mvn -Pperf test -Dtest=LoadBalancerBenchmark
+ * </pre>
+ * Tunables: {@code perf.lb.requests} (default 20000), {@code perf.lb.concurrency} (default 32),
+ * {@code perf.lb.fast} and {@code perf.lb.slow} (median stub latency in ms, default 5 and 40),
+ * {@code perf.lb.error-rate} (503 share of the flaky instance, default 0.3).
+ */
+@Slf4j
+@Tag("perf")
+class LoadBalancerBenchmark {
+
+    private final int requests = Integer.getInteger("perf.lb.requests", 20_000);
+    private final int concurrency = Integer.getInteger("perf.lb.concurrency", 32);
+    private final Duration fast = Duration.ofMillis(Long.getLong("perf.lb.fast", 5));
+    private final Duration slow = Duration.ofMillis(Long.getLong("perf.lb.slow", 40));
+    private final double errorRate = Double.parseDouble(System.getProperty("perf.lb.error-rate", "0.3"));
+
+    @Test
+    void roundRobinVersusPowerOfTwoChoices() throws Exception {
+        Map<String, StrategyReport> report = new LinkedHashMap<>();
+        report.put("round-robin", measure(false));
+        report.put("p2c-ewma", measure(true));
+
+        Path out = Path.of(System.getProperty("perf.reports.dir", "target/perf-reports"));
+        Files.createDirectories(out);
+        LoadReportWriter.JSON.writeValue(out.resolve("load-balancer.json").toFile(), report);
+        log.info("Load balancing over heterogeneous instances: {}", report);
+
+        StrategyReport roundRobin = report.get("round-robin");
+        StrategyReport balanced = report.get("p2c-ewma");
+        assertTrue(balanced.errorRate() < roundRobin.errorRate(), "Ejection should avoid most failures of the flaky instance");
+        assertTrue(balanced.p99Millis() < roundRobin.p99Millis(), "Latency-aware selection should cut the tail");
+    }
+
+    private StrategyReport measure(boolean loadBalanced) throws Exception {
+        List<StubServer> stubs = List.of(
+                stub(LatencyDistribution.logNormal(fast, 0.3)),
+                stub(LatencyDistribution.logNormal(fast, 0.3)),
+                stub(LatencyDistribution.logNormal(slow, 0.3)),
+                stub(LatencyDistribution.logNormal(fast, 0.3)));
+        stubs.get(3).route("/api/internal").errors(errorRate, 503);
+        String[] names = {"fast-1", "fast-2", "slow", "flaky"};
+        List<URI> uris = stubs.stream().map(s -> URI.create(s.baseUrl())).toList();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoadBalancer loadBalancer = loadBalanced ? new LoadBalancer("downstream",
+                new LoadBalancer.Settings(5, Duration.ofSeconds(2), Duration.ofSeconds(30), 50, Duration.ofSeconds(1)),
+                uris, null, HttpClient::newHttpClient, JdkClientHttpRequestFactory::new, meterRegistry) : null;
+        ClientHttpRequestFactory requestFactory = loadBalanced ? loadBalancer.requestFactory() : roundRobin(uris);
+        RestClient client = RestClient.builder().baseUrl("http://downstream/api").requestFactory(requestFactory).build();
+
+        try {
+            Histogram latencies = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+            AtomicInteger failed = new AtomicInteger();
+            AtomicInteger remaining = new AtomicInteger(requests);
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> callers = new ArrayList<>();
+                for (int i = 0; i < concurrency; i++) {
+                    callers.add(executor.submit(() -> {
+                        while (remaining.getAndDecrement() > 0) {
+                            long sent = System.nanoTime();
+                            try {
+                                client.get().uri("/internal").retrieve().toBodilessEntity();
+                            } catch (RestClientException e) {
+                                failed.incrementAndGet();
+                            }
+                            long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent));
+                            latencies.recordValue(micros);
+                        }
+                    }));
+                }
+                for (Future<?> caller : callers) {
+                    caller.get();
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Map<String, InstanceReport> instances = new LinkedHashMap<>();
+            for (int i = 0; i < stubs.size(); i++) {
+                LoadBalancedInstance instance = loadBalanced ? loadBalancer.instances().get(i) : null;
+                instances.put(names[i], new InstanceReport(stubs.get(i).route("/api/internal").requests(),
+                        instance != null ? instance.latencyNanos() / 1e6 : -1,
+                        instance != null ? instance.ejections() : -1));
+            }
+            return new StrategyReport(requests / seconds, (double) failed.get() / requests,
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getMaxValue() / 1000.0, instances);
+        } finally {
+            if (loadBalancer != null) {
+                loadBalancer.close();
+            }
+            stubs.forEach(StubServer::close);
+        }
+    }
+
+    private static StubServer stub(LatencyDistribution latency) {
+        StubServer stub = StubServer.start(StubServer.downstreamRoutes());
+        stub.route("/api/internal").latency(latency);
+        return stub;
+    }
+
+    /**
+     * Baseline: one HttpClient per instance, instances taken in turn regardless of latency or errors.
+     */
+    private static ClientHttpRequestFactory roundRobin(List<URI> instances) {
+        List<ClientHttpRequestFactory> factories = instances.stream()
+                .map(uri -> (ClientHttpRequestFactory) new JdkClientHttpRequestFactory(HttpClient.newHttpClient()))
+                .toList();
+        AtomicInteger next = new AtomicInteger();
+        return (uri, method) -> {
+            int index = Math.floorMod(next.getAndIncrement(), instances.size());
+            URI instance = instances.get(index);
+            URI target = URI.create(instance.getScheme() + "://" + instance.getRawAuthority() + uri.getRawPath()
+                    + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : ""));
+            return factories.get(index).createRequest(target, method);
+        };
+    }
+
+    /**
+     * @param ewmaMillis latency average at the end of the run, -1 for round robin
+     * @param ejections  times the instance was ejected, -1 for round robin
+     */
+    record InstanceReport(long requests, double ewmaMillis, long ejections) {
+    }
+
+    record StrategyReport(double throughput, double errorRate, double p50Millis, double p99Millis, double maxMillis,
+                          Map<String, InstanceReport> instances) {
+    }
+}
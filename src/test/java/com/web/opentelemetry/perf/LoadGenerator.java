@@ -0,0 +1,129 @@
+package com.web.opentelemetry.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model (constant arrival rate) load generator built on virtual threads and the JDK HttpClient.
+ * <p>
+ * A single pacer thread computes the intended send time of every request from the integral of the
+ * {@link LoadProfile} rate ({@link LoadProfile#arrivalOffset}) and hands each one to its own virtual thread. Response time is measured from the intended send
+ * time, not from when the request actually left, so a stalled server (or a stalled generator) is
+ * charged for the requests it delayed. This is the coordinated-omission correction that closed-model
+ * tools such as k6 VUs do not apply; the raw service time is recorded separately for comparison.
+ */
+@Slf4j
+public class LoadGenerator {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final URI baseUri;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxInFlight;
+
+    public LoadGenerator(URI baseUri, Duration requestTimeout, int maxInFlight) {
+        this(baseUri, HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build(), requestTimeout, maxInFlight);
+    }
+
+    public LoadGenerator(URI baseUri, HttpClient httpClient, Duration requestTimeout, int maxInFlight) {
+        this.baseUri = baseUri;
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public LoadResult run(LoadProfile profile) throws InterruptedException {
+        URI target = baseUri.resolve(profile.path());
+        HttpRequest request = HttpRequest.newBuilder(target).timeout(requestTimeout).GET().build();
+
+        Recorder correctedRecorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        Recorder serviceRecorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        LongAdder errors = new LongAdder();
+        LongAdder dropped = new LongAdder();
+        LongAdder sent = new LongAdder();
+        AtomicInteger inFlight = new AtomicInteger();
+
+        log.info("Starting open-model run '{}' against {} for {}", profile.name(), target, profile.totalDuration());
+
+        long start = System.nanoTime();
+        long arrivals = 0;
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            OptionalLong offset;
+            while ((offset = profile.arrivalOffset(arrivals + 1)).isPresent()) {
+                arrivals++;
+                final long intendedStart = start + offset.getAsLong();
+                parkUntil(intendedStart);
+
+                if (inFlight.incrementAndGet() > maxInFlight) {
+                    inFlight.decrementAndGet();
+                    dropped.increment();
+                } else {
+                    sent.increment();
+                    workers.execute(() -> {
+                        long actualStart = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            statusCounts.computeIfAbsent(response.statusCode(), k -> new LongAdder()).increment();
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        } finally {
+                            long end = System.nanoTime();
+                            correctedRecorder.recordValue(toMicros(end - intendedStart));
+                            serviceRecorder.recordValue(toMicros(end - actualStart));
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                }
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Requests dropped at the in-flight cap never got a response: charge them the full timeout.
+        Histogram corrected = correctedRecorder.getIntervalHistogram();
+        corrected.recordValueWithCount(toMicros(requestTimeout.toNanos()), dropped.sum());
+        Histogram service = serviceRecorder.getIntervalHistogram();
+
+        Map<Integer, Long> statuses = new TreeMap<>();
+        statusCounts.forEach((status, count) -> statuses.put(status, count.sum()));
+        LoadResult result = new LoadResult(profile.name(), target.toString(), elapsed, sent.sum(), errors.sum(),
+                dropped.sum(), statuses, corrected, service);
+        log.info("Finished run '{}': {}", profile.name(), result.summary());
+        return result;
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)), HIGHEST_TRACKABLE_MICROS);
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
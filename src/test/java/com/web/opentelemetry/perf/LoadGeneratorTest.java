@@ -0,0 +1,49 @@
+package com.web.opentelemetry.perf;
+
+import com.web.opentelemetry.stub.StubServer;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    // Idle for 1s, ramp from 0 to 300 rps in 2s, drain to 0 in 1s: 0 + 300 + 150 requests
+    private static final LoadProfile RAMP = new LoadProfile("ramp", "/api/internal", List.of(
+            new LoadProfile.Stage(Duration.ofSeconds(1), 0),
+            new LoadProfile.Stage(Duration.ofSeconds(2), 300),
+            new LoadProfile.Stage(Duration.ofSeconds(1), 0)),
+            new LoadProfile.Thresholds(Long.MAX_VALUE, Long.MAX_VALUE, 1.0));
+
+    @Test
+    void testArrivalOffsetFollowsIntegralOfRate() {
+        // 0 -> 300 rps over 2s is a slope of 150 rps/s: the k-th arrival is due sqrt(2k / 150) into the ramp
+        assertEquals(1_000_000_000L + (long) (Math.sqrt(2.0 / 150) * 1e9), RAMP.arrivalOffset(1).getAsLong(), 1_000,
+                "The first request of a ramp from 0 should be due as soon as one request has accumulated");
+        assertEquals(3_000_000_000L, RAMP.arrivalOffset(300).getAsLong(), 1_000, "300 requests by the end of the ramp");
+        assertTrue(RAMP.arrivalOffset(450).isPresent());
+        assertTrue(RAMP.arrivalOffset(451).isEmpty(), "No arrivals beyond the integral of the profile");
+
+        LoadProfile constant = LoadProfile.constantRate("constant", "/", 100, Duration.ofSeconds(1));
+        assertEquals(10_000_000L, constant.arrivalOffset(1).getAsLong(), 1_000);
+        assertEquals(1_000_000_000L, constant.arrivalOffset(100).getAsLong(), 1_000);
+        assertTrue(constant.arrivalOffset(101).isEmpty());
+    }
+
+    @Test
+    void testSendsIntegralOfRateForRampFromZero() throws Exception {
+        try (StubServer stub = StubServer.start(StubServer.downstreamRoutes())) {
+            LoadGenerator generator = new LoadGenerator(URI.create(stub.baseUrl()), Duration.ofSeconds(5), 1_000);
+            LoadResult result = generator.run(RAMP);
+
+            assertEquals(450, result.sent() + result.dropped(), 1,
+                    "A ramp from 0 rps should send the integral of its rate, got " + result.summary());
+            assertEquals(0, result.errors(), result.summary());
+            assertTrue(result.elapsed().compareTo(Duration.ofMillis(3_900)) >= 0,
+                    "The last arrivals are due at the end of the drain stage, took " + result.elapsed());
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.web.opentelemetry.perf;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ties the generator, report writer and baseline comparison together for the perf tests.
+ * <p>
+ * Tunables (all system properties, so they can be passed with {@code -D} on the Maven command line):
+ * <ul>
+ *     <li>{@code perf.scale} - multiplier applied to the stock profile rates (default 0.1)</li>
+ *     <li>{@code perf.reports.dir} - report output directory (default target/perf-reports)</li>
+ *     <li>{@code perf.baseline.dir} - stored baselines (default src/test/resources/perf-baselines)</li>
+ *     <li>{@code perf.baseline.update} - overwrite the stored baseline with this run instead of comparing</li>
+ *     <li>{@code perf.baseline.tolerance} - allowed relative latency growth (default 0.25)</li>
+ * </ul>
+ */
+public class LoadHarness {
+    private final LoadGenerator generator;
+    private final LoadReportWriter reportWriter;
+    private final BaselineComparator baselineComparator;
+    private final boolean updateBaseline;
+
+    public LoadHarness(LoadGenerator generator, LoadReportWriter reportWriter,
+                       BaselineComparator baselineComparator, boolean updateBaseline) {
+        this.generator = generator;
+        this.reportWriter = reportWriter;
+        this.baselineComparator = baselineComparator;
+        this.updateBaseline = updateBaseline;
+    }
+
+    public static LoadHarness forBaseUri(URI baseUri) {
+        return new LoadHarness(
+                new LoadGenerator(baseUri, Duration.ofSeconds(10), Integer.getInteger("perf.max-in-flight", 20_000)),
+                new LoadReportWriter(Path.of(System.getProperty("perf.reports.dir", "target/perf-reports"))),
+                new BaselineComparator(Path.of(System.getProperty("perf.baseline.dir", "src/test/resources/perf-baselines")),
+                        Double.parseDouble(System.getProperty("perf.baseline.tolerance", "0.25")), 5.0, 0.01),
+                Boolean.getBoolean("perf.baseline.update"));
+    }
+
+    public static double scale() {
+        return Double.parseDouble(System.getProperty("perf.scale", "0.1"));
+    }
+
+    /**
+     * Runs the profile, writes the reports and returns every threshold or baseline violation found.
+     */
+    public Verdict run(LoadProfile profile) throws InterruptedException {
+        LoadResult result = generator.run(profile);
+        List<String> failures = new ArrayList<>(thresholdViolations(result, profile.thresholds()));
+
+        List<String> regressions = List.of();
+        if (updateBaseline) {
+            baselineComparator.store(result.toSummary());
+        } else {
+            regressions = baselineComparator.load(profile.name())
+                    .map(baseline -> baselineComparator.compare(result.toSummary(), baseline))
+                    .orElse(List.of());
+        }
+        failures.addAll(regressions);
+        reportWriter.write(result, regressions);
+        return new Verdict(result, failures);
+    }
+
+    private static List<String> thresholdViolations(LoadResult result, LoadProfile.Thresholds thresholds) {
+        List<String> violations = new ArrayList<>();
+        if (result.correctedMillis(95) > thresholds.p95Millis()) {
+            violations.add(String.format("p95 %.1fms exceeds %dms", result.correctedMillis(95), thresholds.p95Millis()));
+        }
+        if (result.correctedMillis(99) > thresholds.p99Millis()) {
+            violations.add(String.format("p99 %.1fms exceeds %dms", result.correctedMillis(99), thresholds.p99Millis()));
+        }
+        if (result.errorRate() > thresholds.maxErrorRate()) {
+            violations.add(String.format("error rate %.2f%% exceeds %.2f%%", result.errorRate() * 100, thresholds.maxErrorRate() * 100));
+        }
+        return violations;
+    }
+
+    public record Verdict(LoadResult result, List<String> failures) {
+        public boolean passed() {
+            return failures.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.web.opentelemetry.perf;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Open-model load profile: each stage ramps the arrival rate linearly from the previous
+ * stage's target to its own target, independent of how fast the server answers.
+ * The stock profiles mirror the stage shapes of the k6 scripts in k6-tests/, expressed
+ * as requests per second instead of virtual users.
+ */
+public record LoadProfile(String name, String path, List<Stage> stages, Thresholds thresholds) {
+
+    public record Stage(Duration duration, double targetRate) {
+    }
+
+    /**
+     * Pass/fail limits applied to the coordinated-omission corrected latencies.
+     */
+    public record Thresholds(long p95Millis, long p99Millis, double maxErrorRate) {
+    }
+
+    /**
+     * Equivalent of info-endpoint-test.js: 10s to 100 rps, 30s to 3000 rps, hold for 20s.
+     */
+    public static LoadProfile infoEndpoint(double scale) {
+        return new LoadProfile("info-endpoint", "/api/info", List.of(
+                new Stage(Duration.ofSeconds(10), 100 * scale),
+                new Stage(Duration.ofSeconds(30), 3000 * scale),
+                new Stage(Duration.ofSeconds(20), 3000 * scale)),
+                new Thresholds(2000, Long.MAX_VALUE, 0.1));
+    }
+
+    /**
+     * Equivalent of spike-test.js: idle for 5s, spike to 3000 rps in 10s, hold 30s, drain in 15s.
+     */
+    public static LoadProfile spike(double scale) {
+        return new LoadProfile("spike", "/api/info", List.of(
+                new Stage(Duration.ofSeconds(5), 0),
+                new Stage(Duration.ofSeconds(10), 3000 * scale),
+                new Stage(Duration.ofSeconds(30), 3000 * scale),
+                new Stage(Duration.ofSeconds(15), 0)),
+                new Thresholds(3000, 5000, 0.15));
+    }
+
+    /**
+     * Equivalent of soak-test.js: 2m to 1000 rps, hold for 10m, 2m ramp down.
+     */
+    public static LoadProfile soak(double scale) {
+        return new LoadProfile("soak", "/api/info", List.of(
+                new Stage(Duration.ofMinutes(2), 1000 * scale),
+                new Stage(Duration.ofMinutes(10), 1000 * scale),
+                new Stage(Duration.ofMinutes(2), 0)),
+                new Thresholds(2000, Long.MAX_VALUE, 0.05));
+    }
+
+    /**
+     * Constant arrival rate for the given duration, handy for A/B benchmarks.
+     */
+    public static LoadProfile constantRate(String name, String path, double rate, Duration duration) {
+        return new LoadProfile(name, path, List.of(
+                new Stage(Duration.ZERO, rate),
+                new Stage(duration, rate)),
+                new Thresholds(Long.MAX_VALUE, Long.MAX_VALUE, 1.0));
+    }
+
+    public Duration totalDuration() {
+        return stages.stream().map(Stage::duration).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    /**
+     * Arrival rate (requests per second) at the given offset from the start of the run.
+     */
+    public double rateAt(long elapsedNanos) {
+        double previousTarget = 0;
+        long stageStart = 0;
+        for (Stage stage : stages) {
+            long stageNanos = stage.duration().toNanos();
+            if (elapsedNanos < stageStart + stageNanos) {
+                double progress = (double) (elapsedNanos - stageStart) / stageNanos;
+                return previousTarget + (stage.targetRate() - previousTarget) * progress;
+            }
+            previousTarget = stage.targetRate();
+            stageStart += stageNanos;
+        }
+        return 0;
+    }
+
+    /**
+     * Offset from the start of the run at which the {@code arrival}-th request (1-based) is due: the point
+     * where the integral of {@link #rateAt} reaches {@code arrival}. Empty once the profile ends before that.
+     * Integrating instead of stepping by {@code 1 / rateAt(now)} keeps ramps that start at 0 rps on schedule.
+     */
+    public OptionalLong arrivalOffset(long arrival) {
+        double previousTarget = 0;
+        double before = 0;
+        long stageStart = 0;
+        for (Stage stage : stages) {
+            long stageNanos = stage.duration().toNanos();
+            double seconds = stageNanos / 1e9;
+            double from = previousTarget;
+            double to = stage.targetRate();
+            double stageArrivals = (from + to) / 2 * seconds;
+            if (stageNanos > 0 && before + stageArrivals >= arrival) {
+                // Solve from * t + slope * t^2 / 2 = k for t, written so that it also holds for slope == 0
+                double k = arrival - before;
+                double slope = (to - from) / seconds;
+                double t = 2 * k / (from + Math.sqrt(Math.max(0, from * from + 2 * slope * k)));
+                return OptionalLong.of(stageStart + Math.min(stageNanos, (long) (t * 1e9)));
+            }
+            before += stageArrivals;
+            previousTarget = to;
+            stageStart += stageNanos;
+        }
+        return OptionalLong.empty();
+    }
+
+    public LoadProfile withPath(String newPath) {
+        return new LoadProfile(name, newPath, stages, thresholds);
+    }
+
+    public LoadProfile withName(String newName) {
+        return new LoadProfile(newName, path, stages, thresholds);
+    }
+}
@@ -0,0 +1,135 @@
+package com.web.opentelemetry.perf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.HistogramIterationValue;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes JSON, HDR percentile-distribution and self-contained HTML reports for a {@link LoadResult}.
+ * Nothing is fetched from the network, so reports can be produced on air-gapped build agents.
+ */
+@Slf4j
+public class LoadReportWriter {
+    static final JsonMapper JSON = JsonMapper.builder()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .build();
+
+    private final Path outputDir;
+
+    public LoadReportWriter(Path outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    public Path write(LoadResult result, List<String> regressions) {
+        try {
+            Files.createDirectories(outputDir);
+            Path json = outputDir.resolve(result.name() + ".json");
+            JSON.writeValue(json.toFile(), result.toSummary());
+
+            Path hgrm = outputDir.resolve(result.name() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm), false, StandardCharsets.UTF_8)) {
+                // Microsecond histogram, scaled to milliseconds like the HdrHistogram plotter expects.
+                result.correctedLatency().outputPercentileDistribution(out, 1000.0);
+            }
+
+            Path html = outputDir.resolve(result.name() + ".html");
+            Files.writeString(html, html(result, regressions), StandardCharsets.UTF_8);
+            log.info("Load reports for '{}' written to {}", result.name(), outputDir.toAbsolutePath());
+            return html;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write load report for " + result.name(), e);
+        }
+    }
+
+    private static String html(LoadResult result, List<String> regressions) {
+        LoadResult.Summary summary = result.toSummary();
+        StringBuilder sb = new StringBuilder(8192);
+        sb.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>")
+                .append(escape(summary.name())).append(" load report</title><style>")
+                .append("body{font-family:sans-serif;margin:2em}table{border-collapse:collapse;margin-bottom:1.5em}")
+                .append("td,th{border:1px solid #ccc;padding:4px 10px;text-align:right}th{background:#eee}")
+                .append(".fail{color:#b00}.ok{color:#080}</style></head><body>");
+        sb.append("<h1>").append(escape(summary.name())).append("</h1>");
+        sb.append("<p>Target: ").append(escape(summary.target())).append("</p>");
+
+        sb.append("<table><tr><th>Sent</th><th>Errors</th><th>Dropped</th><th>Error rate</th><th>Throughput (rps)</th><th>Elapsed (s)</th></tr>")
+                .append("<tr><td>").append(summary.sent()).append("</td><td>").append(summary.errors())
+                .append("</td><td>").append(summary.dropped()).append("</td><td>")
+                .append(String.format("%.2f%%", summary.errorRate() * 100)).append("</td><td>")
+                .append(String.format("%.1f", summary.throughput())).append("</td><td>")
+                .append(summary.elapsedMillis() / 1000).append("</td></tr></table>");
+
+        sb.append("<h2>Latency (ms)</h2><table><tr><th>Percentile</th><th>Corrected</th><th>Service time</th></tr>");
+        for (Map.Entry<String, Double> e : summary.correctedLatencyMillis().entrySet()) {
+            sb.append("<tr><td>").append(e.getKey()).append("</td><td>")
+                    .append(String.format("%.2f", e.getValue())).append("</td><td>")
+                    .append(String.format("%.2f", summary.serviceTimeMillis().get(e.getKey()))).append("</td></tr>");
+        }
+        sb.append("</table>");
+
+        sb.append("<h2>Corrected latency distribution</h2>").append(percentileChart(result));
+
+        sb.append("<h2>Status codes</h2><table><tr><th>Status</th><th>Count</th></tr>");
+        summary.statusCounts().forEach((status, count) ->
+                sb.append("<tr><td>").append(status).append("</td><td>").append(count).append("</td></tr>"));
+        sb.append("</table>");
+
+        sb.append("<h2>Baseline comparison</h2>");
+        if (regressions.isEmpty()) {
+            sb.append("<p class=\"ok\">No regression against baseline.</p>");
+        } else {
+            sb.append("<ul class=\"fail\">");
+            regressions.forEach(r -> sb.append("<li>").append(escape(r)).append("</li>"));
+            sb.append("</ul>");
+        }
+        return sb.append("</body></html>").toString();
+    }
+
+    /**
+     * Inline SVG plot of latency by percentile on a log-scaled "nines" axis.
+     */
+    private static String percentileChart(LoadResult result) {
+        final int width = 720, height = 280, pad = 40;
+        double maxMillis = Math.max(1, result.correctedMillis(100));
+        double maxNines = 5; // up to p99.999
+        StringBuilder points = new StringBuilder();
+        for (HistogramIterationValue v : result.correctedLatency().percentiles(5)) {
+            double fraction = v.getPercentileLevelIteratedTo() / 100.0;
+            double nines = fraction >= 1 ? maxNines : Math.min(maxNines, -Math.log10(1 - fraction));
+            double x = pad + (width - 2 * pad) * nines / maxNines;
+            double y = height - pad - (height - 2 * pad) * (v.getValueIteratedTo() / 1000.0) / maxMillis;
+            points.append(String.format("%.1f,%.1f ", x, y));
+        }
+        StringBuilder svg = new StringBuilder();
+        svg.append("<svg width=\"").append(width).append("\" height=\"").append(height).append("\">");
+        svg.append("<line x1=\"").append(pad).append("\" y1=\"").append(height - pad).append("\" x2=\"")
+                .append(width - pad).append("\" y2=\"").append(height - pad).append("\" stroke=\"#000\"/>");
+        svg.append("<line x1=\"").append(pad).append("\" y1=\"").append(pad).append("\" x2=\"").append(pad)
+                .append("\" y2=\"").append(height - pad).append("\" stroke=\"#000\"/>");
+        String[] labels = {"0%", "90%", "99%", "99.9%", "99.99%", "99.999%"};
+        for (int i = 0; i < labels.length; i++) {
+            double x = pad + (width - 2 * pad) * i / maxNines;
+            svg.append("<text x=\"").append(String.format("%.0f", x)).append("\" y=\"").append(height - pad + 15)
+                    .append("\" font-size=\"10\" text-anchor=\"middle\">").append(labels[i]).append("</text>");
+        }
+        svg.append("<text x=\"").append(pad).append("\" y=\"").append(pad - 8).append("\" font-size=\"10\">")
+                .append(String.format("%.1f ms", maxMillis)).append("</text>");
+        svg.append("<polyline fill=\"none\" stroke=\"#36c\" stroke-width=\"2\" points=\"")
+                .append(points.toString().trim()).append("\"/></svg>");
+        return svg.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,79 @@
+package com.web.opentelemetry.perf;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of a single {@link LoadGenerator} run. Latencies are stored in microseconds.
+ */
+public record LoadResult(String name,
+                         String target,
+                         Duration elapsed,
+                         long sent,
+                         long errors,
+                         long dropped,
+                         Map<Integer, Long> statusCounts,
+                         Histogram correctedLatency,
+                         Histogram serviceTime) {
+
+    static final double[] REPORTED_PERCENTILES = {50, 75, 90, 95, 99, 99.9, 99.99, 100};
+
+    public double errorRate() {
+        long attempted = sent + dropped;
+        return attempted == 0 ? 0 : (double) (errors + dropped) / attempted;
+    }
+
+    public double throughput() {
+        return elapsed.isZero() ? 0 : sent * 1000.0 / elapsed.toMillis();
+    }
+
+    public double correctedMillis(double percentile) {
+        return correctedLatency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double serviceMillis(double percentile) {
+        return serviceTime.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Flat, serialization-friendly view used by the JSON report and the baseline comparison.
+     */
+    public Summary toSummary() {
+        Map<String, Double> corrected = new LinkedHashMap<>();
+        Map<String, Double> service = new LinkedHashMap<>();
+        for (double p : REPORTED_PERCENTILES) {
+            corrected.put(percentileKey(p), correctedMillis(p));
+            service.put(percentileKey(p), serviceMillis(p));
+        }
+        return new Summary(name, target, elapsed.toMillis(), sent, errors, dropped, errorRate(), throughput(),
+                statusCounts, corrected, service);
+    }
+
+    public String summary() {
+        return String.format("sent=%d errors=%d dropped=%d rps=%.1f p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms (service p99=%.1fms)",
+                sent, errors, dropped, throughput(), correctedMillis(50), correctedMillis(95), correctedMillis(99),
+                correctedMillis(100), serviceMillis(99));
+    }
+
+    static String percentileKey(double percentile) {
+        return percentile == Math.floor(percentile)
+                ? "p" + (long) percentile
+                : "p" + String.valueOf(percentile).replace('.', '_');
+    }
+
+    public record Summary(String name,
+                          String target,
+                          long elapsedMillis,
+                          long sent,
+                          long errors,
+                          long dropped,
+                          double errorRate,
+                          double throughput,
+                          Map<Integer, Long> statusCounts,
+                          Map<String, Double> correctedLatencyMillis,
+                          Map<String, Double> serviceTimeMillis) {
+    }
+}
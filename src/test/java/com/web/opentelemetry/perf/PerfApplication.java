@@ -0,0 +1,38 @@
+package com.web.opentelemetry.perf;
+
+import com.web.opentelemetry.SpringBootVirtualThreadsDemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+
+/**
+ * Starts the application in-process with property overrides, for benchmarks that compare configurations
+ * within one JVM. Runs on the default ports because the fan-out endpoints call back into localhost:8080,
+ * unless the properties send them to a StubServer (see {@code StubServer.propertyOverrides()}).
+ */
+final class PerfApplication {
+
+    private PerfApplication() {
+    }
+
+    static ConfigurableApplicationContext start(Map<String, Object> properties) {
+        return new SpringApplicationBuilder(SpringBootVirtualThreadsDemoApplication.class)
+                .properties(properties)
+                .run();
+    }
+
+    /**
+     * Same as {@link #start(Map)}, with initializers that register benchmark-only beans (such as probe
+     * routes) without putting annotated components where the application's component scan would find them.
+     */
+    @SafeVarargs
+    static ConfigurableApplicationContext start(Map<String, Object> properties,
+                                                ApplicationContextInitializer<? super ConfigurableApplicationContext>... initializers) {
+        return new SpringApplicationBuilder(SpringBootVirtualThreadsDemoApplication.class)
+                .properties(properties)
+                .initializers(initializers)
+                .run();
+    }
+}
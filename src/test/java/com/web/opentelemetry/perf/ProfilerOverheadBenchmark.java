@@ -0,0 +1,149 @@
+package com.web.opentelemetry.perf;
+
+import com.web.opentelemetry.stub.LatencyDistribution;
+import com.web.opentelemetry.stub.StubServer;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cost of the always-on JFR profiler: /api/info under the same closed-loop load (a fixed number of
+ * virtual-thread callers, each sending its next request when the previous one completes) with
+ * {@code app.profiling.enabled} off and on. With the profiler on, the collapsed CPU stacks of /api/info
+ * are saved next to the report as {@code profiler-api-info.collapsed}, ready for a flame graph.
+ * <pre>
+ * mvn -Pperf test -Dtest=ProfilerOverheadBenchmark
+ * </pre>
+ * Tunables: {@code perf.profiler.requests} (default 30000), {@code perf.profiler.concurrency} (default 64),
+ * {@code perf.profiler.latency} (stub ms, default 2), {@code perf.profiler.execution-period} (default 10ms).
+ */
+@Slf4j
+@Tag("perf")
+class ProfilerOverheadBenchmark {
+    private static final URI INFO = URI.create("http://localhost:8080/api/info");
+    private static final URI PROFILE = URI.create("http://localhost:9090/actuator/profiler/cpu?route=/api/info");
+
+    private final int requests = Integer.getInteger("perf.profiler.requests", 30_000);
+    private final int concurrency = Integer.getInteger("perf.profiler.concurrency", 64);
+    private final Duration latency = Duration.ofMillis(Long.getLong("perf.profiler.latency", 2));
+    private final String executionPeriod = System.getProperty("perf.profiler.execution-period", "10ms");
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void infoWithAndWithoutProfiler() throws Exception {
+        Path out = Path.of(System.getProperty("perf.reports.dir", "target/perf-reports"));
+        Files.createDirectories(out);
+
+        Map<String, ModeReport> report = new LinkedHashMap<>();
+        try (StubServer stub = StubServer.start(StubServer.downstreamRoutes())) {
+            stub.route("/api/internal").latency(LatencyDistribution.constant(latency));
+            report.put("off", measure(stub, false, null));
+            report.put("on", measure(stub, true, out.resolve("profiler-api-info.collapsed")));
+        }
+
+        LoadReportWriter.JSON.writeValue(out.resolve("profiler-overhead.json").toFile(), report);
+        log.info("/api/info with and without continuous profiling: {}", report);
+
+        ModeReport off = report.get("off");
+        ModeReport on = report.get("on");
+        assertTrue(on.profiledStacks() > 0, "The profiler should have attributed CPU samples to /api/info");
+        assertTrue(on.throughput() > off.throughput() * 0.8,
+                "Profiling should cost well under 20% throughput, got " + on.throughput() + " vs " + off.throughput());
+    }
+
+    private ModeReport measure(StubServer stub, boolean profiling, Path collapsedFile) throws Exception {
+        Map<String, Object> properties = new LinkedHashMap<>(stub.propertyOverrides());
+        properties.put("app.profiling.enabled", profiling);
+        properties.put("app.profiling.execution-period", executionPeriod);
+        properties.put("app.batching.info.enabled", false);
+        properties.put("logging.level.com.web.opentelemetry", "WARN");
+        properties.put("logging.level.org.apache.catalina.valves", "WARN");
+
+        try (ConfigurableApplicationContext context = PerfApplication.start(properties)) {
+            // JIT and connection warm-up, not measured
+            for (int i = 0; i < 500; i++) {
+                send(INFO);
+            }
+
+            Histogram latencies = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+            AtomicInteger remaining = new AtomicInteger(requests);
+            AtomicInteger failed = new AtomicInteger();
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> callers = new ArrayList<>();
+                for (int i = 0; i < concurrency; i++) {
+                    callers.add(executor.submit(() -> {
+                        while (remaining.getAndDecrement() > 0) {
+                            long sent = System.nanoTime();
+                            HttpResponse<String> response = send(INFO);
+                            latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent)));
+                            if (response == null || response.statusCode() >= 400) {
+                                failed.incrementAndGet();
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> caller : callers) {
+                    caller.get();
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long profiledStacks = 0;
+            if (collapsedFile != null) {
+                // The stream delivers samples on its next flush, about a second later
+                Thread.sleep(2_000);
+                HttpResponse<String> profile = send(PROFILE);
+                String collapsed = profile != null && profile.statusCode() == 200 ? profile.body() : "";
+                Files.writeString(collapsedFile, collapsed);
+                profiledStacks = collapsed.lines().count();
+            }
+            return new ModeReport(requests / seconds, failed.get(), profiledStacks,
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    private HttpResponse<String> send(URI uri) {
+        try {
+            return client.send(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @param profiledStacks distinct collapsed CPU stacks recorded for /api/info, 0 with the profiler off
+     */
+    record ModeReport(double throughput, int failed, long profiledStacks, double p50Millis, double p99Millis,
+                      double maxMillis) {
+    }
+}
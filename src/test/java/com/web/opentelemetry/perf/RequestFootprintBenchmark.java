@@ -0,0 +1,431 @@
+package com.web.opentelemetry.perf;
+
+import com.sun.management.ThreadMXBean;
+import com.web.opentelemetry.filter.RequestIdFilter;
+import com.web.opentelemetry.filter.RequestIdObservabilityFilter;
+import com.web.opentelemetry.observability.flightrecorder.FlightRecorderFilter;
+import com.web.opentelemetry.observability.flightrecorder.RequestFlightRecorder;
+import com.web.opentelemetry.observability.tracing.TraceHeaderFilter;
+import com.web.opentelemetry.observability.tracing.TraceHeaderRequestWrapper;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+import static com.web.opentelemetry.observability.tracing.Constants.X_SSTECHMINDS_REQUEST_ID;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Memory per concurrent in-flight request, virtual versus platform threads.
+ * <p>
+ * {@link #heldRequestFootprint()} holds N requests (1k, 10k, 100k by default) in flight: each one passes the
+ * full filter chain and then parks on an outbound call to a stub that does not answer until released.
+ * The stub and the client connections live in a child JVM ({@link FootprintDriver}), so the heap growth
+ * measured here is the application's own per-request state. Growth is attributed to components by class
+ * (stack chunks, Thread objects, ThreadLocal maps, Tomcat, tracing, the JDK HttpClient, ...); MDC maps are
+ * sampled by {@link FootprintProbe}; native thread stacks are only reported when the JVM runs with
+ * {@code -XX:NativeMemoryTracking=summary}.
+ * <p>
+ * {@link #filterChainAllocation()} measures bytes allocated per request by each filter and by
+ * {@link TraceHeaderRequestWrapper}, in isolation, on a platform and on a virtual thread.
+ * <pre>
+ * mvn -Pperf test -Dtest=RequestFootprintBenchmark -DargLine="-Xmx8g -XX:NativeMemoryTracking=summary"
+ * </pre>
+ * 100k in-flight requests need about 300k file descriptors across both JVMs ({@code ulimit -n}), and
+ * platform mode needs as many OS threads; a level that cannot be reached is reported with the number of
+ * requests actually held. Tunables: {@code perf.footprint.levels}, {@code perf.footprint.modes},
+ * {@code perf.footprint.stub-port}, {@code perf.footprint.warmup}.
+ */
+@Slf4j
+@Tag("perf")
+class RequestFootprintBenchmark {
+    private static final int APP_PORT = 8080;
+
+    /**
+     * Ordered: the first matching component wins (ThreadLocal before Thread, the wrapper before the app).
+     */
+    private static final List<Map.Entry<String, Predicate<String>>> COMPONENTS = List.of(
+            Map.entry("virtual thread stack chunks", name -> name.equals("jdk.internal.vm.StackChunk")),
+            Map.entry("ThreadLocal maps", name -> name.startsWith("java.lang.ThreadLocal")),
+            Map.entry("Thread objects", name -> name.startsWith("java.lang.Thread") || name.startsWith("java.lang.VirtualThread")
+                    || name.startsWith("jdk.internal.vm.Continuation") || name.startsWith("jdk.internal.misc.CarrierThread")),
+            Map.entry("TraceHeaderRequestWrapper", name -> name.equals(TraceHeaderRequestWrapper.class.getName())),
+            Map.entry("application", name -> name.startsWith("com.web.")),
+            Map.entry("Tomcat connection/request", name -> name.startsWith("org.apache.")),
+            Map.entry("tracing and metrics", name -> name.startsWith("io.opentelemetry.") || name.startsWith("io.micrometer.")),
+            Map.entry("logging", name -> name.startsWith("ch.qos.logback.") || name.startsWith("org.slf4j.")),
+            Map.entry("Spring", name -> name.startsWith("org.springframework.")),
+            Map.entry("JDK HttpClient (outbound call)", name -> name.startsWith("jdk.internal.net.http.") || name.startsWith("java.net.http.")),
+            Map.entry("NIO sockets", name -> name.startsWith("sun.nio.") || name.startsWith("java.nio.")),
+            Map.entry("locks and queues", name -> name.startsWith("java.util.concurrent.")),
+            Map.entry("byte[] buffers", name -> name.equals("[B")));
+    private static final String UNATTRIBUTED = "strings, maps and arrays";
+    private static final HttpServlet NO_OP_SERVLET = new HttpServlet() {
+        @Override
+        protected void service(HttpServletRequest request, HttpServletResponse response) {
+        }
+    };
+
+    private final String java = ProcessHandle.current().info().command().orElse("java");
+    private final int stubPort = Integer.getInteger("perf.footprint.stub-port", 18089);
+    private final int warmupRequests = Integer.getInteger("perf.footprint.warmup", 2_000);
+    private final Path reportsDir = Path.of(System.getProperty("perf.reports.dir", "target/perf-reports"));
+    private final ThreadMXBean threadBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void heldRequestFootprint() throws Exception {
+        int[] levels = Arrays.stream(System.getProperty("perf.footprint.levels", "1000,10000,100000").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        List<String> modes = List.of(System.getProperty("perf.footprint.modes", "virtual,platform").split(","));
+
+        List<FootprintResult> results = new ArrayList<>();
+        for (String mode : modes) {
+            for (int requests : levels) {
+                FootprintResult result = measureHeld(mode.trim(), requests);
+                log.info("{} x{}: held {}, {} bytes/request ({} allocated/request)", result.mode(), result.requested(),
+                        result.held(), Math.round(result.bytesPerRequest()), Math.round(result.allocatedBytesPerRequest()));
+                results.add(result);
+            }
+        }
+
+        Files.createDirectories(reportsDir);
+        LoadReportWriter.JSON.writeValue(reportsDir.resolve("memory-footprint.json").toFile(), results);
+        Files.writeString(reportsDir.resolve("memory-footprint.md"), markdown(results));
+        results.forEach(result -> assertTrue(result.held() > 0, "No request was held for " + result.mode() + " x" + result.requested()));
+    }
+
+    private FootprintResult measureHeld(String mode, int requests) throws Exception {
+        boolean virtual = mode.equals("virtual");
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.threads.virtual.enabled", virtual);
+        properties.put("server.tomcat.threads.max", virtual ? 200 : requests + 50);
+        properties.put("server.tomcat.max-connections", requests + 1_000);
+        properties.put("server.tomcat.accept-count", 10_000);
+        properties.put("server.tomcat.keep-alive-timeout", "5m");
+        properties.put("app.batching.info.enabled", false);
+        // Log output is switched off so console I/O does not throttle the ramp-up; the MDC is still populated
+        properties.put("logging.level.com.web.opentelemetry", "WARN");
+        properties.put("logging.level.org.apache.catalina.valves", "WARN");
+
+        FootprintProbe probe = new FootprintProbe("http://localhost:" + stubPort);
+        try (ConfigurableApplicationContext context = PerfApplication.start(properties, probe)) {
+            Process driver = new ProcessBuilder(java, "-Xss256k", "-cp", System.getProperty("java.class.path"),
+                    FootprintDriver.class.getName(), String.valueOf(APP_PORT), String.valueOf(stubPort),
+                    String.valueOf(requests), String.valueOf(warmupRequests), FootprintProbe.PATH)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            try {
+                DriverChannel channel = new DriverChannel(driver);
+                channel.await("READY", 60);
+                channel.send("GO");
+                channel.await("WARM", 600);
+
+                probe.reset();
+                TimeUnit.SECONDS.sleep(1);
+                long nativeStacksBefore = HeapHistogram.committedThreadStackKb();
+                HeapHistogram before = HeapHistogram.take();
+                long allocatedBefore = threadBean.getTotalThreadAllocatedBytes();
+
+                channel.send("HOLD");
+                int held = channel.awaitHeld(requests, TimeUnit.SECONDS.toNanos(30));
+                TimeUnit.SECONDS.sleep(1);
+
+                long allocated = threadBean.getTotalThreadAllocatedBytes() - allocatedBefore;
+                long nativeStacksAfter = HeapHistogram.committedThreadStackKb();
+                HeapHistogram after = HeapHistogram.take();
+                channel.send("RELEASE");
+                driver.waitFor(5, TimeUnit.MINUTES);
+
+                return FootprintResult.of(mode, requests, held, after.growthSince(before), allocated,
+                        nativeStacksBefore < 0 ? -1 : (nativeStacksAfter - nativeStacksBefore) * 1024, probe);
+            } finally {
+                driver.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Allocation per request of each filter on its own and of the whole chain, net of the mock request,
+     * response and chain themselves. Measured with the per-thread allocation counter, so each case runs on
+     * a single thread; virtual threads report -1 where the JVM does not support the counter for them.
+     */
+    @Test
+    void filterChainAllocation() throws Exception {
+        RequestFlightRecorder recorder = new RequestFlightRecorder(1024, 16, 256, 16);
+        Map<String, Filter[]> cases = new LinkedHashMap<>();
+        cases.put("baseline (mock request, response, chain)", new Filter[0]);
+        cases.put("FlightRecorderFilter", new Filter[]{new FlightRecorderFilter(recorder)});
+        cases.put("TraceHeaderFilter (incl. TraceHeaderRequestWrapper)", new Filter[]{new TraceHeaderFilter("perf-host")});
+        cases.put("RequestIdFilter", new Filter[]{new RequestIdFilter()});
+        cases.put("RequestIdObservabilityFilter", new Filter[]{new RequestIdObservabilityFilter()});
+        cases.put("full chain", new Filter[]{new FlightRecorderFilter(recorder), new TraceHeaderFilter("perf-host"),
+                new RequestIdFilter(), new RequestIdObservabilityFilter()});
+
+        Map<String, Map<String, Long>> allocation = new LinkedHashMap<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            String thread = virtual ? "virtual" : "platform";
+            long baseline = -1;
+            for (Map.Entry<String, Filter[]> entry : cases.entrySet()) {
+                Filter[] filters = entry.getValue();
+                long bytes = allocatedPerIteration(virtual, () -> {
+                    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/info");
+                    request.addHeader("Host", "localhost:8080");
+                    request.addHeader("Accept", "*/*");
+                    request.addHeader("User-Agent", "perf");
+                    new MockFilterChain(NO_OP_SERVLET, filters).doFilter(request, new MockHttpServletResponse());
+                });
+                if (baseline < 0) {
+                    baseline = bytes;
+                }
+                long net = bytes < 0 || filters.length == 0 ? bytes : bytes - baseline;
+                allocation.computeIfAbsent(entry.getKey(), k -> new LinkedHashMap<>()).put(thread, net);
+            }
+            MockHttpServletRequest shared = new MockHttpServletRequest("GET", "/api/info");
+            shared.addHeader("Accept", "*/*");
+            allocation.computeIfAbsent("TraceHeaderRequestWrapper construction", k -> new LinkedHashMap<>())
+                    .put(thread, allocatedPerIteration(virtual, () -> new TraceHeaderRequestWrapper(shared, "perf-host", "request-id")));
+            allocation.computeIfAbsent("TraceHeaderRequestWrapper.getHeaderNames()", k -> new LinkedHashMap<>())
+                    .put(thread, allocatedPerIteration(virtual, () -> new TraceHeaderRequestWrapper(shared, "perf-host", "request-id").getHeaderNames()));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("allocatedBytesPerRequest", allocation);
+        report.put("traceHeaderRequestWrapperRetainedBytes", retainedWrapperBytes());
+
+        Files.createDirectories(reportsDir);
+        LoadReportWriter.JSON.writeValue(reportsDir.resolve("filter-chain-allocation.json").toFile(), report);
+        log.info("Filter chain allocation: {}", report);
+        assertTrue(allocation.get("full chain").get("platform") > 0, "Full chain should allocate");
+    }
+
+    private long allocatedPerIteration(boolean virtual, ThrowingRunnable body) throws Exception {
+        int warmup = 20_000;
+        int iterations = 100_000;
+        AtomicLong result = new AtomicLong();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Runnable measure = () -> {
+            try {
+                for (int i = 0; i < warmup; i++) {
+                    body.run();
+                }
+                long start = threadBean.getCurrentThreadAllocatedBytes();
+                if (start < 0) {
+                    result.set(-1);
+                    return;
+                }
+                for (int i = 0; i < iterations; i++) {
+                    body.run();
+                }
+                result.set((threadBean.getCurrentThreadAllocatedBytes() - start) / iterations);
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        };
+        Thread thread = virtual ? Thread.ofVirtual().start(measure) : Thread.ofPlatform().start(measure);
+        thread.join();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return result.get();
+    }
+
+    /**
+     * Retained size of one wrapper with its header map and a distinct request id, as created per request
+     * by TraceHeaderFilter.
+     */
+    private static double retainedWrapperBytes() {
+        int count = 100_000;
+        MockHttpServletRequest shared = new MockHttpServletRequest("GET", "/api/info");
+        HeapHistogram before = HeapHistogram.take();
+        TraceHeaderRequestWrapper[] wrappers = new TraceHeaderRequestWrapper[count];
+        for (int i = 0; i < count; i++) {
+            wrappers[i] = new TraceHeaderRequestWrapper(shared, "perf-host", UUID.randomUUID().toString());
+        }
+        HeapHistogram after = HeapHistogram.take();
+        long arrayBytes = 16L + 4L * count;
+        double perWrapper = (after.totalBytes() - before.totalBytes() - arrayBytes) / (double) count;
+        assertTrue(wrappers[count - 1].getHeader(X_SSTECHMINDS_REQUEST_ID) != null);
+        return perWrapper;
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+
+    record ClassGrowth(String className, double instancesPerRequest, double bytesPerRequest) {
+    }
+
+    record FootprintResult(String mode, int requested, int held, long heapGrowthBytes, double bytesPerRequest,
+                           Map<String, Double> bytesPerRequestByComponent, double stackChunksPerRequest,
+                           double meanStackChunkBytes, double mdcEntriesPerRequest, double mdcBytesPerRequestEstimate,
+                           double allocatedBytesPerRequest, double nativeThreadStackBytesPerRequest,
+                           List<ClassGrowth> topClasses) {
+
+        static FootprintResult of(String mode, int requested, int held, Map<String, HeapHistogram.ClassUsage> growth,
+                                  long allocatedBytes, long nativeThreadStackBytes, FootprintProbe probe) {
+            double perRequest = Math.max(1, held);
+            Map<String, Double> byComponent = new LinkedHashMap<>();
+            COMPONENTS.forEach(component -> byComponent.put(component.getKey(), 0.0));
+            byComponent.put(UNATTRIBUTED, 0.0);
+            long total = 0;
+            for (Map.Entry<String, HeapHistogram.ClassUsage> entry : growth.entrySet()) {
+                String component = componentOf(entry.getKey());
+                byComponent.merge(component, entry.getValue().bytes() / perRequest, Double::sum);
+                total += entry.getValue().bytes();
+            }
+
+            HeapHistogram.ClassUsage chunks = growth.getOrDefault("jdk.internal.vm.StackChunk", new HeapHistogram.ClassUsage(0, 0));
+            List<ClassGrowth> topClasses = growth.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, HeapHistogram.ClassUsage> e) -> e.getValue().bytes()).reversed())
+                    .limit(20)
+                    .map(e -> new ClassGrowth(e.getKey(), e.getValue().instances() / perRequest, e.getValue().bytes() / perRequest))
+                    .toList();
+            return new FootprintResult(mode, requested, held, total, total / perRequest, byComponent,
+                    chunks.instances() / perRequest,
+                    chunks.instances() == 0 ? 0 : chunks.bytes() / (double) chunks.instances(),
+                    probe.meanMdcEntries(), probe.meanMdcBytes(),
+                    allocatedBytes / perRequest,
+                    nativeThreadStackBytes < 0 ? -1 : nativeThreadStackBytes / perRequest,
+                    topClasses);
+        }
+
+        private static String componentOf(String className) {
+            String name = className;
+            if (name.startsWith("[") && name.length() > 2) {
+                // Object arrays belong to their element type's component, e.g. [Ljava.lang.ThreadLocal$ThreadLocalMap$Entry;
+                name = name.replaceFirst("^\\[+L", "").replaceFirst(";$", "");
+            }
+            for (Map.Entry<String, Predicate<String>> component : COMPONENTS) {
+                if (component.getValue().test(name)) {
+                    return component.getKey();
+                }
+            }
+            return UNATTRIBUTED;
+        }
+    }
+
+    private static String markdown(List<FootprintResult> results) {
+        StringBuilder md = new StringBuilder("# Memory per in-flight request (bytes)\n\n| component |");
+        results.forEach(r -> md.append(' ').append(r.mode()).append(" x").append(r.requested()).append(" |"));
+        md.append("\n|---|");
+        results.forEach(r -> md.append("---:|"));
+        List<String> rows = new ArrayList<>(results.getFirst().bytesPerRequestByComponent().keySet());
+        for (String row : rows) {
+            md.append("\n| ").append(row).append(" |");
+            results.forEach(r -> md.append(' ').append(Math.round(r.bytesPerRequestByComponent().get(row))).append(" |"));
+        }
+        appendRow(md, "**retained heap total**", results, FootprintResult::bytesPerRequest);
+        appendRow(md, "MDC map (estimate, included above)", results, FootprintResult::mdcBytesPerRequestEstimate);
+        appendRow(md, "native thread stacks (NMT, -1 = off)", results, FootprintResult::nativeThreadStackBytesPerRequest);
+        appendRow(md, "allocated until parked", results, FootprintResult::allocatedBytesPerRequest);
+        appendRow(md, "stack chunks per request", results, FootprintResult::stackChunksPerRequest);
+        appendRow(md, "mean stack chunk size", results, FootprintResult::meanStackChunkBytes);
+        md.append("\n| requests held |");
+        results.forEach(r -> md.append(' ').append(r.held()).append(" |"));
+        return md.append('\n').toString();
+    }
+
+    private static void appendRow(StringBuilder md, String name, List<FootprintResult> results,
+                                  ToDoubleFunction<FootprintResult> value) {
+        md.append("\n| ").append(name).append(" |");
+        results.forEach(r -> md.append(' ').append(Math.round(value.applyAsDouble(r))).append(" |"));
+    }
+
+    /**
+     * Line protocol with {@link FootprintDriver}; {@code HELD} updates are read on a background thread.
+     */
+    private static final class DriverChannel {
+        private final PrintWriter commands;
+        private final BufferedReader output;
+        private final AtomicInteger held = new AtomicInteger();
+        private volatile String lastLine = "";
+
+        DriverChannel(Process process) {
+            this.commands = new PrintWriter(process.getOutputStream(), true, StandardCharsets.UTF_8);
+            this.output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        void send(String command) {
+            commands.println(command);
+        }
+
+        void await(String marker, int timeoutSeconds) throws IOException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            String line;
+            while ((line = output.readLine()) != null) {
+                if (line.equals(marker)) {
+                    return;
+                }
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+            }
+            throw new IllegalStateException("Driver did not report " + marker);
+        }
+
+        /**
+         * Waits until {@code expected} requests are held, or until the count stops growing for {@code stallNanos}.
+         */
+        int awaitHeld(int expected, long stallNanos) throws InterruptedException {
+            Thread.ofPlatform().daemon().start(() -> {
+                try {
+                    String line;
+                    while ((line = output.readLine()) != null) {
+                        lastLine = line;
+                        if (line.startsWith("HELD ")) {
+                            held.set(Integer.parseInt(line.substring(5).trim()));
+                        } else if (line.startsWith("ERROR")) {
+                            log.warn("Footprint driver: {}", line);
+                        }
+                    }
+                } catch (IOException ignored) {
+                    // driver exited
+                }
+            });
+            int last = -1;
+            long lastProgress = System.nanoTime();
+            while (held.get() < expected) {
+                int current = held.get();
+                if (current != last) {
+                    last = current;
+                    lastProgress = System.nanoTime();
+                } else if (System.nanoTime() - lastProgress > stallNanos) {
+                    log.warn("Stopped at {} of {} held requests (last driver output: {})", current, expected, lastLine);
+                    break;
+                }
+                TimeUnit.MILLISECONDS.sleep(100);
+            }
+            return held.get();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.web.opentelemetry.perf;
+
+import com.web.opentelemetry.stub.LatencyDistribution;
+import com.web.opentelemetry.stub.StubServer;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * /api/info under closed-loop load (a fixed number of virtual-thread callers, each sending its next request
+ * when the previous one completes) with the server-side response cache off, on, and on with callers that
+ * revalidate with If-None-Match. The downstream is a {@link StubServer}; the report includes how many calls
+ * reached it and how many body bytes the callers received.
+ * <pre>
+ * mvn -Pperf test -Dtest=ResponseCacheBenchmark
+ * </pre>
+ * Tunables: {@code perf.response-cache.requests} (default 20000), {@code perf.response-cache.concurrency}
+ * (default 64), {@code perf.response-cache.latency} (stub ms, default 20), {@code perf.response-cache.ttl}
+ * (default 1s).
+ */
+@Slf4j
+@Tag("perf")
+class ResponseCacheBenchmark {
+    private static final URI INFO = URI.create("http://localhost:8080/api/info");
+
+    private final int requests = Integer.getInteger("perf.response-cache.requests", 20_000);
+    private final int concurrency = Integer.getInteger("perf.response-cache.concurrency", 64);
+    private final Duration latency = Duration.ofMillis(Long.getLong("perf.response-cache.latency", 20));
+    private final String ttl = System.getProperty("perf.response-cache.ttl", "1s");
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void infoWithAndWithoutResponseCache() throws Exception {
+        Map<String, ModeReport> report = new LinkedHashMap<>();
+        try (StubServer stub = StubServer.start(StubServer.downstreamRoutes())) {
+            stub.route("/api/internal").latency(LatencyDistribution.constant(latency));
+            report.put("uncached", measure(stub, false, false));
+            report.put("cached", measure(stub, true, false));
+            report.put("cached-if-none-match", measure(stub, true, true));
+        }
+
+        Path out = Path.of(System.getProperty("perf.reports.dir", "target/perf-reports"));
+        Files.createDirectories(out);
+        LoadReportWriter.JSON.writeValue(out.resolve("response-cache.json").toFile(), report);
+        log.info("/api/info with and without the response cache: {}", report);
+
+        ModeReport uncached = report.get("uncached");
+        ModeReport cached = report.get("cached");
+        assertTrue(cached.downstreamCalls() < uncached.downstreamCalls() / 10,
+                "The cache should absorb most downstream calls");
+        assertTrue(cached.p50Millis() < uncached.p50Millis(), "Hits should not wait for the downstream");
+        assertTrue(report.get("cached-if-none-match").bodyBytes() < cached.bodyBytes(),
+                "Revalidating callers should mostly receive 304s without a body");
+    }
+
+    private ModeReport measure(StubServer stub, boolean cache, boolean conditional) throws Exception {
+        Map<String, Object> properties = new LinkedHashMap<>(stub.propertyOverrides());
+        properties.put("app.response-cache.enabled", cache);
+        properties.put("app.response-cache.routes[0].path", "/api/info");
+        properties.put("app.response-cache.routes[0].ttl", ttl);
+        properties.put("app.batching.info.enabled", false);
+        properties.put("logging.level.com.web.opentelemetry", "WARN");
+        properties.put("logging.level.org.apache.catalina.valves", "WARN");
+
+        try (ConfigurableApplicationContext context = PerfApplication.start(properties)) {
+            // JIT and connection warm-up, not measured
+            for (int i = 0; i < 200; i++) {
+                send(null);
+            }
+            long downstreamBefore = stub.route("/api/internal").requests();
+
+            Histogram latencies = new ConcurrentHistogram(TimeUnit.SECONDS.toMicros(60), 3);
+            AtomicInteger remaining = new AtomicInteger(requests);
+            AtomicInteger failed = new AtomicInteger();
+            AtomicInteger notModified = new AtomicInteger();
+            AtomicLong bodyBytes = new AtomicLong();
+            long start = System.nanoTime();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                List<Future<?>> callers = new ArrayList<>();
+                for (int i = 0; i < concurrency; i++) {
+                    callers.add(executor.submit(() -> {
+                        String etag = null;
+                        while (remaining.getAndDecrement() > 0) {
+                            long sent = System.nanoTime();
+                            HttpResponse<byte[]> response = send(conditional ? etag : null);
+                            latencies.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sent)));
+                            if (response == null || response.statusCode() >= 400) {
+                                failed.incrementAndGet();
+                                continue;
+                            }
+                            if (response.statusCode() == 304) {
+                                notModified.incrementAndGet();
+                            }
+                            bodyBytes.addAndGet(response.body().length);
+                            etag = response.headers().firstValue("ETag").orElse(etag);
+                        }
+                    }));
+                }
+                for (Future<?> caller : callers) {
+                    caller.get();
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return new ModeReport(requests / seconds, failed.get(), notModified.get(), bodyBytes.get(),
+                    stub.route("/api/internal").requests() - downstreamBefore,
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    private HttpResponse<byte[]> send(String etag) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(INFO).timeout(Duration.ofSeconds(10));
+        if (etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        try {
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * @param downstreamCalls calls that reached the stub during the measured run
+     * @param bodyBytes       response body bytes received by the callers
+     */
+    record ModeReport(double throughput, int failed, int notModified, long bodyBytes, long downstreamCalls,
+                      double p50Millis, double p99Millis, double maxMillis) {
+    }
+}
@@ -0,0 +1,97 @@
+package com.web.opentelemetry.perf;
+
+import com.web.opentelemetry.stub.LatencyDistribution;
+import com.web.opentelemetry.stub.StubServer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {virtual, platform} x {blocking, servlet-async} for the fan-out endpoints, under the same constant arrival rate.
+ * Blocking is {@code /api/info/async} and {@code /api/info/async-spring}, servlet-async their
+ * {@code -servlet} variants in ServletAsyncController. The downstream is a {@link StubServer} answering
+ * {@code /api/info} after a fixed latency, so the request thread's wait is the only thing that differs.
+ * <p>
+ * Platform mode runs with {@code server.tomcat.threads.max} and the task executor's core size set to
+ * {@code perf.servlet-async.platform-threads} (default 200): the blocking endpoints hold a Tomcat worker for the
+ * whole fan-out, the servlet-async ones only while dispatching.
+ * <pre>
+ * mvn -Pperf test -Dtest=ServletAsyncBenchmark -Dperf.servlet-async.rate=1000
+ * </pre>
+ * Other tunables: {@code perf.servlet-async.seconds}, {@code perf.servlet-async.latency} (ms, default 100).
+ * Results are summarised in {@code servlet-async-matrix.md} next to the per-run reports.
+ */
+@Slf4j
+@Tag("perf")
+class ServletAsyncBenchmark {
+
+    private static final List<String[]> ENDPOINTS = List.of(
+            new String[]{"fanout", "/api/info/async", "/api/info/async-servlet"},
+            new String[]{"fanout-spring", "/api/info/async-spring", "/api/info/async-spring-servlet"});
+
+    @Test
+    void threadModelByServletModel() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("perf.servlet-async.rate", "500"));
+        Duration duration = Duration.ofSeconds(Long.getLong("perf.servlet-async.seconds", 30));
+        int platformThreads = Integer.getInteger("perf.servlet-async.platform-threads", 200);
+        Duration latency = Duration.ofMillis(Long.getLong("perf.servlet-async.latency", 100));
+        Map<String, LoadResult.Summary> results = new LinkedHashMap<>();
+
+        try (StubServer stub = StubServer.start(StubServer.downstreamRoutes())) {
+            stub.route("/api/info").latency(LatencyDistribution.constant(latency));
+            for (boolean virtual : new boolean[]{true, false}) {
+                Map<String, Object> properties = new LinkedHashMap<>(stub.propertyOverrides());
+                properties.put("spring.threads.virtual.enabled", virtual);
+                properties.put("server.tomcat.threads.max", platformThreads);
+                properties.put("spring.task.execution.pool.core-size", platformThreads);
+                properties.put("spring.task.execution.pool.max-size", platformThreads);
+                // One downstream call per fan-out leg, as in /api/info/async
+                properties.put("app.batching.info.enabled", false);
+                properties.put("logging.level.com.web.opentelemetry", "WARN");
+                properties.put("logging.level.org.apache.catalina.valves", "WARN");
+
+                try (ConfigurableApplicationContext context = PerfApplication.start(properties)) {
+                    LoadHarness harness = LoadHarness.forBaseUri(URI.create("http://localhost:8080"));
+                    for (String[] endpoint : ENDPOINTS) {
+                        for (int servletAsync = 0; servletAsync <= 1; servletAsync++) {
+                            String name = endpoint[0] + (virtual ? "-virtual" : "-platform")
+                                    + (servletAsync == 1 ? "-servlet-async" : "-blocking");
+                            String path = endpoint[1 + servletAsync];
+                            // Warm up connections and JIT before measuring
+                            harness.run(LoadProfile.constantRate(name + "-warmup", path, rate, Duration.ofSeconds(5)));
+                            LoadHarness.Verdict verdict = harness.run(LoadProfile.constantRate(name, path, rate, duration));
+                            log.info("{}: {}", name, verdict.result().summary());
+                            results.put(name, verdict.result().toSummary());
+                            assertTrue(verdict.passed(), () -> String.join("\n", verdict.failures()));
+                        }
+                    }
+                }
+            }
+        }
+
+        Path reportsDir = Path.of(System.getProperty("perf.reports.dir", "target/perf-reports"));
+        Files.createDirectories(reportsDir);
+        Files.writeString(reportsDir.resolve("servlet-async-matrix.md"), markdown(rate, latency, results));
+    }
+
+    private static String markdown(double rate, Duration latency, Map<String, LoadResult.Summary> results) {
+        StringBuilder md = new StringBuilder("# Fan-out at ").append(Math.round(rate)).append(" rps, downstream ")
+                .append(latency.toMillis()).append(" ms\n\n")
+                .append("| run | p50 ms | p99 ms | rps | errors | dropped |\n|---|---|---|---|---|---|\n");
+        results.forEach((name, summary) -> md.append(String.format("| %s | %.1f | %.1f | %d | %d | %d |%n", name,
+                summary.correctedLatencyMillis().get("p50"), summary.correctedLatencyMillis().get("p99"),
+                Math.round(summary.throughput()), summary.errors(), summary.dropped())));
+        return md.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package com.web.opentelemetry.perf;
+
+import com.web.opentelemetry.stub.LatencyDistribution;
+import com.web.opentelemetry.stub.StubServer;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency of the first N requests to /api/info after the instance reports ready, with and without the
+ * downstream warm-up ({@code app.warmup.enabled}). The downstream is a {@link StubServer} on localhost.
+ * <p>
+ * Every round starts a fresh application context in this JVM, alternating the two modes, after one discarded
+ * context that warms the JIT for both. A fresh context means a fresh HttpClient: new selector thread, empty
+ * connection pool. The JVM's own InetAddress cache survives between contexts and localhost needs no DNS or TLS,
+ * so against a remote downstream the difference is larger than measured here.
+ * <pre>
+ * mvn -Pperf test -Dtest=WarmupFirstRequestsBenchmark
+ * </pre>
+ * Tunables: {@code perf.warmup.first-requests} (default 100), {@code perf.warmup.concurrency} (requests sent
+ * at once, default 10), {@code perf.warmup.rounds} (default 3), {@code perf.warmup.latency} (stub ms, default 5).
+ */
+@Slf4j
+@Tag("perf")
+class WarmupFirstRequestsBenchmark {
+    private static final URI INFO = URI.create("http://localhost:8080/api/info");
+    private static final URI READINESS = URI.create("http://localhost:9090/actuator/health/readiness");
+
+    private final int firstRequests = Integer.getInteger("perf.warmup.first-requests", 100);
+    private final int concurrency = Integer.getInteger("perf.warmup.concurrency", 10);
+    private final int rounds = Integer.getInteger("perf.warmup.rounds", 3);
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void firstRequestsWithAndWithoutWarmup() throws Exception {
+        Map<String, List<FirstRequestsSample>> samples = new LinkedHashMap<>();
+        samples.put("cold", new ArrayList<>());
+        samples.put("warmed", new ArrayList<>());
+
+        try (StubServer stub = StubServer.start(StubServer.downstreamRoutes())) {
+            stub.route("/api/internal").latency(LatencyDistribution.constant(
+                    Duration.ofMillis(Long.getLong("perf.warmup.latency", 5))));
+            measure(stub, false);
+            for (int round = 0; round < rounds; round++) {
+                samples.get("cold").add(measure(stub, false));
+                samples.get("warmed").add(measure(stub, true));
+            }
+        }
+
+        Map<String, FirstRequestsSample> report = new LinkedHashMap<>();
+        samples.forEach((mode, runs) -> {
+            runs.sort((a, b) -> Double.compare(a.p99Millis(), b.p99Millis()));
+            report.put(mode, runs.get(runs.size() / 2));
+        });
+        Path out = Path.of(System.getProperty("perf.reports.dir", "target/perf-reports"));
+        Files.createDirectories(out);
+        LoadReportWriter.JSON.writeValue(out.resolve("warmup-first-requests.json").toFile(), report);
+        log.info("First {} requests, median of {} rounds: {}", firstRequests, rounds, report);
+        report.values().forEach(sample -> assertTrue(sample.succeeded() > 0, "No request succeeded"));
+    }
+
+    private FirstRequestsSample measure(StubServer stub, boolean warmup) throws Exception {
+        Map<String, Object> properties = new LinkedHashMap<>(stub.propertyOverrides());
+        properties.put("app.warmup.enabled", warmup);
+        properties.put("app.batching.info.enabled", false);
+        properties.put("logging.level.com.web.opentelemetry", "WARN");
+        properties.put("logging.level.org.apache.catalina.valves", "WARN");
+
+        try (ConfigurableApplicationContext context = PerfApplication.start(properties)) {
+            long readyStart = System.nanoTime();
+            while (status(READINESS) != 200) {
+                Thread.sleep(5);
+            }
+            long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - readyStart);
+
+            Histogram latencies = new Histogram(TimeUnit.SECONDS.toMicros(60), 3);
+            int succeeded = 0;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int sent = 0; sent < firstRequests; sent += concurrency) {
+                    List<Future<Long>> wave = new ArrayList<>();
+                    for (int i = 0; i < Math.min(concurrency, firstRequests - sent); i++) {
+                        wave.add(executor.submit(() -> {
+                            long start = System.nanoTime();
+                            int status = status(INFO);
+                            long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+                            return status == 200 ? micros : -micros;
+                        }));
+                    }
+                    for (Future<Long> request : wave) {
+                        long micros = request.get();
+                        latencies.recordValue(Math.abs(micros));
+                        succeeded += micros > 0 ? 1 : 0;
+                    }
+                }
+            }
+            return new FirstRequestsSample(readyMillis, succeeded,
+                    latencies.getValueAtPercentile(50) / 1000.0,
+                    latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    private int status(URI uri) {
+        try {
+            return client.send(HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).build(),
+                    HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    /**
+     * @param readyMillis from context start-up returning to readiness UP, which includes the warm-up
+     */
+    record FirstRequestsSample(long readyMillis, int succeeded, double p50Millis, double p99Millis, double maxMillis) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.web.opentelemetry.stub;
+
+import com.web.opentelemetry.service.ExampleRestClientUsageService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The application's outbound calls go to the stub once its property overrides are applied.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class DownstreamStubIntegrationTest {
+
+    private static final StubServer STUB = StubServer.start(StubServer.downstreamRoutes());
+
+    @DynamicPropertySource
+    static void downstream(DynamicPropertyRegistry registry) {
+        STUB.propertyOverrides().forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    @AfterAll
+    static void stopStub() {
+        STUB.close();
+    }
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private ExampleRestClientUsageService exampleRestClientUsageService;
+
+    private String get(String path) throws Exception {
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, response.statusCode());
+            return response.body();
+        }
+    }
+
+    @Test
+    void testControllerAndServicesCallTheStub() throws Exception {
+        long internalBefore = STUB.route("/api/internal").requests();
+        get("/api/info");
+        assertEquals(internalBefore + 1, STUB.route("/api/internal").requests(), "/api/info should call the stub's /api/internal");
+
+        String fanOut = get("/api/info/async-spring");
+        assertFalse(fanOut.contains("Failed"), fanOut);
+        assertTrue(STUB.route("/api/info/batch").requests() + STUB.route("/api/info").requests() > 0,
+                "AsyncTaskService should call the stub, batched or not");
+
+        assertTrue(exampleRestClientUsageService.fetchRandomDogImage().contains("images.dog.ceo"));
+        assertEquals(1, STUB.route("/breeds/image/random").requests());
+    }
+
+    @Test
+    void testInjectedErrorsReachTheController() throws Exception {
+        StubRoute internal = STUB.route("/api/internal");
+        internal.errors(1.0, 503);
+        try {
+            assertEquals("Failed to fetch data from Google", get("/api/info"));
+        } finally {
+            internal.errors(0.0, 503);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.web.opentelemetry.stub;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * Service time added by a {@link StubRoute} before it starts to respond.
+ */
+public sealed interface LatencyDistribution {
+
+    LatencyDistribution NONE = new Constant(Duration.ZERO);
+
+    long sampleNanos(RandomGenerator random);
+
+    static LatencyDistribution constant(Duration latency) {
+        return new Constant(latency);
+    }
+
+    /**
+     * Right-skewed service time: half the samples are below {@code median}; {@code sigma} (of the underlying
+     * normal) sets the tail, e.g. 0.5 gives a p99 of about 3.2x the median.
+     */
+    static LatencyDistribution logNormal(Duration median, double sigma) {
+        return new LogNormal(median, sigma);
+    }
+
+    /**
+     * Tail spikes: {@code slow} with probability {@code slowProbability}, {@code fast} otherwise.
+     */
+    static LatencyDistribution bimodal(LatencyDistribution fast, LatencyDistribution slow, double slowProbability) {
+        return new Bimodal(fast, slow, slowProbability);
+    }
+
+    record Constant(Duration latency) implements LatencyDistribution {
+        @Override
+        public long sampleNanos(RandomGenerator random) {
+            return latency.toNanos();
+        }
+    }
+
+    record LogNormal(Duration median, double sigma) implements LatencyDistribution {
+        @Override
+        public long sampleNanos(RandomGenerator random) {
+            return (long) (median.toNanos() * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    record Bimodal(LatencyDistribution fast, LatencyDistribution slow, double slowProbability) implements LatencyDistribution {
+        @Override
+        public long sampleNanos(RandomGenerator random) {
+            return random.nextDouble() < slowProbability ? slow.sampleNanos(random) : fast.sampleNanos(random);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.web.opentelemetry.stub;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * One scripted endpoint of a {@link StubServer}. Behaviour can be changed while the server runs (e.g. raise
+ * the error rate half way through a benchmark); every request reads the current settings.
+ * <p>
+ * Per request, in order: wait for a latency sample, then either drop the connection (reset rate), answer
+ * with {@code errorStatus} (error rate), or answer normally, cutting the body short (truncate rate) and
+ * pacing it to {@code bytesPerSecond} when set. Random draws come from a seeded generator, so a run with the
+ * same arrival order replays the same latencies and faults.
+ */
+public final class StubRoute {
+
+    public record StubRequest(String method, URI uri, Map<String, List<String>> headers, byte[] body) {
+    }
+
+    private final String method;
+    private final String path;
+    private final ReentrantLock randomLock = new ReentrantLock();
+    private SplittableRandom random;
+
+    private volatile int status = 200;
+    private volatile Map<String, String> headers = Map.of();
+    private volatile Function<StubRequest, byte[]> responder = request -> new byte[0];
+    private volatile LatencyDistribution latency = LatencyDistribution.NONE;
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+    private volatile double resetRate;
+    private volatile double truncateRate;
+    private volatile long bytesPerSecond;
+
+    final LongAdder requests = new LongAdder();
+    final LongAdder errors = new LongAdder();
+    final LongAdder resets = new LongAdder();
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private StubRoute(String method, String path) {
+        this.method = method;
+        this.path = path;
+        this.random = new SplittableRandom(path.hashCode());
+    }
+
+    public static StubRoute get(String path) {
+        return new StubRoute("GET", path);
+    }
+
+    public static StubRoute post(String path) {
+        return new StubRoute("POST", path);
+    }
+
+    /**
+     * Route matching every method on {@code path}.
+     */
+    public static StubRoute any(String path) {
+        return new StubRoute(null, path);
+    }
+
+    public StubRoute status(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public StubRoute header(String name, String value) {
+        Map<String, String> copy = new LinkedHashMap<>(headers);
+        copy.put(name, value);
+        this.headers = Map.copyOf(copy);
+        return this;
+    }
+
+    public StubRoute body(String body) {
+        return body(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public StubRoute body(byte[] body) {
+        return respond(request -> body);
+    }
+
+    public StubRoute json(String json) {
+        return header("Content-Type", "application/json").body(json);
+    }
+
+    /**
+     * Body computed from the request, e.g. to echo ids back.
+     */
+    public StubRoute respond(Function<StubRequest, byte[]> responder) {
+        this.responder = responder;
+        return this;
+    }
+
+    public StubRoute latency(LatencyDistribution latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public StubRoute errors(double rate, int status) {
+        this.errorRate = rate;
+        this.errorStatus = status;
+        return this;
+    }
+
+    /**
+     * Fraction of requests whose connection is closed without any response.
+     */
+    public StubRoute resets(double rate) {
+        this.resetRate = rate;
+        return this;
+    }
+
+    /**
+     * Fraction of responses whose connection is closed half way through the announced body.
+     */
+    public StubRoute truncations(double rate) {
+        this.truncateRate = rate;
+        return this;
+    }
+
+    /**
+     * Paces response bodies to this rate; 0 writes them at once.
+     */
+    public StubRoute bandwidth(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+        return this;
+    }
+
+    public StubRoute seed(long seed) {
+        randomLock.lock();
+        try {
+            this.random = new SplittableRandom(seed);
+        } finally {
+            randomLock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Per-request generator split off the route's seeded one.
+     */
+    SplittableRandom nextRandom() {
+        randomLock.lock();
+        try {
+            return random.split();
+        } finally {
+            randomLock.unlock();
+        }
+    }
+
+    boolean matches(String requestMethod) {
+        return method == null || method.equalsIgnoreCase(requestMethod);
+    }
+
+    public String method() {
+        return method;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    int status() {
+        return status;
+    }
+
+    Map<String, String> headers() {
+        return headers;
+    }
+
+    Function<StubRequest, byte[]> responder() {
+        return responder;
+    }
+
+    LatencyDistribution latency() {
+        return latency;
+    }
+
+    double errorRate() {
+        return errorRate;
+    }
+
+    int errorStatus() {
+        return errorStatus;
+    }
+
+    double resetRate() {
+        return resetRate;
+    }
+
+    double truncateRate() {
+        return truncateRate;
+    }
+
+    long bytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public long requests() {
+        return requests.sum();
+    }
+
+    public long errorsInjected() {
+        return errors.sum();
+    }
+
+    public long resetsInjected() {
+        return resets.sum();
+    }
+
+    public int maxInFlight() {
+        return maxInFlight.get();
+    }
+}
@@ -0,0 +1,223 @@
+package com.web.opentelemetry.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.web.opentelemetry.model.InfoBatchItem;
+import com.web.opentelemetry.model.InfoBatchResult;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process downstream for deterministic performance tests: a JDK {@link HttpServer} on a virtual-thread
+ * executor serving scripted {@link StubRoute}s, so benchmarks of hedging, retries, limiters and fan-out do
+ * not depend on the network or measure the application calling itself.
+ * <pre>
+ * try (StubServer stub = StubServer.start(StubServer.downstreamRoutes())) {
+ *     stub.route("/api/internal").latency(LatencyDistribution.logNormal(Duration.ofMillis(20), 0.5));
+ *     Map&lt;String, Object&gt; properties = new LinkedHashMap&lt;&gt;(stub.propertyOverrides());
+ *     try (var app = PerfApplication.start(properties)) { ... }
+ * }
+ * </pre>
+ * {@link #propertyOverrides()} points ThreadsLogTraceController, AsyncTaskService, BatchingConfig and
+ * ExampleRestClientUsageService at the stub. Unknown paths get a 404.
+ */
+public final class StubServer implements AutoCloseable {
+
+    private static final JsonMapper JSON = JsonMapper.builder().build();
+    private static final String DOG_IMAGE_JSON =
+            "{\"message\":\"https://images.dog.ceo/breeds/hound-afghan/n02088094_1003.jpg\",\"status\":\"success\"}";
+    private static final long PACING_INTERVAL_NANOS = Duration.ofMillis(10).toNanos();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, List<StubRoute>> routes = new ConcurrentHashMap<>();
+
+    private StubServer(int port, List<StubRoute> initialRoutes) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 4096);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        initialRoutes.forEach(this::add);
+        server.start();
+    }
+
+    /**
+     * Starts on an ephemeral port.
+     */
+    public static StubServer start(List<StubRoute> routes) {
+        return start(0, routes);
+    }
+
+    public static StubServer start(int port, List<StubRoute> routes) {
+        try {
+            return new StubServer(port, routes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start stub server on port " + port, e);
+        }
+    }
+
+    /**
+     * The downstream endpoints the application calls, with fixed payloads and no latency:
+     * {@code GET /api/internal}, {@code GET /api/info}, {@code POST /api/info/batch} (one success per item)
+     * and the dog.ceo {@code GET /breeds/image/random}.
+     */
+    public static List<StubRoute> downstreamRoutes() {
+        return List.of(
+                StubRoute.get("/api/internal"),
+                StubRoute.get("/api/info").json("{\"status\":\"ok\"}"),
+                StubRoute.post("/api/info/batch").header("Content-Type", "application/json").respond(request -> {
+                    List<InfoBatchItem> items = JSON.readValue(request.body(), new TypeReference<List<InfoBatchItem>>() {});
+                    return JSON.writeValueAsBytes(items.stream()
+                            .map(item -> InfoBatchResult.success(item.id(), "{\"status\":\"ok\"}"))
+                            .toList());
+                }),
+                StubRoute.get("/breeds/image/random").json(DOG_IMAGE_JSON));
+    }
+
+    public StubRoute add(StubRoute route) {
+        routes.computeIfAbsent(route.path(), p -> new CopyOnWriteArrayList<>()).add(route);
+        return route;
+    }
+
+    /**
+     * The (first) route registered for {@code path}, to re-script it.
+     */
+    public StubRoute route(String path) {
+        List<StubRoute> candidates = routes.get(path);
+        if (candidates == null || candidates.isEmpty()) {
+            throw new IllegalArgumentException("No stub route for " + path);
+        }
+        return candidates.getFirst();
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + port();
+    }
+
+    /**
+     * Properties that send the application's outbound calls to this stub.
+     */
+    public Map<String, Object> propertyOverrides() {
+        return Map.of(
+                "app.downstream.base-url", baseUrl(),
+                "app.downstream.dog-api-url", baseUrl());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            StubRoute route = find(exchange);
+            if (route == null) {
+                exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            int inFlight = route.inFlight.incrementAndGet();
+            route.maxInFlight.accumulateAndGet(inFlight, Math::max);
+            route.requests.increment();
+            try {
+                serve(route, exchange);
+            } finally {
+                route.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    private StubRoute find(HttpExchange exchange) {
+        List<StubRoute> candidates = routes.get(exchange.getRequestURI().getPath());
+        if (candidates == null) {
+            return null;
+        }
+        for (StubRoute route : candidates) {
+            if (route.matches(exchange.getRequestMethod())) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private void serve(StubRoute route, HttpExchange exchange) throws IOException {
+        SplittableRandom random = route.nextRandom();
+        byte[] requestBody = exchange.getRequestBody().readAllBytes();
+        sleepNanos(route.latency().sampleNanos(random));
+
+        if (random.nextDouble() < route.resetRate()) {
+            // Closing the exchange before the response headers makes the server drop the connection
+            route.resets.increment();
+            return;
+        }
+        if (random.nextDouble() < route.errorRate()) {
+            route.errors.increment();
+            exchange.sendResponseHeaders(route.errorStatus(), -1);
+            return;
+        }
+
+        byte[] body = route.responder().apply(new StubRoute.StubRequest(exchange.getRequestMethod(),
+                exchange.getRequestURI(), exchange.getRequestHeaders(), requestBody));
+        route.headers().forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+        exchange.sendResponseHeaders(route.status(), body.length == 0 ? -1 : body.length);
+        if (body.length == 0) {
+            return;
+        }
+        int length = body.length;
+        if (random.nextDouble() < route.truncateRate()) {
+            route.resets.increment();
+            length = body.length / 2;
+        }
+        write(exchange.getResponseBody(), body, length, route.bytesPerSecond());
+    }
+
+    /**
+     * Writes the first {@code length} bytes, paced to {@code bytesPerSecond} in 10 ms slices when throttled.
+     */
+    private static void write(OutputStream out, byte[] body, int length, long bytesPerSecond) throws IOException {
+        if (bytesPerSecond <= 0) {
+            out.write(body, 0, length);
+            out.flush();
+            return;
+        }
+        int slice = (int) Math.max(1, bytesPerSecond * PACING_INTERVAL_NANOS / 1_000_000_000L);
+        long start = System.nanoTime();
+        for (int written = 0; written < length; ) {
+            int chunk = Math.min(slice, length - written);
+            out.write(body, written, chunk);
+            out.flush();
+            written += chunk;
+            long due = start + written * 1_000_000_000L / bytesPerSecond;
+            sleepNanos(due - System.nanoTime());
+        }
+    }
+
+    private static void sleepNanos(long nanos) throws IOException {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Stub interrupted", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.close();
+    }
+}
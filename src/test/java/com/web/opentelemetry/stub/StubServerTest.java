@@ -0,0 +1,126 @@
+package com.web.opentelemetry.stub;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StubServerTest {
+
+    private final StubServer stub = StubServer.start(StubServer.downstreamRoutes());
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @AfterEach
+    void stop() {
+        client.close();
+        stub.close();
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create(stub.baseUrl() + path)).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    void testServesFixedPayloads() throws Exception {
+        HttpResponse<String> dog = get("/breeds/image/random");
+        assertEquals(200, dog.statusCode());
+        assertTrue(dog.body().contains("\"status\":\"success\""));
+        assertEquals("application/json", dog.headers().firstValue("Content-Type").orElseThrow());
+
+        HttpResponse<String> batch = client.send(HttpRequest.newBuilder(URI.create(stub.baseUrl() + "/api/info/batch"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("[{\"id\":\"a\",\"requestId\":\"r1\"},{\"id\":\"b\",\"requestId\":\"r1\"}]"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertTrue(batch.body().contains("\"id\":\"a\"") && batch.body().contains("\"id\":\"b\""),
+                "Batch route should answer every item: " + batch.body());
+
+        assertEquals(404, get("/unknown").statusCode());
+        assertEquals(1, stub.route("/breeds/image/random").requests());
+    }
+
+    @Test
+    void testAddsConstantLatency() throws Exception {
+        stub.route("/api/internal").latency(LatencyDistribution.constant(Duration.ofMillis(200)));
+        long start = System.nanoTime();
+        assertEquals(200, get("/api/internal").statusCode());
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(200).toNanos(), "Response should wait for the latency sample");
+    }
+
+    @Test
+    void testInjectsErrors() throws Exception {
+        stub.route("/api/info").errors(1.0, 503);
+        assertEquals(503, get("/api/info").statusCode());
+        stub.route("/api/info").errors(0.0, 503);
+        assertEquals(200, get("/api/info").statusCode(), "Routes can be re-scripted while the server runs");
+        assertEquals(1, stub.route("/api/info").errorsInjected());
+    }
+
+    @Test
+    void testInjectsResetsAndTruncations() {
+        stub.route("/api/internal").resets(1.0);
+        assertThrows(IOException.class, () -> get("/api/internal"), "A reset drops the connection without a response");
+        assertTrue(stub.route("/api/internal").resetsInjected() >= 1);
+
+        stub.route("/breeds/image/random").truncations(1.0);
+        assertThrows(IOException.class, () -> get("/breeds/image/random"), "A truncated body ends before its Content-Length");
+    }
+
+    @Test
+    void testThrottlesBandwidth() throws Exception {
+        byte[] payload = new byte[10_000];
+        stub.add(StubRoute.get("/large").body(payload).bandwidth(20_000));
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(stub.baseUrl() + "/large")).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        assertEquals(10_000, response.body().length);
+        assertTrue(elapsedMillis >= 450, "10 KB at 20 KB/s should take about 500 ms, took " + elapsedMillis);
+    }
+
+    @Test
+    void testLatencyDistributions() {
+        SplittableRandom random = new SplittableRandom(1);
+        long[] logNormal = IntStream.range(0, 10_000)
+                .mapToLong(i -> LatencyDistribution.logNormal(Duration.ofMillis(20), 0.5).sampleNanos(random))
+                .sorted().toArray();
+        double medianMillis = logNormal[5_000] / 1e6;
+        double p99Millis = logNormal[9_900] / 1e6;
+        assertEquals(20.0, medianMillis, 1.0);
+        assertEquals(20.0 * Math.exp(0.5 * 2.326), p99Millis, 6.0, "p99 of a lognormal is median * e^(2.326 sigma)");
+
+        LatencyDistribution bimodal = LatencyDistribution.bimodal(LatencyDistribution.constant(Duration.ofMillis(5)),
+                LatencyDistribution.constant(Duration.ofMillis(500)), 0.02);
+        long slow = IntStream.range(0, 10_000).mapToLong(i -> bimodal.sampleNanos(random))
+                .filter(nanos -> nanos == Duration.ofMillis(500).toNanos()).count();
+        assertEquals(200, slow, 50, "About 2% of samples should be tail spikes");
+    }
+
+    @Test
+    void testSeededRoutesReplayTheSameFaults() throws Exception {
+        List<Integer> first = statuses(StubRoute.get("/flaky").errors(0.3, 500).seed(7));
+        List<Integer> second = statuses(StubRoute.get("/flaky2").errors(0.3, 500).seed(7));
+        assertEquals(first, second, "The same seed should inject errors on the same requests");
+        assertTrue(first.contains(500) && first.contains(200), "Errors should be mixed with successes: " + first);
+    }
+
+    private List<Integer> statuses(StubRoute route) throws Exception {
+        stub.add(route);
+        Integer[] statuses = new Integer[40];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = get(route.path()).statusCode();
+        }
+        return Arrays.asList(statuses);
+    }
+}